@@ -61,12 +61,18 @@ export const stocksApi = {
 
   // Add stock to watchlist
   addToWatchlist: (stockId, watchlistId) => {
-    return apiClient.post(`/stocks/${stockId}/watchlist/${watchlistId}`);
+    return apiClient.post(`/watchlists/${watchlistId}/items/${stockId}`);
   },
 
   // Remove stock from watchlist
   removeFromWatchlist: (stockId, watchlistId) => {
-    return apiClient.delete(`/stocks/${stockId}/watchlist/${watchlistId}`);
+    return apiClient.delete(`/watchlists/${watchlistId}/items/${stockId}`);
+  },
+
+  // Get watchlists with aggregate performance, most recently updated first
+  getWatchlists: (page = 0, size = 20) => {
+    const queryParams = new URLSearchParams({ page, size });
+    return apiClient.get(`/watchlists?${queryParams}`);
   },
 
   // Get exchanges
@@ -0,0 +1,9 @@
+-- Applied by the startupBenchmark task only, after the regular migrations: one stock with one candle, so
+-- the measured first request reads a real latest-candle snapshot (stock 1 of the fresh in-memory database)
+INSERT INTO stocks (symbol, name, exchange, created_at, updated_at)
+VALUES ('BENCH', 'Benchmark Inc', 'NYSE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+INSERT INTO price_candles (stock_id, timestamp, open_price, high_price, low_price, close_price, volume, timeframe,
+                           created_at)
+SELECT id, DATEADD('MINUTE', -5, CURRENT_TIMESTAMP), 100.00, 101.00, 99.50, 100.50, 1000, '5m', CURRENT_TIMESTAMP
+FROM stocks WHERE symbol = 'BENCH';
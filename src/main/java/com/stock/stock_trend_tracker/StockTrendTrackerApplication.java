@@ -2,10 +2,10 @@ package com.stock.stock_trend_tracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
-@EnableScheduling
+@EnableAsync
 public class StockTrendTrackerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,219 @@
+package com.stock.stock_trend_tracker.archive;
+
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import com.stock.stock_trend_tracker.domain.CandleArchiveBlock;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.repository.CandleArchiveBlockRepository;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Two-tier candle storage: recent candles stay one row per bar in {@code price_candles}; candles older
+ * than {@code stock.archive.hot-days} are packed into one {@link CandleArchiveBlock} per (stock, timeframe, day)
+ * by the retention job. Readers use {@link #findCandles} and never see which tier a candle came from.
+ */
+@Service
+public class CandleArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleArchiveService.class);
+    private static final int IN_LIST_CHUNK = 500;
+
+    @Autowired
+    private CandleArchiveBlockRepository candleArchiveBlockRepository;
+
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${stock.archive.hot-days:30}")
+    private int hotDays;
+
+    /**
+     * Move every full day older than the hot window from {@code price_candles} into archive blocks.
+     * Candles without a timeframe cannot be served by history queries and are dropped as before.
+     * @return Number of candles archived
+     */
+    public long archiveOldCandles() {
+        LocalDateTime cutoff = archiveCutoff();
+        List<Long> stockIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT stock_id FROM price_candles WHERE timestamp < ?", Long.class,
+                Timestamp.valueOf(cutoff));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long archived = 0;
+        long payloadBytes = 0;
+        for (Long stockId : stockIds) {
+            // One transaction per stock: its blocks are written and its rows deleted atomically
+            long[] totals = transaction.execute(status -> archiveStock(stockId, cutoff));
+            archived += totals[0];
+            payloadBytes += totals[1];
+        }
+        // Their hot candle counts went down
+        clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, stockIds);
+        logger.info("Archived {} candles of {} stocks older than {} ({} bytes, {} bytes/candle)", archived,
+                stockIds.size(), cutoff, payloadBytes, archived > 0 ? payloadBytes / archived : 0);
+        return archived;
+    }
+
+    /**
+     * Get candles of a stock and timeframe from both tiers, in ascending timestamp order
+     * @param stock The stock entity
+     * @param timeframe Timeframe label
+     * @param startTime Inclusive start
+     * @param endTime Exclusive end
+     * @return Candles in the range; archived ones are transient entities without an ID
+     */
+    public List<PriceCandle> findCandles(Stock stock, String timeframe, LocalDateTime startTime, LocalDateTime endTime) {
+        List<PriceCandle> hot = priceCandleRepository.findByStockIdAndTimeframeInRange(
+                stock.getId(), timeframe, startTime, endTime);
+        if (!startTime.isBefore(archiveCutoff())) {
+            // Blocks only ever hold days before the cutoff, so the range is entirely hot
+            return hot;
+        }
+
+        List<CandleArchiveBlock> blocks = candleArchiveBlockRepository.findBlocksInRange(
+                stock.getId(), timeframe, startTime.toLocalDate(), endTime.toLocalDate());
+        if (blocks.isEmpty()) {
+            return hot;
+        }
+
+        TreeMap<LocalDateTime, PriceCandle> merged = new TreeMap<>();
+        for (CandleArchiveBlock block : blocks) {
+            for (PriceCandle candle : CandleBlockCodec.decode(block.getPayload(), stock, timeframe)) {
+                if (!candle.getTimestamp().isBefore(startTime) && candle.getTimestamp().isBefore(endTime)) {
+                    merged.put(candle.getTimestamp(), candle);
+                }
+            }
+        }
+        for (PriceCandle candle : hot) {
+            merged.put(candle.getTimestamp(), candle);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Get the timeframes stored for a stock in either tier
+     * @param stockId Stock ID
+     * @return Distinct timeframe labels
+     */
+    public Set<String> findTimeframes(Long stockId) {
+        Set<String> timeframes = new TreeSet<>();
+        for (String timeframe : priceCandleRepository.findDistinctTimeframesByStockId(stockId)) {
+            if (timeframe != null) {
+                timeframes.add(timeframe);
+            }
+        }
+        timeframes.addAll(candleArchiveBlockRepository.findDistinctTimeframesByStockId(stockId));
+        return timeframes;
+    }
+
+    /**
+     * Start of the hot tier: every archived candle is older than this
+     */
+    public LocalDateTime archiveCutoff() {
+        return LocalDate.now().minusDays(hotDays).atStartOfDay();
+    }
+
+    private long[] archiveStock(Long stockId, LocalDateTime cutoff) {
+        Stock stock = stockRepository.getReferenceById(stockId);
+
+        // Rows come back grouped by timeframe then time, so each (timeframe, day) group is contiguous.
+        // They are locked until the stock's transaction ends, so a concurrent upsert cannot change a row
+        // between being packed and being deleted; rows inserted meanwhile are not read and not deleted.
+        Map<BlockKey, List<PriceCandle>> groups = new LinkedHashMap<>();
+        List<Long> readIds = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT timeframe, timestamp, open_price, high_price, low_price, close_price, volume, id " +
+                "FROM price_candles WHERE stock_id = ? AND timestamp < ? " +
+                "ORDER BY timeframe, timestamp FOR UPDATE",
+                rs -> {
+                    readIds.add(rs.getLong(8));
+                    if (rs.getString(1) == null) {
+                        return;
+                    }
+                    LocalDateTime timestamp = rs.getTimestamp(2).toLocalDateTime();
+                    PriceCandle candle = new PriceCandle(stock, timestamp, rs.getBigDecimal(3),
+                            rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6));
+                    long volume = rs.getLong(7);
+                    candle.setVolume(rs.wasNull() ? null : volume);
+                    candle.setTimeframe(rs.getString(1));
+                    groups.computeIfAbsent(new BlockKey(rs.getString(1), timestamp.toLocalDate()),
+                            key -> new ArrayList<>()).add(candle);
+                },
+                stockId, Timestamp.valueOf(cutoff));
+
+        long archived = 0;
+        long payloadBytes = 0;
+        List<CandleArchiveBlock> blocks = new ArrayList<>(groups.size());
+        for (Map.Entry<BlockKey, List<PriceCandle>> group : groups.entrySet()) {
+            BlockKey key = group.getKey();
+            CandleArchiveBlock block = candleArchiveBlockRepository.findBlock(stockId, key.timeframe(), key.date())
+                    .orElseGet(() -> new CandleArchiveBlock(stock, key.timeframe(), key.date()));
+
+            // Late or backfilled candles for a day that is already archived: re-pack the whole day
+            List<PriceCandle> candles = group.getValue();
+            if (block.getPayload() != null) {
+                TreeMap<LocalDateTime, PriceCandle> merged = new TreeMap<>();
+                for (PriceCandle candle : CandleBlockCodec.decode(block.getPayload(), stock, key.timeframe())) {
+                    merged.put(candle.getTimestamp(), candle);
+                }
+                for (PriceCandle candle : candles) {
+                    merged.put(candle.getTimestamp(), candle);
+                }
+                candles = new ArrayList<>(merged.values());
+            }
+
+            block.setPayload(CandleBlockCodec.encode(candles));
+            block.setCandleCount(candles.size());
+            block.setUpdatedAt(LocalDateTime.now());
+            blocks.add(block);
+            archived += group.getValue().size();
+            payloadBytes += block.getPayload().length;
+        }
+        candleArchiveBlockRepository.saveAll(blocks);
+
+        // Only the rows read above: they are now either in a block or (without a timeframe) dropped
+        for (int from = 0; from < readIds.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = readIds.subList(from, Math.min(from + IN_LIST_CHUNK, readIds.size()));
+            jdbcTemplate.update("DELETE FROM price_candles WHERE id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", chunk.toArray());
+        }
+        return new long[] {archived, payloadBytes};
+    }
+
+    private record BlockKey(String timeframe, LocalDate date) {
+    }
+}
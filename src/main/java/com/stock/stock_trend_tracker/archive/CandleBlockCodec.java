@@ -0,0 +1,299 @@
+package com.stock.stock_trend_tracker.archive;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compresses a run of candles (one stock, one timeframe, ascending timestamps) into a single block.
+ * <ul>
+ *   <li>Timestamps: first one in full, then delta-of-delta in Gorilla-style variable-width buckets,
+ *       so a regular series costs one bit per bar</li>
+ *   <li>Prices: fixed-point cents, each of open/high/low/close XOR-ed with the previous bar's close and
+ *       written with Gorilla leading/trailing-zero windows</li>
+ *   <li>Volumes: zigzag varints in a byte-aligned section after the bit stream (0 means null)</li>
+ * </ul>
+ * Timestamps are stored at second precision and prices at scale 2, matching the {@code price_candles} columns.
+ */
+public final class CandleBlockCodec {
+
+    private static final byte VERSION = 1;
+    private static final int PRICE_SCALE = 2;
+
+    private CandleBlockCodec() {
+    }
+
+    /**
+     * Encode candles into a block
+     * @param candles Candles in ascending timestamp order
+     * @return Encoded block
+     */
+    public static byte[] encode(List<PriceCandle> candles) {
+        BitOutput bits = new BitOutput(candles.size() * 12 + 16);
+        ByteArrayOutputStream volumes = new ByteArrayOutputStream(candles.size() * 4);
+
+        long previousTimestamp = 0;
+        long previousDelta = 0;
+        long previousClose = 0;
+        XorState open = new XorState();
+        XorState high = new XorState();
+        XorState low = new XorState();
+        XorState close = new XorState();
+
+        for (int i = 0; i < candles.size(); i++) {
+            PriceCandle candle = candles.get(i);
+            long timestamp = candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            if (i == 0) {
+                bits.write(timestamp, 64);
+            } else {
+                long delta = timestamp - previousTimestamp;
+                writeDeltaOfDelta(bits, delta - previousDelta);
+                previousDelta = delta;
+            }
+            previousTimestamp = timestamp;
+
+            long closeCents = toCents(candle.getClosePrice());
+            open.write(bits, toCents(candle.getOpenPrice()) ^ previousClose);
+            high.write(bits, toCents(candle.getHighPrice()) ^ previousClose);
+            low.write(bits, toCents(candle.getLowPrice()) ^ previousClose);
+            close.write(bits, closeCents ^ previousClose);
+            previousClose = closeCents;
+
+            writeVarint(volumes, candle.getVolume() == null ? 0 : zigzag(candle.getVolume()) + 1);
+        }
+
+        byte[] bitBytes = bits.toByteArray();
+        ByteArrayOutputStream block = new ByteArrayOutputStream(bitBytes.length + volumes.size() + 12);
+        block.write(VERSION);
+        writeVarint(block, candles.size());
+        writeVarint(block, bitBytes.length);
+        block.writeBytes(bitBytes);
+        block.writeBytes(volumes.toByteArray());
+        return block.toByteArray();
+    }
+
+    /**
+     * Decode a block back into (transient) candles
+     * @param block Encoded block
+     * @param stock Stock the candles belong to
+     * @param timeframe Timeframe label of the block
+     * @return Candles in ascending timestamp order
+     */
+    public static List<PriceCandle> decode(byte[] block, Stock stock, String timeframe) {
+        if (block.length == 0 || block[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported candle block version");
+        }
+        int[] position = {1};
+        int count = (int) readVarint(block, position);
+        int bitLength = (int) readVarint(block, position);
+        BitInput bits = new BitInput(block, position[0], bitLength);
+        position[0] += bitLength;
+
+        List<PriceCandle> candles = new ArrayList<>(count);
+        long timestamp = 0;
+        long delta = 0;
+        long previousClose = 0;
+        XorState open = new XorState();
+        XorState high = new XorState();
+        XorState low = new XorState();
+        XorState close = new XorState();
+
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                timestamp = bits.read(64);
+            } else {
+                delta += readDeltaOfDelta(bits);
+                timestamp += delta;
+            }
+            long openCents = open.read(bits) ^ previousClose;
+            long highCents = high.read(bits) ^ previousClose;
+            long lowCents = low.read(bits) ^ previousClose;
+            long closeCents = close.read(bits) ^ previousClose;
+            previousClose = closeCents;
+
+            long volume = readVarint(block, position);
+
+            PriceCandle candle = new PriceCandle(stock, LocalDateTime.ofEpochSecond(timestamp, 0, ZoneOffset.UTC),
+                    fromCents(openCents), fromCents(highCents), fromCents(lowCents), fromCents(closeCents));
+            candle.setVolume(volume == 0 ? null : unzigzag(volume - 1));
+            candle.setTimeframe(timeframe);
+            candles.add(candle);
+        }
+        return candles;
+    }
+
+    private static void writeDeltaOfDelta(BitOutput bits, long deltaOfDelta) {
+        long z = zigzag(deltaOfDelta);
+        if (z == 0) {
+            bits.write(0b0, 1);
+        } else if (z < 1 << 7) {
+            bits.write(0b10, 2);
+            bits.write(z, 7);
+        } else if (z < 1 << 9) {
+            bits.write(0b110, 3);
+            bits.write(z, 9);
+        } else if (z < 1 << 12) {
+            bits.write(0b1110, 4);
+            bits.write(z, 12);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(z, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitInput bits) {
+        if (bits.read(1) == 0) {
+            return 0;
+        }
+        if (bits.read(1) == 0) {
+            return unzigzag(bits.read(7));
+        }
+        if (bits.read(1) == 0) {
+            return unzigzag(bits.read(9));
+        }
+        if (bits.read(1) == 0) {
+            return unzigzag(bits.read(12));
+        }
+        return unzigzag(bits.read(64));
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, PRICE_SCALE);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] in, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in candle block");
+    }
+
+    /**
+     * Gorilla XOR encoding state of one series: the leading/trailing-zero window of the last written value
+     */
+    private static final class XorState {
+        private int leading = -1;
+        private int trailing;
+
+        void write(BitOutput bits, long xor) {
+            if (xor == 0) {
+                bits.write(0b0, 1);
+                return;
+            }
+            int lead = Long.numberOfLeadingZeros(xor);
+            int trail = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lead >= leading && trail >= trailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> trailing, 64 - leading - trailing);
+                return;
+            }
+            int meaningful = 64 - lead - trail;
+            bits.write(0b11, 2);
+            bits.write(lead, 6);
+            bits.write(meaningful - 1, 6);
+            bits.write(xor >>> trail, meaningful);
+            leading = lead;
+            trailing = trail;
+        }
+
+        long read(BitInput bits) {
+            if (bits.read(1) == 0) {
+                return 0;
+            }
+            if (bits.read(1) == 0) {
+                return bits.read(64 - leading - trailing) << trailing;
+            }
+            leading = (int) bits.read(6);
+            int meaningful = (int) bits.read(6) + 1;
+            trailing = 64 - leading - meaningful;
+            return bits.read(meaningful) << trailing;
+        }
+    }
+
+    private static final class BitOutput {
+        private byte[] buffer;
+        private long bitCount;
+
+        BitOutput(int initialBytes) {
+            buffer = new byte[Math.max(initialBytes, 16)];
+        }
+
+        /**
+         * Append the low {@code count} bits of {@code value}, most significant first
+         */
+        void write(long value, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                int byteIndex = (int) (bitCount >>> 3);
+                if (byteIndex == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                if (((value >>> i) & 1) != 0) {
+                    buffer[byteIndex] |= (byte) (0x80 >>> (bitCount & 7));
+                }
+                bitCount++;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, (int) ((bitCount + 7) >>> 3));
+        }
+    }
+
+    private static final class BitInput {
+        private final byte[] buffer;
+        private final long limit;
+        private long position;
+
+        BitInput(byte[] buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.position = (long) offset << 3;
+            this.limit = (long) (offset + length) << 3;
+        }
+
+        long read(int count) {
+            if (position + count > limit) {
+                throw new IllegalArgumentException("Truncated candle block");
+            }
+            long value = 0;
+            for (int i = 0; i < count; i++) {
+                int bit = (buffer[(int) (position >>> 3)] >>> (7 - (position & 7))) & 1;
+                value = (value << 1) | bit;
+                position++;
+            }
+            return value;
+        }
+    }
+}
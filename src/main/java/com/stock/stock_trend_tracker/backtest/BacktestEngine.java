@@ -0,0 +1,143 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a {@link Strategy} over bar series. Positions decided at a bar's close earn the next bar's
+ * close-to-close return; every entry and exit costs {@code costBps} of equity, and any open position is
+ * closed at the last bar.
+ */
+public final class BacktestEngine {
+
+    private static final int SERIES_PER_TASK = 8;
+
+    private BacktestEngine() {}
+
+    /**
+     * Start evaluating a strategy on many series in parallel; the caller can load the next batch meanwhile
+     * @param series Bar series, one per stock
+     * @param strategy Strategy to run on each series
+     * @param costBps Cost per entry or exit in basis points
+     * @param initialCapital Capital per stock used to express PnL
+     * @param pool Pool the series are split across
+     * @param completed Incremented once per evaluated series
+     * @return Task yielding results in the order of {@code series}
+     */
+    public static ForkJoinTask<StockBacktestResult[]> submitAll(BarSeries[] series, Strategy strategy, double costBps,
+                                                                double initialCapital, ForkJoinPool pool,
+                                                                AtomicLong completed) {
+        return pool.submit(() -> {
+            StockBacktestResult[] results = new StockBacktestResult[series.length];
+            new SeriesTask(series, strategy, costBps / 10_000, initialCapital, results, completed,
+                    0, series.length).invoke();
+            return results;
+        });
+    }
+
+    /**
+     * Evaluate a strategy on one series
+     */
+    public static StockBacktestResult run(BarSeries bars, Strategy strategy, double costBps, double initialCapital) {
+        return evaluate(bars, strategy, costBps / 10_000, initialCapital);
+    }
+
+    private static StockBacktestResult evaluate(BarSeries bars, Strategy strategy, double cost, double initialCapital) {
+        int n = bars.length();
+        byte[] positions = new byte[n];
+        strategy.positions(bars, positions);
+
+        double equity = 1.0;
+        double peak = 1.0;
+        double maxDrawdown = 0;
+        double entryEquity = 1.0;
+        double bestTrade = 0;
+        double worstTrade = 0;
+        int trades = 0;
+        int wins = 0;
+        int barsInMarket = 0;
+        int held = 0;
+        for (int i = 0; i < n; i++) {
+            if (held != 0) {
+                double previous = bars.close(i - 1);
+                if (previous > 0) {
+                    equity *= 1 + held * (bars.close(i) / previous - 1);
+                }
+                barsInMarket++;
+            }
+
+            int target = i == n - 1 ? 0 : Integer.signum(positions[i]);
+            if (target != held) {
+                if (held != 0) {
+                    equity *= 1 - cost;
+                    double tradeReturn = equity / entryEquity - 1;
+                    if (trades == 0 || tradeReturn > bestTrade) {
+                        bestTrade = tradeReturn;
+                    }
+                    if (trades == 0 || tradeReturn < worstTrade) {
+                        worstTrade = tradeReturn;
+                    }
+                    trades++;
+                    if (tradeReturn > 0) {
+                        wins++;
+                    }
+                }
+                if (target != 0) {
+                    entryEquity = equity;
+                    equity *= 1 - cost;
+                }
+                held = target;
+            }
+
+            peak = Math.max(peak, equity);
+            maxDrawdown = Math.max(maxDrawdown, 1 - equity / peak);
+        }
+
+        double totalReturn = equity - 1;
+        return new StockBacktestResult(bars.stockId(), bars.symbol(), n, trades, wins, totalReturn,
+                totalReturn * initialCapital, maxDrawdown, n > 1 ? (double) barsInMarket / (n - 1) : 0,
+                bestTrade, worstTrade);
+    }
+
+    /**
+     * Evaluates a slice of the series, splitting until the slice is small
+     */
+    private static class SeriesTask extends RecursiveAction {
+        private final BarSeries[] series;
+        private final Strategy strategy;
+        private final double cost;
+        private final double initialCapital;
+        private final StockBacktestResult[] results;
+        private final AtomicLong completed;
+        private final int from;
+        private final int to;
+
+        SeriesTask(BarSeries[] series, Strategy strategy, double cost, double initialCapital,
+                   StockBacktestResult[] results, AtomicLong completed, int from, int to) {
+            this.series = series;
+            this.strategy = strategy;
+            this.cost = cost;
+            this.initialCapital = initialCapital;
+            this.results = results;
+            this.completed = completed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SERIES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    results[i] = evaluate(series[i], strategy, cost, initialCapital);
+                    completed.incrementAndGet();
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SeriesTask(series, strategy, cost, initialCapital, results, completed, from, mid),
+                      new SeriesTask(series, strategy, cost, initialCapital, results, completed, mid, to));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parameters of a backtest run; null fields fall back to defaults
+ * @param strategy Strategy name (see {@link Strategies})
+ * @param params Strategy parameters
+ * @param timeframe Candle timeframe to replay
+ * @param start Inclusive start (defaults to one year before end)
+ * @param end Exclusive end (defaults to now)
+ * @param stockIds Stocks to test; all stocks (of the exchange, if given) when empty
+ * @param exchange Restrict the universe to one exchange
+ * @param costBps Cost charged on every entry and exit, in basis points of equity
+ * @param initialCapital Capital allocated to each stock, used to express PnL
+ */
+public record BacktestRequest(String strategy, Map<String, Double> params, String timeframe, LocalDateTime start,
+                              LocalDateTime end, List<Long> stockIds, String exchange, Double costBps,
+                              Double initialCapital) {
+
+    public BacktestRequest withDefaults() {
+        LocalDateTime resolvedEnd = end != null ? end : LocalDateTime.now();
+        return new BacktestRequest(
+                strategy != null ? strategy : Strategies.SMA_CROSSOVER,
+                params != null ? params : Map.of(),
+                timeframe != null ? timeframe : "5m",
+                start != null ? start : resolvedEnd.minusYears(1),
+                resolvedEnd,
+                stockIds != null ? stockIds : List.of(),
+                exchange,
+                costBps != null ? costBps : 5.0,
+                initialCapital != null ? initialCapital : 10_000.0);
+    }
+}
@@ -0,0 +1,294 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.archive.CandleBlockCodec;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.service.RunRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs backtests as background jobs. The universe is processed in chunks of stocks: each chunk's candles are
+ * streamed from both storage tiers into primitive {@link BarSeries} with one query per tier, then evaluated
+ * on a fork/join pool while the next chunk loads, so memory stays bounded by the chunk size.
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CandleArchiveService candleArchiveService;
+
+    @Value("${stock.backtest.threads:0}")
+    private int threads;
+
+    @Value("${stock.backtest.chunk-size:250}")
+    private int chunkSize;
+
+    @Value("${stock.backtest.max-runs:20}")
+    private int maxRuns;
+
+    private RunRegistry<Run> runs;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "backtest-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        runs = new RunRegistry<>(maxRuns, run -> run.finishedAt != null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Queue a backtest; runs execute one at a time
+     * @param request Run parameters
+     * @return Initial status of the run
+     * @throws IllegalArgumentException if the strategy or any parameter is invalid
+     */
+    public BacktestStatus submit(BacktestRequest request) {
+        BacktestRequest resolved = request.withDefaults();
+        Strategy strategy = Strategies.create(resolved.strategy(), resolved.params());
+        if (Timeframes.toDuration(resolved.timeframe()).isEmpty() || !resolved.start().isBefore(resolved.end())
+                || resolved.costBps() < 0 || resolved.initialCapital() <= 0) {
+            throw new IllegalArgumentException("Backtest needs a valid timeframe, start before end, "
+                    + "non-negative costs and positive capital");
+        }
+        Run run = new Run(UUID.randomUUID().toString(), resolved, strategy);
+        runs.add(run.id, run);
+        runner.submit(() -> execute(run));
+        return run.status();
+    }
+
+    public Optional<BacktestStatus> getStatus(String id) {
+        return run(id).map(Run::status);
+    }
+
+    public List<BacktestStatus> getRuns() {
+        return runs.list().stream().map(Run::status).toList();
+    }
+
+    /**
+     * Get the per-stock results of a completed run, best total return first
+     * @param id Run ID
+     * @return Results, or empty if the run does not exist or has not completed
+     */
+    public Optional<List<StockBacktestResult>> getResults(String id) {
+        return run(id).map(run -> run.results);
+    }
+
+    private Optional<Run> run(String id) {
+        return runs.get(id);
+    }
+
+    private void execute(Run run) {
+        BacktestRequest request = run.request;
+        run.state = BacktestStatus.State.RUNNING;
+        run.startedAt = LocalDateTime.now();
+        logger.info("Starting backtest {}: {}", run.id, request);
+
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        try {
+            Map<Long, String> universe = resolveUniverse(request);
+            run.stocksTotal = universe.size();
+            List<Long> ids = new ArrayList<>(universe.keySet());
+
+            List<StockBacktestResult> results = new ArrayList<>(ids.size());
+            long runStarted = System.nanoTime();
+            long loadNanos = 0;
+            ForkJoinTask<StockBacktestResult[]> pending = null;
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                long started = System.nanoTime();
+                BarSeries[] series = load(chunk, universe, request);
+                loadNanos += System.nanoTime() - started;
+                run.stocksCompleted.addAndGet(chunk.size() - series.length);
+
+                if (pending != null) {
+                    results.addAll(Arrays.asList(pending.join()));
+                }
+                pending = BacktestEngine.submitAll(series, run.strategy, request.costBps(),
+                        request.initialCapital(), pool, run.stocksCompleted);
+            }
+            if (pending != null) {
+                results.addAll(Arrays.asList(pending.join()));
+            }
+
+            results.sort(Comparator.comparingDouble(StockBacktestResult::totalReturn).reversed());
+            run.summary = summarize(results, loadNanos / 1_000_000, (System.nanoTime() - runStarted) / 1_000_000);
+            run.results = List.copyOf(results);
+            run.state = BacktestStatus.State.COMPLETED;
+        } catch (Exception e) {
+            logger.error("Backtest {} failed", run.id, e);
+            run.error = e.getMessage();
+            run.state = BacktestStatus.State.FAILED;
+        } finally {
+            pool.shutdown();
+            run.finishedAt = LocalDateTime.now();
+            logger.info("Backtest {} {}: {}", run.id, run.state, run.summary);
+            // Finished runs beyond stock.backtest.max-runs go, with their results
+            runs.evictFinished();
+        }
+    }
+
+    /**
+     * Stock IDs and symbols of the run's universe, in ID order
+     */
+    private Map<Long, String> resolveUniverse(BacktestRequest request) {
+        Map<Long, String> universe = new LinkedHashMap<>();
+        String sql = request.exchange() != null
+                ? "SELECT id, symbol FROM stocks WHERE exchange = ? ORDER BY id"
+                : "SELECT id, symbol FROM stocks ORDER BY id";
+        Object[] args = request.exchange() != null ? new Object[] {request.exchange()} : new Object[0];
+        jdbcTemplate.query(sql, rs -> { universe.put(rs.getLong(1), rs.getString(2)); }, args);
+        if (!request.stockIds().isEmpty()) {
+            universe.keySet().retainAll(new HashSet<>(request.stockIds()));
+        }
+        return universe;
+    }
+
+    /**
+     * Stream a chunk's candles from the archive blocks and then the hot table into bar series.
+     * Stocks with fewer than two bars in the range are left out.
+     */
+    private BarSeries[] load(List<Long> chunk, Map<Long, String> universe, BacktestRequest request) {
+        Map<Long, BarSeries.Builder> builders = new LinkedHashMap<>();
+        chunk.forEach(id -> builders.put(id, new BarSeries.Builder(id, universe.get(id))));
+        String inList = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        LocalDateTime start = request.start();
+        LocalDateTime end = request.end();
+
+        if (start.isBefore(candleArchiveService.archiveCutoff())) {
+            jdbcTemplate.query(
+                    "SELECT stock_id, payload FROM candle_archive_blocks " +
+                    "WHERE timeframe = ? AND block_date BETWEEN ? AND ? AND stock_id IN (" + inList + ") " +
+                    "ORDER BY stock_id, block_date",
+                    rs -> {
+                        BarSeries.Builder builder = builders.get(rs.getLong(1));
+                        for (PriceCandle candle : CandleBlockCodec.decode(rs.getBytes(2), null, request.timeframe())) {
+                            LocalDateTime timestamp = candle.getTimestamp();
+                            if (!timestamp.isBefore(start) && timestamp.isBefore(end)) {
+                                builder.add(timestamp.toEpochSecond(ZoneOffset.UTC),
+                                        candle.getOpenPrice().doubleValue(), candle.getHighPrice().doubleValue(),
+                                        candle.getLowPrice().doubleValue(), candle.getClosePrice().doubleValue(),
+                                        candle.getVolume() != null ? candle.getVolume() : 0);
+                            }
+                        }
+                    },
+                    arguments(chunk, request.timeframe(), Date.valueOf(start.toLocalDate()),
+                            Date.valueOf(end.toLocalDate())));
+        }
+
+        jdbcTemplate.query(
+                "SELECT stock_id, timestamp, open_price, high_price, low_price, close_price, volume " +
+                "FROM price_candles WHERE timeframe = ? AND timestamp >= ? AND timestamp < ? " +
+                "AND stock_id IN (" + inList + ") ORDER BY stock_id, timestamp",
+                rs -> {
+                    builders.get(rs.getLong(1)).add(rs.getTimestamp(2).toLocalDateTime().toEpochSecond(ZoneOffset.UTC),
+                            rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6), rs.getLong(7));
+                },
+                arguments(chunk, request.timeframe(), Timestamp.valueOf(start), Timestamp.valueOf(end)));
+
+        return builders.values().stream()
+                .filter(builder -> builder.size() > 1)
+                .map(BarSeries.Builder::build)
+                .toArray(BarSeries[]::new);
+    }
+
+    private static Object[] arguments(List<Long> chunk, Object... leading) {
+        Object[] args = Arrays.copyOf(leading, leading.length + chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            args[leading.length + i] = chunk.get(i);
+        }
+        return args;
+    }
+
+    private static BacktestSummary summarize(List<StockBacktestResult> results, long loadMillis, long elapsedMillis) {
+        int n = results.size();
+        long bars = 0;
+        long trades = 0;
+        long wins = 0;
+        double pnl = 0;
+        double returns = 0;
+        double drawdowns = 0;
+        double worstDrawdown = 0;
+        double[] sortedReturns = new double[n];
+        for (int i = 0; i < n; i++) {
+            StockBacktestResult result = results.get(i);
+            bars += result.bars();
+            trades += result.trades();
+            wins += result.winningTrades();
+            pnl += result.pnl();
+            returns += result.totalReturn();
+            drawdowns += result.maxDrawdown();
+            worstDrawdown = Math.max(worstDrawdown, result.maxDrawdown());
+            sortedReturns[i] = result.totalReturn();
+        }
+        Arrays.sort(sortedReturns);
+        double median = n == 0 ? 0 : n % 2 == 1 ? sortedReturns[n / 2]
+                : (sortedReturns[n / 2 - 1] + sortedReturns[n / 2]) / 2;
+        return new BacktestSummary(n, bars, trades, trades > 0 ? (double) wins / trades : 0, pnl,
+                n > 0 ? returns / n : 0, median, n > 0 ? drawdowns / n : 0, worstDrawdown, loadMillis, elapsedMillis);
+    }
+
+    private static class Run {
+        private final String id;
+        private final BacktestRequest request;
+        private final Strategy strategy;
+        private final AtomicLong stocksCompleted = new AtomicLong();
+        private volatile long stocksTotal;
+        private volatile BacktestStatus.State state = BacktestStatus.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile BacktestSummary summary;
+        private volatile List<StockBacktestResult> results;
+        private volatile String error;
+
+        Run(String id, BacktestRequest request, Strategy strategy) {
+            this.id = id;
+            this.request = request;
+            this.strategy = strategy;
+        }
+
+        BacktestStatus status() {
+            return new BacktestStatus(id, request, state, stocksCompleted.get(), stocksTotal, startedAt, finishedAt,
+                    summary, error);
+        }
+    }
+}
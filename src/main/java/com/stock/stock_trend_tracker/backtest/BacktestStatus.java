@@ -0,0 +1,18 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a backtest run; the summary is set once the run completes
+ */
+public record BacktestStatus(String id, BacktestRequest request, State state, long stocksCompleted,
+                             long stocksTotal, LocalDateTime startedAt, LocalDateTime finishedAt,
+                             BacktestSummary summary, String error) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,12 @@
+package com.stock.stock_trend_tracker.backtest;
+
+/**
+ * Universe-wide aggregates of a backtest run; returns are equal-weighted across stocks
+ * @param winRate Winning trades over all closed trades
+ * @param loadMillis Time spent streaming candles into bar series
+ * @param elapsedMillis Wall-clock time of the run; evaluation of one chunk overlaps loading of the next
+ */
+public record BacktestSummary(int stocksTested, long barsProcessed, long trades, double winRate, double totalPnl,
+                              double averageReturn, double medianReturn, double averageMaxDrawdown,
+                              double worstMaxDrawdown, long loadMillis, long elapsedMillis) {
+}
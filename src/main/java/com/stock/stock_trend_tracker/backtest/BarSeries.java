@@ -0,0 +1,160 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import java.util.Arrays;
+
+/**
+ * One stock's candles as primitive columns in ascending time order, the input of every {@link Strategy}
+ */
+public final class BarSeries {
+
+    private final long stockId;
+    private final String symbol;
+    private final long[] times;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    public BarSeries(long stockId, String symbol, long[] times, double[] open, double[] high, double[] low,
+                     double[] close, long[] volume) {
+        int n = times.length;
+        if (open.length != n || high.length != n || low.length != n || close.length != n || volume.length != n) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+        this.stockId = stockId;
+        this.symbol = symbol;
+        this.times = times;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public long stockId() {
+        return stockId;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public int length() {
+        return times.length;
+    }
+
+    /**
+     * Bar start as epoch seconds (UTC)
+     */
+    public long time(int i) {
+        return times[i];
+    }
+
+    public double open(int i) {
+        return open[i];
+    }
+
+    public double high(int i) {
+        return high[i];
+    }
+
+    public double low(int i) {
+        return low[i];
+    }
+
+    public double close(int i) {
+        return close[i];
+    }
+
+    public long volume(int i) {
+        return volume[i];
+    }
+
+    /**
+     * Accumulates bars into growable primitive columns. Bars normally arrive in order (archived days first,
+     * then hot rows); if not, {@link #build} sorts them and keeps the last bar added for each timestamp.
+     */
+    public static final class Builder {
+        private final long stockId;
+        private final String symbol;
+        private long[] times = new long[256];
+        private double[] open = new double[256];
+        private double[] high = new double[256];
+        private double[] low = new double[256];
+        private double[] close = new double[256];
+        private long[] volume = new long[256];
+        private int size;
+        private boolean ordered = true;
+
+        public Builder(long stockId, String symbol) {
+            this.stockId = stockId;
+            this.symbol = symbol;
+        }
+
+        public void add(long time, double o, double h, double l, double c, long v) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+            if (size > 0 && time <= times[size - 1]) {
+                ordered = false;
+            }
+            times[size] = time;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public BarSeries build() {
+            if (ordered) {
+                return new BarSeries(stockId, symbol, Arrays.copyOf(times, size), Arrays.copyOf(open, size),
+                        Arrays.copyOf(high, size), Arrays.copyOf(low, size), Arrays.copyOf(close, size),
+                        Arrays.copyOf(volume, size));
+            }
+
+            // Stable sort keeps insertion order among equal timestamps, so the last of each run wins
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(times[a], times[b]));
+            int n = 0;
+            int[] keep = new int[size];
+            for (int i = 0; i < size; i++) {
+                if (i + 1 < size && times[order[i + 1]] == times[order[i]]) {
+                    continue;
+                }
+                keep[n++] = order[i];
+            }
+            long[] t = new long[n];
+            double[] o = new double[n];
+            double[] h = new double[n];
+            double[] l = new double[n];
+            double[] c = new double[n];
+            long[] v = new long[n];
+            for (int i = 0; i < n; i++) {
+                int k = keep[i];
+                t[i] = times[k];
+                o[i] = open[k];
+                h[i] = high[k];
+                l[i] = low[k];
+                c[i] = close[k];
+                v[i] = volume[k];
+            }
+            return new BarSeries(stockId, symbol, t, o, h, l, c, v);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.stock.stock_trend_tracker.backtest;
+
+/**
+ * Donchian channel breakout: go long when the close exceeds the highest high of the previous
+ * {@code entryLookback} bars and exit when it falls below the lowest low of the previous {@code exitLookback} bars
+ */
+public class BreakoutStrategy implements Strategy {
+
+    private final int entryLookback;
+    private final int exitLookback;
+
+    public BreakoutStrategy(int entryLookback, int exitLookback) {
+        if (entryLookback < 1 || exitLookback < 1) {
+            throw new IllegalArgumentException("Breakout lookbacks must be positive");
+        }
+        this.entryLookback = entryLookback;
+        this.exitLookback = exitLookback;
+    }
+
+    @Override
+    public void positions(BarSeries bars, byte[] positions) {
+        // Monotonic queues of bar indices give the rolling max high / min low in O(1) amortized per bar;
+        // each index is enqueued once, so plain arrays with head/tail cursors suffice
+        int n = bars.length();
+        int[] highs = new int[n];
+        int[] lows = new int[n];
+        int highHead = 0;
+        int highTail = 0;
+        int lowHead = 0;
+        int lowTail = 0;
+        byte held = 0;
+        for (int i = 0; i < n; i++) {
+            while (highHead < highTail && highs[highHead] < i - entryLookback) {
+                highHead++;
+            }
+            while (lowHead < lowTail && lows[lowHead] < i - exitLookback) {
+                lowHead++;
+            }
+            if (i >= entryLookback && held == 0 && bars.close(i) > bars.high(highs[highHead])) {
+                held = 1;
+            } else if (held == 1 && lowHead < lowTail && bars.close(i) < bars.low(lows[lowHead])) {
+                held = 0;
+            }
+            positions[i] = held;
+
+            while (highHead < highTail && bars.high(highs[highTail - 1]) <= bars.high(i)) {
+                highTail--;
+            }
+            highs[highTail++] = i;
+            while (lowHead < lowTail && bars.low(lows[lowTail - 1]) >= bars.low(i)) {
+                lowTail--;
+            }
+            lows[lowTail++] = i;
+        }
+    }
+}
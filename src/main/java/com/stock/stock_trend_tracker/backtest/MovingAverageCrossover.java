@@ -0,0 +1,42 @@
+package com.stock.stock_trend_tracker.backtest;
+
+/**
+ * Long while the fast simple moving average of closes is above the slow one; flat (or short, if enabled)
+ * while it is below. Flat until the slow average has a full window.
+ */
+public class MovingAverageCrossover implements Strategy {
+
+    private final int fast;
+    private final int slow;
+    private final boolean allowShort;
+
+    public MovingAverageCrossover(int fast, int slow, boolean allowShort) {
+        if (fast < 1 || slow <= fast) {
+            throw new IllegalArgumentException("Crossover needs 1 <= fast < slow");
+        }
+        this.fast = fast;
+        this.slow = slow;
+        this.allowShort = allowShort;
+    }
+
+    @Override
+    public void positions(BarSeries bars, byte[] positions) {
+        double fastSum = 0;
+        double slowSum = 0;
+        for (int i = 0; i < bars.length(); i++) {
+            double close = bars.close(i);
+            fastSum += close;
+            slowSum += close;
+            if (i >= fast) {
+                fastSum -= bars.close(i - fast);
+            }
+            if (i >= slow) {
+                slowSum -= bars.close(i - slow);
+            }
+            if (i >= slow - 1) {
+                double difference = fastSum / fast - slowSum / slow;
+                positions[i] = difference > 0 ? (byte) 1 : difference < 0 && allowShort ? (byte) -1 : 0;
+            }
+        }
+    }
+}
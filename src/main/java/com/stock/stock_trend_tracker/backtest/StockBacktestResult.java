@@ -0,0 +1,15 @@
+package com.stock.stock_trend_tracker.backtest;
+
+/**
+ * Outcome of a strategy on one stock
+ * @param totalReturn Compounded return over the range, net of costs (0.10 = +10%)
+ * @param pnl Profit or loss on the request's initial capital
+ * @param maxDrawdown Largest peak-to-trough equity decline (0.25 = -25%)
+ * @param exposure Fraction of bars with an open position
+ * @param bestTrade Return of the best closed trade
+ * @param worstTrade Return of the worst closed trade
+ */
+public record StockBacktestResult(long stockId, String symbol, int bars, int trades, int winningTrades,
+                                  double totalReturn, double pnl, double maxDrawdown, double exposure,
+                                  double bestTrade, double worstTrade) {
+}
@@ -0,0 +1,37 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the named strategies a backtest request can ask for
+ */
+public final class Strategies {
+
+    public static final String SMA_CROSSOVER = "SMA_CROSSOVER";
+    public static final String BREAKOUT = "BREAKOUT";
+
+    private Strategies() {}
+
+    /**
+     * Create a strategy from its name and parameters
+     * @param name SMA_CROSSOVER (fast=20, slow=50, short=0) or BREAKOUT (entry=20, exit=10)
+     * @param params Parameter overrides; may be null
+     * @return The strategy
+     * @throws IllegalArgumentException for an unknown name or invalid parameters
+     */
+    public static Strategy create(String name, Map<String, Double> params) {
+        Map<String, Double> p = params != null ? params : Map.of();
+        return switch (name != null ? name.toUpperCase(Locale.ROOT) : "") {
+            case SMA_CROSSOVER -> new MovingAverageCrossover(intParam(p, "fast", 20), intParam(p, "slow", 50),
+                    intParam(p, "short", 0) != 0);
+            case BREAKOUT -> new BreakoutStrategy(intParam(p, "entry", 20), intParam(p, "exit", 10));
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+
+    private static int intParam(Map<String, Double> params, String key, int defaultValue) {
+        Double value = params.get(key);
+        return value != null ? value.intValue() : defaultValue;
+    }
+}
@@ -0,0 +1,16 @@
+package com.stock.stock_trend_tracker.backtest;
+
+/**
+ * A rule-based trading strategy evaluated one stock at a time. Implementations must be stateless (or
+ * keep state only in locals) because one instance runs on many stocks in parallel.
+ */
+public interface Strategy {
+
+    /**
+     * Decide the position to hold after each bar's close: 1 long, 0 flat, -1 short.
+     * {@code positions[i]} may only depend on bars {@code 0..i}; the engine applies it from bar {@code i + 1}.
+     * @param bars The stock's bars
+     * @param positions Output array with one entry per bar, initially all flat
+     */
+    void positions(BarSeries bars, byte[] positions);
+}
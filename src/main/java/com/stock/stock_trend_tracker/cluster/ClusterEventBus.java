@@ -0,0 +1,270 @@
+package com.stock.stock_trend_tracker.cluster;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.jobs.StockShardRing;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.service.AlertsChangedEvent;
+import com.stock.stock_trend_tracker.service.StockDeletedEvent;
+import com.stock.stock_trend_tracker.service.StocksChangedEvent;
+import com.stock.stock_trend_tracker.service.WatchlistChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-memory state of every node (alert books, snapshots, breadth, portfolios) in step across the
+ * cluster. Quartz hands each node only some ingestion shards and a REST call lands on one node, so every
+ * change is published locally and also appended to the shared {@code cluster_events} table; each node polls
+ * the table and replays the other nodes' rows as the same application events. A tick is recorded only once
+ * its candles are persisted and is replayed by loading them back, so every node sees every stock's ticks
+ * wherever it was ingested, including after the shards are rebalanced.
+ * Rows are polled by ID; an ID skipped by a transaction that commits late is looked for again until
+ * stock.cluster.gap-timeout passes. Rows older than stock.cluster.retention are purged by any node.
+ * Ticks, local and remote, are dispatched on this bus's own thread. Never lazily initialized, so a node
+ * follows the cluster from startup.
+ */
+@Component
+@Lazy(false)
+public class ClusterEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterEventBus.class);
+    private static final String SELECT_EVENTS =
+            "SELECT id, origin, kind, ref_id, slot, timeframe, shard, created_at FROM cluster_events ";
+    private static final int MAX_TRACKED_GAPS = 500;
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+
+    @Autowired
+    private StockShardRing shardRing;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${stock.cluster.poll-interval-ms:500}")
+    private long pollIntervalMs;
+
+    @Value("${stock.cluster.gap-timeout:PT30S}")
+    private Duration gapTimeout;
+
+    @Value("${stock.cluster.retention:PT1H}")
+    private Duration retention;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    // Only touched by the dispatcher thread
+    private long watermark;
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long lastPurge;
+
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    public void start() {
+        // State is seeded from the database at startup, so only changes from now on are replayed
+        watermark = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cluster_events", Long.class);
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Following cluster events after ID {} as {}", watermark, origin);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Publish an ingested tick whose candles are persisted: record it for the other nodes and dispatch it
+     * locally, both on the bus thread
+     * @param event Tick with the generated candles
+     * @param slot Slot start the candles are stamped with
+     * @param timeframe Timeframe of the candles
+     * @param shard Shard that was ingested, or null for every stock
+     */
+    public void publishTick(PriceTickEvent event, LocalDateTime slot, String timeframe, Integer shard) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    jdbcTemplate.update("INSERT INTO cluster_events " +
+                                    "(origin, kind, slot, timeframe, shard, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                            origin, ClusterEventKind.TICK.name(), Timestamp.valueOf(slot), timeframe, shard,
+                            Timestamp.valueOf(LocalDateTime.now()));
+                } catch (Exception e) {
+                    logger.error("Failed to record tick of shard {} at {} for the cluster", shard, slot, e);
+                }
+                dispatch(event);
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cluster event bus stopped; dropping tick of shard {} at {}", shard, slot);
+        }
+    }
+
+    /**
+     * Publish a change locally, on the calling thread, and record it for the other nodes
+     * @param kind Kind of change; not {@link ClusterEventKind#TICK}
+     * @param refIds Stocks the change is about, or watchlists for {@link ClusterEventKind#WATCHLIST_CHANGED}
+     */
+    public void publish(ClusterEventKind kind, List<Long> refIds) {
+        if (refIds.isEmpty()) {
+            return;
+        }
+        eventPublisher.publishEvent(toEvent(kind, refIds));
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate("INSERT INTO cluster_events (origin, kind, ref_id, created_at) " +
+                            "VALUES (?, ?, ?, ?)", refIds, refIds.size(), (ps, refId) -> {
+                        ps.setString(1, origin);
+                        ps.setString(2, kind.name());
+                        ps.setLong(3, refId);
+                        ps.setTimestamp(4, now);
+                    });
+        } catch (Exception e) {
+            logger.error("Failed to record {} of {} for the cluster", kind, refIds, e);
+        }
+    }
+
+    /**
+     * Fetch the rows appended since the last poll, plus late commits into earlier gaps, and replay the ones
+     * other nodes wrote
+     */
+    void poll() {
+        try {
+            long now = System.currentTimeMillis();
+            List<EventRow> rows = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                List<Long> missing = new ArrayList<>(gaps.keySet());
+                rows.addAll(jdbcTemplate.query(SELECT_EVENTS + "WHERE id IN (" +
+                        String.join(", ", Collections.nCopies(missing.size(), "?")) + ") ORDER BY id",
+                        ClusterEventBus::mapRow, missing.toArray()));
+                rows.forEach(row -> gaps.remove(row.id()));
+                gaps.values().removeIf(since -> now - since > gapTimeout.toMillis());
+            }
+            for (EventRow row : jdbcTemplate.query(SELECT_EVENTS + "WHERE id > ? ORDER BY id",
+                    ClusterEventBus::mapRow, watermark)) {
+                for (long id = watermark + 1; id < row.id() && gaps.size() < MAX_TRACKED_GAPS; id++) {
+                    gaps.put(id, now);
+                }
+                watermark = row.id();
+                rows.add(row);
+            }
+            replay(rows);
+
+            if (now - lastPurge > PURGE_INTERVAL_MS) {
+                lastPurge = now;
+                jdbcTemplate.update("DELETE FROM cluster_events WHERE created_at < ?",
+                        Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred while polling cluster events; will retry", e);
+        }
+    }
+
+    /**
+     * Replay other nodes' rows in order. Consecutive changes of one kind become one event; the candles of a
+     * slot are loaded once however many of its shards arrive in this poll.
+     */
+    private void replay(List<EventRow> rows) {
+        Map<SlotKey, List<PriceCandle>> slots = new HashMap<>();
+        ClusterEventKind pendingKind = null;
+        List<Long> pendingIds = new ArrayList<>();
+        for (EventRow row : rows) {
+            if (origin.equals(row.origin())) {
+                continue;
+            }
+            if (row.kind() != pendingKind && !pendingIds.isEmpty()) {
+                dispatch(toEvent(pendingKind, pendingIds));
+                pendingIds = new ArrayList<>();
+            }
+            pendingKind = row.kind();
+            if (row.kind() == ClusterEventKind.TICK) {
+                dispatch(toTick(row, slots));
+            } else {
+                pendingIds.add(row.refId());
+            }
+        }
+        if (!pendingIds.isEmpty()) {
+            dispatch(toEvent(pendingKind, pendingIds));
+        }
+    }
+
+    private PriceTickEvent toTick(EventRow row, Map<SlotKey, List<PriceCandle>> slots) {
+        List<PriceCandle> candles = slots.computeIfAbsent(new SlotKey(row.timeframe(), row.slot()),
+                key -> priceCandleRepository.findSlotWithStocks(key.timeframe(), key.slot()));
+        if (row.shard() != null) {
+            candles = candles.stream()
+                    .filter(candle -> shardRing.shardOf(candle.getStock().getId()) == row.shard())
+                    .toList();
+        }
+        return new PriceTickEvent(candles, row.createdAt(), false);
+    }
+
+    private static Object toEvent(ClusterEventKind kind, List<Long> refIds) {
+        return switch (kind) {
+            case STOCKS_CHANGED -> new StocksChangedEvent(refIds);
+            case STOCK_DELETED -> new StockDeletedEvent(refIds);
+            case ALERTS_CHANGED -> new AlertsChangedEvent(refIds);
+            case WATCHLIST_CHANGED -> new WatchlistChangedEvent(refIds);
+            case TICK -> throw new IllegalArgumentException("Ticks are published with publishTick");
+        };
+    }
+
+    private void dispatch(Object event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            logger.error("Error occurred while dispatching {}", event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static EventRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp slot = rs.getTimestamp("slot");
+        long refId = rs.getLong("ref_id");
+        Long ref = rs.wasNull() ? null : refId;
+        int shard = rs.getInt("shard");
+        Integer shardOrNull = rs.wasNull() ? null : shard;
+        return new EventRow(rs.getLong("id"), rs.getString("origin"), ClusterEventKind.valueOf(rs.getString("kind")),
+                ref, slot != null ? slot.toLocalDateTime() : null, rs.getString("timeframe"), shardOrNull,
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private record EventRow(long id, String origin, ClusterEventKind kind, Long refId, LocalDateTime slot,
+                            String timeframe, Integer shard, LocalDateTime createdAt) {
+    }
+
+    private record SlotKey(String timeframe, LocalDateTime slot) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.stock.stock_trend_tracker.cluster;
+
+/**
+ * Kinds of rows in {@code cluster_events}; each is replayed on the other nodes as an application event
+ */
+public enum ClusterEventKind {
+    /** Candles of one shard and slot were persisted; replayed as a PriceTickEvent */
+    TICK,
+    /** Replayed as a StocksChangedEvent */
+    STOCKS_CHANGED,
+    /** Replayed as a StockDeletedEvent */
+    STOCK_DELETED,
+    /** Replayed as an AlertsChangedEvent */
+    ALERTS_CHANGED,
+    /** Replayed as a WatchlistChangedEvent; the row refers to a watchlist, not a stock */
+    WATCHLIST_CHANGED
+}
@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.domain;
+
+/**
+ * Which way the price has to cross an alert threshold for the alert to fire
+ */
+public enum AlertDirection {
+    ABOVE,
+    BELOW
+}
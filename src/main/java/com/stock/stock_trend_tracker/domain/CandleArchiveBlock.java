@@ -0,0 +1,122 @@
+package com.stock.stock_trend_tracker.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cold-tier storage: all candles of one (stock, timeframe, day) packed into a single compressed block
+ */
+@Entity
+@Table(name = "candle_archive_blocks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_candle_archive_blocks_stock_timeframe_date",
+                      columnNames = {"stock_id", "timeframe", "block_date"})
+})
+public class CandleArchiveBlock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Stock stock;
+    
+    @Column(name = "timeframe", nullable = false)
+    private String timeframe;
+    
+    @Column(name = "block_date", nullable = false)
+    private LocalDate blockDate;
+    
+    @Column(name = "candle_count", nullable = false)
+    private int candleCount;
+    
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public CandleArchiveBlock() {}
+    
+    // Constructor with required fields
+    public CandleArchiveBlock(Stock stock, String timeframe, LocalDate blockDate) {
+        this.stock = stock;
+        this.timeframe = timeframe;
+        this.blockDate = blockDate;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+    
+    public String getTimeframe() {
+        return timeframe;
+    }
+    
+    public void setTimeframe(String timeframe) {
+        this.timeframe = timeframe;
+    }
+    
+    public LocalDate getBlockDate() {
+        return blockDate;
+    }
+    
+    public void setBlockDate(LocalDate blockDate) {
+        this.blockDate = blockDate;
+    }
+    
+    public int getCandleCount() {
+        return candleCount;
+    }
+    
+    public void setCandleCount(int candleCount) {
+        this.candleCount = candleCount;
+    }
+    
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
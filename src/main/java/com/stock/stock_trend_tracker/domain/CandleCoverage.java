@@ -0,0 +1,100 @@
+package com.stock.stock_trend_tracker.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Bitmap of the candle slots stored for one (stock, timeframe, day); see
+ * {@link com.stock.stock_trend_tracker.ingest.SlotBitmap} for the layout
+ */
+@Entity
+@Table(name = "candle_coverage", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_candle_coverage_stock_timeframe_date",
+                      columnNames = {"stock_id", "timeframe", "coverage_date"})
+})
+public class CandleCoverage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Stock stock;
+    
+    @Column(name = "timeframe", nullable = false)
+    private String timeframe;
+    
+    @Column(name = "coverage_date", nullable = false)
+    private LocalDate coverageDate;
+    
+    @Column(name = "slots", nullable = false, length = 2048)
+    private byte[] slots;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Default constructor
+    public CandleCoverage() {}
+    
+    // Constructor with required fields
+    public CandleCoverage(Stock stock, String timeframe, LocalDate coverageDate, byte[] slots) {
+        this.stock = stock;
+        this.timeframe = timeframe;
+        this.coverageDate = coverageDate;
+        this.slots = slots;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+    
+    public String getTimeframe() {
+        return timeframe;
+    }
+    
+    public void setTimeframe(String timeframe) {
+        this.timeframe = timeframe;
+    }
+    
+    public LocalDate getCoverageDate() {
+        return coverageDate;
+    }
+    
+    public void setCoverageDate(LocalDate coverageDate) {
+        this.coverageDate = coverageDate;
+    }
+    
+    public byte[] getSlots() {
+        return slots;
+    }
+    
+    public void setSlots(byte[] slots) {
+        this.slots = slots;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,138 @@
+package com.stock.stock_trend_tracker.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized quantile sketch of one candle metric over one (stock, timeframe, day)
+ */
+@Entity
+@Table(name = "candle_sketches", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_candle_sketches_stock_timeframe_date_metric",
+                      columnNames = {"stock_id", "timeframe", "sketch_date", "metric"})
+})
+public class CandleSketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Stock stock;
+    
+    @Column(name = "timeframe", nullable = false)
+    private String timeframe;
+    
+    @Column(name = "sketch_date", nullable = false)
+    private LocalDate sketchDate;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "metric", nullable = false, length = 16)
+    private SketchMetric metric;
+    
+    @Column(name = "value_count", nullable = false)
+    private long valueCount;
+    
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Newest candle folded in; older or equal candles are already counted
+    @Column(name = "last_candle_at")
+    private LocalDateTime lastCandleAt;
+    
+    // Default constructor
+    public CandleSketch() {}
+    
+    // Constructor with required fields
+    public CandleSketch(Stock stock, String timeframe, LocalDate sketchDate, SketchMetric metric) {
+        this.stock = stock;
+        this.timeframe = timeframe;
+        this.sketchDate = sketchDate;
+        this.metric = metric;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+    
+    public String getTimeframe() {
+        return timeframe;
+    }
+    
+    public void setTimeframe(String timeframe) {
+        this.timeframe = timeframe;
+    }
+    
+    public LocalDate getSketchDate() {
+        return sketchDate;
+    }
+    
+    public void setSketchDate(LocalDate sketchDate) {
+        this.sketchDate = sketchDate;
+    }
+    
+    public SketchMetric getMetric() {
+        return metric;
+    }
+    
+    public void setMetric(SketchMetric metric) {
+        this.metric = metric;
+    }
+    
+    public long getValueCount() {
+        return valueCount;
+    }
+    
+    public void setValueCount(long valueCount) {
+        this.valueCount = valueCount;
+    }
+    
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getLastCandleAt() {
+        return lastCandleAt;
+    }
+    
+    public void setLastCandleAt(LocalDateTime lastCandleAt) {
+        this.lastCandleAt = lastCandleAt;
+    }
+}
@@ -0,0 +1,114 @@
+package com.stock.stock_trend_tracker.domain;
+
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+
+/**
+ * A state change recorded by one node for the others to replay; written and polled through JDBC by
+ * {@link com.stock.stock_trend_tracker.cluster.ClusterEventBus}
+ */
+@Entity
+@Table(name = "cluster_events", indexes = {
+    @Index(name = "idx_cluster_events_created_at", columnList = "created_at")
+})
+public class ClusterEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "origin", nullable = false, length = 36)
+    private String origin;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "kind", nullable = false, length = 32)
+    private ClusterEventKind kind;
+    
+    // Stock of a stock or alert change
+    @Column(name = "ref_id")
+    private Long refId;
+    
+    // Slot, timeframe and shard of a tick (shard is null when every stock was ingested)
+    @Column(name = "slot")
+    private LocalDateTime slot;
+    
+    @Column(name = "timeframe", length = 10)
+    private String timeframe;
+    
+    @Column(name = "shard")
+    private Integer shard;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Default constructor
+    public ClusterEvent() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getOrigin() {
+        return origin;
+    }
+    
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+    
+    public ClusterEventKind getKind() {
+        return kind;
+    }
+    
+    public void setKind(ClusterEventKind kind) {
+        this.kind = kind;
+    }
+    
+    public Long getRefId() {
+        return refId;
+    }
+    
+    public void setRefId(Long refId) {
+        this.refId = refId;
+    }
+    
+    public LocalDateTime getSlot() {
+        return slot;
+    }
+    
+    public void setSlot(LocalDateTime slot) {
+        this.slot = slot;
+    }
+    
+    public String getTimeframe() {
+        return timeframe;
+    }
+    
+    public void setTimeframe(String timeframe) {
+        this.timeframe = timeframe;
+    }
+    
+    public Integer getShard() {
+        return shard;
+    }
+    
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,133 @@
+package com.stock.stock_trend_tracker.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_alerts", indexes = {
+    @Index(name = "idx_price_alerts_active", columnList = "active"),
+    @Index(name = "idx_price_alerts_stock", columnList = "stock_id")
+})
+public class PriceAlert {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Stock stock;
+    
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "direction", nullable = false, length = 8)
+    private AlertDirection direction;
+    
+    @Column(name = "threshold_price", precision = 10, scale = 2, nullable = false)
+    private BigDecimal thresholdPrice;
+    
+    @Column(name = "note")
+    private String note;
+    
+    @Column(name = "active", nullable = false)
+    private boolean active;
+    
+    @Column(name = "triggered_at")
+    private LocalDateTime triggeredAt;
+    
+    @Column(name = "triggered_price", precision = 10, scale = 2)
+    private BigDecimal triggeredPrice;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Default constructor
+    public PriceAlert() {}
+    
+    // Constructor with required fields
+    public PriceAlert(Stock stock, AlertDirection direction, BigDecimal thresholdPrice) {
+        this.stock = stock;
+        this.direction = direction;
+        this.thresholdPrice = thresholdPrice;
+        this.active = true;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+    
+    public AlertDirection getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(AlertDirection direction) {
+        this.direction = direction;
+    }
+    
+    public BigDecimal getThresholdPrice() {
+        return thresholdPrice;
+    }
+    
+    public void setThresholdPrice(BigDecimal thresholdPrice) {
+        this.thresholdPrice = thresholdPrice;
+    }
+    
+    public String getNote() {
+        return note;
+    }
+    
+    public void setNote(String note) {
+        this.note = note;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    public LocalDateTime getTriggeredAt() {
+        return triggeredAt;
+    }
+    
+    public void setTriggeredAt(LocalDateTime triggeredAt) {
+        this.triggeredAt = triggeredAt;
+    }
+    
+    public BigDecimal getTriggeredPrice() {
+        return triggeredPrice;
+    }
+    
+    public void setTriggeredPrice(BigDecimal triggeredPrice) {
+        this.triggeredPrice = triggeredPrice;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
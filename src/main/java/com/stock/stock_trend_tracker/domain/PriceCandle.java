@@ -5,7 +5,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "price_candles")
+@Table(name = "price_candles", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_price_candles_stock_timeframe_timestamp",
+                      columnNames = {"stock_id", "timeframe", "timestamp"})
+}, indexes = {
+    @Index(name = "idx_price_candles_timeframe_timestamp", columnList = "timeframe, timestamp")
+})
 public class PriceCandle {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
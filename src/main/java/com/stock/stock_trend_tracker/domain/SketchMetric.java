@@ -0,0 +1,22 @@
+package com.stock.stock_trend_tracker.domain;
+
+/**
+ * Candle-derived values that get a quantile sketch per (stock, timeframe, day)
+ */
+public enum SketchMetric {
+    CLOSE,
+    RANGE,
+    VOLUME;
+
+    /**
+     * Value of this metric for a candle
+     * @return The value, or NaN if the candle does not carry it
+     */
+    public double valueOf(PriceCandle candle) {
+        return switch (this) {
+            case CLOSE -> candle.getClosePrice().doubleValue();
+            case RANGE -> candle.getHighPrice().subtract(candle.getLowPrice()).doubleValue();
+            case VOLUME -> candle.getVolume() != null ? candle.getVolume() : Double.NaN;
+        };
+    }
+}
@@ -1,11 +1,18 @@
 package com.stock.stock_trend_tracker.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GeneratedColumn;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "stocks")
+@Table(name = "stocks", indexes = {
+    @Index(name = "idx_stocks_symbol_upper", columnList = "symbol_upper")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Stock {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,6 +21,11 @@ public class Stock {
     @Column(name = "symbol", unique = true, nullable = false)
     private String symbol;
     
+    // Maintained by the database; only used to look symbols up case-insensitively on an index
+    @GeneratedColumn("UPPER(symbol)")
+    @Column(name = "symbol_upper", insertable = false, updatable = false)
+    private String symbolUpper;
+    
     @Column(name = "name", nullable = false)
     private String name;
     
@@ -0,0 +1,86 @@
+package com.stock.stock_trend_tracker.domain;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+/**
+ * Helpers for the timeframe labels stored on {@link PriceCandle} (e.g., "1m", "5m", "1h", "1d", "1w")
+ */
+public final class Timeframes {
+
+    private Timeframes() {}
+
+    /**
+     * Parse a timeframe label into its duration
+     * @param label Timeframe label such as "5m" or "1d"
+     * @return Duration of the timeframe, or empty if the label is not recognised
+     */
+    public static Optional<Duration> toDuration(String label) {
+        if (label == null || label.length() < 2) {
+            return Optional.empty();
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(label.substring(0, label.length() - 1));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (amount <= 0) {
+            return Optional.empty();
+        }
+        return switch (label.charAt(label.length() - 1)) {
+            case 's' -> Optional.of(Duration.ofSeconds(amount));
+            case 'm' -> Optional.of(Duration.ofMinutes(amount));
+            case 'h' -> Optional.of(Duration.ofHours(amount));
+            case 'd' -> Optional.of(Duration.ofDays(amount));
+            case 'w' -> Optional.of(Duration.ofDays(7 * amount));
+            default -> Optional.empty();
+        };
+    }
+
+    /**
+     * Format a duration as a timeframe label using the largest whole unit
+     * @param duration Timeframe duration
+     * @return Label such as "5m" or "1d"
+     */
+    public static String toLabel(Duration duration) {
+        long seconds = duration.getSeconds();
+        if (seconds % (7 * 86400) == 0) {
+            return seconds / (7 * 86400) + "w";
+        }
+        if (seconds % 86400 == 0) {
+            return seconds / 86400 + "d";
+        }
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+
+    /**
+     * Start of the bucket of the given size that contains the timestamp.
+     * Daily buckets start at midnight and weekly buckets on Monday; shorter buckets are aligned to the epoch.
+     * @param timestamp Timestamp to align
+     * @param bucket Bucket size
+     * @return Bucket start
+     */
+    public static LocalDateTime bucketStart(LocalDateTime timestamp, Duration bucket) {
+        if (bucket.equals(Duration.ofDays(7))) {
+            return timestamp.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        if (bucket.equals(Duration.ofDays(1))) {
+            return timestamp.truncatedTo(ChronoUnit.DAYS);
+        }
+        long size = bucket.getSeconds();
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSecond, size) * size, 0, ZoneOffset.UTC);
+    }
+}
@@ -1,6 +1,9 @@
 package com.stock.stock_trend_tracker.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -18,8 +21,12 @@ public class WatchlistItem {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stock_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Stock stock;
     
+    @Column(name = "reference_price", precision = 10, scale = 2)
+    private BigDecimal referencePrice;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -58,6 +65,14 @@ public class WatchlistItem {
         this.stock = stock;
     }
     
+    public BigDecimal getReferencePrice() {
+        return referencePrice;
+    }
+    
+    public void setReferencePrice(BigDecimal referencePrice) {
+        this.referencePrice = referencePrice;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A delivered price alert
+ */
+public record AlertNotification(Long alertId, Long stockId, String symbol, BigDecimal price, LocalDateTime firedAt) {
+}
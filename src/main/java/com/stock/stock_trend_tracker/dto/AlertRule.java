@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+
+import java.math.BigDecimal;
+
+/**
+ * The fields of an active alert the alert engine needs to index it
+ */
+public record AlertRule(Long alertId, Long stockId, AlertDirection direction, BigDecimal thresholdPrice) {
+}
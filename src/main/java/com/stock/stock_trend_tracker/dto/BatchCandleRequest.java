@@ -0,0 +1,16 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Body for fetching candles of many stocks over one range
+ * @param stockIds Stock IDs; may be combined with symbols
+ * @param symbols Stock symbols (case insensitive)
+ * @param end Exclusive end; defaults to now
+ * @param start Inclusive start; defaults to one day before end
+ * @param format ROWS (default) for a list of bars per symbol, or COLUMNAR for parallel arrays per symbol
+ */
+public record BatchCandleRequest(List<Long> stockIds, List<String> symbols, String timeframe,
+                                 LocalDateTime start, LocalDateTime end, String format) {
+}
@@ -0,0 +1,14 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Candles of several stocks over one range, grouped by symbol
+ * @param series Per symbol: a list of {@link HistoryBar} (ROWS) or a {@link CandleColumns} (COLUMNAR)
+ * @param notFound Requested IDs or symbols that matched no stock
+ */
+public record BatchCandleResponse<T>(String timeframe, LocalDateTime start, LocalDateTime end, String format,
+                                     Map<String, T> series, List<String> notFound) {
+}
@@ -0,0 +1,17 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Exchange breadth after one ingestion slot
+ * @param advancers Stocks above their previous session close
+ * @param decliners Stocks below their previous session close
+ * @param newHighs Stocks that set a new session high in this slot
+ * @param newLows Stocks that set a new session low in this slot
+ * @param totalVolume Session volume across the exchange so far
+ * @param indexLevel Volume-weighted, chain-linked index level (1000 at the first session observed)
+ */
+public record BreadthPoint(LocalDateTime timestamp, int advancers, int decliners, int unchanged, int newHighs,
+                           int newLows, long totalVolume, BigDecimal indexLevel) {
+}
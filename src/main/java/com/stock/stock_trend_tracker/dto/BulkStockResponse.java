@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Counts and per-row outcomes of a bulk stock registration, outcomes in request order
+ */
+public record BulkStockResponse(int created, int updated, int unchanged, int rejected, int failed, long elapsedMillis,
+                                List<StockRegistrationOutcome> outcomes) {
+}
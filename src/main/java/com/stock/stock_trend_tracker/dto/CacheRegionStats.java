@@ -0,0 +1,8 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * Hit/miss counters of one Hibernate cache region
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts, long elementsInMemory,
+                               double hitRatio) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Hibernate second-level and query cache statistics since startup (or the last reset)
+ */
+public record CacheStatisticsResponse(long secondLevelHits, long secondLevelMisses, long secondLevelPuts,
+                                      double secondLevelHitRatio, long queryHits, long queryMisses,
+                                      long queryPuts, double queryHitRatio, List<CacheRegionStats> regions) {
+}
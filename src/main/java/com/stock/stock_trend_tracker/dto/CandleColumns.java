@@ -0,0 +1,13 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Candles of one stock as parallel columns, ascending by timestamp; a null volume stays null
+ */
+public record CandleColumns(Long stockId, List<LocalDateTime> timestamps, List<BigDecimal> open,
+                            List<BigDecimal> high, List<BigDecimal> low, List<BigDecimal> close,
+                            List<Long> volume) {
+}
@@ -0,0 +1,7 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * A stock and how its log returns co-move with a reference stock
+ */
+public record Correlate(Long stockId, String symbol, double correlation, double covariance) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Full covariance or correlation matrix; {@code values[i][j]} relates {@code symbols[i]} and {@code symbols[j]}
+ */
+public record CorrelationMatrixResponse(String timeframe, int window, String measure, LocalDateTime computedAt,
+                                        List<Long> stockIds, List<String> symbols, double[][] values) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Current breadth of an exchange and its intraday series for the current session
+ */
+public record ExchangeBreadthResponse(String exchange, LocalDate sessionDate, int stocksReporting,
+                                      BreadthPoint latest, List<BreadthPoint> series) {
+}
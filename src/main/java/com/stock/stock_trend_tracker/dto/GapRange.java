@@ -0,0 +1,12 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of consecutive missing candles
+ * @param start Timestamp of the first missing candle
+ * @param end Timestamp of the first candle after the run (exclusive)
+ * @param missing Number of missing candles
+ */
+public record GapRange(LocalDateTime start, LocalDateTime end, int missing) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * Outcome of one gap repair run
+ * @param missing Missing candles found
+ * @param requested Candles refetched (capped at stock.gaps.max-repairs-per-run)
+ * @param inserted Candles actually inserted; fewer than requested if ingestion filled some in the meantime
+ */
+public record GapRepairResult(String timeframe, long missing, long requested, long inserted, int stocks,
+                              long elapsedMillis) {
+}
@@ -0,0 +1,16 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Missing candles across the stock universe, found from the coverage bitmaps
+ * @param from Start of the scanned window
+ * @param to End of the scanned window (exclusive); the latest slot old enough to be expected
+ * @param stocksScanned Stocks with at least one candle in the window
+ * @param totalMissing Missing candles across all stocks
+ * @param stocks Stocks with gaps, most missing first, truncated to the requested limit
+ */
+public record GapReport(String timeframe, LocalDateTime from, LocalDateTime to, int stocksScanned,
+                        int stocksWithGaps, long totalMissing, List<StockGaps> stocks) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One OHLCV bar of a price history (rolled up, or a stored candle as-is)
+ */
+public record HistoryBar(LocalDateTime timestamp, BigDecimal open, BigDecimal high, BigDecimal low,
+                         BigDecimal close, long volume) {
+}
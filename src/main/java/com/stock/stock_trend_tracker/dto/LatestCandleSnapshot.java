@@ -0,0 +1,13 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Latest candle of a stock as served by /api/stocks/{id}/candles/latest
+ * @param id Candle row ID; null while a just-ingested candle is still in the write-behind buffer
+ */
+public record LatestCandleSnapshot(Long id, Long stockId, String symbol, LocalDateTime timestamp, String timeframe,
+                                   BigDecimal openPrice, BigDecimal highPrice, BigDecimal lowPrice,
+                                   BigDecimal closePrice, Long volume, LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Close price of a stock's most recent stored candle
+ */
+public record LatestClose(Long stockId, BigDecimal closePrice) {
+}
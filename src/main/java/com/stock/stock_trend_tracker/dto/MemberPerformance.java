@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * Performance of one watchlist member
+ * @param totalReturn Return since the stock was added to the watchlist
+ * @param dayChange Change since the previous session close
+ */
+public record MemberPerformance(Long stockId, String symbol, double totalReturn, Double dayChange) {
+}
@@ -0,0 +1,13 @@
+package com.stock.stock_trend_tracker.dto;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+
+import java.math.BigDecimal;
+
+/**
+ * Body for creating or updating a price alert
+ * @param active Optional; set to true to re-arm a triggered alert or false to pause it
+ */
+public record PriceAlertRequest(Long stockId, AlertDirection direction, BigDecimal thresholdPrice,
+                                String note, Boolean active) {
+}
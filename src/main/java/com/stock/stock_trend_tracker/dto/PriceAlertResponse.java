@@ -0,0 +1,21 @@
+package com.stock.stock_trend_tracker.dto;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.PriceAlert;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Price alert as returned by the API
+ */
+public record PriceAlertResponse(Long id, Long stockId, String symbol, AlertDirection direction,
+                                 BigDecimal thresholdPrice, String note, boolean active,
+                                 LocalDateTime triggeredAt, BigDecimal triggeredPrice, LocalDateTime createdAt) {
+
+    public static PriceAlertResponse from(PriceAlert alert) {
+        return new PriceAlertResponse(alert.getId(), alert.getStock().getId(), alert.getStock().getSymbol(),
+                alert.getDirection(), alert.getThresholdPrice(), alert.getNote(), alert.isActive(),
+                alert.getTriggeredAt(), alert.getTriggeredPrice(), alert.getCreatedAt());
+    }
+}
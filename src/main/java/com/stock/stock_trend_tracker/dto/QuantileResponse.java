@@ -0,0 +1,17 @@
+package com.stock.stock_trend_tracker.dto;
+
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Approximate distribution of a candle metric over a range of days, merged from daily sketches
+ * @param per CANDLE for one value per candle, DAY for one value per day (total volume, mean close/range)
+ * @param days Days in the range that had a sketch
+ * @param count Number of values the quantiles describe
+ */
+public record QuantileResponse(Long stockId, String symbol, String timeframe, SketchMetric metric, String per,
+                               LocalDate startDate, LocalDate endDate, int days, long count, double min, double max,
+                               List<QuantileValue> quantiles) {
+}
@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * One estimated quantile
+ * @param quantile Requested quantile in [0, 1]
+ * @param value Estimated value
+ */
+public record QuantileValue(double quantile, double value) {
+}
@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a stock was registered; null for rows created without a timestamp
+ */
+public record StockCreation(Long stockId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Missing candles of one stock, in time order
+ */
+public record StockGaps(Long stockId, String symbol, long missing, List<GapRange> gaps) {
+}
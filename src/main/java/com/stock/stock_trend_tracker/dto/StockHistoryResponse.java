@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.util.List;
+
+/**
+ * Price history for a stock over a period, rolled up to the requested interval
+ * @param sourceTimeframe Stored candle timeframe the bars were built from
+ */
+public record StockHistoryResponse(Long stockId, String symbol, String period, String interval,
+                                   String sourceTimeframe, List<HistoryBar> bars) {
+}
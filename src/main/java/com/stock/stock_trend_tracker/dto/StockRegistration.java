@@ -0,0 +1,7 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * One row of a bulk stock registration; an existing symbol has its name and exchange overwritten
+ */
+public record StockRegistration(String symbol, String name, String exchange) {
+}
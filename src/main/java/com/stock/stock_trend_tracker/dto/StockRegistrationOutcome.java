@@ -0,0 +1,21 @@
+package com.stock.stock_trend_tracker.dto;
+
+/**
+ * Result of one bulk registration row
+ * @param index Position of the row in the request, starting at 0
+ * @param id Stock ID, or null if the row was rejected, superseded or failed
+ * @param error Reason for an INVALID or FAILED row
+ */
+public record StockRegistrationOutcome(int index, String symbol, Status status, Long id, String error) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        UNCHANGED,
+        // A later row of the same request has the same symbol and wins
+        SUPERSEDED,
+        INVALID,
+        // The row's chunk could not be written and was rolled back; the row may be sent again
+        FAILED
+    }
+}
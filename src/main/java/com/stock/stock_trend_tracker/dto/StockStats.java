@@ -0,0 +1,12 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock statistics as served by /api/stocks/{id}/stats
+ * @param totalCandles Candles stored in the hot tier when the snapshot was built (write-behind may lag one tick)
+ */
+public record StockStats(String symbol, String name, String exchange, long totalCandles,
+                         List<String> availableTimeframes, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
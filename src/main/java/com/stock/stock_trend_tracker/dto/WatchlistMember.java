@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The fields of a watchlist item the portfolio index needs
+ * @param referencePrice Close when the stock was added, or null for items added before it was recorded
+ */
+public record WatchlistMember(Long watchlistId, Long stockId, String symbol, BigDecimal referencePrice) {
+}
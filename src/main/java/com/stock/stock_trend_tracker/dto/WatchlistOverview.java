@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A watchlist with its aggregate performance, for the overview page
+ */
+public record WatchlistOverview(Long id, String name, String description, LocalDateTime updatedAt,
+                                WatchlistSnapshot performance) {
+}
@@ -0,0 +1,17 @@
+package com.stock.stock_trend_tracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate performance of a watchlist, as of the latest tick of any member
+ * @param members Stocks in the watchlist
+ * @param membersPriced Members with a reference price and at least one close; the return aggregates cover these
+ * @param equalWeightReturn Mean return since each member was added, or null if no member is priced
+ * @param dayChange Mean change of the members since their previous session close, or null if none is known
+ * @param best Member with the highest return since added
+ * @param worst Member with the lowest return since added
+ */
+public record WatchlistSnapshot(Long watchlistId, int members, int membersPriced, Double equalWeightReturn,
+                                Double dayChange, MemberPerformance best, MemberPerformance worst,
+                                LocalDateTime asOf) {
+}
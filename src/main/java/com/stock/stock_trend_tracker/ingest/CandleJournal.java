@@ -0,0 +1,228 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file journal for candles that have been accepted but not yet written to the database.
+ * Each record is length-prefixed and followed by a CRC32 so that a torn write at the tail is
+ * detected and ignored on replay.
+ */
+public class CandleJournal implements Closeable {
+
+    private static final int PRICE_SCALE = 2;
+    private static final long NULL_VOLUME = Long.MIN_VALUE;
+    // stockId, epochSecond, nano, open, high, low, close, volume, timeframe length
+    private static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 4 + 8 * 4 + 8 + 1;
+
+    private final Path file;
+    private FileChannel channel;
+
+    public CandleJournal(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = open(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Append a batch of candles and fsync once for the whole batch (group commit)
+     * @param candles Candles to append; every candle must reference a persisted stock
+     */
+    public synchronized void append(List<PriceCandle> candles) throws IOException {
+        if (candles.isEmpty()) {
+            return;
+        }
+        List<byte[]> payloads = new ArrayList<>(candles.size());
+        int total = 0;
+        for (PriceCandle candle : candles) {
+            byte[] payload = encode(candle);
+            payloads.add(payload);
+            total += 4 + payload.length + 4;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Read every intact record from the start of the journal
+     * @return Journal entries in append order
+     */
+    public synchronized List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long size = channel.size();
+        if (size == 0) {
+            return entries;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        long position = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length < FIXED_PAYLOAD_BYTES || buffer.remaining() < length + 4) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            int expected = buffer.getInt();
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            entries.add(decode(payload));
+        }
+        return entries;
+    }
+
+    /**
+     * Current length of the journal in bytes; the end offset of everything appended so far
+     */
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Discard the records before an offset once they are known to be in the database. The remaining
+     * records are copied to a new file which atomically replaces the journal, so a crash part-way
+     * leaves either the old or the new journal intact.
+     * @param offset Record boundary returned by {@link #size()} after an append
+     */
+    public synchronized void discardUpTo(long offset) throws IOException {
+        long size = channel.size();
+        if (offset >= size) {
+            truncate();
+            return;
+        }
+        if (offset <= 0) {
+            return;
+        }
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = offset;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    /**
+     * Discard all records once they are known to be in the database
+     */
+    public synchronized void truncate() throws IOException {
+        if (channel.size() == 0) {
+            return;
+        }
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private static byte[] encode(PriceCandle candle) {
+        byte[] timeframe = candle.getTimeframe() != null
+                ? candle.getTimeframe().getBytes(StandardCharsets.US_ASCII)
+                : new byte[0];
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_PAYLOAD_BYTES + timeframe.length);
+        LocalDateTime timestamp = candle.getTimestamp();
+        buffer.putLong(candle.getStock().getId())
+              .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+              .putInt(timestamp.getNano())
+              .putLong(toScaled(candle.getOpenPrice()))
+              .putLong(toScaled(candle.getHighPrice()))
+              .putLong(toScaled(candle.getLowPrice()))
+              .putLong(toScaled(candle.getClosePrice()))
+              .putLong(candle.getVolume() != null ? candle.getVolume() : NULL_VOLUME)
+              .put((byte) timeframe.length)
+              .put(timeframe);
+        return buffer.array();
+    }
+
+    private static Entry decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long stockId = buffer.getLong();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        BigDecimal open = fromScaled(buffer.getLong());
+        BigDecimal high = fromScaled(buffer.getLong());
+        BigDecimal low = fromScaled(buffer.getLong());
+        BigDecimal close = fromScaled(buffer.getLong());
+        long volume = buffer.getLong();
+        byte[] timeframe = new byte[buffer.get()];
+        buffer.get(timeframe);
+        return new Entry(stockId, timestamp, open, high, low, close,
+                volume == NULL_VOLUME ? null : volume,
+                timeframe.length == 0 ? null : new String(timeframe, StandardCharsets.US_ASCII));
+    }
+
+    private static long toScaled(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromScaled(long scaled) {
+        return BigDecimal.valueOf(scaled, PRICE_SCALE);
+    }
+
+    /**
+     * A journaled candle, detached from any persistence context
+     */
+    public record Entry(long stockId, LocalDateTime timestamp, BigDecimal openPrice, BigDecimal highPrice,
+                        BigDecimal lowPrice, BigDecimal closePrice, Long volume, String timeframe) {
+    }
+}
@@ -0,0 +1,363 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind layer between candle ingestion and the {@code price_candles} table.
+ * Candles are journaled to local disk as they are accepted (one fsync per accepted group, typically a whole
+ * tick) and queued; a single background thread drains the queue and upserts it into the database in bulk.
+ * The journal is only cut back to the offset whose candles have reached the database, so anything accepted
+ * survives a crash, including while the database is down. Journal entries are replayed on startup; the
+ * upsert makes replaying a batch that was already written harmless.
+ * A batch that keeps failing is retried stock.ingest.write-behind.max-retries times and then written row by
+ * row; rows that still fail (e.g. their stock was deleted) go to a dead-letter journal so they cannot block
+ * everything queued behind them. While the journal cannot be written, candles are not accepted and callers
+ * persist them synchronously; it is cleared and accepting again once everything it holds has been written.
+ * Never lazily initialized, so the journal is replayed at startup rather than on the first tick.
+ */
+@Component
+@Lazy(false)
+public class CandleWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleWriteBehindBuffer.class);
+
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Value("${stock.ingest.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${stock.ingest.write-behind.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${stock.ingest.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${stock.ingest.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${stock.ingest.write-behind.journal-dir:data/journal}")
+    private String journalDir;
+
+    @Value("${stock.ingest.write-behind.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${stock.ingest.write-behind.journal-compact-size:16MB}")
+    private DataSize journalCompactSize;
+
+    private final ConcurrentLinkedQueue<PriceCandle> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Appends to the journal, enqueueing and journal cut-backs happen under this lock, so queue order,
+    // journal order and the marks below always agree
+    private final Object journalLock = new Object();
+    // Where the journal ends after each accepted group, in acceptance order
+    private final ConcurrentLinkedQueue<JournalMark> marks = new ConcurrentLinkedQueue<>();
+    // Journal offsets are logical: journalBase is the logical offset of the current file's first byte
+    private long journalBase;
+    private long acceptedTotal;
+    // Only touched by the flusher thread (or by shutdown once the flusher has stopped)
+    private long persistedTotal;
+    private long flushedOffset;
+    private volatile List<PriceCandle> failedBatch = new ArrayList<>();
+    private int failedAttempts;
+
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    private CandleJournal journal;
+    private CandleJournal deadLetters;
+    private ScheduledExecutorService flusher;
+    private volatile boolean accepting;
+    private volatile boolean journalWritable = true;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.info("Candle write-behind buffer disabled; candles are persisted synchronously");
+            return;
+        }
+        journal = new CandleJournal(Path.of(journalDir, "candles.journal"));
+        deadLetters = new CandleJournal(Path.of(journalDir, "candles.deadletter"));
+        replayJournal();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "candle-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        accepting = true;
+        logger.info("Candle write-behind buffer started (capacity={}, batchSize={}, journal={})",
+                queueCapacity, batchSize, journal.getFile().toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (flusher == null) {
+            return;
+        }
+        accepting = false;
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+        journal.close();
+        deadLetters.close();
+        logger.info("Candle write-behind buffer stopped; {} candles left unflushed", queued.get());
+    }
+
+    /**
+     * Accept a candle for asynchronous persistence without touching the database
+     * @param candle Candle to persist
+     * @return false if the buffer is disabled, stopped or full and the caller must persist the candle itself
+     */
+    public boolean offer(PriceCandle candle) {
+        return offerAll(List.of(candle), null);
+    }
+
+    /**
+     * Accept a group of candles for asynchronous persistence without touching the database. The group is
+     * journaled with a single fsync before this returns, so it survives a crash from then on.
+     * @param candles Candles to persist, accepted or refused as a whole
+     * @param onPersisted Optional; run on the flusher thread once these and all earlier candles are written
+     * (or dead-lettered)
+     * @return false if the buffer is disabled, stopped, full or cannot journal, and the caller must persist
+     * the candles itself
+     */
+    public boolean offerAll(List<PriceCandle> candles, Runnable onPersisted) {
+        if (!accepting || !journalWritable || candles.isEmpty()) {
+            return false;
+        }
+        if (queued.addAndGet(candles.size()) > queueCapacity) {
+            queued.addAndGet(-candles.size());
+            return false;
+        }
+        synchronized (journalLock) {
+            try {
+                journal.append(candles);
+                long journalEnd = journalBase + journal.size();
+                acceptedTotal += candles.size();
+                marks.add(new JournalMark(acceptedTotal, journalEnd, onPersisted));
+            } catch (IOException e) {
+                queued.addAndGet(-candles.size());
+                journalWritable = false;
+                logger.error("Failed to journal {} candles; write-behind suspended until the journal recovers",
+                        candles.size(), e);
+                return false;
+            }
+            queue.addAll(candles);
+        }
+        return true;
+    }
+
+    /**
+     * Number of candles accepted but not yet written to the database
+     */
+    public int pendingCount() {
+        return queued.get() + failedBatch.size();
+    }
+
+    /**
+     * Number of candles given up on and written to the dead-letter journal since startup
+     */
+    public long deadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    /**
+     * Drain the queue into the database, then cut the journal back to the offset whose candles
+     * are all durable in the database.
+     */
+    void flush() {
+        try {
+            if (!failedBatch.isEmpty()) {
+                int size = failedBatch.size();
+                retryFailedBatch();
+                markPersisted(size);
+            }
+
+            List<PriceCandle> batch = pollBatch();
+            while (!batch.isEmpty()) {
+                try {
+                    persist(batch);
+                } catch (RuntimeException e) {
+                    failedBatch = batch;
+                    failedAttempts = 1;
+                    throw e;
+                }
+                markPersisted(batch.size());
+                batch = pollBatch();
+            }
+        } catch (Exception e) {
+            logger.error("Error occurred during candle write-behind flush; will retry", e);
+        } finally {
+            releaseJournal();
+        }
+    }
+
+    /**
+     * Advance past every accepted group whose candles, and all candles before them, are now in the database
+     */
+    private void markPersisted(int count) {
+        persistedTotal += count;
+        JournalMark mark;
+        while ((mark = marks.peek()) != null && mark.acceptedTotal() <= persistedTotal) {
+            marks.poll();
+            flushedOffset = mark.journalEnd();
+            if (mark.onPersisted() != null) {
+                try {
+                    mark.onPersisted().run();
+                } catch (RuntimeException e) {
+                    logger.error("Error occurred in a callback after persisting candles", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the flushed prefix of the journal: all of it once nothing accepted is outstanding (which also
+     * clears a torn tail and resumes accepting after a journal failure), otherwise only once the flushed
+     * prefix is worth compacting away.
+     */
+    private void releaseJournal() {
+        synchronized (journalLock) {
+            try {
+                if (marks.isEmpty()) {
+                    journal.truncate();
+                    journalBase = 0;
+                    flushedOffset = 0;
+                    if (!journalWritable) {
+                        journalWritable = true;
+                        logger.info("Candle journal is writable again; resuming write-behind");
+                    }
+                } else if (flushedOffset - journalBase >= journalCompactSize.toBytes()) {
+                    journal.discardUpTo(flushedOffset - journalBase);
+                    journalBase = flushedOffset;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to cut back the candle journal; will retry", e);
+            }
+        }
+    }
+
+    private void retryFailedBatch() {
+        try {
+            persist(failedBatch);
+        } catch (RuntimeException e) {
+            if (++failedAttempts <= maxRetries) {
+                throw e;
+            }
+            logger.error("Giving up on a batch of {} candles after {} attempts; writing it row by row",
+                    failedBatch.size(), failedAttempts, e);
+            persistRowByRow(failedBatch);
+        }
+        failedBatch = new ArrayList<>();
+        failedAttempts = 0;
+    }
+
+    private void persistRowByRow(List<PriceCandle> batch) {
+        for (PriceCandle candle : batch) {
+            try {
+                candleUpsertRepository.upsert(List.of(candle));
+            } catch (RuntimeException e) {
+                deadLetter(candle, e);
+            }
+        }
+    }
+
+    private void deadLetter(PriceCandle candle, RuntimeException cause) {
+        deadLettered.incrementAndGet();
+        logger.warn("Dead-lettering candle of stock {} at {}: {}", candle.getStock().getId(),
+                candle.getTimestamp(), cause.getMessage());
+        try {
+            deadLetters.append(List.of(candle));
+        } catch (IOException e) {
+            logger.error("Failed to write dead-lettered candle of stock {} at {}", candle.getStock().getId(),
+                    candle.getTimestamp(), e);
+        }
+    }
+
+    private List<PriceCandle> pollBatch() {
+        List<PriceCandle> batch = new ArrayList<>(Math.min(batchSize, Math.max(queued.get(), 1)));
+        PriceCandle candle;
+        while (batch.size() < batchSize && (candle = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(candle);
+        }
+        return batch;
+    }
+
+    private void persist(List<PriceCandle> batch) {
+        CandleUpsertRepository.Result result = candleUpsertRepository.upsert(batch);
+        logger.debug("Flushed {} candles to the database ({} inserted, {} updated)",
+                batch.size(), result.inserted(), result.updated());
+    }
+
+    private void replayJournal() throws IOException {
+        List<CandleJournal.Entry> entries = journal.readAll();
+        if (entries.isEmpty()) {
+            journal.truncate();
+            return;
+        }
+
+        Set<Long> stockIds = entries.stream().map(CandleJournal.Entry::stockId).collect(Collectors.toSet());
+        Map<Long, Stock> stocks = stockRepository.findAllById(stockIds).stream()
+                .collect(Collectors.toMap(Stock::getId, Function.identity()));
+
+        List<PriceCandle> candles = new ArrayList<>(entries.size());
+        for (CandleJournal.Entry entry : entries) {
+            Stock stock = stocks.get(entry.stockId());
+            if (stock == null) {
+                logger.warn("Skipping journaled candle for unknown stock id {}", entry.stockId());
+                continue;
+            }
+            PriceCandle candle = new PriceCandle(stock, entry.timestamp(), entry.openPrice(),
+                    entry.highPrice(), entry.lowPrice(), entry.closePrice());
+            candle.setVolume(entry.volume());
+            candle.setTimeframe(entry.timeframe());
+            candles.add(candle);
+        }
+
+        for (int from = 0; from < candles.size(); from += batchSize) {
+            persist(candles.subList(from, Math.min(from + batchSize, candles.size())));
+        }
+        journal.truncate();
+        logger.info("Replayed {} unflushed candles from {}", candles.size(), journal.getFile());
+    }
+
+    /**
+     * End of an accepted group: the running count of accepted candles, the logical journal offset, and what
+     * to run once the group is persisted
+     */
+    private record JournalMark(long acceptedTotal, long journalEnd, Runnable onPersisted) {
+    }
+}
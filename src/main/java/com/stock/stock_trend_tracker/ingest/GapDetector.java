@@ -0,0 +1,243 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.GapRange;
+import com.stock.stock_trend_tracker.dto.GapRepairResult;
+import com.stock.stock_trend_tracker.dto.GapReport;
+import com.stock.stock_trend_tracker.dto.StockCreation;
+import com.stock.stock_trend_tracker.dto.StockGaps;
+import com.stock.stock_trend_tracker.jobs.StockDataScheduler;
+import com.stock.stock_trend_tracker.repository.CandleCoverageRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Finds missing candles from the coverage bitmaps instead of scanning price_candles.
+ * Every stock is expected to have every slot from the start of the window, or from the slot it was created
+ * in if later, up to the latest slot that is older than stock.gaps.grace. A stock without any coverage row
+ * in the window counts as missing all of its expected slots.
+ */
+@Service
+public class GapDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(GapDetector.class);
+
+    @Autowired
+    private CandleCoverageRepository candleCoverageRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockDataScheduler stockDataScheduler;
+
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+
+    @Value("${stock.gaps.lookback-days:1}")
+    private int lookbackDays;
+
+    @Value("${stock.gaps.grace:PT2M}")
+    private Duration grace;
+
+    @Value("${stock.gaps.max-repairs-per-run:10000}")
+    private int maxRepairsPerRun;
+
+    /**
+     * Receives the gaps of one stock
+     */
+    @FunctionalInterface
+    private interface GapConsumer {
+        void accept(long stockId, List<GapRange> gaps, long missing);
+    }
+
+    /**
+     * Find missing candles of every stock
+     * @param timeframe Timeframe label
+     * @param days Whole days before today to scan, in addition to today (defaults to stock.gaps.lookback-days)
+     * @param limit Maximum number of stocks to list
+     * @return Report, or empty if the timeframe is unknown or not tracked
+     */
+    public Optional<GapReport> findGaps(String timeframe, Integer days, int limit) {
+        Optional<Duration> step = Timeframes.toDuration(timeframe);
+        if (step.isEmpty() || SlotBitmap.slotsPerDay(step.get()) == 0) {
+            return Optional.empty();
+        }
+        LocalDateTime end = expectedEnd(step.get());
+        LocalDate startDate = end.toLocalDate().minusDays(days != null ? days : lookbackDays);
+
+        List<StockGaps> found = new ArrayList<>();
+        int[] scanned = new int[1];
+        long[] totalMissing = new long[1];
+        scan(timeframe, step.get(), startDate, end, scanned, (stockId, gaps, missing) -> {
+            found.add(new StockGaps(stockId, null, missing, gaps));
+            totalMissing[0] += missing;
+        });
+
+        List<StockGaps> top = found.stream()
+                .sorted(Comparator.comparingLong(StockGaps::missing).reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+        Map<Long, String> symbols = stockRepository.findAllById(top.stream().map(StockGaps::stockId).toList())
+                .stream()
+                .collect(Collectors.toMap(Stock::getId, Stock::getSymbol));
+        List<StockGaps> named = top.stream()
+                .map(g -> new StockGaps(g.stockId(), symbols.get(g.stockId()), g.missing(), g.gaps()))
+                .toList();
+
+        return Optional.of(new GapReport(timeframe, startDate.atStartOfDay(), end, scanned[0], found.size(),
+                totalMissing[0], named));
+    }
+
+    /**
+     * Refetch missing candles of the ingest timeframe, run by {@link com.stock.stock_trend_tracker.jobs.GapRepairJob}.
+     * At most stock.gaps.max-repairs-per-run candles are requested per run, oldest gaps of each stock first;
+     * the rest are picked up by the next run. Repaired candles are historical bars: they are written directly
+     * and announced as a stock change, not as a tick, so the tick-driven in-memory views (breadth, watchlist
+     * performance, alerts) do not fold them in.
+     * @return Counts of the run
+     */
+    public GapRepairResult repair() {
+        long started = System.nanoTime();
+        String timeframe = Timeframes.toLabel(ingestInterval);
+        LocalDateTime end = expectedEnd(ingestInterval);
+        LocalDate startDate = end.toLocalDate().minusDays(lookbackDays);
+
+        Map<Long, List<LocalDateTime>> requested = new LinkedHashMap<>();
+        long[] counts = new long[2];
+        scan(timeframe, ingestInterval, startDate, end, new int[1], (stockId, gaps, missing) -> {
+            counts[0] += missing;
+            for (GapRange gap : gaps) {
+                for (LocalDateTime slot = gap.start(); slot.isBefore(gap.end()) && counts[1] < maxRepairsPerRun;
+                     slot = slot.plus(ingestInterval)) {
+                    requested.computeIfAbsent(stockId, id -> new ArrayList<>()).add(slot);
+                    counts[1]++;
+                }
+            }
+        });
+
+        long inserted = requested.isEmpty() ? 0 : stockDataScheduler.refetchCandles(requested);
+        GapRepairResult result = new GapRepairResult(timeframe, counts[0], counts[1], inserted, requested.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        logger.info("Gap repair: {}", result);
+        return result;
+    }
+
+    /**
+     * Latest slot start old enough that its candle should exist, plus one step (exclusive end)
+     */
+    private LocalDateTime expectedEnd(Duration step) {
+        return Timeframes.bucketStart(LocalDateTime.now().minus(grace), step).plus(step);
+    }
+
+    /**
+     * Walk every stock once in ID order, merging in the coverage of the window streamed in the same order.
+     * Stocks without coverage rows are emitted with no filled slots; rows of stocks registered after the
+     * universe was loaded are left to the next scan.
+     */
+    private void scan(String timeframe, Duration step, LocalDate startDate, LocalDateTime end, int[] scanned,
+                      GapConsumer consumer) {
+        int slotsPerDay = SlotBitmap.slotsPerDay(step);
+        LocalDateTime windowStart = startDate.atStartOfDay();
+        List<StockCreation> universe = stockRepository.findAllCreationTimes();
+        Map<LocalDate, long[]> days = new HashMap<>();
+        int[] next = {0};
+        StockCreation[] current = {null};
+        candleCoverageRepository.forEachCoverage(timeframe, startDate, end.toLocalDate(), (stockId, date, slots) -> {
+            if (current[0] == null || current[0].stockId() != stockId) {
+                if (current[0] != null) {
+                    emit(current[0], days, step, slotsPerDay, windowStart, end, scanned, consumer);
+                    days.clear();
+                    current[0] = null;
+                }
+                while (next[0] < universe.size() && universe.get(next[0]).stockId() < stockId) {
+                    emit(universe.get(next[0]++), days, step, slotsPerDay, windowStart, end, scanned, consumer);
+                }
+                if (next[0] < universe.size() && universe.get(next[0]).stockId() == stockId) {
+                    current[0] = universe.get(next[0]++);
+                }
+            }
+            if (current[0] != null) {
+                days.put(date, slots);
+            }
+        });
+        if (current[0] != null) {
+            emit(current[0], days, step, slotsPerDay, windowStart, end, scanned, consumer);
+            days.clear();
+        }
+        while (next[0] < universe.size()) {
+            emit(universe.get(next[0]++), days, step, slotsPerDay, windowStart, end, scanned, consumer);
+        }
+    }
+
+    private static void emit(StockCreation stock, Map<LocalDate, long[]> days, Duration step, int slotsPerDay,
+                             LocalDateTime windowStart, LocalDateTime end, int[] scanned, GapConsumer consumer) {
+        LocalDateTime start = windowStart;
+        if (stock.createdAt() != null) {
+            LocalDateTime created = Timeframes.bucketStart(stock.createdAt(), step);
+            if (created.isAfter(start)) {
+                start = created;
+            }
+        }
+        List<GapRange> gaps = findStockGaps(days, step, slotsPerDay, start, end);
+        scanned[0]++;
+        if (!gaps.isEmpty()) {
+            consumer.accept(stock.stockId(), gaps, gaps.stream().mapToLong(GapRange::missing).sum());
+        }
+    }
+
+    /**
+     * Missing runs of one stock between {@code start} and {@code end}; runs spanning midnight are joined
+     * @param days Filled slots per day; days without an entry count as empty
+     * @param start First expected slot
+     * @param end Exclusive end of the expected slots
+     */
+    static List<GapRange> findStockGaps(Map<LocalDate, long[]> days, Duration step, int slotsPerDay,
+                                        LocalDateTime start, LocalDateTime end) {
+        List<GapRange> gaps = new ArrayList<>();
+        if (!start.isBefore(end)) {
+            return gaps;
+        }
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+        int startSlot = SlotBitmap.slotOf(start, step);
+        int endSlot = SlotBitmap.slotOf(end, step);
+        long[] empty = SlotBitmap.empty(slotsPerDay);
+
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            long[] slots = days.getOrDefault(day, empty);
+            int from = day.equals(firstDay) ? startSlot : 0;
+            int to = day.equals(lastDay) ? endSlot : slotsPerDay;
+            LocalDateTime midnight = day.atStartOfDay();
+            SlotBitmap.forEachMissingRun(slots, from, to, (runStart, runEnd) -> {
+                LocalDateTime start = midnight.plus(step.multipliedBy(runStart));
+                LocalDateTime stop = midnight.plus(step.multipliedBy(runEnd));
+                int missing = runEnd - runStart;
+                GapRange previous = gaps.isEmpty() ? null : gaps.get(gaps.size() - 1);
+                if (previous != null && previous.end().equals(start)) {
+                    gaps.set(gaps.size() - 1, new GapRange(previous.start(), stop, previous.missing() + missing));
+                } else {
+                    gaps.add(new GapRange(start, stop, missing));
+                }
+            });
+        }
+        return gaps;
+    }
+}
@@ -0,0 +1,145 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Bitmaps of the candle slots of one day: bit {@code i} is set once the candle starting
+ * {@code i * timeframe} after midnight is stored. Stored as big-endian 64-bit words.
+ */
+public final class SlotBitmap {
+
+    /** Most slots a day may have: 2 KB per bitmap (one-minute candles need 180 bytes) */
+    public static final int MAX_SLOTS = 16_384;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private SlotBitmap() {}
+
+    /**
+     * Receives one run of consecutive missing slots
+     */
+    @FunctionalInterface
+    public interface RunConsumer {
+        void accept(int fromSlot, int toSlot);
+    }
+
+    /**
+     * Number of slots per day for a timeframe
+     * @return Slot count, or 0 if the timeframe does not evenly divide a day or has too many slots to track
+     */
+    public static int slotsPerDay(Duration timeframe) {
+        long seconds = timeframe.getSeconds();
+        if (seconds <= 0 || SECONDS_PER_DAY % seconds != 0 || SECONDS_PER_DAY / seconds > MAX_SLOTS) {
+            return 0;
+        }
+        return (int) (SECONDS_PER_DAY / seconds);
+    }
+
+    public static int slotOf(LocalDateTime timestamp, Duration timeframe) {
+        return (int) (timestamp.toLocalTime().toSecondOfDay() / timeframe.getSeconds());
+    }
+
+    public static long[] empty(int slots) {
+        return new long[(slots + 63) >>> 6];
+    }
+
+    public static void set(long[] words, int slot) {
+        words[slot >>> 6] |= 1L << (slot & 63);
+    }
+
+    public static void or(long[] target, long[] source) {
+        for (int i = 0; i < Math.min(target.length, source.length); i++) {
+            target[i] |= source[i];
+        }
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Index of the lowest set slot, or -1 if none is set
+     */
+    public static int firstSet(long[] words) {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(words[i]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Report every run of unset slots in {@code [from, to)}, a word at a time: {@code expected & ~filled}
+     * @param words Filled slots (may be shorter than needed; missing words count as empty)
+     * @param from First slot to check
+     * @param to Slot after the last one to check
+     * @param consumer Called once per run, in ascending order
+     */
+    public static void forEachMissingRun(long[] words, int from, int to, RunConsumer consumer) {
+        int runStart = -1;
+        int runEnd = -1;
+        for (int w = from >>> 6; from < to && w <= (to - 1) >>> 6; w++) {
+            int base = w << 6;
+            long expected = -1L;
+            if (base < from) {
+                expected &= -1L << (from - base);
+            }
+            if (to - base < 64) {
+                expected &= (1L << (to - base)) - 1;
+            }
+            long missing = expected & ~(w < words.length ? words[w] : 0L);
+
+            while (missing != 0) {
+                int bit = Long.numberOfTrailingZeros(missing);
+                int length = Long.numberOfTrailingZeros(~(missing >>> bit));
+                int start = base + bit;
+                if (runStart >= 0 && runEnd == start) {
+                    runEnd = start + length;
+                } else {
+                    if (runStart >= 0) {
+                        consumer.accept(runStart, runEnd);
+                    }
+                    runStart = start;
+                    runEnd = start + length;
+                }
+                missing = bit + length >= 64 ? 0 : missing & (-1L << (bit + length));
+            }
+        }
+        if (runStart >= 0) {
+            consumer.accept(runStart, runEnd);
+        }
+    }
+
+    public static byte[] toBytes(long[] words) {
+        byte[] bytes = new byte[words.length * 8];
+        for (int i = 0; i < words.length; i++) {
+            for (int b = 0; b < 8; b++) {
+                bytes[i * 8 + b] = (byte) (words[i] >>> (56 - 8 * b));
+            }
+        }
+        return bytes;
+    }
+
+    public static long[] fromBytes(byte[] bytes, int slots) {
+        long[] words = empty(slots);
+        for (int i = 0; i < Math.min(words.length, bytes.length / 8); i++) {
+            long word = 0;
+            for (int b = 0; b < 8; b++) {
+                word = (word << 8) | (bytes[i * 8 + b] & 0xFF);
+            }
+            words[i] = word;
+        }
+        return words;
+    }
+
+    public static long[] copy(long[] words) {
+        return Arrays.copyOf(words, words.length);
+    }
+}
@@ -0,0 +1,22 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import com.stock.stock_trend_tracker.ingest.GapDetector;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Quartz job that refetches candles missed by ingestion
+ */
+@DisallowConcurrentExecution
+public class GapRepairJob extends QuartzJobBean {
+
+    @Autowired
+    private GapDetector gapDetector;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        gapDetector.repair();
+    }
+}
@@ -0,0 +1,30 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Quartz job that ingests one shard of the stock universe. With the clustered job store each
+ * firing runs on exactly one node, so shards are spread across nodes without duplicates.
+ */
+@DisallowConcurrentExecution
+public class IngestShardJob extends QuartzJobBean {
+
+    static final String SHARD = "shard";
+
+    @Autowired
+    private StockDataScheduler stockDataScheduler;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        int shard = context.getMergedJobDataMap().getInt(SHARD);
+        LocalDateTime slotTime = LocalDateTime.ofInstant(context.getScheduledFireTime().toInstant(),
+                ZoneId.systemDefault());
+        stockDataScheduler.updateStockPrices(slotTime, shard);
+    }
+}
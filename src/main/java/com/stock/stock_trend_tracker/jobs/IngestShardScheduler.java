@@ -0,0 +1,93 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.SimpleTrigger;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Registers one Quartz job per ingestion shard in the shared job store. Triggers start on an interval
+ * boundary and skip missed firings; a node joining the cluster leaves existing triggers untouched.
+ */
+@Component
+public class IngestShardScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestShardScheduler.class);
+
+    static final String GROUP = "ingest";
+    private static final String NAME_PREFIX = "ingest-shard-";
+
+    @Autowired
+    private Scheduler scheduler;
+
+    @Autowired
+    private StockShardRing shardRing;
+
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleShards() throws SchedulerException {
+        long intervalMs = ingestInterval.toMillis();
+        LocalDateTime firstSlot = Timeframes.bucketStart(LocalDateTime.now(), ingestInterval).plus(ingestInterval);
+        Date startAt = Date.from(firstSlot.atZone(ZoneId.systemDefault()).toInstant());
+
+        int scheduled = 0;
+        for (int shard = 0; shard < shardRing.getShardCount(); shard++) {
+            TriggerKey triggerKey = TriggerKey.triggerKey(NAME_PREFIX + shard, GROUP);
+            Trigger existing = scheduler.getTrigger(triggerKey);
+            if (existing instanceof SimpleTrigger simple && simple.getRepeatInterval() == intervalMs) {
+                continue;
+            }
+
+            JobDetail job = JobBuilder.newJob(IngestShardJob.class)
+                    .withIdentity(NAME_PREFIX + shard, GROUP)
+                    .usingJobData(IngestShardJob.SHARD, shard)
+                    .storeDurably()
+                    .build();
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .withIdentity(triggerKey)
+                    .forJob(job)
+                    .startAt(startAt)
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInMilliseconds(intervalMs)
+                            .repeatForever()
+                            .withMisfireHandlingInstructionNextWithRemainingCount())
+                    .build();
+            scheduler.scheduleJob(job, Set.of(trigger), true);
+            scheduled++;
+        }
+
+        // Drop shards left over from a previous, larger shard count
+        for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(GROUP))) {
+            String index = jobKey.getName().substring(NAME_PREFIX.length());
+            if (Integer.parseInt(index) >= shardRing.getShardCount()) {
+                scheduler.deleteJob(jobKey);
+            }
+        }
+
+        logger.info("Ingestion uses {} shards every {} ({} (re)scheduled by this node)",
+                shardRing.getShardCount(), ingestInterval, scheduled);
+    }
+}
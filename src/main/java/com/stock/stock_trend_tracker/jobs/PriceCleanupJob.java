@@ -0,0 +1,21 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Quartz job for the daily price data retention run
+ */
+@DisallowConcurrentExecution
+public class PriceCleanupJob extends QuartzJobBean {
+
+    @Autowired
+    private StockDataScheduler stockDataScheduler;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        stockDataScheduler.cleanupOldPriceData();
+    }
+}
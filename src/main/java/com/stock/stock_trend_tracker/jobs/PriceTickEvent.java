@@ -0,0 +1,21 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published on every node once the candles of an ingestion tick are persisted: on the node that ingested
+ * them with the generated candles, and on the other nodes with the candles loaded back from the database
+ * (see {@link com.stock.stock_trend_tracker.cluster.ClusterEventBus}).
+ * @param candles Candles ingested in this tick, each with its (detached) stock loaded
+ * @param completedAt Time the tick finished
+ * @param ingestedHere true on the node that ingested the tick; listeners that write shared tables act on these only
+ */
+public record PriceTickEvent(List<PriceCandle> candles, LocalDateTime completedAt, boolean ingestedHere) {
+
+    public PriceTickEvent(List<PriceCandle> candles, LocalDateTime completedAt) {
+        this(candles, completedAt, true);
+    }
+}
@@ -0,0 +1,69 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cluster-wide maintenance jobs. Spring Boot registers these with the (clustered, JDBC-backed)
+ * Quartz scheduler, so each firing runs on exactly one node. Ingestion shards are registered by
+ * {@link IngestShardScheduler} because their number is configurable.
+ */
+@Configuration
+public class QuartzJobsConfig {
+
+    @Bean
+    public JobDetail priceCleanupJobDetail() {
+        return JobBuilder.newJob(PriceCleanupJob.class)
+                .withIdentity("price-cleanup", "maintenance")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger priceCleanupTrigger(JobDetail priceCleanupJobDetail) {
+        return TriggerBuilder.newTrigger()
+                .forJob(priceCleanupJobDetail)
+                .withIdentity("price-cleanup", "maintenance")
+                .withSchedule(CronScheduleBuilder.cronSchedule("0 0 2 * * ?")) // Daily at 2 AM
+                .build();
+    }
+
+    @Bean
+    public JobDetail trendAnalysisJobDetail() {
+        return JobBuilder.newJob(TrendAnalysisJob.class)
+                .withIdentity("trend-analysis", "maintenance")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger trendAnalysisTrigger(JobDetail trendAnalysisJobDetail) {
+        return TriggerBuilder.newTrigger()
+                .forJob(trendAnalysisJobDetail)
+                .withIdentity("trend-analysis", "maintenance")
+                .withSchedule(CronScheduleBuilder.cronSchedule("0 0 1 ? * SUN")) // Sundays at 1 AM
+                .build();
+    }
+
+    @Bean
+    public JobDetail gapRepairJobDetail() {
+        return JobBuilder.newJob(GapRepairJob.class)
+                .withIdentity("gap-repair", "maintenance")
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger gapRepairTrigger(JobDetail gapRepairJobDetail) {
+        return TriggerBuilder.newTrigger()
+                .forJob(gapRepairJobDetail)
+                .withIdentity("gap-repair", "maintenance")
+                .withSchedule(CronScheduleBuilder.cronSchedule("0 3/15 * * * ?")) // Every 15 minutes, off the ingest ticks
+                .build();
+    }
+}
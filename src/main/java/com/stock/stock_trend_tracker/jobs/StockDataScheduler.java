@@ -1,19 +1,33 @@
 package com.stock.stock_trend_tracker.jobs;
 
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
 import com.stock.stock_trend_tracker.domain.Stock;
 import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.ingest.CandleWriteBehindBuffer;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
 import com.stock.stock_trend_tracker.repository.StockRepository;
 import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.sketch.CandleSketchService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class StockDataScheduler {
@@ -26,29 +40,85 @@ public class StockDataScheduler {
     @Autowired
     private PriceCandleRepository priceCandleRepository;
     
-    private final Random random = new Random();
+    @Autowired
+    private CandleWriteBehindBuffer candleWriteBehindBuffer;
+    
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+    
+    @Autowired
+    private CandleArchiveService candleArchiveService;
+    
+    @Autowired
+    private CandleSketchService candleSketchService;
+    
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+    
+    @Autowired
+    private StockShardRing shardRing;
+    
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+    
+    // Last generated candle per stock; the write-behind buffer may not have flushed it yet
+    private final Map<Long, LastClose> lastClosePrices = new ConcurrentHashMap<>();
+    
+    private final AtomicLong ingestedCandles = new AtomicLong();
+    
+    // Stock IDs grouped by shard, loaded once per slot however many shard jobs of the slot run here
+    private volatile ShardedIds shardedIds;
     
     /**
-     * Scheduled job to fetch and update stock price data every 5 minutes
+     * Ingestion tick for the whole stock universe
      * This is a demo implementation that generates random price data
      * In a real application, this would fetch data from external APIs
      */
-    @Scheduled(fixedRate = 300000) // 5 minutes = 300,000 milliseconds
     public void updateStockPrices() {
-        logger.info("Starting scheduled stock price update...");
+        updateStockPrices(LocalDateTime.now(), null);
+    }
+    
+    /**
+     * Ingestion tick for one shard of the stock universe, run by {@link IngestShardJob} every
+     * stock.ingest.interval (5 minutes by default)
+     * @param slotTime Scheduled time of the tick; candles are stamped with the start of its interval
+     * @param shard Shard to ingest (see {@link StockShardRing}), or null for every stock
+     */
+    public void updateStockPrices(LocalDateTime slotTime, Integer shard) {
+        logger.info("Starting scheduled stock price update (shard {})...", shard != null ? shard : "all");
         
         try {
-            List<Stock> stocks = stockRepository.findAll();
+            LocalDateTime timestamp = Timeframes.bucketStart(slotTime, ingestInterval);
+            ShardedIds universe = universe(timestamp);
             
-            if (stocks.isEmpty()) {
+            if (universe.isEmpty()) {
+                // Only one shard seeds the sample data so that cluster nodes do not race on it
+                if (shard != null && shard != 0) {
+                    return;
+                }
                 logger.info("No stocks found in database. Creating sample stocks...");
                 createSampleStocks();
-                stocks = stockRepository.findAll();
+                shardedIds = null;
+                universe = universe(timestamp);
             }
             
+            List<Stock> stocks = stockRepository.findAllById(universe.idsOf(shard));
+            
+            List<PriceCandle> candles = new ArrayList<>(stocks.size());
             for (Stock stock : stocks) {
-                generatePriceCandle(stock);
+                PriceCandle candle = generatePriceCandle(stock, timestamp);
+                if (candle != null) {
+                    candles.add(candle);
+                }
+            }
+            // Listeners on every node hear of the tick once its candles are persisted
+            PriceTickEvent tick = new PriceTickEvent(candles, LocalDateTime.now());
+            String timeframe = Timeframes.toLabel(ingestInterval);
+            persistTick(candles, () -> clusterEventBus.publishTick(tick, timestamp, timeframe, shard));
+            for (PriceCandle candle : candles) {
+                lastClosePrices.put(candle.getStock().getId(), new LastClose(candle.getClosePrice(), timestamp));
             }
+            ingestedCandles.addAndGet(candles.size());
             
             logger.info("Completed stock price update for {} stocks", stocks.size());
             
@@ -58,18 +128,65 @@ public class StockDataScheduler {
     }
     
     /**
-     * Scheduled job to clean up old price candle data every day at 2 AM
-     * Removes price candles older than 30 days
+     * Number of candles this instance has generated since startup
+     */
+    public long getIngestedCandleCount() {
+        return ingestedCandles.get();
+    }
+    
+    /**
+     * Re-ingest specific missed candle slots found by the gap detector. Each missing run continues from the
+     * close of the candle before it; candles already stored in the meantime are left untouched. No tick event
+     * is published since these are historical bars, which tick consumers such as alerts would take for the
+     * latest close; a stock change event refreshes the views that are rebuilt from stored candles instead.
+     * @param missingSlots Slot timestamps of the ingest timeframe to fetch, per stock ID
+     * @return Number of candles inserted
+     */
+    public long refetchCandles(Map<Long, List<LocalDateTime>> missingSlots) {
+        List<PriceCandle> candles = new ArrayList<>();
+        for (Stock stock : stockRepository.findAllById(missingSlots.keySet())) {
+            BigDecimal basePrice = null;
+            LocalDateTime previous = null;
+            for (LocalDateTime timestamp : missingSlots.get(stock.getId()).stream().sorted().toList()) {
+                if (previous == null || !previous.plus(ingestInterval).equals(timestamp)) {
+                    basePrice = priceCandleRepository.findTopByStockAndTimestampBeforeOrderByTimestampDesc(stock, timestamp)
+                            .map(PriceCandle::getClosePrice)
+                            .orElse(null);
+                }
+                PriceCandle candle = buildCandle(stock, timestamp, basePrice);
+                candles.add(candle);
+                basePrice = candle.getClosePrice();
+                previous = timestamp;
+            }
+        }
+        long inserted = candles.isEmpty() ? 0 : candleUpsertRepository.insertMissing(candles);
+        if (inserted > 0) {
+            clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, new ArrayList<>(missingSlots.keySet()));
+        }
+        logger.info("Refetched {} missing candles for {} stocks", inserted, missingSlots.size());
+        return inserted;
+    }
+    
+    /**
+     * Job to move old price candle data to the archive tier, run by {@link PriceCleanupJob} every day at 2 AM
+     * Candles older than stock.archive.hot-days (30 by default) are packed into compressed daily blocks.
+     * Yesterday's quantile sketches are first recomputed exactly, replacing the ones built tick by tick.
      */
-    @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
     public void cleanupOldPriceData() {
-        logger.info("Starting cleanup of old price data...");
+        logger.info("Starting archival of old price data...");
         
+        // Independent steps: a failed sketch rebuild must not skip the archival
         try {
-            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-            int deletedCount = priceCandleRepository.deleteByTimestampBefore(cutoffDate);
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            candleSketchService.rebuild(yesterday, yesterday);
+        } catch (Exception e) {
+            logger.error("Error occurred while rebuilding yesterday's candle sketches", e);
+        }
+        
+        try {
+            long archivedCount = candleArchiveService.archiveOldCandles();
             
-            logger.info("Cleaned up {} old price candles older than {}", deletedCount, cutoffDate);
+            logger.info("Moved {} old price candles to the archive tier", archivedCount);
             
         } catch (Exception e) {
             logger.error("Error occurred during price data cleanup", e);
@@ -77,9 +194,8 @@ public class StockDataScheduler {
     }
     
     /**
-     * Weekly job to analyze stock trends (every Sunday at 1 AM)
+     * Weekly job to analyze stock trends, run by {@link TrendAnalysisJob} (every Sunday at 1 AM)
      */
-    @Scheduled(cron = "0 0 1 * * SUN")
     public void analyzeStockTrends() {
         logger.info("Starting weekly stock trend analysis...");
         
@@ -131,51 +247,137 @@ public class StockDataScheduler {
     /**
      * Generate a random price candle for a stock
      * In a real application, this would fetch actual market data
+     * @param timestamp Start of the interval the candle covers
+     * @return The generated candle, or null if generation failed
      */
-    private void generatePriceCandle(Stock stock) {
+    private PriceCandle generatePriceCandle(Stock stock, LocalDateTime timestamp) {
         try {
-            // Get the latest price candle for this stock
-            PriceCandle latestCandle = priceCandleRepository.findLatestByStockId(stock.getId()).orElse(null);
-            
-            BigDecimal basePrice;
-            if (latestCandle != null) {
-                // Use the close price of the latest candle as base
-                basePrice = latestCandle.getClosePrice();
-            } else {
-                // Generate a random starting price between $50 and $500
-                basePrice = BigDecimal.valueOf(50 + random.nextDouble() * 450);
-            }
-            
-            // Generate price movement (±5%)
-            double changePercent = (random.nextDouble() - 0.5) * 0.10; // ±5%
-            BigDecimal priceChange = basePrice.multiply(BigDecimal.valueOf(changePercent));
-            
-            // Calculate OHLC prices
-            BigDecimal openPrice = basePrice;
-            BigDecimal closePrice = basePrice.add(priceChange);
-            
-            // High and low prices with some randomness
-            BigDecimal highPrice = (openPrice.compareTo(closePrice) > 0 ? openPrice : closePrice)
-                    .add(BigDecimal.valueOf(random.nextDouble() * 5)); // Add up to $5
-            BigDecimal lowPrice = (openPrice.compareTo(closePrice) < 0 ? openPrice : closePrice)
-                    .subtract(BigDecimal.valueOf(random.nextDouble() * 5)); // Subtract up to $5
-            
-            // Generate random volume between 1M and 10M
-            Long volume = 1000000L + random.nextInt(9000000);
-            
-            // Create price candle
-            PriceCandle priceCandle = new PriceCandle(stock, LocalDateTime.now(), 
-                    openPrice, highPrice, lowPrice, closePrice);
-            priceCandle.setVolume(volume);
-            priceCandle.setTimeframe("5m"); // 5-minute candles
-            
-            priceCandleRepository.save(priceCandle);
+            // Use the close price of the latest candle as base
+            PriceCandle priceCandle = buildCandle(stock, timestamp, latestClose(stock, timestamp));
             
             logger.debug("Generated price candle for {}: O={}, H={}, L={}, C={}, V={}", 
-                       stock.getSymbol(), openPrice, highPrice, lowPrice, closePrice, volume);
+                       stock.getSymbol(), priceCandle.getOpenPrice(), priceCandle.getHighPrice(),
+                       priceCandle.getLowPrice(), priceCandle.getClosePrice(), priceCandle.getVolume());
+            return priceCandle;
                        
         } catch (Exception e) {
             logger.error("Error generating price candle for stock: {}", stock.getSymbol(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Hand a tick's candles to the write-behind buffer, which journals them with one fsync; only persist
+     * inline if it is disabled or full. Upsert so a retried tick overwrites its bars instead of violating
+     * the unique key, and fall back to row by row so one bad stock does not lose the rest of the tick.
+     * @param onPersisted Run once the candles are in the database
+     */
+    private void persistTick(List<PriceCandle> candles, Runnable onPersisted) {
+        if (candleWriteBehindBuffer.offerAll(candles, onPersisted)) {
+            return;
+        }
+        if (candles.isEmpty()) {
+            onPersisted.run();
+            return;
+        }
+        try {
+            candleUpsertRepository.upsert(candles);
+        } catch (Exception e) {
+            logger.warn("Bulk upsert of {} tick candles failed; persisting them one by one", candles.size(), e);
+            for (PriceCandle candle : candles) {
+                try {
+                    candleUpsertRepository.upsert(List.of(candle));
+                } catch (Exception rowError) {
+                    logger.error("Error persisting price candle for stock: {}", candle.getStock().getSymbol(),
+                            rowError);
+                }
+            }
+        }
+        onPersisted.run();
+    }
+    
+    /**
+     * Generate a random candle moving up to ±5% from a base price
+     * @param basePrice Close of the previous candle, or null to start at a random price
+     */
+    private PriceCandle buildCandle(Stock stock, LocalDateTime timestamp, BigDecimal basePrice) {
+        // Shards run on several Quartz threads; avoid contending on one shared Random
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        if (basePrice == null) {
+            // Generate a random starting price between $50 and $500
+            basePrice = BigDecimal.valueOf(50 + random.nextDouble() * 450);
+        }
+        
+        // Generate price movement (±5%)
+        double changePercent = (random.nextDouble() - 0.5) * 0.10; // ±5%
+        BigDecimal priceChange = basePrice.multiply(BigDecimal.valueOf(changePercent));
+        
+        // Calculate OHLC prices
+        BigDecimal openPrice = basePrice;
+        BigDecimal closePrice = basePrice.add(priceChange);
+        
+        // High and low prices with some randomness
+        BigDecimal highPrice = (openPrice.compareTo(closePrice) > 0 ? openPrice : closePrice)
+                .add(BigDecimal.valueOf(random.nextDouble() * 5)); // Add up to $5
+        BigDecimal lowPrice = (openPrice.compareTo(closePrice) < 0 ? openPrice : closePrice)
+                .subtract(BigDecimal.valueOf(random.nextDouble() * 5)); // Subtract up to $5
+        
+        // Generate random volume between 1M and 10M
+        Long volume = 1000000L + random.nextInt(9000000);
+        
+        // Create price candle
+        PriceCandle priceCandle = new PriceCandle(stock, timestamp, 
+                openPrice, highPrice, lowPrice, closePrice);
+        priceCandle.setVolume(volume);
+        priceCandle.setTimeframe(Timeframes.toLabel(ingestInterval)); // e.g. "5m" candles
+        return priceCandle;
+    }
+    
+    /**
+     * Stock IDs of the universe for a slot; the first shard job of the slot on this node reads them, the
+     * rest reuse them. Stocks registered during the slot are ingested from the next one.
+     */
+    private synchronized ShardedIds universe(LocalDateTime slot) {
+        ShardedIds cached = shardedIds;
+        if (cached != null && cached.slot().equals(slot)) {
+            return cached;
+        }
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        List<Long> all = stockRepository.findAllIds();
+        for (Long id : all) {
+            byShard.computeIfAbsent(shardRing.shardOf(id), s -> new ArrayList<>()).add(id);
+        }
+        cached = new ShardedIds(slot, all, byShard);
+        shardedIds = cached;
+        return cached;
+    }
+    
+    /**
+     * Close of the previous candle. The in-memory value is only trusted if this instance also generated
+     * the previous interval; otherwise another cluster node may have ingested the stock since.
+     */
+    private BigDecimal latestClose(Stock stock, LocalDateTime timestamp) {
+        LastClose cached = lastClosePrices.get(stock.getId());
+        if (cached != null && !cached.timestamp().isBefore(timestamp.minus(ingestInterval))) {
+            return cached.close();
+        }
+        return priceCandleRepository.findTopByStockOrderByTimestampDesc(stock)
+                .map(PriceCandle::getClosePrice)
+                .orElse(cached != null ? cached.close() : null);
+    }
+    
+    private record LastClose(BigDecimal close, LocalDateTime timestamp) {
+    }
+    
+    private record ShardedIds(LocalDateTime slot, List<Long> all, Map<Integer, List<Long>> byShard) {
+        
+        boolean isEmpty() {
+            return all.isEmpty();
+        }
+        
+        List<Long> idsOf(Integer shard) {
+            return shard == null ? all : byShard.getOrDefault(shard, List.of());
         }
     }
 }
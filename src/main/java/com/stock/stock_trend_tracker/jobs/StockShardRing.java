@@ -0,0 +1,67 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Consistent-hash ring that partitions the stock universe into ingestion shards by {@code Stock.id}.
+ * Each shard owns many virtual points on the ring, so changing the shard count only moves the stocks
+ * whose nearest point changed instead of reshuffling the whole universe.
+ */
+@Component
+public class StockShardRing {
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+
+    public StockShardRing(@Value("${stock.ingest.shards:16}") int shardCount,
+                          @Value("${stock.ingest.virtual-nodes-per-shard:64}") int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Shard count and virtual nodes must be positive");
+        }
+        this.shardCount = shardCount;
+
+        long[][] entries = new long[shardCount * virtualNodes][];
+        int e = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[e++] = new long[] {mix(((long) shard << 32) | v), shard};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[entries.length];
+        this.owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Shard that owns a stock: the owner of the first ring point at or after the stock's hash
+     * @param stockId Stock ID
+     * @return Shard index in [0, shardCount)
+     */
+    public int shardOf(long stockId) {
+        int index = Arrays.binarySearch(points, mix(stockId ^ 0x5DEECE66DL));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // SplitMix64 finalizer: cheap, well-distributed 64-bit hash
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,67 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.CandleArchiveBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CandleArchiveBlockRepository extends JpaRepository<CandleArchiveBlock, Long> {
+    
+    /**
+     * Find the archive block of one stock, timeframe and day
+     * @param stockId Stock ID
+     * @param timeframe Timeframe label
+     * @param blockDate Day covered by the block
+     * @return Optional containing the block if the day was archived
+     */
+    @Query("SELECT b FROM CandleArchiveBlock b WHERE b.stock.id = :stockId " +
+           "AND b.timeframe = :timeframe AND b.blockDate = :blockDate")
+    Optional<CandleArchiveBlock> findBlock(@Param("stockId") Long stockId,
+                                           @Param("timeframe") String timeframe,
+                                           @Param("blockDate") LocalDate blockDate);
+    
+    /**
+     * Find archive blocks of a stock and timeframe for an inclusive range of days
+     * @param stockId Stock ID
+     * @param timeframe Timeframe label
+     * @param startDate First day
+     * @param endDate Last day
+     * @return Blocks ordered by day
+     */
+    @Query("SELECT b FROM CandleArchiveBlock b WHERE b.stock.id = :stockId AND b.timeframe = :timeframe " +
+           "AND b.blockDate BETWEEN :startDate AND :endDate ORDER BY b.blockDate")
+    List<CandleArchiveBlock> findBlocksInRange(@Param("stockId") Long stockId,
+                                               @Param("timeframe") String timeframe,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Find archive blocks of several stocks for one timeframe and an inclusive range of days
+     * @param stockIds Stock IDs
+     * @param timeframe Timeframe label
+     * @param startDate First day
+     * @param endDate Last day
+     * @return Blocks ordered by stock and day
+     */
+    @Query("SELECT b FROM CandleArchiveBlock b WHERE b.stock.id IN :stockIds AND b.timeframe = :timeframe " +
+           "AND b.blockDate BETWEEN :startDate AND :endDate ORDER BY b.stock.id, b.blockDate")
+    List<CandleArchiveBlock> findBlocksInRange(@Param("stockIds") Collection<Long> stockIds,
+                                               @Param("timeframe") String timeframe,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Find distinct archived timeframes for a stock
+     * @param stockId Stock ID
+     * @return List of distinct timeframes
+     */
+    @Query("SELECT DISTINCT b.timeframe FROM CandleArchiveBlock b WHERE b.stock.id = :stockId")
+    List<String> findDistinctTimeframesByStockId(@Param("stockId") Long stockId);
+}
@@ -0,0 +1,132 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.ingest.SlotBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Per-(stock, timeframe, day) bitmaps of stored candle slots, maintained by {@link CandleUpsertRepository}
+ * on every write so gaps can be found without scanning price_candles.
+ * Only timeframes that divide a day evenly are tracked (see {@link SlotBitmap#slotsPerDay}).
+ */
+@Repository
+public class CandleCoverageRepository {
+
+    private static final String MERGE =
+            "MERGE INTO candle_coverage t USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS DATE), CAST(? AS VARBINARY(2048)))) AS s(stock_id, timeframe, coverage_date, slots) " +
+            "ON t.stock_id = s.stock_id AND t.timeframe = s.timeframe AND t.coverage_date = s.coverage_date " +
+            "WHEN MATCHED THEN UPDATE SET slots = BITOR(t.slots, s.slots), updated_at = LOCALTIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (stock_id, timeframe, coverage_date, slots, updated_at) " +
+            "VALUES (s.stock_id, s.timeframe, s.coverage_date, s.slots, LOCALTIMESTAMP)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Receives one stored bitmap
+     */
+    @FunctionalInterface
+    public interface CoverageConsumer {
+        void accept(long stockId, LocalDate date, long[] slots);
+    }
+
+    /**
+     * Set the slot bits of {@code rows} written rows. Bits are OR-ed in by the database, so concurrent
+     * writers for the same day never lose each other's slots. Must run in the candle write's transaction.
+     * @param from Index of the first row
+     * @param rows Number of rows
+     * @param binder Supplies each row's stock, timeframe and timestamp
+     */
+    public void markFilled(int from, int rows, CandleUpsertRepository.RowBinder binder) {
+        // Sorted so concurrent writers lock coverage rows in the same order
+        Map<CoverageKey, long[]> bitmaps = new TreeMap<>();
+        String timeframe = null;
+        Duration step = null;
+        int slots = 0;
+        for (int row = from; row < from + rows; row++) {
+            if (!binder.timeframe(row).equals(timeframe)) {
+                timeframe = binder.timeframe(row);
+                step = Timeframes.toDuration(timeframe).orElse(null);
+                slots = step != null ? SlotBitmap.slotsPerDay(step) : 0;
+            }
+            if (slots == 0) {
+                continue;
+            }
+            LocalDateTime timestamp = binder.timestamp(row);
+            int slotsPerDay = slots;
+            long[] words = bitmaps.computeIfAbsent(
+                    new CoverageKey(binder.stockId(row), timeframe, timestamp.toLocalDate()),
+                    key -> SlotBitmap.empty(slotsPerDay));
+            SlotBitmap.set(words, SlotBitmap.slotOf(timestamp, step));
+        }
+        if (bitmaps.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(bitmaps.size());
+        bitmaps.forEach((key, words) -> args.add(new Object[] {
+                key.stockId(), key.timeframe(), Date.valueOf(key.date()), SlotBitmap.toBytes(words)}));
+        jdbcTemplate.batchUpdate(MERGE, args);
+    }
+
+    /**
+     * Stream every stored bitmap of a timeframe in an inclusive range of days, ordered by stock and day
+     * @param timeframe Timeframe label
+     * @param startDate First day
+     * @param endDate Last day
+     * @param consumer Receives each bitmap, decoded to {@link SlotBitmap#slotsPerDay} slots
+     */
+    public void forEachCoverage(String timeframe, LocalDate startDate, LocalDate endDate, CoverageConsumer consumer) {
+        int slots = Timeframes.toDuration(timeframe).map(SlotBitmap::slotsPerDay).orElse(0);
+        if (slots == 0) {
+            return;
+        }
+        jdbcTemplate.query(
+                "SELECT stock_id, coverage_date, slots FROM candle_coverage " +
+                "WHERE timeframe = ? AND coverage_date BETWEEN ? AND ? ORDER BY stock_id, coverage_date",
+                rs -> {
+                    consumer.accept(rs.getLong(1), rs.getDate(2).toLocalDate(),
+                            SlotBitmap.fromBytes(rs.getBytes(3), slots));
+                },
+                timeframe, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * Get the bitmap of one stock, timeframe and day
+     * @return Filled slots, or empty if no candle of that day has been written
+     */
+    public Optional<long[]> findCoverage(long stockId, String timeframe, LocalDate date) {
+        int slots = Timeframes.toDuration(timeframe).map(SlotBitmap::slotsPerDay).orElse(0);
+        List<long[]> found = jdbcTemplate.query(
+                "SELECT slots FROM candle_coverage WHERE stock_id = ? AND timeframe = ? AND coverage_date = ?",
+                (rs, rowNum) -> SlotBitmap.fromBytes(rs.getBytes(1), slots),
+                stockId, timeframe, Date.valueOf(date));
+        return found.stream().findFirst();
+    }
+
+    private record CoverageKey(long stockId, String timeframe, LocalDate date) implements Comparable<CoverageKey> {
+
+        @Override
+        public int compareTo(CoverageKey other) {
+            int byStock = Long.compare(stockId, other.stockId);
+            if (byStock != 0) {
+                return byStock;
+            }
+            int byTimeframe = timeframe.compareTo(other.timeframe);
+            return byTimeframe != 0 ? byTimeframe : date.compareTo(other.date);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.CandleSketch;
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CandleSketchRepository extends JpaRepository<CandleSketch, Long> {
+    
+    /**
+     * Find the sketches of one stock, timeframe and metric for an inclusive range of days
+     * @param stockId Stock ID
+     * @param timeframe Timeframe label
+     * @param metric Sketched metric
+     * @param startDate First day
+     * @param endDate Last day
+     * @return Sketches ordered by day
+     */
+    @Query("SELECT s FROM CandleSketch s WHERE s.stock.id = :stockId AND s.timeframe = :timeframe " +
+           "AND s.metric = :metric AND s.sketchDate BETWEEN :startDate AND :endDate ORDER BY s.sketchDate")
+    List<CandleSketch> findSketchesInRange(@Param("stockId") Long stockId,
+                                           @Param("timeframe") String timeframe,
+                                           @Param("metric") SketchMetric metric,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Find every sketch of several stocks on the given days
+     * @param stockIds Stock IDs
+     * @param dates Days
+     * @return Sketches of all timeframes and metrics
+     */
+    @Query("SELECT s FROM CandleSketch s WHERE s.stock.id IN :stockIds AND s.sketchDate IN :dates")
+    List<CandleSketch> findSketches(@Param("stockIds") Collection<Long> stockIds,
+                                    @Param("dates") Collection<LocalDate> dates);
+    
+    /**
+     * Delete the sketches of one stock and timeframe on the given days
+     * @param stockId Stock ID
+     * @param timeframe Timeframe label
+     * @param dates Days
+     */
+    @Modifying
+    @Query("DELETE FROM CandleSketch s WHERE s.stock.id = :stockId AND s.timeframe = :timeframe " +
+           "AND s.sketchDate IN :dates")
+    void deleteSketches(@Param("stockId") Long stockId,
+                        @Param("timeframe") String timeframe,
+                        @Param("dates") Collection<LocalDate> dates);
+}
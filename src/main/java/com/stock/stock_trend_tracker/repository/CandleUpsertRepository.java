@@ -0,0 +1,241 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idempotent bulk writes of candles keyed on (stock_id, timeframe, timestamp).
+ * Each chunk is written with a single multi-row {@code MERGE}, so retried ticks, journal replays and
+ * overlapping backfills overwrite the existing bar instead of inserting a duplicate.
+ * Every write also marks its slots in {@link CandleCoverageRepository} within the same transaction.
+ */
+@Repository
+public class CandleUpsertRepository {
+
+    /**
+     * Number of parameters a {@link RowBinder} binds per row, in this order:
+     * stock_id, timestamp, timeframe, open_price, high_price, low_price, close_price, volume
+     */
+    public static final int COLUMNS = 8;
+
+    private static final String ROW = "(CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS DECIMAL(10,2)), CAST(? AS DECIMAL(10,2)), CAST(? AS DECIMAL(10,2)), " +
+            "CAST(? AS DECIMAL(10,2)), CAST(? AS BIGINT))";
+
+    private static final String SOURCE_COLUMNS =
+            " AS s(stock_id, ts, timeframe, open_price, high_price, low_price, close_price, volume)";
+
+    private static final String KEY_MATCH =
+            "t.stock_id = s.stock_id AND t.timeframe = s.timeframe AND t.timestamp = s.ts";
+
+    private static final String INSERT = "INSERT (stock_id, timestamp, timeframe, open_price, high_price, " +
+            "low_price, close_price, volume, created_at) VALUES (s.stock_id, s.ts, s.timeframe, " +
+            "s.open_price, s.high_price, s.low_price, s.close_price, s.volume, LOCALTIMESTAMP)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CandleCoverageRepository candleCoverageRepository;
+
+    @Value("${stock.ingest.upsert-chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Binds one candle's values starting at {@code parameterIndex} and exposes the row's key for coverage tracking
+     */
+    public interface RowBinder {
+        void bind(PreparedStatement ps, int parameterIndex, int row) throws SQLException;
+
+        long stockId(int row);
+
+        String timeframe(int row);
+
+        LocalDateTime timestamp(int row);
+    }
+
+    /**
+     * Inserted and updated row counts of an upsert
+     */
+    public record Result(long inserted, long updated) {
+
+        public static final Result EMPTY = new Result(0, 0);
+
+        public Result plus(Result other) {
+            return new Result(inserted + other.inserted, updated + other.updated);
+        }
+    }
+
+    /**
+     * Insert or overwrite candles. If the same key appears more than once, the last candle wins.
+     * @param candles Candles with stock, timestamp and timeframe set
+     * @return Inserted and updated counts
+     * @throws IllegalArgumentException if a candle has no timeframe; such a row would never match its key
+     */
+    @Transactional
+    public Result upsert(List<PriceCandle> candles) {
+        List<PriceCandle> rows = latestPerKey(candles);
+        return upsert(rows.size(), new CandleListBinder(rows));
+    }
+
+    /**
+     * Insert candles whose key is not stored yet and leave existing bars untouched, for repairing gaps
+     * without racing the regular ingestion path
+     * @param candles Candles with stock, timestamp and timeframe set
+     * @return Number of candles inserted
+     * @throws IllegalArgumentException if a candle has no timeframe
+     */
+    @Transactional
+    public long insertMissing(List<PriceCandle> candles) {
+        List<PriceCandle> rows = latestPerKey(candles);
+        RowBinder binder = new CandleListBinder(rows);
+        requireTimeframes(rows.size(), binder);
+        long inserted = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            int chunk = Math.min(chunkSize, rows.size() - from);
+            int start = from;
+            inserted += jdbcTemplate.update(
+                    "MERGE INTO price_candles t USING " + values(chunk) + SOURCE_COLUMNS + " ON " + KEY_MATCH +
+                    " WHEN NOT MATCHED THEN " + INSERT,
+                    ps -> bindChunk(ps, start, chunk, binder));
+            candleCoverageRepository.markFilled(from, chunk, binder);
+        }
+        return inserted;
+    }
+
+    /**
+     * Insert or overwrite {@code count} rows supplied by a binder, one MERGE per chunk.
+     * The caller guarantees that keys are unique within the call.
+     * @param count Number of rows
+     * @param binder Binds the {@link #COLUMNS} values of a row
+     * @return Inserted and updated counts
+     * @throws IllegalArgumentException if a row has no timeframe
+     */
+    @Transactional
+    public Result upsert(int count, RowBinder binder) {
+        requireTimeframes(count, binder);
+        Result result = Result.EMPTY;
+        for (int from = 0; from < count; from += chunkSize) {
+            result = result.plus(upsertChunk(from, Math.min(chunkSize, count - from), binder));
+        }
+        return result;
+    }
+
+    private Result upsertChunk(int from, int rows, RowBinder binder) {
+        // OLD TABLE yields the previous version of each row the MERGE updated, so the counts come from the
+        // write itself; every other row of the chunk was inserted, as keys are unique within the call
+        Long updated = jdbcTemplate.query(
+                "SELECT COUNT(*) FROM OLD TABLE (MERGE INTO price_candles t USING " + values(rows) + SOURCE_COLUMNS +
+                " ON " + KEY_MATCH +
+                " WHEN MATCHED THEN UPDATE SET open_price = s.open_price, high_price = s.high_price, " +
+                "low_price = s.low_price, close_price = s.close_price, volume = s.volume" +
+                " WHEN NOT MATCHED THEN " + INSERT + ")",
+                ps -> bindChunk(ps, from, rows, binder),
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+        candleCoverageRepository.markFilled(from, rows, binder);
+
+        long matched = updated != null ? updated : 0;
+        return new Result(rows - matched, matched);
+    }
+
+    /**
+     * NULL never equals NULL in the key match, so a candle without a timeframe would be inserted again on
+     * every retry instead of being overwritten
+     */
+    private static void requireTimeframes(int count, RowBinder binder) {
+        for (int row = 0; row < count; row++) {
+            if (binder.timeframe(row) == null) {
+                throw new IllegalArgumentException("Candle " + row + " of stock " + binder.stockId(row) + " at " +
+                        binder.timestamp(row) + " has no timeframe");
+            }
+        }
+    }
+
+    private static String values(int rows) {
+        StringBuilder sql = new StringBuilder(rows * (ROW.length() + 2) + 10).append("(VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(')').toString();
+    }
+
+    private static void bindChunk(PreparedStatement ps, int from, int rows, RowBinder binder) throws SQLException {
+        for (int i = 0; i < rows; i++) {
+            binder.bind(ps, i * COLUMNS + 1, from + i);
+        }
+    }
+
+    private static class CandleListBinder implements RowBinder {
+        private final List<PriceCandle> rows;
+
+        CandleListBinder(List<PriceCandle> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void bind(PreparedStatement ps, int parameterIndex, int row) throws SQLException {
+            bindCandle(ps, parameterIndex, rows.get(row));
+        }
+
+        @Override
+        public long stockId(int row) {
+            return rows.get(row).getStock().getId();
+        }
+
+        @Override
+        public String timeframe(int row) {
+            return rows.get(row).getTimeframe();
+        }
+
+        @Override
+        public LocalDateTime timestamp(int row) {
+            return rows.get(row).getTimestamp();
+        }
+    }
+
+    private static void bindCandle(PreparedStatement ps, int index, PriceCandle candle) throws SQLException {
+        ps.setLong(index, candle.getStock().getId());
+        ps.setTimestamp(index + 1, Timestamp.valueOf(candle.getTimestamp()));
+        ps.setString(index + 2, candle.getTimeframe());
+        ps.setBigDecimal(index + 3, candle.getOpenPrice());
+        ps.setBigDecimal(index + 4, candle.getHighPrice());
+        ps.setBigDecimal(index + 5, candle.getLowPrice());
+        ps.setBigDecimal(index + 6, candle.getClosePrice());
+        if (candle.getVolume() != null) {
+            ps.setLong(index + 7, candle.getVolume());
+        } else {
+            ps.setNull(index + 7, Types.BIGINT);
+        }
+    }
+
+    /**
+     * A MERGE source may not match the same target row twice, so collapse duplicate keys (last one wins)
+     */
+    private static List<PriceCandle> latestPerKey(List<PriceCandle> candles) {
+        Map<CandleKey, PriceCandle> latest = new LinkedHashMap<>(candles.size() * 2);
+        for (PriceCandle candle : candles) {
+            latest.put(new CandleKey(candle.getStock().getId(), candle.getTimeframe(), candle.getTimestamp()), candle);
+        }
+        return latest.size() == candles.size() ? candles : new ArrayList<>(latest.values());
+    }
+
+    private record CandleKey(Long stockId, String timeframe, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.PriceAlert;
+import com.stock.stock_trend_tracker.dto.AlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+    
+    /**
+     * Find alerts for a stock
+     * @param stockId Stock ID
+     * @return List of alerts for the stock
+     */
+    List<PriceAlert> findByStockId(Long stockId);
+    
+    /**
+     * Find alerts by active flag
+     * @param active true for alerts still waiting to fire
+     * @return List of alerts
+     */
+    List<PriceAlert> findByActive(boolean active);
+    
+    /**
+     * Load the indexable fields of every active alert without materialising entities
+     * @return List of active alert rules
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.AlertRule(a.id, a.stock.id, a.direction, a.thresholdPrice) " +
+           "FROM PriceAlert a WHERE a.active = true")
+    List<AlertRule> findActiveRules();
+    
+    /**
+     * Load the indexable fields of the active alerts of some stocks
+     * @param stockIds Stock IDs
+     * @return List of active alert rules
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.AlertRule(a.id, a.stock.id, a.direction, a.thresholdPrice) " +
+           "FROM PriceAlert a WHERE a.active = true AND a.stock.id IN :stockIds")
+    List<AlertRule> findActiveRulesByStockIds(@Param("stockIds") Collection<Long> stockIds);
+    
+    /**
+     * Deactivate alerts that fired at the given price, in one statement. Only alerts still active and not yet
+     * triggered are claimed, so when several nodes race for the same alerts each one is claimed exactly once.
+     * @param ids Alert IDs
+     * @param triggeredAt Time the alerts fired
+     * @param triggeredPrice Price that crossed the thresholds
+     * @return IDs of the alerts this call deactivated
+     */
+    @Transactional
+    @Query(value = "SELECT id FROM FINAL TABLE (UPDATE price_alerts SET active = FALSE, " +
+                   "triggered_at = :triggeredAt, triggered_price = :triggeredPrice " +
+                   "WHERE id IN (:ids) AND active = TRUE AND triggered_at IS NULL)", nativeQuery = true)
+    List<Long> claimTriggered(@Param("ids") Collection<Long> ids,
+                              @Param("triggeredAt") LocalDateTime triggeredAt,
+                              @Param("triggeredPrice") BigDecimal triggeredPrice);
+}
@@ -2,6 +2,7 @@ package com.stock.stock_trend_tracker.repository;
 
 import com.stock.stock_trend_tracker.domain.PriceCandle;
 import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.LatestClose;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -67,6 +68,21 @@ public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long>
     List<PriceCandle> findByStockAndTimeframeAndTimestampBetween(
             Stock stock, String timeframe, LocalDateTime startTime, LocalDateTime endTime);
     
+    /**
+     * Find price candles by stock ID and timeframe in a half-open time range, oldest first
+     * @param stockId Stock ID
+     * @param timeframe Timeframe
+     * @param startTime Inclusive start timestamp
+     * @param endTime Exclusive end timestamp
+     * @return List of price candles ordered by timestamp ascending
+     */
+    @Query("SELECT pc FROM PriceCandle pc WHERE pc.stock.id = :stockId AND pc.timeframe = :timeframe " +
+           "AND pc.timestamp >= :startTime AND pc.timestamp < :endTime ORDER BY pc.timestamp")
+    List<PriceCandle> findByStockIdAndTimeframeInRange(@Param("stockId") Long stockId,
+                                                       @Param("timeframe") String timeframe,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+    
     /**
      * Find latest price candle for a stock
      * @param stock The stock entity
@@ -74,6 +90,34 @@ public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long>
      */
     Optional<PriceCandle> findTopByStockOrderByTimestampDesc(Stock stock);
     
+    /**
+     * Find the latest price candle of a stock strictly before a timestamp
+     * @param stock The stock entity
+     * @param timestamp Exclusive upper bound
+     * @return Optional containing the candle
+     */
+    Optional<PriceCandle> findTopByStockAndTimestampBeforeOrderByTimestampDesc(Stock stock, LocalDateTime timestamp);
+    
+    /**
+     * Find the latest close of every stock that has an active alert
+     * @return One close per stock (any one of them if several timeframes share the latest timestamp)
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.LatestClose(pc.stock.id, pc.closePrice) FROM PriceCandle pc " +
+           "WHERE pc.stock.id IN (SELECT a.stock.id FROM PriceAlert a WHERE a.active = true) " +
+           "AND pc.timestamp = (SELECT MAX(p2.timestamp) FROM PriceCandle p2 WHERE p2.stock.id = pc.stock.id)")
+    List<LatestClose> findLatestClosesOfStocksWithActiveAlerts();
+    
+    /**
+     * Find the candles of every stock in one slot, with their stocks loaded
+     * @param timeframe Timeframe
+     * @param timestamp Slot start
+     * @return Candles of the slot
+     */
+    @Query("SELECT pc FROM PriceCandle pc JOIN FETCH pc.stock WHERE pc.timeframe = :timeframe " +
+           "AND pc.timestamp = :timestamp")
+    List<PriceCandle> findSlotWithStocks(@Param("timeframe") String timeframe,
+                                         @Param("timestamp") LocalDateTime timestamp);
+    
     /**
      * Find latest price candle by stock ID
      * @param stockId Stock ID
@@ -113,14 +157,6 @@ public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long>
      */
     List<PriceCandle> findByStockAndHighPriceGreaterThan(Stock stock, BigDecimal threshold);
     
-    /**
-     * Delete price candles older than specified date
-     * @param cutoffDate Cutoff date
-     * @return Number of deleted records
-     */
-    @Query("DELETE FROM PriceCandle pc WHERE pc.timestamp < :cutoffDate")
-    int deleteByTimestampBefore(@Param("cutoffDate") LocalDateTime cutoffDate);
-    
     /**
      * Find average closing price for a stock within time range
      * @param stockId Stock ID
@@ -1,11 +1,16 @@
 package com.stock.stock_trend_tracker.repository;
 
 import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.StockCreation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +22,7 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
      * @param symbol Stock symbol (e.g., "AAPL", "GOOGL")
      * @return Optional containing the stock if found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Stock> findBySymbol(String symbol);
     
     /**
@@ -24,8 +30,24 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
      * @param symbol Stock symbol (case insensitive)
      * @return Optional containing the stock if found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Stock> findBySymbolIgnoreCase(String symbol);
     
+    /**
+     * Find stocks by a list of symbols (exact match)
+     * @param symbols Stock symbols
+     * @return Stocks whose symbol is in the list
+     */
+    List<Stock> findBySymbolIn(Collection<String> symbols);
+    
+    /**
+     * Find stocks by a list of symbols, ignoring case; matched on the indexed upper-cased symbol column
+     * @param upperCaseSymbols Stock symbols, already upper-cased
+     * @return Stocks whose upper-cased symbol is in the list, oldest first
+     */
+    @Query("SELECT s FROM Stock s WHERE s.symbolUpper IN :symbols ORDER BY s.id")
+    List<Stock> findBySymbolIgnoreCaseIn(@Param("symbols") Collection<String> upperCaseSymbols);
+    
     /**
      * Find stocks by exchange
      * @param exchange Exchange name
@@ -47,11 +69,26 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
      */
     boolean existsBySymbol(String symbol);
     
+    /**
+     * Get the IDs of all stocks without loading the entities
+     * @return List of stock IDs
+     */
+    @Query("SELECT s.id FROM Stock s")
+    List<Long> findAllIds();
+    
+    /**
+     * Get the ID and creation time of every stock without loading the entities
+     * @return One row per stock, in ID order
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.StockCreation(s.id, s.createdAt) FROM Stock s ORDER BY s.id")
+    List<StockCreation> findAllCreationTimes();
+    
     /**
      * Get all distinct exchanges
      * @return List of unique exchange names
      */
     @Query("SELECT DISTINCT s.exchange FROM Stock s WHERE s.exchange IS NOT NULL ORDER BY s.exchange")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<String> findAllDistinctExchanges();
     
     /**
@@ -0,0 +1,49 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.WatchlistItem;
+import com.stock.stock_trend_tracker.dto.WatchlistMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WatchlistItemRepository extends JpaRepository<WatchlistItem, Long> {
+    
+    /**
+     * Find the item of a stock in a watchlist
+     * @param watchlistId Watchlist ID
+     * @param stockId Stock ID
+     * @return Optional containing the item if the stock is a member
+     */
+    Optional<WatchlistItem> findByWatchlistIdAndStockId(Long watchlistId, Long stockId);
+    
+    /**
+     * Check if a stock is a member of a watchlist
+     * @param watchlistId Watchlist ID
+     * @param stockId Stock ID
+     * @return true if the stock is a member
+     */
+    boolean existsByWatchlistIdAndStockId(Long watchlistId, Long stockId);
+    
+    /**
+     * Load the indexable fields of every watchlist item without materialising entities
+     * @return List of watchlist members
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.WatchlistMember(i.watchlist.id, i.stock.id, i.stock.symbol, " +
+           "i.referencePrice) FROM WatchlistItem i")
+    List<WatchlistMember> findMembers();
+    
+    /**
+     * Load the indexable fields of the items of some watchlists
+     * @param watchlistIds Watchlist IDs
+     * @return List of their members
+     */
+    @Query("SELECT new com.stock.stock_trend_tracker.dto.WatchlistMember(i.watchlist.id, i.stock.id, i.stock.symbol, " +
+           "i.referencePrice) FROM WatchlistItem i WHERE i.watchlist.id IN :watchlistIds")
+    List<WatchlistMember> findMembersOfWatchlists(@Param("watchlistIds") Collection<Long> watchlistIds);
+}
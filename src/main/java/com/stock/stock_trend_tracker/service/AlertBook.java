@@ -0,0 +1,117 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Active alerts of one stock, indexed by threshold (in cents) per direction.
+ * A price move from p0 to p1 fires exactly the ABOVE alerts in (p0, p1] or the BELOW alerts in [p1, p0),
+ * found with one range lookup: O(log n + fired).
+ */
+class AlertBook {
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final long[] NONE = new long[0];
+
+    private final TreeMap<Long, long[]> above = new TreeMap<>();
+    private final TreeMap<Long, long[]> below = new TreeMap<>();
+    private long lastPrice = NO_PRICE;
+    private int size;
+
+    /**
+     * Index an alert
+     * @return true if the current price already satisfies the alert, in which case it is not indexed
+     */
+    synchronized boolean add(long alertId, AlertDirection direction, long thresholdCents) {
+        if (lastPrice != NO_PRICE && (direction == AlertDirection.ABOVE ? lastPrice >= thresholdCents
+                                                                        : lastPrice <= thresholdCents)) {
+            return true;
+        }
+        book(direction).merge(thresholdCents, new long[] {alertId}, AlertBook::concat);
+        size++;
+        return false;
+    }
+
+    synchronized boolean remove(long alertId, AlertDirection direction, long thresholdCents) {
+        TreeMap<Long, long[]> book = book(direction);
+        long[] ids = book.get(thresholdCents);
+        if (ids == null) {
+            return false;
+        }
+        int index = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == alertId) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return false;
+        }
+        if (ids.length == 1) {
+            book.remove(thresholdCents);
+        } else {
+            long[] remaining = new long[ids.length - 1];
+            System.arraycopy(ids, 0, remaining, 0, index);
+            System.arraycopy(ids, index + 1, remaining, index, ids.length - index - 1);
+            book.put(thresholdCents, remaining);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Record a new price and remove and return every alert crossed since the previous price
+     */
+    synchronized long[] onPrice(long priceCents) {
+        long previous = lastPrice;
+        lastPrice = priceCents;
+        if (previous == NO_PRICE || previous == priceCents || size == 0) {
+            return NONE;
+        }
+        NavigableMap<Long, long[]> crossed = priceCents > previous
+                ? above.subMap(previous, false, priceCents, true)
+                : below.subMap(priceCents, true, previous, false);
+        if (crossed.isEmpty()) {
+            return NONE;
+        }
+        int count = 0;
+        for (long[] ids : crossed.values()) {
+            count += ids.length;
+        }
+        long[] fired = new long[count];
+        int offset = 0;
+        for (Map.Entry<Long, long[]> entry : crossed.entrySet()) {
+            System.arraycopy(entry.getValue(), 0, fired, offset, entry.getValue().length);
+            offset += entry.getValue().length;
+        }
+        crossed.clear();
+        size -= count;
+        return fired;
+    }
+
+    /**
+     * Last observed price in cents, or {@code Long.MIN_VALUE} if none was observed yet
+     */
+    synchronized long lastPrice() {
+        return lastPrice;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private TreeMap<Long, long[]> book(AlertDirection direction) {
+        return direction == AlertDirection.ABOVE ? above : below;
+    }
+
+    private static long[] concat(long[] existing, long[] added) {
+        long[] merged = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, merged, existing.length, added.length);
+        return merged;
+    }
+}
@@ -0,0 +1,151 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.PriceAlert;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.dto.AlertRule;
+import com.stock.stock_trend_tracker.dto.LatestClose;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.PriceAlertRepository;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates active price alerts on every ingestion tick. Each stock has an {@link AlertBook} of thresholds,
+ * so a candle only touches the alerts between the previous and the new close.
+ * Every node sees every tick and keeps every book, reloading a stock's book when another node reports its
+ * alerts changed; {@link AlertNotifier} makes sure only one node delivers an alert.
+ * The books are seeded when the context starts, never lazily, so the first tick is not held up loading them.
+ */
+@Service
+@Lazy(false)
+public class AlertEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+
+    @Autowired
+    private AlertNotifier alertNotifier;
+
+    private final Map<Long, AlertBook> books = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadActiveAlerts() {
+        List<AlertRule> rules = priceAlertRepository.findActiveRules();
+        for (AlertRule rule : rules) {
+            book(rule.stockId()).add(rule.alertId(), rule.direction(), toCents(rule.thresholdPrice()));
+        }
+        // Seed the last price so the first tick after a restart can already detect a crossing
+        for (LatestClose latest : priceCandleRepository.findLatestClosesOfStocksWithActiveAlerts()) {
+            AlertBook book = books.get(latest.stockId());
+            if (book != null) {
+                book.onPrice(toCents(latest.closePrice()));
+            }
+        }
+        logger.info("Loaded {} active price alerts", rules.size());
+    }
+
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        for (PriceCandle candle : event.candles()) {
+            Long stockId = candle.getStock().getId();
+            long[] fired = book(stockId).onPrice(toCents(candle.getClosePrice()));
+            if (fired.length > 0) {
+                alertNotifier.deliver(stockId, candle.getStock().getSymbol(), fired,
+                        candle.getClosePrice(), event.completedAt());
+            }
+        }
+    }
+
+    /**
+     * Re-read the active alerts of stocks whose alerts changed, keeping each book's last price. Alerts the
+     * last price already satisfies are left to the node where they were saved, which fired them on register.
+     */
+    @EventListener
+    public void onAlertsChanged(AlertsChangedEvent event) {
+        Map<Long, AlertBook> reloaded = new HashMap<>();
+        for (Long stockId : event.stockIds()) {
+            AlertBook book = new AlertBook();
+            AlertBook previous = books.get(stockId);
+            if (previous != null) {
+                book.onPrice(previous.lastPrice());
+            }
+            reloaded.put(stockId, book);
+        }
+        for (AlertRule rule : priceAlertRepository.findActiveRulesByStockIds(event.stockIds())) {
+            reloaded.get(rule.stockId()).add(rule.alertId(), rule.direction(), toCents(rule.thresholdPrice()));
+        }
+        books.putAll(reloaded);
+    }
+
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        event.stockIds().forEach(this::unregisterStock);
+    }
+
+    /**
+     * Start evaluating a newly saved or re-activated alert; fires it right away if the last price
+     * already satisfies it
+     */
+    public void register(PriceAlert alert) {
+        if (!alert.isActive()) {
+            return;
+        }
+        AlertBook book = book(alert.getStock().getId());
+        if (book.add(alert.getId(), alert.getDirection(), toCents(alert.getThresholdPrice()))) {
+            alertNotifier.deliver(alert.getStock().getId(), alert.getStock().getSymbol(),
+                    new long[] {alert.getId()}, BigDecimal.valueOf(book.lastPrice(), 2), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Stop evaluating an alert as it was indexed (before any update to its threshold or direction)
+     */
+    public void unregister(Long stockId, Long alertId, AlertDirection direction, BigDecimal thresholdPrice) {
+        AlertBook book = books.get(stockId);
+        if (book != null) {
+            book.remove(alertId, direction, toCents(thresholdPrice));
+        }
+    }
+
+    /**
+     * Stop evaluating every alert of a deleted stock; the rows themselves are removed by the FK cascade
+     */
+    public void unregisterStock(Long stockId) {
+        books.remove(stockId);
+    }
+
+    /**
+     * Number of alerts currently indexed
+     */
+    public long activeCount() {
+        return books.values().stream().mapToLong(AlertBook::size).sum();
+    }
+
+    private AlertBook book(Long stockId) {
+        return books.computeIfAbsent(stockId, id -> new AlertBook());
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,80 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.dto.AlertNotification;
+import com.stock.stock_trend_tracker.repository.PriceAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers fired alerts off the ingestion thread: marks them triggered and records a notification.
+ * Every node evaluates every alert, so the fired alerts are claimed with one conditional update per chunk
+ * of stock.alerts.claim-chunk-size IDs and only the node whose update deactivated an alert delivers it.
+ */
+@Service
+public class AlertNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertNotifier.class);
+    private static final int MAX_RECENT = 1000;
+
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+
+    @Value("${stock.alerts.claim-chunk-size:1000}")
+    private int claimChunkSize;
+
+    private final ConcurrentLinkedDeque<AlertNotification> recent = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentSize = new AtomicInteger();
+
+    /**
+     * Deliver alerts of one stock that fired at the same price
+     * @param stockId Stock ID
+     * @param symbol Stock symbol
+     * @param alertIds IDs of the fired alerts
+     * @param price Price that crossed the thresholds
+     * @param firedAt Time the crossing was observed
+     */
+    @Async
+    public void deliver(Long stockId, String symbol, long[] alertIds, BigDecimal price, LocalDateTime firedAt) {
+        try {
+            List<Long> ids = new ArrayList<>(alertIds.length);
+            for (int from = 0; from < alertIds.length; from += claimChunkSize) {
+                List<Long> chunk = Arrays.stream(alertIds, from, Math.min(from + claimChunkSize, alertIds.length))
+                        .boxed()
+                        .toList();
+                ids.addAll(priceAlertRepository.claimTriggered(chunk, firedAt, price));
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            for (Long id : ids) {
+                recent.addFirst(new AlertNotification(id, stockId, symbol, price, firedAt));
+                if (recentSize.incrementAndGet() > MAX_RECENT && recent.pollLast() != null) {
+                    recentSize.decrementAndGet();
+                }
+            }
+            logger.info("Price alerts fired for {} at {}: {}", symbol, price, ids);
+        } catch (Exception e) {
+            logger.error("Error delivering price alerts {} for stock: {}", Arrays.toString(alertIds), symbol, e);
+        }
+    }
+
+    /**
+     * Most recent notifications, newest first
+     */
+    public List<AlertNotification> getRecentNotifications() {
+        return List.copyOf(recent);
+    }
+}
@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.util.List;
+
+/**
+ * Published after price alerts were created, updated or deleted
+ * @param stockIds Stocks whose alerts changed
+ */
+public record AlertsChangedEvent(List<Long> stockIds) {
+}
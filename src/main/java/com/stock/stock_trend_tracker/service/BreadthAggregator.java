@@ -0,0 +1,356 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.BreadthPoint;
+import com.stock.stock_trend_tracker.dto.ExchangeBreadthResponse;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exchange-wide market breadth maintained incrementally from ingestion ticks: each candle replaces its
+ * stock's previous contribution to the exchange counters and index sums, so a tick costs O(candles) and a
+ * read is a map lookup of a pre-built response. Sessions are calendar days of the candle timestamps.
+ * Every node hears every tick (see {@link com.stock.stock_trend_tracker.cluster.ClusterEventBus}), so each
+ * aggregates the whole universe whichever shards it ingests. At startup the daily closes of the previous
+ * sessions are replayed, so the first session after a restart is measured against stored closes and
+ * continues the index instead of restarting it at 1000. Eager even under lazy initialization: that replay
+ * belongs to startup, not to the first tick or breadth request.
+ */
+@Service
+@Lazy(false)
+public class BreadthAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BreadthAggregator.class);
+    private static final double INITIAL_INDEX_LEVEL = 1000.0;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+
+    @Value("${stock.breadth.warmup-days:30}")
+    private int warmupDays;
+
+    private final Map<String, ExchangeState> exchanges = new ConcurrentHashMap<>();
+    private final Map<Long, String> exchangeOfStock = new ConcurrentHashMap<>();
+    private final Map<String, ExchangeBreadthResponse> published = new ConcurrentHashMap<>();
+
+    /**
+     * Replay the last stock.breadth.warmup-days sessions before today as one candle per stock and day (the
+     * day's last close and total volume), which seeds each stock's reference close and chains the index
+     * level up to the current session. The index starts at 1000 at the beginning of that window.
+     */
+    @PostConstruct
+    public void loadPreviousSessions() {
+        LocalDate today = LocalDate.now();
+        String timeframe = Timeframes.toLabel(ingestInterval);
+        List<PriceCandle> dailyCloses = new ArrayList<>();
+        jdbcTemplate.query("SELECT c.stock_id, s.exchange, c.timestamp, c.close_price, d.volume " +
+                        "FROM price_candles c " +
+                        "JOIN (SELECT stock_id, MAX(timestamp) AS last_ts, COALESCE(SUM(volume), 0) AS volume " +
+                        "FROM price_candles WHERE timeframe = ? AND timestamp >= ? AND timestamp < ? " +
+                        "GROUP BY stock_id, CAST(timestamp AS DATE)) d " +
+                        "ON c.stock_id = d.stock_id AND c.timestamp = d.last_ts " +
+                        "JOIN stocks s ON s.id = c.stock_id " +
+                        "WHERE c.timeframe = ? AND s.exchange IS NOT NULL ORDER BY c.timestamp",
+                rs -> {
+                    Stock stock = new Stock();
+                    stock.setId(rs.getLong(1));
+                    stock.setExchange(rs.getString(2));
+                    BigDecimal close = rs.getBigDecimal(4);
+                    PriceCandle candle = new PriceCandle(stock, rs.getTimestamp(3).toLocalDateTime(),
+                            close, close, close, close);
+                    candle.setVolume(rs.getLong(5));
+                    dailyCloses.add(candle);
+                },
+                timeframe, Timestamp.valueOf(today.minusDays(warmupDays).atStartOfDay()),
+                Timestamp.valueOf(today.atStartOfDay()), timeframe);
+        apply(dailyCloses);
+        logger.info("Replayed {} daily closes into market breadth", dailyCloses.size());
+    }
+
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        apply(event.candles());
+    }
+
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        event.stockIds().forEach(this::unregisterStock);
+    }
+
+    /**
+     * Withdraw a stock's contribution from its exchange's counters and index and stop tracking it
+     * @param stockId Stock ID; unknown stocks are ignored
+     */
+    public void unregisterStock(Long stockId) {
+        String exchange = exchangeOfStock.remove(stockId);
+        if (exchange != null) {
+            withdraw(exchange, stockId);
+        }
+    }
+
+    /**
+     * Get the breadth of an exchange
+     * @param exchange Exchange name
+     * @return Latest breadth and intraday series, or empty if no stock of the exchange has ticked yet
+     */
+    public Optional<ExchangeBreadthResponse> getBreadth(String exchange) {
+        return Optional.ofNullable(published.get(exchange));
+    }
+
+    private void apply(List<PriceCandle> candles) {
+        Map<String, List<PriceCandle>> byExchange = new LinkedHashMap<>();
+        for (PriceCandle candle : candles) {
+            String exchange = candle.getStock().getExchange();
+            if (exchange == null) {
+                continue;
+            }
+            String previous = exchangeOfStock.put(candle.getStock().getId(), exchange);
+            if (previous != null && !previous.equals(exchange)) {
+                // Stock moved exchange: withdraw it from the old one before it joins the new one
+                withdraw(previous, candle.getStock().getId());
+            }
+            byExchange.computeIfAbsent(exchange, e -> new ArrayList<>()).add(candle);
+        }
+
+        for (Map.Entry<String, List<PriceCandle>> entry : byExchange.entrySet()) {
+            ExchangeState state = exchanges.computeIfAbsent(entry.getKey(), ExchangeState::new);
+            synchronized (state) {
+                for (PriceCandle candle : entry.getValue()) {
+                    state.apply(candle.getStock().getId(), candle);
+                }
+                published.put(entry.getKey(), state.toResponse());
+            }
+        }
+    }
+
+    private void withdraw(String exchange, Long stockId) {
+        ExchangeState state = exchanges.get(exchange);
+        synchronized (state) {
+            state.remove(stockId);
+            published.put(exchange, state.toResponse());
+        }
+    }
+
+    /**
+     * Per-exchange aggregates plus the last contribution of each member stock; guarded by its own monitor
+     */
+    private static final class ExchangeState {
+        private final String exchange;
+        private final Map<Long, StockState> stocks = new HashMap<>();
+        private final List<BreadthPoint> series = new ArrayList<>();
+
+        private LocalDate sessionDate;
+        private double baseLevel = INITIAL_INDEX_LEVEL;
+        private double lastLevel = INITIAL_INDEX_LEVEL;
+        private int advancers;
+        private int decliners;
+        private int unchanged;
+        private long totalVolume;
+        private double weightSum;
+        private double weightedReturnSum;
+
+        private LocalDateTime slot;
+        private int slotNewHighs;
+        private int slotNewLows;
+
+        ExchangeState(String exchange) {
+            this.exchange = exchange;
+        }
+
+        void apply(Long stockId, PriceCandle candle) {
+            LocalDateTime timestamp = candle.getTimestamp();
+            LocalDate date = timestamp.toLocalDate();
+            if (sessionDate == null || date.isAfter(sessionDate)) {
+                rollSession(date);
+            } else if (date.isBefore(sessionDate)) {
+                return; // Late candle of a closed session
+            }
+            StockState stock = stocks.computeIfAbsent(stockId, id -> new StockState());
+            boolean sameSession = date.equals(stock.sessionDate);
+            if (sameSession && timestamp.isBefore(stock.lastTimestamp)) {
+                return; // Older than the slot already applied for this stock
+            }
+            if (!timestamp.equals(slot)) {
+                slot = timestamp;
+                slotNewHighs = 0;
+                slotNewLows = 0;
+            }
+
+            double close = candle.getClosePrice().doubleValue();
+            double high = candle.getHighPrice().doubleValue();
+            double low = candle.getLowPrice().doubleValue();
+            long volume = candle.getVolume() != null ? candle.getVolume() : 0;
+
+            if (!sameSession) {
+                // First candle of this stock in the session: yesterday's close becomes the reference
+                stock.referenceClose = stock.sessionDate != null ? stock.lastClose : candle.getOpenPrice().doubleValue();
+                stock.sessionDate = date;
+                stock.sessionHigh = high;
+                stock.sessionLow = low;
+                stock.sessionVolume = 0;
+                stock.counted = false;
+                stock.slotNewHigh = false;
+                stock.slotNewLow = false;
+            } else {
+                withdraw(stock);
+                if (timestamp.equals(stock.lastTimestamp)) {
+                    // The slot was ingested again: its candle replaces the volume applied before
+                    stock.sessionVolume -= stock.lastVolume;
+                    totalVolume -= stock.lastVolume;
+                } else {
+                    stock.slotNewHigh = false;
+                    stock.slotNewLow = false;
+                }
+                if (high > stock.sessionHigh) {
+                    stock.sessionHigh = high;
+                    if (!stock.slotNewHigh) {
+                        stock.slotNewHigh = true;
+                        slotNewHighs++;
+                    }
+                }
+                if (low < stock.sessionLow) {
+                    stock.sessionLow = low;
+                    if (!stock.slotNewLow) {
+                        stock.slotNewLow = true;
+                        slotNewLows++;
+                    }
+                }
+            }
+
+            stock.lastTimestamp = timestamp;
+            stock.lastVolume = volume;
+            stock.lastClose = close;
+            stock.sessionVolume += volume;
+            contribute(stock);
+            totalVolume += volume;
+            lastLevel = level();
+            publishPoint();
+        }
+
+        void remove(Long stockId) {
+            StockState stock = stocks.remove(stockId);
+            if (stock != null && sessionDate != null && sessionDate.equals(stock.sessionDate)) {
+                withdraw(stock);
+                totalVolume -= stock.sessionVolume;
+                lastLevel = level();
+                publishPoint();
+            }
+        }
+
+        ExchangeBreadthResponse toResponse() {
+            BreadthPoint latest = series.isEmpty() ? null : series.get(series.size() - 1);
+            return new ExchangeBreadthResponse(exchange, sessionDate, advancers + decliners + unchanged, latest,
+                    List.copyOf(series));
+        }
+
+        private void rollSession(LocalDate date) {
+            // Stocks roll individually on their first candle of the new session
+            sessionDate = date;
+            baseLevel = lastLevel;
+            advancers = 0;
+            decliners = 0;
+            unchanged = 0;
+            totalVolume = 0;
+            weightSum = 0;
+            weightedReturnSum = 0;
+            series.clear();
+            slot = null;
+            for (StockState stock : stocks.values()) {
+                stock.counted = false;
+            }
+        }
+
+        private void withdraw(StockState stock) {
+            if (!stock.counted) {
+                return;
+            }
+            switch (stock.direction) {
+                case 1 -> advancers--;
+                case -1 -> decliners--;
+                default -> unchanged--;
+            }
+            weightSum -= stock.weight;
+            weightedReturnSum -= stock.weight * stock.relative;
+            stock.counted = false;
+        }
+
+        private void contribute(StockState stock) {
+            stock.direction = Double.compare(stock.lastClose, stock.referenceClose);
+            switch (stock.direction) {
+                case 1 -> advancers++;
+                case -1 -> decliners++;
+                default -> unchanged++;
+            }
+            stock.weight = stock.sessionVolume;
+            stock.relative = stock.referenceClose > 0 ? stock.lastClose / stock.referenceClose : 1.0;
+            weightSum += stock.weight;
+            weightedReturnSum += stock.weight * stock.relative;
+            stock.counted = true;
+        }
+
+        private double level() {
+            return weightSum > 0 ? baseLevel * weightedReturnSum / weightSum : baseLevel;
+        }
+
+        private void publishPoint() {
+            BreadthPoint point = new BreadthPoint(slot, advancers, decliners, unchanged, slotNewHighs, slotNewLows,
+                    totalVolume, BigDecimal.valueOf(lastLevel).setScale(2, RoundingMode.HALF_UP));
+            if (!series.isEmpty() && series.get(series.size() - 1).timestamp().equals(slot)) {
+                series.set(series.size() - 1, point);
+            } else {
+                series.add(point);
+            }
+        }
+    }
+
+    /**
+     * Session state of one stock. The last applied slot is kept so a slot ingested again replaces its
+     * volume rather than adding it twice, and so an older candle is ignored.
+     */
+    private static final class StockState {
+        private LocalDate sessionDate;
+        private LocalDateTime lastTimestamp;
+        private long lastVolume;
+        // Whether this stock already counted as a new high or low in its last applied slot
+        private boolean slotNewHigh;
+        private boolean slotNewLow;
+        private double referenceClose;
+        private double lastClose;
+        private double sessionHigh;
+        private double sessionLow;
+        private long sessionVolume;
+
+        // Current contribution to the exchange aggregates
+        private boolean counted;
+        private int direction;
+        private double weight;
+        private double relative;
+    }
+}
@@ -0,0 +1,299 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.BulkStockResponse;
+import com.stock.stock_trend_tracker.dto.StockRegistration;
+import com.stock.stock_trend_tracker.dto.StockRegistrationOutcome;
+import com.stock.stock_trend_tracker.dto.StockRegistrationOutcome.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Registers or updates stocks in bulk. Each chunk of stock.bulk.chunk-size rows resolves its symbols with
+ * one IN query and is written with JDBC batches in its own transaction; the second-level cache and
+ * snapshots are invalidated once per chunk instead of once per row. A chunk that loses an insert race with
+ * a concurrent request is rolled back and retried, so committed chunks always get their outcomes returned;
+ * a chunk that still cannot be written has its rows reported as FAILED and the remaining chunks go on.
+ */
+@Service
+public class BulkStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStockService.class);
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${stock.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Register a list of stocks
+     * @param registrations Rows in request order
+     * @return Counts and one outcome per row
+     */
+    public BulkStockResponse register(List<StockRegistration> registrations) {
+        return register(registrations.stream().map(ParsedRow::of).iterator());
+    }
+
+    /**
+     * Register stocks from newline-delimited JSON, one object per line, reading one chunk at a time.
+     * A line that is not a valid registration is reported as INVALID and does not stop the rest.
+     * @param reader NDJSON source; blank lines are skipped
+     * @return Counts and one outcome per non-blank line
+     */
+    public BulkStockResponse registerNdjson(Reader reader) {
+        BufferedReader lines = new BufferedReader(reader);
+        return register(new Iterator<>() {
+            private String next = advance();
+
+            private String advance() {
+                try {
+                    String line;
+                    do {
+                        line = lines.readLine();
+                    } while (line != null && line.isBlank());
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ParsedRow next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                String line = next;
+                next = advance();
+                try {
+                    return ParsedRow.of(objectMapper.readValue(line, StockRegistration.class));
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        });
+    }
+
+    private BulkStockResponse register(Iterator<ParsedRow> rows) {
+        long started = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<StockRegistrationOutcome> outcomes = new ArrayList<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize || !rows.hasNext()) {
+                outcomes.addAll(writeChunk(chunk, outcomes.size(), transaction));
+                chunk.clear();
+            }
+        }
+
+        int[] counts = new int[Status.values().length];
+        for (StockRegistrationOutcome outcome : outcomes) {
+            counts[outcome.status().ordinal()]++;
+        }
+        BulkStockResponse response = new BulkStockResponse(counts[Status.CREATED.ordinal()],
+                counts[Status.UPDATED.ordinal()], counts[Status.UNCHANGED.ordinal()],
+                counts[Status.INVALID.ordinal()], counts[Status.FAILED.ordinal()],
+                (System.nanoTime() - started) / 1_000_000, outcomes);
+        logger.info("Bulk stock registration of {} rows: {} created, {} updated, {} unchanged, {} rejected, "
+                        + "{} failed in {} ms", outcomes.size(), response.created(), response.updated(),
+                response.unchanged(), response.rejected(), response.failed(), response.elapsedMillis());
+        return response;
+    }
+
+    private List<StockRegistrationOutcome> writeChunk(List<ParsedRow> chunk, int firstIndex,
+                                                      TransactionTemplate transaction) {
+        StockRegistrationOutcome[] results = new StockRegistrationOutcome[chunk.size()];
+
+        // Validate, and keep only the last row of a symbol that appears more than once
+        Map<String, Integer> rowBySymbol = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = chunk.get(i);
+            String symbol = row.registration() != null ? trimToNull(row.registration().symbol()) : null;
+            String error = row.error() != null ? row.error()
+                    : symbol == null ? "Symbol is required"
+                    : trimToNull(row.registration().name()) == null ? "Name is required"
+                    : null;
+            if (error != null) {
+                results[i] = new StockRegistrationOutcome(firstIndex + i, symbol, Status.INVALID, null, error);
+                continue;
+            }
+            Integer previous = rowBySymbol.put(symbol, i);
+            if (previous != null) {
+                results[previous] = new StockRegistrationOutcome(firstIndex + previous, symbol, Status.SUPERSEDED,
+                        null, null);
+            }
+        }
+
+        if (!rowBySymbol.isEmpty()) {
+            ChunkWrite write = null;
+            for (int attempt = 1; write == null; attempt++) {
+                try {
+                    write = transaction.execute(status -> write(chunk, rowBySymbol, firstIndex, results));
+                } catch (DuplicateKeyException e) {
+                    // Another request inserted one of the new symbols since they were resolved; the chunk was
+                    // rolled back, and the next attempt resolves that symbol as an existing stock
+                    if (attempt == MAX_CHUNK_ATTEMPTS) {
+                        logger.warn("Bulk stock chunk at row {} kept conflicting with concurrent inserts",
+                                firstIndex, e);
+                        fail(rowBySymbol, firstIndex, results, "Conflicting concurrent registration, please retry");
+                        break;
+                    }
+                    logger.debug("Retrying bulk stock chunk at row {} after a concurrent insert", firstIndex);
+                } catch (DataAccessException | TransactionException e) {
+                    logger.error("Bulk stock chunk at row {} could not be written", firstIndex, e);
+                    fail(rowBySymbol, firstIndex, results, "Could not be written, please retry");
+                    break;
+                }
+            }
+            if (write != null) {
+                invalidate(write);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Report every row of a rolled-back chunk as FAILED, replacing any outcome the failed attempt recorded
+     */
+    private static void fail(Map<String, Integer> rowBySymbol, int firstIndex, StockRegistrationOutcome[] results,
+                             String error) {
+        rowBySymbol.forEach((symbol, i) -> results[i] = new StockRegistrationOutcome(firstIndex + i, symbol,
+                Status.FAILED, null, error));
+    }
+
+    private ChunkWrite write(List<ParsedRow> chunk, Map<String, Integer> rowBySymbol, int firstIndex,
+                             StockRegistrationOutcome[] results) {
+        Map<String, ExistingStock> existing = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, symbol, name, exchange FROM stocks WHERE symbol IN (" + placeholders(rowBySymbol.size()) + ")",
+                rs -> {
+                    existing.put(rs.getString(2), new ExistingStock(rs.getLong(1), rs.getString(3), rs.getString(4)));
+                },
+                rowBySymbol.keySet().toArray());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<String> insertedSymbols = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : rowBySymbol.entrySet()) {
+            String symbol = entry.getKey();
+            int i = entry.getValue();
+            StockRegistration registration = chunk.get(i).registration();
+            String name = registration.name().trim();
+            String exchange = trimToNull(registration.exchange());
+            ExistingStock current = existing.get(symbol);
+            if (current == null) {
+                inserts.add(new Object[] {symbol, name, exchange, now, now});
+                insertedSymbols.add(symbol);
+            } else if (name.equals(current.name()) && Objects.equals(exchange, current.exchange())) {
+                results[i] = new StockRegistrationOutcome(firstIndex + i, symbol, Status.UNCHANGED, current.id(), null);
+            } else {
+                updates.add(new Object[] {name, exchange, now, current.id()});
+                updatedIds.add(current.id());
+                results[i] = new StockRegistrationOutcome(firstIndex + i, symbol, Status.UPDATED, current.id(), null);
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE stocks SET name = ?, exchange = ?, updated_at = ? WHERE id = ?", updates);
+        }
+        List<Long> createdIds = new ArrayList<>();
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO stocks (symbol, name, exchange, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                    inserts);
+            // Read the identity values back with one more IN query instead of per-row generated keys
+            jdbcTemplate.query(
+                    "SELECT id, symbol FROM stocks WHERE symbol IN (" + placeholders(insertedSymbols.size()) + ")",
+                    rs -> {
+                        int i = rowBySymbol.get(rs.getString(2));
+                        results[i] = new StockRegistrationOutcome(firstIndex + i, rs.getString(2), Status.CREATED,
+                                rs.getLong(1), null);
+                        createdIds.add(rs.getLong(1));
+                    },
+                    insertedSymbols.toArray());
+        }
+        return new ChunkWrite(createdIds, updatedIds);
+    }
+
+    /**
+     * The JDBC writes bypass Hibernate; the change event makes {@link StockCacheEvictor} drop what the
+     * second-level and query caches of every node hold about the changed stocks
+     */
+    private void invalidate(ChunkWrite write) {
+        if (write.createdIds().isEmpty() && write.updatedIds().isEmpty()) {
+            return;
+        }
+        List<Long> changed = new ArrayList<>(write.createdIds());
+        changed.addAll(write.updatedIds());
+        clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, changed);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record ParsedRow(StockRegistration registration, String error) {
+
+        static ParsedRow of(StockRegistration registration) {
+            return new ParsedRow(registration, null);
+        }
+    }
+
+    private record ExistingStock(long id, String name, String exchange) {
+    }
+
+    private record ChunkWrite(List<Long> createdIds, List<Long> updatedIds) {
+    }
+}
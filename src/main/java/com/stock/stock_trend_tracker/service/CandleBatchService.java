@@ -0,0 +1,264 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.archive.CandleBlockCodec;
+import com.stock.stock_trend_tracker.domain.CandleArchiveBlock;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.BatchCandleRequest;
+import com.stock.stock_trend_tracker.dto.BatchCandleResponse;
+import com.stock.stock_trend_tracker.dto.CandleColumns;
+import com.stock.stock_trend_tracker.dto.HistoryBar;
+import com.stock.stock_trend_tracker.repository.CandleArchiveBlockRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fetches candles of many stocks over one range with a single IN-list range query per chunk of stocks,
+ * instead of one lookup and one candle query per stock
+ */
+@Service
+public class CandleBatchService {
+
+    public static final String ROWS = "ROWS";
+    public static final String COLUMNAR = "COLUMNAR";
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private CandleArchiveBlockRepository candleArchiveBlockRepository;
+
+    @Autowired
+    private CandleArchiveService candleArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.batch-candles.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${stock.batch-candles.max-stocks:2000}")
+    private int maxStocks;
+
+    /**
+     * Get candles for every requested stock, grouped by symbol
+     * @param request Stocks, timeframe, range and output format
+     * @return Candles per symbol in the requested format
+     * @throws IllegalArgumentException if the timeframe, range or format is invalid, a symbol is null or blank,
+     *         or more than stock.batch-candles.max-stocks IDs and symbols are requested
+     */
+    public BatchCandleResponse<?> getCandles(BatchCandleRequest request) {
+        String format = request.format() != null ? request.format().toUpperCase(Locale.ROOT) : ROWS;
+        if (!ROWS.equals(format) && !COLUMNAR.equals(format)) {
+            throw new IllegalArgumentException("Unknown format: " + request.format());
+        }
+        if (request.timeframe() == null || Timeframes.toDuration(request.timeframe()).isEmpty()) {
+            throw new IllegalArgumentException("Unknown timeframe: " + request.timeframe());
+        }
+        LocalDateTime end = request.end() != null ? request.end() : LocalDateTime.now();
+        LocalDateTime start = request.start() != null ? request.start() : end.minusDays(1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("start must be before end");
+        }
+
+        // Checked before any lookup, so an oversized request never reaches the database
+        Set<Long> stockIds = request.stockIds() != null ? new LinkedHashSet<>(request.stockIds()) : Set.of();
+        Set<String> symbols = new LinkedHashSet<>();
+        if (request.symbols() != null) {
+            for (String symbol : request.symbols()) {
+                if (symbol == null || symbol.isBlank()) {
+                    throw new IllegalArgumentException("Symbols must not be null or blank");
+                }
+                symbols.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (stockIds.size() + symbols.size() > maxStocks) {
+            throw new IllegalArgumentException("At most " + maxStocks + " stock IDs and symbols per request");
+        }
+
+        List<String> notFound = new ArrayList<>();
+        Map<Long, Stock> stocks = resolveStocks(stockIds, symbols, notFound);
+
+        Map<Long, SeriesBuilder> builders = new LinkedHashMap<>();
+        stocks.keySet().forEach(id -> builders.put(id, new SeriesBuilder()));
+        List<Long> ids = new ArrayList<>(stocks.keySet());
+        boolean archived = start.isBefore(candleArchiveService.archiveCutoff());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            if (archived) {
+                readArchive(chunk, stocks, request.timeframe(), start, end, builders);
+            }
+            readHot(chunk, request.timeframe(), start, end, builders);
+        }
+
+        if (COLUMNAR.equals(format)) {
+            Map<String, CandleColumns> series = new LinkedHashMap<>();
+            builders.forEach((id, builder) -> series.put(stocks.get(id).getSymbol(), builder.toColumns(id)));
+            return new BatchCandleResponse<>(request.timeframe(), start, end, format, series, notFound);
+        }
+        Map<String, List<HistoryBar>> series = new LinkedHashMap<>();
+        builders.forEach((id, builder) -> series.put(stocks.get(id).getSymbol(), builder.toBars()));
+        return new BatchCandleResponse<>(request.timeframe(), start, end, format, series, notFound);
+    }
+
+    /**
+     * Resolve IDs and upper-cased symbols to stocks in request order, with one query each
+     */
+    private Map<Long, Stock> resolveStocks(Set<Long> stockIds, Set<String> symbols, List<String> notFound) {
+        Map<Long, Stock> stocks = new LinkedHashMap<>();
+        if (!stockIds.isEmpty()) {
+            Map<Long, Stock> byId = new LinkedHashMap<>();
+            stockRepository.findAllById(stockIds).forEach(stock -> byId.put(stock.getId(), stock));
+            for (Long id : stockIds) {
+                Stock stock = byId.get(id);
+                if (stock != null) {
+                    stocks.put(id, stock);
+                } else {
+                    notFound.add(String.valueOf(id));
+                }
+            }
+        }
+
+        if (!symbols.isEmpty()) {
+            Map<String, Stock> bySymbol = new LinkedHashMap<>();
+            // Symbols differing only in case resolve to the oldest stock
+            stockRepository.findBySymbolIgnoreCaseIn(symbols)
+                    .forEach(stock -> bySymbol.putIfAbsent(stock.getSymbol().toUpperCase(Locale.ROOT), stock));
+            for (String symbol : symbols) {
+                Stock stock = bySymbol.get(symbol);
+                if (stock != null) {
+                    stocks.putIfAbsent(stock.getId(), stock);
+                } else {
+                    notFound.add(symbol);
+                }
+            }
+        }
+        return stocks;
+    }
+
+    private void readArchive(List<Long> chunk, Map<Long, Stock> stocks, String timeframe, LocalDateTime start,
+                             LocalDateTime end, Map<Long, SeriesBuilder> builders) {
+        List<CandleArchiveBlock> blocks = candleArchiveBlockRepository.findBlocksInRange(
+                chunk, timeframe, start.toLocalDate(), end.toLocalDate());
+        for (CandleArchiveBlock block : blocks) {
+            Long stockId = block.getStock().getId();
+            SeriesBuilder builder = builders.get(stockId);
+            for (PriceCandle candle : CandleBlockCodec.decode(block.getPayload(), stocks.get(stockId), timeframe)) {
+                if (!candle.getTimestamp().isBefore(start) && candle.getTimestamp().isBefore(end)) {
+                    builder.add(candle.getTimestamp(), candle.getOpenPrice(), candle.getHighPrice(),
+                            candle.getLowPrice(), candle.getClosePrice(), candle.getVolume());
+                }
+            }
+        }
+    }
+
+    private void readHot(List<Long> chunk, String timeframe, LocalDateTime start, LocalDateTime end,
+                         Map<Long, SeriesBuilder> builders) {
+        Object[] args = new Object[chunk.size() + 3];
+        args[0] = timeframe;
+        args[1] = Timestamp.valueOf(start);
+        args[2] = Timestamp.valueOf(end);
+        for (int i = 0; i < chunk.size(); i++) {
+            args[i + 3] = chunk.get(i);
+        }
+        jdbcTemplate.query(
+                "SELECT stock_id, timestamp, open_price, high_price, low_price, close_price, volume " +
+                "FROM price_candles WHERE timeframe = ? AND timestamp >= ? AND timestamp < ? " +
+                "AND stock_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                "ORDER BY stock_id, timestamp",
+                rs -> {
+                    long volume = rs.getLong(7);
+                    Long nullableVolume = rs.wasNull() ? null : volume;
+                    builders.get(rs.getLong(1)).add(rs.getTimestamp(2).toLocalDateTime(), rs.getBigDecimal(3),
+                            rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6), nullableVolume);
+                },
+                args);
+    }
+
+    /**
+     * Accumulates one stock's candles as columns. Archived candles arrive before hot ones; a hot row for an
+     * already archived timestamp (a late backfill not yet archived) replaces the archived one.
+     */
+    private static class SeriesBuilder {
+        private final List<LocalDateTime> timestamps = new ArrayList<>();
+        private final List<BigDecimal> open = new ArrayList<>();
+        private final List<BigDecimal> high = new ArrayList<>();
+        private final List<BigDecimal> low = new ArrayList<>();
+        private final List<BigDecimal> close = new ArrayList<>();
+        private final List<Long> volume = new ArrayList<>();
+        private boolean ordered = true;
+
+        void add(LocalDateTime timestamp, BigDecimal o, BigDecimal h, BigDecimal l, BigDecimal c, Long v) {
+            if (!timestamps.isEmpty() && !timestamp.isAfter(timestamps.get(timestamps.size() - 1))) {
+                ordered = false;
+            }
+            timestamps.add(timestamp);
+            open.add(o);
+            high.add(h);
+            low.add(l);
+            close.add(c);
+            volume.add(v);
+        }
+
+        CandleColumns toColumns(Long stockId) {
+            if (!ordered) {
+                reorder();
+            }
+            return new CandleColumns(stockId, timestamps, open, high, low, close, volume);
+        }
+
+        List<HistoryBar> toBars() {
+            if (!ordered) {
+                reorder();
+            }
+            List<HistoryBar> bars = new ArrayList<>(timestamps.size());
+            for (int i = 0; i < timestamps.size(); i++) {
+                bars.add(new HistoryBar(timestamps.get(i), open.get(i), high.get(i), low.get(i), close.get(i),
+                        volume.get(i) != null ? volume.get(i) : 0));
+            }
+            return bars;
+        }
+
+        private void reorder() {
+            // Later entries win, so hot rows override archived ones with the same timestamp
+            TreeMap<LocalDateTime, Integer> latest = new TreeMap<>();
+            for (int i = 0; i < timestamps.size(); i++) {
+                latest.put(timestamps.get(i), i);
+            }
+            List<Integer> order = new ArrayList<>(latest.values());
+            reorder(timestamps, order);
+            reorder(open, order);
+            reorder(high, order);
+            reorder(low, order);
+            reorder(close, order);
+            reorder(volume, order);
+            ordered = true;
+        }
+
+        private static <T> void reorder(List<T> column, List<Integer> order) {
+            List<T> copy = new ArrayList<>(column);
+            column.clear();
+            for (int index : order) {
+                column.add(copy.get(index));
+            }
+        }
+    }
+}
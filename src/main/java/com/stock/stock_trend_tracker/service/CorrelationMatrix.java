@@ -0,0 +1,191 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Dense N×N covariance and correlation matrices of log returns, stored row-major in primitive arrays
+ */
+public class CorrelationMatrix {
+
+    private static final int TILE = 64;
+    private static final int TILES_PER_TASK = 4;
+
+    private final long[] stockIds;
+    private final String[] symbols;
+    private final String timeframe;
+    private final int window;
+    private final LocalDateTime computedAt;
+    private final double[] covariance;
+    private final double[] correlation;
+
+    private CorrelationMatrix(long[] stockIds, String[] symbols, String timeframe, int window,
+                              double[] covariance, double[] correlation) {
+        this.stockIds = stockIds;
+        this.symbols = symbols;
+        this.timeframe = timeframe;
+        this.window = window;
+        this.computedAt = LocalDateTime.now();
+        this.covariance = covariance;
+        this.correlation = correlation;
+    }
+
+    /**
+     * Compute the matrices from demeaned returns
+     * @param stockIds Stock IDs, one per row
+     * @param symbols Stock symbols, one per row
+     * @param returns Demeaned log returns, row-major n × window
+     * @param window Number of returns per stock
+     * @param pool Pool used to compute tiles in parallel
+     */
+    static CorrelationMatrix compute(long[] stockIds, String[] symbols, String timeframe, double[] returns,
+                                     int window, ForkJoinPool pool) {
+        int n = stockIds.length;
+        double[] covariance = new double[n * n];
+        if (n > 0 && window > 1) {
+            int tiles = (n + TILE - 1) / TILE;
+            int[] pairs = new int[tiles * (tiles + 1)];
+            int p = 0;
+            for (int ti = 0; ti < tiles; ti++) {
+                for (int tj = ti; tj < tiles; tj++) {
+                    pairs[p++] = ti;
+                    pairs[p++] = tj;
+                }
+            }
+            pool.invoke(new TileTask(returns, covariance, n, window, pairs, 0, p / 2));
+        }
+
+        double[] stdDev = new double[n];
+        for (int i = 0; i < n; i++) {
+            stdDev[i] = Math.sqrt(covariance[i * n + i]);
+        }
+        double[] correlation = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double denominator = stdDev[i] * stdDev[j];
+                correlation[i * n + j] = i == j ? 1.0 : denominator > 0 ? covariance[i * n + j] / denominator : 0.0;
+            }
+        }
+        return new CorrelationMatrix(stockIds, symbols, timeframe, window, covariance, correlation);
+    }
+
+    public int size() {
+        return stockIds.length;
+    }
+
+    public long stockIdAt(int index) {
+        return stockIds[index];
+    }
+
+    public String symbolAt(int index) {
+        return symbols[index];
+    }
+
+    public String getTimeframe() {
+        return timeframe;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public double covariance(int i, int j) {
+        return covariance[i * stockIds.length + j];
+    }
+
+    public double correlation(int i, int j) {
+        return correlation[i * stockIds.length + j];
+    }
+
+    /**
+     * Row index of a stock, or -1 if the stock had too little history to be included
+     */
+    public int indexOf(long stockId) {
+        for (int i = 0; i < stockIds.length; i++) {
+            if (stockIds[i] == stockId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indices of the k stocks most correlated with the given row, highest correlation first
+     */
+    public int[] topCorrelates(int row, int k) {
+        int n = stockIds.length;
+        Integer[] order = new Integer[n - 1];
+        for (int j = 0, p = 0; j < n; j++) {
+            if (j != row) {
+                order[p++] = j;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(correlation(row, b), correlation(row, a)));
+        int[] top = new int[Math.min(k, order.length)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    /**
+     * Computes a slice of the upper-triangular tile pairs, splitting until the slice is small
+     */
+    private static class TileTask extends RecursiveAction {
+        private final double[] returns;
+        private final double[] covariance;
+        private final int n;
+        private final int window;
+        private final int[] pairs;
+        private final int from;
+        private final int to;
+
+        TileTask(double[] returns, double[] covariance, int n, int window, int[] pairs, int from, int to) {
+            this.returns = returns;
+            this.covariance = covariance;
+            this.n = n;
+            this.window = window;
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int p = from; p < to; p++) {
+                    computeTile(pairs[2 * p], pairs[2 * p + 1]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileTask(returns, covariance, n, window, pairs, from, mid),
+                      new TileTask(returns, covariance, n, window, pairs, mid, to));
+        }
+
+        private void computeTile(int tileRow, int tileCol) {
+            int rowEnd = Math.min((tileRow + 1) * TILE, n);
+            int colEnd = Math.min((tileCol + 1) * TILE, n);
+            double scale = 1.0 / (window - 1);
+            for (int i = tileRow * TILE; i < rowEnd; i++) {
+                int rowOffset = i * window;
+                for (int j = Math.max(tileCol * TILE, i); j < colEnd; j++) {
+                    int colOffset = j * window;
+                    double sum = 0;
+                    for (int t = 0; t < window; t++) {
+                        sum += returns[rowOffset + t] * returns[colOffset + t];
+                    }
+                    double value = sum * scale;
+                    covariance[i * n + j] = value;
+                    covariance[j * n + i] = value;
+                }
+            }
+        }
+    }
+}
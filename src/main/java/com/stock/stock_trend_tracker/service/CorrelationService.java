@@ -0,0 +1,199 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes cross-asset covariance/correlation matrices of log returns from stored candles.
+ * Results are cached per (timeframe, window) until the next ingestion tick. Tick events are only published
+ * once their candles are persisted (see {@link PriceTickEvent}), so a matrix computed after a tick's version
+ * bump always includes that tick's bars. At most
+ * stock.correlation.max-cached-matrices are kept; each one holds two N×N double arrays.
+ */
+@Service
+public class CorrelationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorrelationService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.correlation.max-cached-matrices:4}")
+    private int maxCachedMatrices;
+
+    // Guarded by itself; only lookups and inserts run under the lock, never a computation
+    private final Map<MatrixKey, CompletableFuture<CorrelationMatrix>> cache = new LinkedHashMap<>();
+
+    // Bumped on every persisted tick, from this node or another, so a computation that read the database
+    // before the tick's bars were there is never served afterwards
+    private final AtomicLong tickVersion = new AtomicLong();
+
+    /**
+     * Only bumps the version: stale matrices are dropped by the next request, not on the ingestion thread.
+     * A tick without candles changes nothing stored.
+     */
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        if (!event.candles().isEmpty()) {
+            tickVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the correlation matrix over the last {@code window} returns of the given timeframe
+     * @param timeframe Candle timeframe (e.g., "5m")
+     * @param window Number of returns per stock
+     * @return Matrix covering every stock with at least half of the window's returns observed
+     */
+    public CorrelationMatrix getMatrix(String timeframe, int window) {
+        long version = tickVersion.get();
+        MatrixKey key = new MatrixKey(timeframe, window, version);
+        CompletableFuture<CorrelationMatrix> pending = new CompletableFuture<>();
+        CompletableFuture<CorrelationMatrix> existing;
+        synchronized (cache) {
+            cache.keySet().removeIf(k -> k.tickVersion() != version);
+            existing = cache.putIfAbsent(key, pending);
+            if (existing == null && cache.size() > maxCachedMatrices) {
+                Iterator<MatrixKey> eldest = cache.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        if (existing != null) {
+            // Concurrent requests for the same matrix wait for the one computation in flight
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            CorrelationMatrix matrix = compute(timeframe, window);
+            pending.complete(matrix);
+            return matrix;
+        } catch (RuntimeException e) {
+            synchronized (cache) {
+                cache.remove(key, pending);
+            }
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CorrelationMatrix compute(String timeframe, int window) {
+        long started = System.nanoTime();
+        Duration step = Timeframes.toDuration(timeframe)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown timeframe: " + timeframe));
+        int slots = window + 1;
+        LocalDateTime end = Timeframes.bucketStart(LocalDateTime.now(), step).plus(step);
+        LocalDateTime start = end.minus(step.multipliedBy(slots));
+        long startEpoch = start.toEpochSecond(ZoneOffset.UTC);
+        long stepSeconds = step.getSeconds();
+
+        Map<Long, String> symbols = new HashMap<>();
+        jdbcTemplate.query("SELECT id, symbol FROM stocks",
+                rs -> { symbols.put(rs.getLong(1), rs.getString(2)); });
+
+        // One streaming pass over the window: closes land in a dense slot array per stock
+        Map<Long, double[]> closesByStock = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT stock_id, timestamp, close_price FROM price_candles " +
+                "WHERE timeframe = ? AND timestamp >= ? AND timestamp < ?",
+                rs -> {
+                    double[] closes = closesByStock.computeIfAbsent(rs.getLong(1), id -> {
+                        double[] empty = new double[slots];
+                        Arrays.fill(empty, Double.NaN);
+                        return empty;
+                    });
+                    long epoch = rs.getTimestamp(2).toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+                    int slot = (int) ((epoch - startEpoch) / stepSeconds);
+                    if (slot >= 0 && slot < slots) {
+                        closes[slot] = rs.getDouble(3);
+                    }
+                },
+                timeframe, Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+        int n = 0;
+        long[] stockIds = new long[closesByStock.size()];
+        String[] stockSymbols = new String[closesByStock.size()];
+        double[] returns = new double[Math.multiplyExact(closesByStock.size(), window)];
+        for (Map.Entry<Long, double[]> entry : closesByStock.entrySet()) {
+            if (fillReturns(entry.getValue(), returns, n * window, window)) {
+                stockIds[n] = entry.getKey();
+                stockSymbols[n] = symbols.get(entry.getKey());
+                n++;
+            }
+        }
+
+        CorrelationMatrix matrix = CorrelationMatrix.compute(Arrays.copyOf(stockIds, n),
+                Arrays.copyOf(stockSymbols, n), timeframe, Arrays.copyOf(returns, n * window), window,
+                ForkJoinPool.commonPool());
+        logger.info("Computed {}x{} correlation matrix ({} window of {}) in {} ms", n, n, window, timeframe,
+                (System.nanoTime() - started) / 1_000_000);
+        return matrix;
+    }
+
+    /**
+     * Forward-fill closes and write demeaned log returns into {@code returns} at {@code offset}.
+     * Returns before the first observed close, and across filled slots, count as zero; a stock qualifies only
+     * if at least half of its window's returns are observed (both closes stored), so a stock that listed
+     * recently does not get a row made mostly of zero-filled returns.
+     * @return false if fewer than {@code max(1, window / 2)} returns are observed
+     */
+    static boolean fillReturns(double[] closes, double[] returns, int offset, int window) {
+        int observedReturns = 0;
+        boolean previousObserved = false;
+        double previous = Double.NaN;
+        double sum = 0;
+        for (int t = 0; t < closes.length; t++) {
+            double close = closes[t];
+            boolean observed = !Double.isNaN(close) && close > 0;
+            if (!observed) {
+                close = previous;
+            }
+            if (t > 0) {
+                double r = Double.isNaN(previous) || Double.isNaN(close) ? 0.0 : Math.log(close / previous);
+                returns[offset + t - 1] = r;
+                sum += r;
+                if (observed && previousObserved) {
+                    observedReturns++;
+                }
+            }
+            previous = close;
+            previousObserved = observed;
+        }
+        if (observedReturns < Math.max(1, window / 2)) {
+            return false;
+        }
+        double mean = sum / window;
+        for (int t = 0; t < window; t++) {
+            returns[offset + t] -= mean;
+        }
+        return true;
+    }
+
+    private record MatrixKey(String timeframe, int window, long tickVersion) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.Timeframes;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Bar intervals accepted by the history endpoint (e.g., interval=DAILY)
+ */
+public enum HistoryInterval {
+    MINUTE(Duration.ofMinutes(1)),
+    FIVE_MINUTES(Duration.ofMinutes(5)),
+    FIFTEEN_MINUTES(Duration.ofMinutes(15)),
+    THIRTY_MINUTES(Duration.ofMinutes(30)),
+    HOURLY(Duration.ofHours(1)),
+    FOUR_HOURS(Duration.ofHours(4)),
+    DAILY(Duration.ofDays(1)),
+    WEEKLY(Duration.ofDays(7));
+
+    private final Duration duration;
+
+    HistoryInterval(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Resolve an interval from its enum name (e.g., "DAILY") or timeframe label (e.g., "1d")
+     */
+    public static Optional<HistoryInterval> fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(i -> i.name().equalsIgnoreCase(code) || Timeframes.toLabel(i.duration).equals(code))
+                .findFirst();
+    }
+}
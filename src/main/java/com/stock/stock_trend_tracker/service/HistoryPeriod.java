@@ -0,0 +1,46 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Look-back periods accepted by the history endpoint (e.g., period=1M)
+ */
+public enum HistoryPeriod {
+    ONE_DAY("1D", Period.ofDays(1)),
+    FIVE_DAYS("5D", Period.ofDays(5)),
+    ONE_WEEK("1W", Period.ofWeeks(1)),
+    ONE_MONTH("1M", Period.ofMonths(1)),
+    THREE_MONTHS("3M", Period.ofMonths(3)),
+    SIX_MONTHS("6M", Period.ofMonths(6)),
+    ONE_YEAR("1Y", Period.ofYears(1)),
+    TWO_YEARS("2Y", Period.ofYears(2)),
+    FIVE_YEARS("5Y", Period.ofYears(5));
+
+    private final String code;
+    private final Period length;
+
+    HistoryPeriod(String code, Period length) {
+        this.code = code;
+        this.length = length;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public LocalDateTime startFrom(LocalDateTime now) {
+        return now.minus(length);
+    }
+
+    /**
+     * Resolve a period from its code (e.g., "1M") or enum name
+     */
+    public static Optional<HistoryPeriod> fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(p -> p.code.equalsIgnoreCase(code) || p.name().equalsIgnoreCase(code))
+                .findFirst();
+    }
+}
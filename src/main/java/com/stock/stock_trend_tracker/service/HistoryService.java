@@ -0,0 +1,211 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.HistoryBar;
+import com.stock.stock_trend_tracker.dto.StockHistoryResponse;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Serves rolled-up price history. Bars of fully closed buckets are cached per (stock, period, interval);
+ * each request only queries the candles at or after the cached boundary and rolls those up.
+ */
+@Service
+public class HistoryService {
+
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+
+    @Autowired
+    private CandleArchiveService candleArchiveService;
+
+    @Value("${stock.history.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${stock.history.cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    /**
+     * Candles may reach the database shortly after their timestamp (write-behind), so a bucket is only
+     * treated as closed once this much time has passed since its end.
+     */
+    @Value("${stock.history.settle-seconds:60}")
+    private long settleSeconds;
+
+    private LruTtlCache<HistoryKey, ClosedHistory> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LruTtlCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Get the price history of a stock rolled up to the given interval
+     * @param stock The stock entity
+     * @param period Look-back period
+     * @param interval Bar interval
+     * @return History response with bars in ascending time order, or empty if the stock has candles but no
+     *         stored timeframe evenly divides the interval (e.g., only 5m candles for a MINUTE request)
+     */
+    public Optional<StockHistoryResponse> getHistory(Stock stock, HistoryPeriod period, HistoryInterval interval) {
+        LocalDateTime now = LocalDateTime.now();
+        Duration bucket = interval.getDuration();
+        LocalDateTime start = Timeframes.bucketStart(period.startFrom(now), bucket);
+        LocalDateTime openBucket = Timeframes.bucketStart(now.minusSeconds(settleSeconds), bucket);
+
+        HistoryKey key = new HistoryKey(stock.getId(), period, interval);
+        ClosedHistory closed = cache.get(key);
+        if (closed == null) {
+            Set<String> stored = candleArchiveService.findTimeframes(stock.getId());
+            if (stored.isEmpty()) {
+                return Optional.of(new StockHistoryResponse(stock.getId(), stock.getSymbol(), period.getCode(),
+                        interval.name(), null, List.of()));
+            }
+            Optional<String> timeframe = chooseTimeframe(stored, bucket);
+            if (timeframe.isEmpty()) {
+                return Optional.empty();
+            }
+            // Long periods reach back into the archive tier; those blocks are decoded transparently
+            List<PriceCandle> candles = candleArchiveService.findCandles(stock, timeframe.get(), start, openBucket);
+            closed = new ClosedHistory(timeframe.get(), openBucket, List.copyOf(rollup(candles, bucket)));
+            cache.put(key, closed);
+        }
+
+        // The only query on a cache hit: everything from the closed boundary onwards
+        List<PriceCandle> recent = priceCandleRepository.findByStockIdAndTimeframeInRange(
+                stock.getId(), closed.timeframe(), closed.closedUntil(), now.plus(bucket));
+        List<HistoryBar> recentBars = rollup(recent, bucket);
+
+        if (openBucket.isAfter(closed.closedUntil())) {
+            List<HistoryBar> newlyClosed = recentBars.stream()
+                    .filter(bar -> bar.timestamp().isBefore(openBucket))
+                    .toList();
+            recentBars = recentBars.subList(newlyClosed.size(), recentBars.size());
+            closed = closed.extend(newlyClosed, openBucket, start);
+            cache.replace(key, closed);
+        }
+
+        List<HistoryBar> bars = new ArrayList<>(closed.bars().size() + recentBars.size());
+        for (HistoryBar bar : closed.bars()) {
+            if (!bar.timestamp().isBefore(start)) {
+                bars.add(bar);
+            }
+        }
+        bars.addAll(recentBars);
+        return Optional.of(new StockHistoryResponse(stock.getId(), stock.getSymbol(), period.getCode(),
+                interval.name(), closed.timeframe(), bars));
+    }
+
+    /**
+     * Drop the cached history of stocks whose stored candles changed outside ticks (gap repair, simulator,
+     * archiving); replayed from other nodes too, so no node keeps serving stale closed buckets
+     */
+    @EventListener
+    public void onStocksChanged(StocksChangedEvent event) {
+        evict(event.stockIds());
+    }
+
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        evict(event.stockIds());
+    }
+
+    private void evict(Collection<Long> stockIds) {
+        Set<Long> ids = Set.copyOf(stockIds);
+        cache.invalidateIf(key -> ids.contains(key.stockId()));
+    }
+
+    /**
+     * Pick the coarsest stored timeframe that evenly divides the bucket. Bars of any other timeframe would
+     * straddle bucket boundaries (or be coarser than the bucket), so there is no fallback.
+     */
+    static Optional<String> chooseTimeframe(Collection<String> timeframes, Duration bucket) {
+        String best = null;
+        Duration bestDuration = null;
+        for (String timeframe : timeframes) {
+            Optional<Duration> parsed = Timeframes.toDuration(timeframe);
+            if (parsed.isEmpty()) {
+                continue;
+            }
+            Duration duration = parsed.get();
+            boolean divides = duration.compareTo(bucket) <= 0 && bucket.getSeconds() % duration.getSeconds() == 0;
+            if (divides && (bestDuration == null || duration.compareTo(bestDuration) > 0)) {
+                best = timeframe;
+                bestDuration = duration;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Aggregate candles (ascending by timestamp) into OHLCV bars of the given bucket size
+     */
+    static List<HistoryBar> rollup(List<PriceCandle> candles, Duration bucket) {
+        List<HistoryBar> bars = new ArrayList<>();
+        LocalDateTime bucketStart = null;
+        BigDecimal open = null;
+        BigDecimal high = null;
+        BigDecimal low = null;
+        BigDecimal close = null;
+        long volume = 0;
+
+        for (PriceCandle candle : candles) {
+            LocalDateTime candleBucket = Timeframes.bucketStart(candle.getTimestamp(), bucket);
+            if (!candleBucket.equals(bucketStart)) {
+                if (bucketStart != null) {
+                    bars.add(new HistoryBar(bucketStart, open, high, low, close, volume));
+                }
+                bucketStart = candleBucket;
+                open = candle.getOpenPrice();
+                high = candle.getHighPrice();
+                low = candle.getLowPrice();
+                volume = 0;
+            } else {
+                high = high.max(candle.getHighPrice());
+                low = low.min(candle.getLowPrice());
+            }
+            close = candle.getClosePrice();
+            volume += candle.getVolume() != null ? candle.getVolume() : 0;
+        }
+        if (bucketStart != null) {
+            bars.add(new HistoryBar(bucketStart, open, high, low, close, volume));
+        }
+        return bars;
+    }
+
+    record HistoryKey(Long stockId, HistoryPeriod period, HistoryInterval interval) {
+    }
+
+    /**
+     * Bars of every bucket that ended before {@code closedUntil}; immutable so readers never see a partial update
+     */
+    record ClosedHistory(String timeframe, LocalDateTime closedUntil, List<HistoryBar> bars) {
+
+        ClosedHistory extend(List<HistoryBar> newlyClosed, LocalDateTime newClosedUntil, LocalDateTime start) {
+            List<HistoryBar> merged = new ArrayList<>(bars.size() + newlyClosed.size());
+            for (HistoryBar bar : bars) {
+                if (!bar.timestamp().isBefore(start)) {
+                    merged.add(bar);
+                }
+            }
+            merged.addAll(newlyClosed);
+            return new ClosedHistory(timeframe, newClosedUntil, List.copyOf(merged));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Small synchronized LRU cache whose entries also expire after a fixed time-to-live
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class LruTtlCache<K, V> {
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LruTtlCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get a live entry, dropping it if it has expired
+     * @param key Cache key
+     * @return Cached value or null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Store a value, restarting its time-to-live
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Replace a value while keeping the time-to-live of the existing entry
+     */
+    public synchronized void replace(K key, V value) {
+        Entry<V> existing = entries.get(key);
+        entries.put(key, new Entry<>(value, existing != null ? existing.storedAt : System.nanoTime()));
+    }
+
+    /**
+     * Drop every entry whose key matches
+     * @param filter Keys to drop
+     */
+    public synchronized void invalidateIf(Predicate<? super K> filter) {
+        entries.keySet().removeIf(filter);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+}
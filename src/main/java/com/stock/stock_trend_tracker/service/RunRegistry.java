@@ -0,0 +1,62 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Synchronized registry of background runs in submission order. Finished runs beyond the limit are dropped
+ * oldest first; queued and running runs are always kept, whatever the limit.
+ * @param <R> Run type
+ */
+public class RunRegistry<R> {
+
+    private final int maxRuns;
+    private final Predicate<? super R> finished;
+    private final LinkedHashMap<String, R> runs = new LinkedHashMap<>();
+
+    /**
+     * @param maxRuns Number of runs above which finished ones are dropped
+     * @param finished Whether a run has completed or failed
+     */
+    public RunRegistry(int maxRuns, Predicate<? super R> finished) {
+        this.maxRuns = maxRuns;
+        this.finished = finished;
+    }
+
+    /**
+     * Track a newly submitted run
+     * @param id Run ID
+     * @param run Run
+     */
+    public synchronized void add(String id, R run) {
+        runs.put(id, run);
+        evictFinished();
+    }
+
+    public synchronized Optional<R> get(String id) {
+        return Optional.ofNullable(runs.get(id));
+    }
+
+    /**
+     * @return Tracked runs in submission order
+     */
+    public synchronized List<R> list() {
+        return List.copyOf(runs.values());
+    }
+
+    /**
+     * Drop the oldest finished runs until at most maxRuns remain; called again whenever a run finishes
+     */
+    public synchronized void evictFinished() {
+        int excess = runs.size() - maxRuns;
+        for (Iterator<R> it = runs.values().iterator(); excess > 0 && it.hasNext(); ) {
+            if (finished.test(it.next())) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+}
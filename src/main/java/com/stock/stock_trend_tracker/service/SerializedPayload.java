@@ -0,0 +1,45 @@
+package com.stock.stock_trend_tracker.service;
+
+/**
+ * A JSON response body serialized once, optionally also gzip-compressed
+ * @param gzip Compressed body, or null if the body is below server.compression.min-response-size
+ */
+public record SerializedPayload(byte[] json, byte[] gzip) {
+
+    /**
+     * Whether an Accept-Encoding header allows a gzip response. An explicit gzip entry wins over "*",
+     * and a q-value of 0 (e.g., "gzip;q=0") refuses the coding.
+     * @param acceptEncoding Header value, or null if absent
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+}
@@ -0,0 +1,325 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.LatestCandleSnapshot;
+import com.stock.stock_trend_tracker.dto.StockStats;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized latest-candle and stats payloads per stock. After each ingestion tick the stocks of that
+ * tick are re-serialized once (and gzipped when large enough); requests are then answered with the stored
+ * bytes. Stocks not seen by a tick since startup are built on first request.
+ * Candle counts and timeframes for the stats are tallied in memory: seeded from {@code price_candles} once
+ * at startup and advanced by each tick's candles, so a tick costs no query beyond loading its stocks.
+ * Writers that change stored candles outside ticks (archival, gap repair, the simulator) publish
+ * {@link StocksChangedEvent}, after which the affected tallies are seeded again.
+ * Each eviction bumps the stock's generation; a snapshot or tally built from rows loaded before the eviction
+ * is dropped rather than stored, so an async tick refresh cannot bring back pre-eviction data.
+ * Not lazily initialized, so the tally scan counts towards startup rather than the first snapshot request.
+ */
+@Service
+@Lazy(false)
+public class SnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+    private static final int IN_LIST_CHUNK = 500;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize compressionThreshold;
+
+    private final Map<Long, StockSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Long, CandleTally> tallies = new ConcurrentHashMap<>();
+    private final AtomicLong generationCounter = new AtomicLong();
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private volatile long evictedAllGeneration;
+
+    /**
+     * Seed the candle tallies of every stock with one grouped scan
+     */
+    @PostConstruct
+    public void loadTallies() {
+        jdbcTemplate.query("SELECT stock_id, timeframe, COUNT(*), MAX(timestamp) FROM price_candles " +
+                        "GROUP BY stock_id, timeframe",
+                rs -> { tallies.computeIfAbsent(rs.getLong(1), id -> new CandleTally()).seed(rs.getString(2),
+                        rs.getLong(3), rs.getTimestamp(4).toLocalDateTime()); });
+        logger.info("Seeded candle tallies of {} stocks", tallies.size());
+    }
+
+    /**
+     * Re-serialize the snapshots of every stock in the tick, off the ingestion thread
+     */
+    @Async
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        try {
+            Map<Long, PriceCandle> latest = new LinkedHashMap<>();
+            for (PriceCandle candle : event.candles()) {
+                latest.merge(candle.getStock().getId(), candle,
+                        (a, b) -> b.getTimestamp().isBefore(a.getTimestamp()) ? a : b);
+            }
+            refresh(latest, event.candles());
+        } catch (Exception e) {
+            logger.error("Failed to refresh snapshots after price tick", e);
+        }
+    }
+
+    /**
+     * Get the serialized latest candle of a stock
+     * @param stockId Stock ID
+     * @return Payload, or empty if the stock does not exist or has no candles
+     */
+    public Optional<SerializedPayload> getLatestCandle(Long stockId) {
+        return snapshot(stockId).map(StockSnapshot::latestCandle);
+    }
+
+    /**
+     * Get the serialized statistics of a stock
+     * @param stockId Stock ID
+     * @return Payload, or empty if the stock does not exist
+     */
+    public Optional<SerializedPayload> getStats(Long stockId) {
+        return snapshot(stockId).map(StockSnapshot::stats);
+    }
+
+    /**
+     * Drop a stock's snapshot, e.g. after its metadata changed or it was deleted
+     * @param stockId Stock ID
+     */
+    public void evict(Long stockId) {
+        // Bumped before removing, so a build that loaded its rows earlier fails the check in store()
+        generations.put(stockId, generationCounter.incrementAndGet());
+        snapshots.remove(stockId);
+        tallies.remove(stockId);
+    }
+
+    /**
+     * Drop the snapshots and candle tallies of stocks whose metadata or stored candles changed outside ticks
+     */
+    @EventListener
+    public void onStocksChanged(StocksChangedEvent event) {
+        event.stockIds().forEach(this::evict);
+    }
+
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        event.stockIds().forEach(this::evict);
+    }
+
+    /**
+     * Drop all snapshots and candle tallies; tallies are seeded again per stock as ticks arrive
+     */
+    public void evictAll() {
+        evictedAllGeneration = generationCounter.incrementAndGet();
+        snapshots.clear();
+        tallies.clear();
+    }
+
+    private Optional<StockSnapshot> snapshot(Long stockId) {
+        StockSnapshot snapshot = snapshots.get(stockId);
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+
+        long generation = generation(stockId);
+        Optional<Stock> stock = stockRepository.findById(stockId);
+        if (stock.isEmpty()) {
+            return Optional.empty();
+        }
+        PriceCandle latest = priceCandleRepository.findTopByStockOrderByTimestampDesc(stock.get()).orElse(null);
+        StockStats stats = stats(stock.get(), priceCandleRepository.countByStock(stock.get()),
+                timeframes(priceCandleRepository.findDistinctTimeframesByStockId(stockId)));
+        return Optional.of(store(stockId, generation, build(stock.get(), latest, stats)));
+    }
+
+    private void refresh(Map<Long, PriceCandle> latest, List<PriceCandle> candles) {
+        List<Long> ids = new ArrayList<>(latest.keySet());
+        Map<Long, Long> builtGenerations = new HashMap<>();
+        ids.forEach(id -> builtGenerations.put(id, generation(id)));
+        Map<Long, Stock> stocks = new HashMap<>();
+        stockRepository.findAllById(ids).forEach(stock -> stocks.put(stock.getId(), stock));
+
+        seedMissingTallies(ids, builtGenerations);
+        for (PriceCandle candle : candles) {
+            CandleTally tally = tallies.get(candle.getStock().getId());
+            if (tally != null) {
+                tally.record(candle.getTimeframe(), candle.getTimestamp());
+            }
+        }
+
+        for (Map.Entry<Long, PriceCandle> entry : latest.entrySet()) {
+            Stock stock = stocks.get(entry.getKey());
+            if (stock == null) {
+                tallies.remove(entry.getKey());
+                continue;
+            }
+            CandleTally tally = tallies.get(stock.getId());
+            StockStats stats = tally != null ? tally.toStats(stock) : stats(stock, 0, List.of());
+            store(stock.getId(), builtGenerations.get(stock.getId()), build(stock, entry.getValue(), stats));
+        }
+        logger.debug("Refreshed {} stock snapshots", latest.size());
+    }
+
+    /**
+     * Seed the tallies of stocks first seen, or evicted, since startup. The seed already includes candles of
+     * the tick being applied, which {@link CandleTally#record} then recognizes as counted.
+     */
+    private void seedMissingTallies(List<Long> ids, Map<Long, Long> builtGenerations) {
+        List<Long> missing = ids.stream().filter(id -> !tallies.containsKey(id)).toList();
+        Map<Long, CandleTally> seeded = new HashMap<>();
+        for (int from = 0; from < missing.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = missing.subList(from, Math.min(from + IN_LIST_CHUNK, missing.size()));
+            jdbcTemplate.query("SELECT stock_id, timeframe, COUNT(*), MAX(timestamp) FROM price_candles " +
+                            "WHERE stock_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) +
+                            ") GROUP BY stock_id, timeframe",
+                    rs -> { seeded.computeIfAbsent(rs.getLong(1), id -> new CandleTally()).seed(rs.getString(2),
+                            rs.getLong(3), rs.getTimestamp(4).toLocalDateTime()); },
+                    chunk.toArray());
+        }
+        for (Long id : missing) {
+            tallies.compute(id, (key, current) -> current != null || generation(key) != builtGenerations.get(key)
+                    ? current : seeded.getOrDefault(key, new CandleTally()));
+        }
+    }
+
+    /**
+     * Current generation of a stock: the later of its own last eviction and the last {@link #evictAll()}
+     */
+    private long generation(Long stockId) {
+        return Math.max(generations.getOrDefault(stockId, 0L), evictedAllGeneration);
+    }
+
+    /**
+     * Store a snapshot unless the stock was evicted after its rows were loaded
+     * @param generation Generation of the stock before its rows were loaded
+     * @return Stored snapshot, or the given one if it was dropped and nothing newer is stored
+     */
+    private StockSnapshot store(Long stockId, long generation, StockSnapshot snapshot) {
+        StockSnapshot stored = snapshots.compute(stockId, (id, current) -> {
+            if (generation(id) != generation) {
+                return current;
+            }
+            // Async refreshes of consecutive ticks may finish out of order; never go back in time
+            return current != null && snapshot.asOf().isBefore(current.asOf()) ? current : snapshot;
+        });
+        return stored != null ? stored : snapshot;
+    }
+
+    private StockSnapshot build(Stock stock, PriceCandle latest, StockStats stats) {
+        SerializedPayload latestPayload = null;
+        LocalDateTime asOf = LocalDateTime.MIN;
+        if (latest != null) {
+            latestPayload = serialize(new LatestCandleSnapshot(latest.getId(), stock.getId(), stock.getSymbol(),
+                    latest.getTimestamp(), latest.getTimeframe(), latest.getOpenPrice(), latest.getHighPrice(),
+                    latest.getLowPrice(), latest.getClosePrice(), latest.getVolume(), latest.getCreatedAt()));
+            asOf = latest.getTimestamp();
+        }
+        return new StockSnapshot(asOf, latestPayload, serialize(stats));
+    }
+
+    private static StockStats stats(Stock stock, long totalCandles, List<String> timeframes) {
+        return new StockStats(stock.getSymbol(), stock.getName(), stock.getExchange(), totalCandles,
+                List.copyOf(timeframes), stock.getCreatedAt(), stock.getUpdatedAt());
+    }
+
+    private static List<String> timeframes(List<String> timeframes) {
+        List<String> sorted = new ArrayList<>();
+        timeframes.stream().filter(tf -> tf != null).forEach(sorted::add);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private SerializedPayload serialize(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (json.length < compressionThreshold.toBytes()) {
+                return new SerializedPayload(json, null);
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new SerializedPayload(json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize snapshot", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Candle count and newest timestamp per timeframe (null included) of one stock; guarded by its own monitor.
+     * A candle counts only if it is newer than the newest one of its timeframe, so a slot that is ingested
+     * again, or already included in the seed, is not counted twice.
+     */
+    private static final class CandleTally {
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Map<String, LocalDateTime> newest = new HashMap<>();
+
+        synchronized void seed(String timeframe, long count, LocalDateTime newestTimestamp) {
+            counts.put(timeframe, count);
+            newest.put(timeframe, newestTimestamp);
+        }
+
+        synchronized void record(String timeframe, LocalDateTime timestamp) {
+            LocalDateTime current = newest.get(timeframe);
+            if (current == null || timestamp.isAfter(current)) {
+                newest.put(timeframe, timestamp);
+                counts.merge(timeframe, 1L, Long::sum);
+            }
+        }
+
+        synchronized StockStats toStats(Stock stock) {
+            long total = counts.values().stream().mapToLong(Long::longValue).sum();
+            return stats(stock, total, timeframes(new ArrayList<>(counts.keySet())));
+        }
+    }
+
+    /**
+     * @param latestCandle Null if the stock has no candles yet
+     */
+    private record StockSnapshot(LocalDateTime asOf, SerializedPayload latestCandle, SerializedPayload stats) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.Stock;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Drops changed stocks from the Hibernate second-level and query caches. The caches live in each node's
+ * memory, so this also runs for the changes {@link com.stock.stock_trend_tracker.cluster.ClusterEventBus}
+ * replays from other nodes; the regions additionally expire after a while (application.conf) in case an
+ * event is lost.
+ */
+@Service
+public class StockCacheEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict created or updated stocks, including changes written with JDBC that bypassed Hibernate
+     */
+    @EventListener
+    public void onStocksChanged(StocksChangedEvent event) {
+        evict(event.stockIds());
+    }
+
+    @EventListener
+    public void onStockDeleted(StockDeletedEvent event) {
+        evict(event.stockIds());
+    }
+
+    private void evict(List<Long> stockIds) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        for (Long id : stockIds) {
+            cache.evictEntityData(Stock.class, id);
+        }
+        // Symbol lookups and the exchange list, including cached misses for symbols that now exist
+        cache.evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.util.List;
+
+/**
+ * Published after stocks were deleted; their candles and alerts are gone with them (FK cascade)
+ * @param stockIds Deleted stocks
+ */
+public record StockDeletedEvent(List<Long> stockIds) {
+}
@@ -0,0 +1,11 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.util.List;
+
+/**
+ * Published after stock metadata was written outside JPA, once per committed batch, and after stored candles
+ * were added or removed other than by an ingestion tick
+ * @param stockIds Stocks that were created or updated, or whose candles changed
+ */
+public record StocksChangedEvent(List<Long> stockIds) {
+}
@@ -0,0 +1,10 @@
+package com.stock.stock_trend_tracker.service;
+
+import java.util.List;
+
+/**
+ * Published after stocks were added to or removed from watchlists, or watchlists were deleted
+ * @param watchlistIds Watchlists whose members changed
+ */
+public record WatchlistChangedEvent(List<Long> watchlistIds) {
+}
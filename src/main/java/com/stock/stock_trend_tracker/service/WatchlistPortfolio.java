@@ -0,0 +1,268 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.dto.MemberPerformance;
+import com.stock.stock_trend_tracker.dto.WatchlistSnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from stock to the watchlists that hold it, plus running aggregates per watchlist.
+ * A close only touches the watchlists of its stock and replaces that stock's previous contribution to
+ * their sums. Not thread-safe; {@link WatchlistPortfolioService} guards it.
+ */
+class WatchlistPortfolio {
+
+    private final Map<Long, Quote> quotes = new HashMap<>();
+    private final Map<Long, Set<Long>> watchlistsByStock = new HashMap<>();
+    private final Map<Long, Book> books = new HashMap<>();
+
+    /**
+     * Add a stock to a watchlist, or replace its reference price if it is already a member
+     * @param referencePrice Price the return is measured from, or null if unknown
+     */
+    void addMember(long watchlistId, long stockId, String symbol, Double referencePrice) {
+        Quote quote = quotes.computeIfAbsent(stockId, id -> new Quote());
+        if (symbol != null) {
+            quote.symbol = symbol;
+        }
+        watchlistsByStock.computeIfAbsent(stockId, id -> new LinkedHashSet<>()).add(watchlistId);
+        Book book = books.computeIfAbsent(watchlistId, id -> new Book());
+        book.remove(stockId);
+        book.members.put(stockId, new Member(referencePrice));
+        book.update(stockId, quote);
+    }
+
+    void removeMember(long watchlistId, long stockId) {
+        Book book = books.get(watchlistId);
+        if (book != null) {
+            book.remove(stockId);
+            if (book.members.isEmpty()) {
+                books.remove(watchlistId);
+            }
+        }
+        Set<Long> watchlists = watchlistsByStock.get(stockId);
+        if (watchlists != null && watchlists.remove(watchlistId) && watchlists.isEmpty()) {
+            watchlistsByStock.remove(stockId);
+            quotes.remove(stockId);
+        }
+    }
+
+    void removeWatchlist(long watchlistId) {
+        Book book = books.get(watchlistId);
+        if (book != null) {
+            for (Long stockId : book.members.keySet().toArray(Long[]::new)) {
+                removeMember(watchlistId, stockId);
+            }
+        }
+    }
+
+    /**
+     * Drop a stock from every watchlist that holds it
+     * @return Watchlists that held it
+     */
+    Set<Long> removeStock(long stockId) {
+        Set<Long> watchlists = watchlistsByStock.get(stockId);
+        if (watchlists == null) {
+            return Set.of();
+        }
+        Set<Long> removed = Set.copyOf(watchlists);
+        removed.forEach(watchlistId -> removeMember(watchlistId, stockId));
+        return removed;
+    }
+
+    /**
+     * Stocks currently held by a watchlist
+     */
+    Set<Long> members(long watchlistId) {
+        Book book = books.get(watchlistId);
+        return book != null ? Set.copyOf(book.members.keySet()) : Set.of();
+    }
+
+    /**
+     * Whether any watchlist holds the stock
+     */
+    boolean holds(long stockId) {
+        return watchlistsByStock.containsKey(stockId);
+    }
+
+    /**
+     * Whether a close has been seen for the stock
+     */
+    boolean hasQuote(long stockId) {
+        Quote quote = quotes.get(stockId);
+        return quote != null && quote.timestamp != null;
+    }
+
+    /**
+     * Apply a candle close of a member stock. Sessions are calendar days of the candle timestamps; the last
+     * close of the previous session is the day-change reference.
+     * @return Watchlists whose aggregates changed (empty if no watchlist holds the stock or the candle is stale)
+     */
+    Set<Long> onClose(long stockId, String symbol, LocalDateTime timestamp, double close) {
+        Set<Long> watchlists = watchlistsByStock.get(stockId);
+        if (watchlists == null) {
+            return Set.of();
+        }
+        Quote quote = quotes.get(stockId);
+        if (quote.timestamp != null && timestamp.isBefore(quote.timestamp)) {
+            return Set.of();
+        }
+        LocalDate date = timestamp.toLocalDate();
+        if (quote.sessionDate != null && date.isAfter(quote.sessionDate)) {
+            quote.previousClose = quote.lastClose;
+        }
+        quote.sessionDate = date;
+        quote.lastClose = close;
+        quote.timestamp = timestamp;
+        if (symbol != null) {
+            quote.symbol = symbol;
+        }
+        for (Long watchlistId : watchlists) {
+            books.get(watchlistId).update(stockId, quote);
+        }
+        return watchlists;
+    }
+
+    /**
+     * Build the immutable snapshot of a watchlist's aggregates
+     */
+    WatchlistSnapshot snapshot(long watchlistId) {
+        Book book = books.get(watchlistId);
+        if (book == null) {
+            return new WatchlistSnapshot(watchlistId, 0, 0, null, null, null, null, null);
+        }
+        return new WatchlistSnapshot(watchlistId, book.members.size(), book.priced,
+                book.priced > 0 ? book.returnSum / book.priced : null,
+                book.dayCount > 0 ? book.daySum / book.dayCount : null,
+                performance(book, book.bestId), performance(book, book.worstId), book.asOf);
+    }
+
+    private MemberPerformance performance(Book book, Long stockId) {
+        if (stockId == null) {
+            return null;
+        }
+        Member member = book.members.get(stockId);
+        return new MemberPerformance(stockId, quotes.get(stockId).symbol, member.totalReturn,
+                member.dayCounted ? member.dayChange : null);
+    }
+
+    private static final class Quote {
+        private String symbol;
+        private LocalDate sessionDate;
+        private LocalDateTime timestamp;
+        private double lastClose = Double.NaN;
+        private double previousClose = Double.NaN;
+    }
+
+    private static final class Member {
+        private final Double referencePrice;
+
+        // Current contribution to the watchlist sums
+        private boolean priced;
+        private double totalReturn;
+        private boolean dayCounted;
+        private double dayChange;
+
+        Member(Double referencePrice) {
+            this.referencePrice = referencePrice;
+        }
+    }
+
+    /**
+     * Running sums of one watchlist plus the IDs of its best and worst members
+     */
+    private static final class Book {
+        private final Map<Long, Member> members = new LinkedHashMap<>();
+        private int priced;
+        private double returnSum;
+        private int dayCount;
+        private double daySum;
+        private Long bestId;
+        private Long worstId;
+        private LocalDateTime asOf;
+
+        void update(long stockId, Quote quote) {
+            Member member = members.get(stockId);
+            double previousReturn = member.totalReturn;
+            withdraw(member);
+
+            if (!Double.isNaN(quote.lastClose) && member.referencePrice != null && member.referencePrice > 0) {
+                member.totalReturn = quote.lastClose / member.referencePrice - 1;
+                member.priced = true;
+                priced++;
+                returnSum += member.totalReturn;
+            }
+            if (!Double.isNaN(quote.lastClose) && quote.previousClose > 0) {
+                member.dayChange = quote.lastClose / quote.previousClose - 1;
+                member.dayCounted = true;
+                dayCount++;
+                daySum += member.dayChange;
+            }
+            if (quote.timestamp != null && (asOf == null || quote.timestamp.isAfter(asOf))) {
+                asOf = quote.timestamp;
+            }
+
+            // Only rescan when the current best got worse or the current worst got better
+            boolean bestDropped = bestId != null && bestId == stockId
+                    && (!member.priced || member.totalReturn < previousReturn);
+            boolean worstRose = worstId != null && worstId == stockId
+                    && (!member.priced || member.totalReturn > previousReturn);
+            if (bestDropped || worstRose) {
+                rescan();
+            } else if (member.priced) {
+                if (bestId == null || member.totalReturn > members.get(bestId).totalReturn) {
+                    bestId = stockId;
+                }
+                if (worstId == null || member.totalReturn < members.get(worstId).totalReturn) {
+                    worstId = stockId;
+                }
+            }
+        }
+
+        void remove(long stockId) {
+            Member member = members.remove(stockId);
+            if (member != null) {
+                withdraw(member);
+                if (Long.valueOf(stockId).equals(bestId) || Long.valueOf(stockId).equals(worstId)) {
+                    rescan();
+                }
+            }
+        }
+
+        private void withdraw(Member member) {
+            if (member.priced) {
+                priced--;
+                returnSum -= member.totalReturn;
+                member.priced = false;
+            }
+            if (member.dayCounted) {
+                dayCount--;
+                daySum -= member.dayChange;
+                member.dayCounted = false;
+            }
+        }
+
+        private void rescan() {
+            bestId = null;
+            worstId = null;
+            for (Map.Entry<Long, Member> entry : members.entrySet()) {
+                Member member = entry.getValue();
+                if (!member.priced) {
+                    continue;
+                }
+                if (bestId == null || member.totalReturn > members.get(bestId).totalReturn) {
+                    bestId = entry.getKey();
+                }
+                if (worstId == null || member.totalReturn < members.get(worstId).totalReturn) {
+                    worstId = entry.getKey();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.WatchlistMember;
+import com.stock.stock_trend_tracker.dto.WatchlistSnapshot;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.WatchlistItemRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregate performance of every watchlist (equal-weight return since each stock was added, day change,
+ * best and worst member), maintained from ingestion ticks through a {@link WatchlistPortfolio} reverse index
+ * so a tick only recomputes the watchlists holding its stocks. Reads are map lookups of published snapshots.
+ * Every node hears every tick, whichever shards it ingests, and every membership change, whichever node
+ * served it (see {@link com.stock.stock_trend_tracker.cluster.ClusterEventBus}); a change reloads the
+ * members of the watchlists concerned from the database. Watchlists are loaded at startup even in the
+ * lazily initialized prod profile.
+ */
+@Service
+@Lazy(false)
+public class WatchlistPortfolioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchlistPortfolioService.class);
+    private static final int IN_LIST_CHUNK = 500;
+
+    @Autowired
+    private WatchlistItemRepository watchlistItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+
+    @Value("${stock.watchlists.warmup-days:4}")
+    private int warmupDays;
+
+    private final WatchlistPortfolio portfolio = new WatchlistPortfolio();
+    private final Map<Long, WatchlistSnapshot> published = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public synchronized void loadWatchlists() {
+        List<WatchlistMember> members = watchlistItemRepository.findMembers();
+        Set<Long> watchlistIds = new LinkedHashSet<>();
+        Set<Long> stockIds = new LinkedHashSet<>();
+        for (WatchlistMember member : members) {
+            portfolio.addMember(member.watchlistId(), member.stockId(), member.symbol(), toDouble(member.referencePrice()));
+            watchlistIds.add(member.watchlistId());
+            stockIds.add(member.stockId());
+        }
+        warmUp(stockIds);
+        watchlistIds.forEach(this::publish);
+        logger.info("Indexed {} watchlist items of {} watchlists", members.size(), watchlistIds.size());
+    }
+
+    @EventListener
+    public synchronized void onPriceTick(PriceTickEvent event) {
+        Set<Long> changed = new LinkedHashSet<>();
+        for (PriceCandle candle : event.candles()) {
+            changed.addAll(portfolio.onClose(candle.getStock().getId(), candle.getStock().getSymbol(),
+                    candle.getTimestamp(), candle.getClosePrice().doubleValue()));
+        }
+        changed.forEach(this::publish);
+    }
+
+    /**
+     * Get the aggregate performance of a watchlist
+     * @param watchlistId Watchlist ID
+     * @return Latest snapshot; a watchlist without members has an empty one
+     */
+    public WatchlistSnapshot getSnapshot(Long watchlistId) {
+        WatchlistSnapshot snapshot = published.get(watchlistId);
+        return snapshot != null ? snapshot : new WatchlistSnapshot(watchlistId, 0, 0, null, null, null, null, null);
+    }
+
+    /**
+     * Bring the members of changed watchlists in line with the database. Stocks no longer held are dropped;
+     * stocks that no other watchlist held get their recent closes loaded. A deleted watchlist has no members.
+     */
+    @EventListener
+    public synchronized void onWatchlistChanged(WatchlistChangedEvent event) {
+        Map<Long, List<WatchlistMember>> membersByWatchlist = new HashMap<>();
+        for (WatchlistMember member : watchlistItemRepository.findMembersOfWatchlists(event.watchlistIds())) {
+            membersByWatchlist.computeIfAbsent(member.watchlistId(), id -> new ArrayList<>()).add(member);
+        }
+        Set<Long> unquoted = new LinkedHashSet<>();
+        for (Long watchlistId : event.watchlistIds()) {
+            List<WatchlistMember> members = membersByWatchlist.getOrDefault(watchlistId, List.of());
+            Set<Long> current = new HashSet<>(portfolio.members(watchlistId));
+            for (WatchlistMember member : members) {
+                current.remove(member.stockId());
+                portfolio.addMember(watchlistId, member.stockId(), member.symbol(), toDouble(member.referencePrice()));
+                if (!portfolio.hasQuote(member.stockId())) {
+                    unquoted.add(member.stockId());
+                }
+            }
+            current.forEach(stockId -> portfolio.removeMember(watchlistId, stockId));
+        }
+        warmUp(unquoted);
+        for (Long watchlistId : event.watchlistIds()) {
+            if (membersByWatchlist.containsKey(watchlistId)) {
+                publish(watchlistId);
+            } else {
+                published.remove(watchlistId);
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onStockDeleted(StockDeletedEvent event) {
+        Set<Long> changed = new LinkedHashSet<>();
+        for (Long stockId : event.stockIds()) {
+            changed.addAll(portfolio.removeStock(stockId));
+        }
+        changed.forEach(this::publish);
+    }
+
+    /**
+     * Replay the last stock.watchlists.warmup-days of ingest-timeframe closes, so the previous session close
+     * is known for the day change (the window spans a weekend by default)
+     */
+    private void warmUp(Collection<Long> stockIds) {
+        List<Long> ids = List.copyOf(stockIds);
+        Timestamp since = Timestamp.valueOf(LocalDate.now().minusDays(warmupDays).atStartOfDay());
+        String timeframe = Timeframes.toLabel(ingestInterval);
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size()));
+            Object[] args = new Object[chunk.size() + 2];
+            args[0] = timeframe;
+            args[1] = since;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 2] = chunk.get(i);
+            }
+            jdbcTemplate.query("SELECT stock_id, timestamp, close_price FROM price_candles " +
+                            "WHERE timeframe = ? AND timestamp >= ? AND stock_id IN (" +
+                            String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY timestamp",
+                    rs -> {
+                        portfolio.onClose(rs.getLong(1), null, rs.getTimestamp(2).toLocalDateTime(), rs.getDouble(3));
+                    },
+                    args);
+        }
+    }
+
+    private void publish(Long watchlistId) {
+        published.put(watchlistId, portfolio.snapshot(watchlistId));
+    }
+
+    private static Double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,355 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.service.RunRegistry;
+import com.stock.stock_trend_tracker.sketch.CandleSketchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Generates deterministic synthetic market data at production scale and bulk-loads it.
+ * Every symbol gets its own {@link SplittableRandom} split from the run seed in symbol order, so a run
+ * produces identical data regardless of how symbols are scheduled across worker threads.
+ */
+@Service
+@ConditionalOnProperty(name = "stock.simulator.enabled", havingValue = "true")
+public class MarketSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketSimulator.class);
+
+    private static final LocalTime SESSION_OPEN = LocalTime.of(9, 30);
+    private static final long SESSION_SECONDS = Duration.ofMinutes(390).getSeconds();
+    private static final double TRADING_DAYS_PER_YEAR = 252;
+    private static final int SYMBOL_LOOKUP_CHUNK = 500;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+
+    @Autowired
+    private CandleSketchService candleSketchService;
+
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+
+    @Value("${stock.simulator.writer-threads:0}")
+    private int writerThreads;
+
+    @Value("${stock.simulator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${stock.simulator.max-symbols:5000}")
+    private int maxSymbols;
+
+    @Value("${stock.simulator.max-days:730}")
+    private int maxDays;
+
+    @Value("${stock.simulator.max-runs:20}")
+    private int maxRuns;
+
+    private RunRegistry<Run> runs;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "market-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        runs = new RunRegistry<>(maxRuns, run -> run.finishedAt != null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * Queue a simulator run; runs execute one at a time
+     * @param request Run parameters
+     * @return Initial status of the run
+     */
+    public SimulationStatus submit(SimulationRequest request) {
+        SimulationRequest resolved = request.withDefaults();
+        validate(resolved);
+        Run run = new Run(UUID.randomUUID().toString(), resolved);
+        runs.add(run.id, run);
+        runner.submit(() -> execute(run));
+        return run.status();
+    }
+
+    /**
+     * Run a simulation on the calling thread
+     * @param request Run parameters
+     * @return Final status of the run
+     */
+    public SimulationStatus run(SimulationRequest request) {
+        SimulationRequest resolved = request.withDefaults();
+        validate(resolved);
+        Run run = new Run(UUID.randomUUID().toString(), resolved);
+        runs.add(run.id, run);
+        execute(run);
+        return run.status();
+    }
+
+    public Optional<SimulationStatus> getStatus(String id) {
+        return runs.get(id).map(Run::status);
+    }
+
+    public List<SimulationStatus> getRuns() {
+        return runs.list().stream().map(Run::status).toList();
+    }
+
+    private void validate(SimulationRequest request) {
+        if (request.symbols() < 1 || request.days() < 1 || Timeframes.toDuration(request.timeframe()).isEmpty()) {
+            throw new IllegalArgumentException("Simulation needs a positive symbol count and day count and a valid timeframe");
+        }
+        if (request.symbols() > maxSymbols || request.days() > maxDays) {
+            throw new IllegalArgumentException("Simulation is limited to " + maxSymbols + " symbols and "
+                    + maxDays + " days");
+        }
+    }
+
+    private void execute(Run run) {
+        SimulationRequest request = run.request;
+        run.state = SimulationStatus.State.RUNNING;
+        run.startedAt = LocalDateTime.now();
+        logger.info("Starting simulator run {}: {}", run.id, request);
+
+        try {
+            List<Long> stockIds = ensureStocks(request);
+            Duration timeframe = Timeframes.toDuration(request.timeframe()).orElseThrow();
+
+            // Split in symbol order on this thread so every symbol's stream is fixed by the seed alone
+            SplittableRandom root = new SplittableRandom(request.seed());
+            SplittableRandom[] randoms = new SplittableRandom[stockIds.size()];
+            for (int i = 0; i < randoms.length; i++) {
+                randoms[i] = root.split();
+            }
+
+            int threads = writerThreads > 0 ? writerThreads : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.submit(() -> IntStream.range(0, stockIds.size()).parallel().forEach(i -> {
+                    simulateSymbol(stockIds.get(i), randoms[i], request, timeframe, run);
+                    run.symbolsCompleted.incrementAndGet();
+                })).get();
+            } finally {
+                pool.shutdown();
+            }
+
+            clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, stockIds);
+            candleSketchService.rebuild(request.startDate(), request.startDate().plusDays(request.days() - 1));
+            run.state = SimulationStatus.State.COMPLETED;
+        } catch (Exception e) {
+            logger.error("Simulator run {} failed", run.id, e);
+            run.error = e.getMessage();
+            run.state = SimulationStatus.State.FAILED;
+        } finally {
+            run.finishedAt = LocalDateTime.now();
+            logger.info("Simulator run {} {}: {} candles for {} symbols", run.id, run.state,
+                    run.candlesWritten.get(), run.symbolsCompleted.get());
+            runs.evictFinished();
+        }
+    }
+
+    /**
+     * Create the run's symbols that do not exist yet and return all their IDs in symbol order
+     */
+    private List<Long> ensureStocks(SimulationRequest request) {
+        List<String> symbols = IntStream.range(0, request.symbols())
+                .mapToObj(i -> String.format("%s%05d", request.symbolPrefix(), i))
+                .toList();
+        Map<String, Stock> existing = new HashMap<>();
+        for (int from = 0; from < symbols.size(); from += SYMBOL_LOOKUP_CHUNK) {
+            List<String> chunk = symbols.subList(from, Math.min(from + SYMBOL_LOOKUP_CHUNK, symbols.size()));
+            stockRepository.findBySymbolIn(chunk).forEach(stock -> existing.put(stock.getSymbol(), stock));
+        }
+
+        List<Stock> created = new ArrayList<>();
+        for (String symbol : symbols) {
+            if (!existing.containsKey(symbol)) {
+                Stock stock = new Stock(symbol, "Simulated " + symbol);
+                stock.setExchange(request.exchange());
+                created.add(stock);
+            }
+        }
+        stockRepository.saveAll(created).forEach(stock -> existing.put(stock.getSymbol(), stock));
+        return symbols.stream().map(symbol -> existing.get(symbol).getId()).toList();
+    }
+
+    private void simulateSymbol(long stockId, SplittableRandom random, SimulationRequest request,
+                                Duration timeframe, Run run) {
+        PricePath path = new PricePath(random);
+        CandleBatch batch = new CandleBatch(stockId, request.timeframe(), batchSize);
+
+        boolean intraday = timeframe.compareTo(Duration.ofDays(1)) < 0;
+        int barsPerDay = intraday ? (int) Math.max(1, SESSION_SECONDS / timeframe.getSeconds()) : 1;
+        double dtYears = intraday
+                ? timeframe.getSeconds() / (SESSION_SECONDS * TRADING_DAYS_PER_YEAR)
+                : timeframe.toDays() / TRADING_DAYS_PER_YEAR;
+        long stepDays = intraday ? 1 : timeframe.toDays();
+
+        LocalDate end = request.startDate().plusDays(request.days());
+        for (LocalDate day = request.startDate(); day.isBefore(end); day = day.plusDays(stepDays)) {
+            if (stepDays == 1 && (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY)) {
+                continue;
+            }
+            LocalDateTime sessionStart = intraday ? day.atTime(SESSION_OPEN) : day.atStartOfDay();
+            for (int bar = 0; bar < barsPerDay; bar++) {
+                double volumeShare = intraday ? intradayVolumeShare(bar, barsPerDay) : 1.0;
+                path.next(dtYears, volumeShare);
+                batch.add(sessionStart.plusSeconds(bar * timeframe.getSeconds()), path);
+                if (batch.size == batchSize) {
+                    run.candlesWritten.addAndGet(write(batch));
+                }
+            }
+        }
+        if (batch.size > 0) {
+            run.candlesWritten.addAndGet(write(batch));
+        }
+    }
+
+    /**
+     * U-shaped intraday volume profile: busiest at the open and close, normalised to sum to one per day
+     */
+    private static double intradayVolumeShare(int bar, int barsPerDay) {
+        double u = (bar + 0.5) / barsPerDay;
+        double shape = 1.0 + 1.5 * (2 * u - 1) * (2 * u - 1);
+        return shape / (1.5 * barsPerDay);
+    }
+
+    /**
+     * Upsert the batch, so re-running a seed over an existing range overwrites it instead of duplicating it
+     */
+    private int write(CandleBatch batch) {
+        int rows = batch.size;
+        candleUpsertRepository.upsert(rows, batch);
+        batch.size = 0;
+        return rows;
+    }
+
+    /**
+     * Column arrays of up to one write batch of candles for a single stock
+     */
+    private static class CandleBatch implements CandleUpsertRepository.RowBinder {
+        private final long stockId;
+        private final String timeframe;
+        private final LocalDateTime[] timestamps;
+        private final long[] open;
+        private final long[] high;
+        private final long[] low;
+        private final long[] close;
+        private final long[] volume;
+        private int size;
+
+        CandleBatch(long stockId, String timeframe, int capacity) {
+            this.stockId = stockId;
+            this.timeframe = timeframe;
+            this.timestamps = new LocalDateTime[capacity];
+            this.open = new long[capacity];
+            this.high = new long[capacity];
+            this.low = new long[capacity];
+            this.close = new long[capacity];
+            this.volume = new long[capacity];
+        }
+
+        void add(LocalDateTime timestamp, PricePath path) {
+            timestamps[size] = timestamp;
+            open[size] = path.open;
+            high[size] = path.high;
+            low[size] = path.low;
+            close[size] = path.close;
+            volume[size] = path.volume;
+            size++;
+        }
+
+        @Override
+        public void bind(PreparedStatement ps, int index, int row) throws SQLException {
+            ps.setLong(index, stockId);
+            ps.setTimestamp(index + 1, Timestamp.valueOf(timestamps[row]));
+            ps.setString(index + 2, timeframe);
+            ps.setBigDecimal(index + 3, BigDecimal.valueOf(open[row], 2));
+            ps.setBigDecimal(index + 4, BigDecimal.valueOf(high[row], 2));
+            ps.setBigDecimal(index + 5, BigDecimal.valueOf(low[row], 2));
+            ps.setBigDecimal(index + 6, BigDecimal.valueOf(close[row], 2));
+            ps.setLong(index + 7, volume[row]);
+        }
+
+        @Override
+        public long stockId(int row) {
+            return stockId;
+        }
+
+        @Override
+        public String timeframe(int row) {
+            return timeframe;
+        }
+
+        @Override
+        public LocalDateTime timestamp(int row) {
+            return timestamps[row];
+        }
+    }
+
+    private static class Run {
+        private final String id;
+        private final SimulationRequest request;
+        private final AtomicLong symbolsCompleted = new AtomicLong();
+        private final AtomicLong candlesWritten = new AtomicLong();
+        private volatile SimulationStatus.State state = SimulationStatus.State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Run(String id, SimulationRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        SimulationStatus status() {
+            Long rate = null;
+            if (startedAt != null) {
+                long millis = Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis();
+                rate = millis > 0 ? candlesWritten.get() * 1000 / millis : null;
+            }
+            return new SimulationStatus(id, request, state, symbolsCompleted.get(), candlesWritten.get(),
+                    startedAt, finishedAt, rate, error);
+        }
+    }
+}
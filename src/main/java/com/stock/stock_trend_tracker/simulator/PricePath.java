@@ -0,0 +1,69 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Price and volume process of one synthetic symbol: geometric Brownian motion whose volatility
+ * switches between a calm and a stressed regime, with volume that rises with the size of the move,
+ * in the stressed regime and at the open and close of the session.
+ */
+class PricePath {
+
+    private static final double CALM_TO_STRESSED = 0.002;
+    private static final double STRESSED_TO_CALM = 0.02;
+
+    private final SplittableRandom random;
+    private final double drift;
+    private final double calmVolatility;
+    private final double stressedVolatility;
+    private final double baseVolume;
+    private boolean stressed;
+    private double price;
+
+    // Output of the last call to next(), in cents and shares
+    long open;
+    long high;
+    long low;
+    long close;
+    long volume;
+
+    PricePath(SplittableRandom random) {
+        this.random = random;
+        this.price = Math.exp(Math.log(20) + random.nextDouble() * Math.log(25)); // $20 .. $500, log-uniform
+        this.drift = 0.07 + 0.10 * random.nextGaussian();
+        this.calmVolatility = 0.15 + 0.30 * random.nextDouble();
+        this.stressedVolatility = calmVolatility * (2.0 + 1.5 * random.nextDouble());
+        this.baseVolume = Math.exp(Math.log(200_000) + random.nextDouble() * Math.log(100)); // 200k .. 20M per day
+    }
+
+    /**
+     * Advance by one bar
+     * @param dtYears Bar length in trading years
+     * @param volumeShare Expected share of the daily volume traded in this bar
+     */
+    void next(double dtYears, double volumeShare) {
+        if (random.nextDouble() < (stressed ? STRESSED_TO_CALM : CALM_TO_STRESSED)) {
+            stressed = !stressed;
+        }
+        double sigma = stressed ? stressedVolatility : calmVolatility;
+        double step = sigma * Math.sqrt(dtYears);
+        double shock = random.nextGaussian();
+
+        double openPrice = price;
+        double closePrice = openPrice * Math.exp((drift - 0.5 * sigma * sigma) * dtYears + step * shock);
+        double highPrice = Math.max(openPrice, closePrice) * Math.exp(0.5 * step * Math.abs(random.nextGaussian()));
+        double lowPrice = Math.min(openPrice, closePrice) * Math.exp(-0.5 * step * Math.abs(random.nextGaussian()));
+        price = closePrice;
+
+        open = toCents(openPrice);
+        close = toCents(closePrice);
+        high = Math.max(toCents(highPrice), Math.max(open, close));
+        low = Math.min(toCents(lowPrice), Math.min(open, close));
+        double activity = (1.0 + 1.5 * Math.abs(shock)) * (stressed ? 1.8 : 1.0);
+        volume = Math.max(1, Math.round(baseVolume * volumeShare * activity * Math.exp(0.35 * random.nextGaussian())));
+    }
+
+    private static long toCents(double value) {
+        return Math.max(1, Math.round(value * 100));
+    }
+}
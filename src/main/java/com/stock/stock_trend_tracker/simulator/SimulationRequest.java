@@ -0,0 +1,29 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import java.time.LocalDate;
+
+/**
+ * Parameters of a synthetic market run; null fields fall back to defaults
+ * @param symbols Number of symbols to generate
+ * @param symbolPrefix Prefix of generated symbols (e.g., "SIM" gives SIM00000, SIM00001, ...)
+ * @param exchange Exchange assigned to generated stocks
+ * @param startDate First trading day
+ * @param days Number of calendar days to cover; weekends are skipped
+ * @param timeframe Candle timeframe (e.g., "5m", "1h", "1d")
+ * @param seed Seed that fully determines the generated prices and volumes
+ */
+public record SimulationRequest(Integer symbols, String symbolPrefix, String exchange, LocalDate startDate,
+                                Integer days, String timeframe, Long seed) {
+
+    public SimulationRequest withDefaults() {
+        int resolvedDays = days != null ? days : 365;
+        return new SimulationRequest(
+                symbols != null ? symbols : 100,
+                symbolPrefix != null ? symbolPrefix : "SIM",
+                exchange != null ? exchange : "SIM",
+                startDate != null ? startDate : LocalDate.now().minusDays(resolvedDays),
+                resolvedDays,
+                timeframe != null ? timeframe : "5m",
+                seed != null ? seed : 42L);
+    }
+}
@@ -0,0 +1,18 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a simulator run
+ */
+public record SimulationStatus(String id, SimulationRequest request, State state, long symbolsCompleted,
+                               long candlesWritten, LocalDateTime startedAt, LocalDateTime finishedAt,
+                               Long candlesPerSecond, String error) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
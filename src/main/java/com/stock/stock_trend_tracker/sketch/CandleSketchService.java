@@ -0,0 +1,309 @@
+package com.stock.stock_trend_tracker.sketch;
+
+import com.stock.stock_trend_tracker.domain.CandleSketch;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.QuantileResponse;
+import com.stock.stock_trend_tracker.dto.QuantileValue;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.CandleSketchRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mergeable quantile sketches of candle closes, ranges and volumes, one {@link TDigest} per
+ * (stock, timeframe, day, metric) stored in {@code candle_sketches}. Ingestion ticks fold their candles into
+ * the current day's sketches; {@link #rebuild} recomputes whole days exactly from stored candles, which the
+ * retention job does for the previous day and the simulator does for its generated range. A range query
+ * merges at most one sketch per day, so its cost does not depend on the number of candles.
+ * Ticks are folded on a dedicated thread, so a long rebuild never holds up other tick listeners.
+ */
+@Service
+public class CandleSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleSketchService.class);
+
+    @Autowired
+    private CandleSketchRepository candleSketchRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${stock.sketch.compression:100}")
+    private int compression;
+
+    // Held per sketch write transaction, not across a whole rebuild scan
+    private final Object writeLock = new Object();
+    private final ExecutorService folder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "candle-sketch-folder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        folder.shutdownNow();
+    }
+
+    /**
+     * Fold ticks this node ingested; the sketches are shared, so other nodes' ticks are theirs to fold
+     */
+    @EventListener
+    public void onPriceTick(PriceTickEvent event) {
+        if (event.ingestedHere()) {
+            folder.execute(() -> fold(event));
+        }
+    }
+
+    /**
+     * Fold a tick's candles into their day's sketches. Ticks fold one at a time, and each write transaction
+     * takes the lock a {@link #rebuild} takes per series, so a read-modify-write never interleaves with a
+     * replacement on this node; other nodes fold only the ticks they ingest, which are of other stocks.
+     * Each sketch records the newest candle folded into it, in the database so it survives a restart or a
+     * shard moving to another node, and candles at or before it are skipped: a slot ingested again after a
+     * failure or a handover is not counted twice. A late candle older than that is left to the nightly rebuild.
+     */
+    void fold(PriceTickEvent event) {
+        Map<DayKey, List<PriceCandle>> byDay = new HashMap<>();
+        for (PriceCandle candle : event.candles()) {
+            if (candle.getTimeframe() != null) {
+                DayKey key = new DayKey(candle.getStock().getId(), candle.getTimeframe(),
+                        candle.getTimestamp().toLocalDate());
+                byDay.computeIfAbsent(key, k -> new ArrayList<>()).add(candle);
+            }
+        }
+        if (byDay.isEmpty()) {
+            return;
+        }
+
+        try {
+            synchronized (writeLock) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> foldDays(byDay));
+            }
+        } catch (Exception e) {
+            // The nightly rebuild recomputes the day from the candles
+            logger.warn("Failed to update candle sketches for tick at {}", event.completedAt(), e);
+        }
+    }
+
+    private void foldDays(Map<DayKey, List<PriceCandle>> byDay) {
+        Set<Long> stockIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        byDay.keySet().forEach(key -> {
+            stockIds.add(key.stockId());
+            dates.add(key.date());
+        });
+        Map<DayKey, Map<SketchMetric, CandleSketch>> existing = new HashMap<>();
+        for (CandleSketch sketch : candleSketchRepository.findSketches(stockIds, dates)) {
+            DayKey key = new DayKey(sketch.getStock().getId(), sketch.getTimeframe(), sketch.getSketchDate());
+            existing.computeIfAbsent(key, k -> new EnumMap<>(SketchMetric.class)).put(sketch.getMetric(), sketch);
+        }
+
+        List<CandleSketch> changed = new ArrayList<>();
+        for (Map.Entry<DayKey, List<PriceCandle>> day : byDay.entrySet()) {
+            Map<SketchMetric, CandleSketch> sketches = existing.getOrDefault(day.getKey(), Map.of());
+            for (SketchMetric metric : SketchMetric.values()) {
+                CandleSketch sketch = sketches.get(metric);
+                TDigest digest = sketch != null ? TDigest.fromBytes(sketch.getPayload()) : new TDigest(compression);
+                LocalDateTime folded = sketch != null ? sketch.getLastCandleAt() : null;
+                LocalDateTime lastCandleAt = folded;
+                long previousCount = digest.count();
+                for (PriceCandle candle : day.getValue()) {
+                    if (folded != null && !candle.getTimestamp().isAfter(folded)) {
+                        continue;
+                    }
+                    digest.add(metric.valueOf(candle));
+                    if (lastCandleAt == null || candle.getTimestamp().isAfter(lastCandleAt)) {
+                        lastCandleAt = candle.getTimestamp();
+                    }
+                }
+                if (digest.count() == previousCount) {
+                    continue;
+                }
+                if (sketch == null) {
+                    sketch = newSketch(day.getKey(), metric);
+                }
+                store(sketch, digest);
+                sketch.setLastCandleAt(lastCandleAt);
+                changed.add(sketch);
+            }
+        }
+        candleSketchRepository.saveAll(changed);
+    }
+
+    /**
+     * Recompute the sketches of every stock and timeframe for an inclusive range of days from the candles
+     * still in {@code price_candles}. Days without candles there (already archived) keep their existing sketches.
+     * @param startDate First day
+     * @param endDate Last day
+     * @return Number of sketches written
+     */
+    public long rebuild(LocalDate startDate, LocalDate endDate) {
+        long started = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long[] written = {0};
+
+        // Rows come back grouped by stock and timeframe, so each series is flushed before the next begins
+        SeriesDigests[] current = {null};
+        jdbcTemplate.query(
+                "SELECT stock_id, timeframe, timestamp, high_price, low_price, close_price, volume " +
+                "FROM price_candles WHERE timestamp >= ? AND timestamp < ? AND timeframe IS NOT NULL " +
+                "ORDER BY stock_id, timeframe, timestamp",
+                rs -> {
+                    long stockId = rs.getLong(1);
+                    String timeframe = rs.getString(2);
+                    if (current[0] == null || current[0].stockId != stockId || !current[0].timeframe.equals(timeframe)) {
+                        if (current[0] != null) {
+                            written[0] += replace(transaction, current[0]);
+                        }
+                        current[0] = new SeriesDigests(stockId, timeframe);
+                    }
+                    LocalDateTime timestamp = rs.getTimestamp(3).toLocalDateTime();
+                    LocalDate date = timestamp.toLocalDate();
+                    current[0].lastCandleAt.put(date, timestamp);
+                    Map<SketchMetric, TDigest> digests = current[0].days.computeIfAbsent(date, d -> {
+                        Map<SketchMetric, TDigest> byMetric = new EnumMap<>(SketchMetric.class);
+                        for (SketchMetric metric : SketchMetric.values()) {
+                            byMetric.put(metric, new TDigest(compression));
+                        }
+                        return byMetric;
+                    });
+                    digests.get(SketchMetric.CLOSE).add(rs.getDouble(6));
+                    digests.get(SketchMetric.RANGE).add(rs.getDouble(4) - rs.getDouble(5));
+                    long volume = rs.getLong(7);
+                    if (!rs.wasNull()) {
+                        digests.get(SketchMetric.VOLUME).add(volume);
+                    }
+                },
+                Timestamp.valueOf(startDate.atStartOfDay()), Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+        if (current[0] != null) {
+            written[0] += replace(transaction, current[0]);
+        }
+
+        logger.info("Rebuilt {} candle sketches for {} to {} in {} ms", written[0], startDate, endDate,
+                (System.nanoTime() - started) / 1_000_000);
+        return written[0];
+    }
+
+    /**
+     * Estimate quantiles of a metric over an inclusive range of days by merging the daily sketches
+     * @param stock The stock entity
+     * @param timeframe Timeframe label
+     * @param metric Sketched metric
+     * @param perDay Describe one value per day (total volume, mean close or range) instead of one per candle
+     * @param startDate First day
+     * @param endDate Last day
+     * @param quantiles Quantiles in [0, 1]
+     * @return Estimates, or empty if no day in the range has a sketch
+     */
+    public Optional<QuantileResponse> quantiles(Stock stock, String timeframe, SketchMetric metric, boolean perDay,
+                                                LocalDate startDate, LocalDate endDate, List<Double> quantiles) {
+        List<CandleSketch> sketches = candleSketchRepository.findSketchesInRange(
+                stock.getId(), timeframe, metric, startDate, endDate);
+        if (sketches.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TDigest merged = new TDigest(compression);
+        for (CandleSketch sketch : sketches) {
+            TDigest daily = TDigest.fromBytes(sketch.getPayload());
+            if (perDay) {
+                merged.add(metric == SketchMetric.VOLUME ? daily.sum() : daily.sum() / daily.count());
+            } else {
+                merged.merge(daily);
+            }
+        }
+
+        List<QuantileValue> values = new ArrayList<>(quantiles.size());
+        for (double q : quantiles) {
+            values.add(new QuantileValue(q, merged.quantile(q)));
+        }
+        return Optional.of(new QuantileResponse(stock.getId(), stock.getSymbol(), timeframe, metric,
+                perDay ? "DAY" : "CANDLE", startDate, endDate, sketches.size(), merged.count(), merged.min(),
+                merged.max(), values));
+    }
+
+    private long replace(TransactionTemplate transaction, SeriesDigests series) {
+        synchronized (writeLock) {
+            return transaction.execute(status -> replaceSeries(series));
+        }
+    }
+
+    private long replaceSeries(SeriesDigests series) {
+        candleSketchRepository.deleteSketches(series.stockId, series.timeframe, series.days.keySet());
+        candleSketchRepository.flush();
+        List<CandleSketch> sketches = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<SketchMetric, TDigest>> day : series.days.entrySet()) {
+            DayKey key = new DayKey(series.stockId, series.timeframe, day.getKey());
+            for (Map.Entry<SketchMetric, TDigest> digest : day.getValue().entrySet()) {
+                if (digest.getValue().count() > 0) {
+                    CandleSketch sketch = newSketch(key, digest.getKey());
+                    store(sketch, digest.getValue());
+                    sketch.setLastCandleAt(series.lastCandleAt.get(day.getKey()));
+                    sketches.add(sketch);
+                }
+            }
+        }
+        candleSketchRepository.saveAll(sketches);
+        return sketches.size();
+    }
+
+    private CandleSketch newSketch(DayKey key, SketchMetric metric) {
+        return new CandleSketch(stockRepository.getReferenceById(key.stockId()), key.timeframe(), key.date(), metric);
+    }
+
+    private static void store(CandleSketch sketch, TDigest digest) {
+        sketch.setPayload(digest.toBytes());
+        sketch.setValueCount(digest.count());
+        sketch.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private record DayKey(long stockId, String timeframe, LocalDate date) {
+    }
+
+    /**
+     * Digests of one (stock, timeframe) series, by day and metric
+     */
+    private static final class SeriesDigests {
+        private final long stockId;
+        private final String timeframe;
+        private final Map<LocalDate, Map<SketchMetric, TDigest>> days = new HashMap<>();
+        // Rows arrive in timestamp order, so the last one put is the day's newest candle
+        private final Map<LocalDate, LocalDateTime> lastCandleAt = new HashMap<>();
+
+        SeriesDigests(long stockId, String timeframe) {
+            this.stockId = stockId;
+            this.timeframe = timeframe;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.stock.stock_trend_tracker.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable t-digest (merging variant) for approximate quantiles of a stream of values.
+ * Values are buffered and periodically merged into at most about {@code compression} centroids whose
+ * size limit follows the arcsine scale function, so the rank error is smallest near the tails
+ * (roughly 1/compression at the median, far less at p1/p99). Digests of disjoint streams merge into
+ * a digest of the combined stream with the same error bound.
+ */
+public final class TDigest {
+
+    private static final byte VERSION = 1;
+
+    private final int compression;
+
+    private double[] means;
+    private long[] weights;
+    private int centroids;
+
+    private double[] bufferMeans;
+    private long[] bufferWeights;
+    private int buffered;
+
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(int compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        this.means = new double[compression * 2];
+        this.weights = new long[compression * 2];
+        this.bufferMeans = new double[compression * 5];
+        this.bufferWeights = new long[compression * 5];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight) {
+        if (Double.isNaN(value) || weight <= 0) {
+            return;
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        count += weight;
+        sum += value * weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add every centroid of another digest to this one
+     */
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            if (buffered == bufferMeans.length) {
+                compress();
+            }
+            bufferMeans[buffered] = other.means[i];
+            bufferWeights[buffered] = other.weights[i];
+            buffered++;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double min() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double max() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Estimate a quantile by interpolating between centroid centres, using the exact min and max at the ends
+     * @param q Quantile in [0, 1]
+     * @return Estimated value, or NaN if the digest is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+
+        double index = q * count;
+        if (index < 0.5) {
+            return min;
+        }
+        if (index > count - 0.5) {
+            return max;
+        }
+
+        // Each centroid's mass is centred on its mean: interpolate between neighbouring centres
+        double firstCentre = weights[0] / 2.0;
+        if (index < firstCentre) {
+            return interpolate(min, means[0], (index - 0.5) / (firstCentre - 0.5));
+        }
+        double centre = firstCentre;
+        for (int i = 0; i < centroids - 1; i++) {
+            double nextCentre = centre + (weights[i] + weights[i + 1]) / 2.0;
+            if (index <= nextCentre) {
+                return interpolate(means[i], means[i + 1], (index - centre) / (nextCentre - centre));
+            }
+            centre = nextCentre;
+        }
+        double lastCentre = count - weights[centroids - 1] / 2.0;
+        double span = count - 0.5 - lastCentre;
+        return span > 0 ? interpolate(means[centroids - 1], max, (index - lastCentre) / span) : max;
+    }
+
+    /**
+     * Serialize as: version byte, compression, count, sum, min, max, centroid count, then per centroid
+     * its mean (8 bytes) and weight (varint)
+     */
+    public byte[] toBytes() {
+        compress();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(45 + centroids * 10);
+        ByteBuffer header = ByteBuffer.allocate(41);
+        header.put(VERSION).putInt(compression).putLong(count).putDouble(sum).putDouble(min).putDouble(max)
+                .putInt(centroids);
+        out.writeBytes(header.array());
+        ByteBuffer mean = ByteBuffer.allocate(8);
+        for (int i = 0; i < centroids; i++) {
+            out.writeBytes(mean.clear().putDouble(means[i]).array());
+            writeVarint(out, weights[i]);
+        }
+        return out.toByteArray();
+    }
+
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported t-digest version " + version);
+        }
+        TDigest digest = new TDigest(in.getInt());
+        digest.count = in.getLong();
+        digest.sum = in.getDouble();
+        digest.min = in.getDouble();
+        digest.max = in.getDouble();
+        int n = in.getInt();
+        digest.ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            digest.means[i] = in.getDouble();
+            digest.weights[i] = readVarint(in);
+        }
+        digest.centroids = n;
+        return digest;
+    }
+
+    /**
+     * Merge buffered values into the centroid list in one sorted sweep
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int total = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, total);
+        long[] allWeights = Arrays.copyOf(weights, total);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        buffered = 0;
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        long totalWeight = 0;
+        for (int i = 0; i < total; i++) {
+            totalWeight += allWeights[i];
+        }
+
+        double[] mergedMeans = new double[total];
+        long[] mergedWeights = new long[total];
+        int n = 0;
+        double currentMean = allMeans[order[0]];
+        long currentWeight = allWeights[order[0]];
+        long weightSoFar = 0;
+        double kLeft = scale(0);
+        for (int i = 1; i < total; i++) {
+            double mean = allMeans[order[i]];
+            long weight = allWeights[order[i]];
+            double qRight = (double) (weightSoFar + currentWeight + weight) / totalWeight;
+            if (scale(qRight) - kLeft <= 1) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                mergedMeans[n] = currentMean;
+                mergedWeights[n] = currentWeight;
+                n++;
+                weightSoFar += currentWeight;
+                kLeft = scale((double) weightSoFar / totalWeight);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[n] = currentMean;
+        mergedWeights[n] = currentWeight;
+        n++;
+
+        ensureCapacity(n);
+        System.arraycopy(mergedMeans, 0, means, 0, n);
+        System.arraycopy(mergedWeights, 0, weights, 0, n);
+        centroids = n;
+    }
+
+    // k1 scale function: centroids near q = 0 and q = 1 stay small
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+
+    private void ensureCapacity(int n) {
+        if (means.length < n) {
+            means = Arrays.copyOf(means, n);
+            weights = Arrays.copyOf(weights, n);
+        }
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * Math.max(0, Math.min(1, fraction));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,179 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.PriceAlert;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.AlertNotification;
+import com.stock.stock_trend_tracker.dto.PriceAlertRequest;
+import com.stock.stock_trend_tracker.dto.PriceAlertResponse;
+import com.stock.stock_trend_tracker.repository.PriceAlertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.service.AlertEngine;
+import com.stock.stock_trend_tracker.service.AlertNotifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*")
+public class AlertController {
+    
+    @Autowired
+    private PriceAlertRepository priceAlertRepository;
+    
+    @Autowired
+    private StockRepository stockRepository;
+    
+    @Autowired
+    private AlertEngine alertEngine;
+    
+    @Autowired
+    private AlertNotifier alertNotifier;
+    
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+    
+    /**
+     * Get price alerts
+     * @param stockId Optional stock filter
+     * @param active Optional active-flag filter
+     * @return List of alerts
+     */
+    @GetMapping
+    public ResponseEntity<List<PriceAlertResponse>> getAlerts(
+            @RequestParam(required = false) Long stockId,
+            @RequestParam(required = false) Boolean active) {
+        
+        List<PriceAlert> alerts;
+        if (stockId != null) {
+            alerts = priceAlertRepository.findByStockId(stockId);
+        } else if (active != null) {
+            alerts = priceAlertRepository.findByActive(active);
+        } else {
+            alerts = priceAlertRepository.findAll();
+        }
+        
+        return ResponseEntity.ok(alerts.stream()
+                .filter(alert -> active == null || alert.isActive() == active)
+                .map(PriceAlertResponse::from)
+                .toList());
+    }
+    
+    /**
+     * Get price alert by ID
+     * @param id Alert ID
+     * @return Alert or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<PriceAlertResponse> getAlert(@PathVariable Long id) {
+        return priceAlertRepository.findById(id)
+                .map(PriceAlertResponse::from)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Create a price alert
+     * @param request Stock, direction and threshold of the alert
+     * @return Created alert, 400 if the request is incomplete, or 404 if the stock is not found
+     */
+    @PostMapping
+    public ResponseEntity<PriceAlertResponse> createAlert(@RequestBody PriceAlertRequest request) {
+        if (request.stockId() == null || !isValid(request.direction(), request.thresholdPrice())) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Optional<Stock> stockOpt = stockRepository.findById(request.stockId());
+        if (!stockOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        PriceAlert alert = new PriceAlert(stockOpt.get(), request.direction(), request.thresholdPrice());
+        alert.setNote(request.note());
+        PriceAlert savedAlert = priceAlertRepository.save(alert);
+        alertEngine.register(savedAlert);
+        clusterEventBus.publish(ClusterEventKind.ALERTS_CHANGED, List.of(request.stockId()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(PriceAlertResponse.from(savedAlert));
+    }
+    
+    /**
+     * Update a price alert's threshold, direction, note or active flag
+     * @param id Alert ID
+     * @param request Fields to change; null fields are left as they are
+     * @return Updated alert or 404 if not found
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<PriceAlertResponse> updateAlert(@PathVariable Long id, @RequestBody PriceAlertRequest request) {
+        Optional<PriceAlert> optionalAlert = priceAlertRepository.findById(id);
+        if (!optionalAlert.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        PriceAlert alert = optionalAlert.get();
+        AlertDirection direction = request.direction() != null ? request.direction() : alert.getDirection();
+        BigDecimal threshold = request.thresholdPrice() != null ? request.thresholdPrice() : alert.getThresholdPrice();
+        if (!isValid(direction, threshold)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (alert.isActive()) {
+            alertEngine.unregister(alert.getStock().getId(), alert.getId(), alert.getDirection(), alert.getThresholdPrice());
+        }
+        alert.setDirection(direction);
+        alert.setThresholdPrice(threshold);
+        if (request.note() != null) {
+            alert.setNote(request.note());
+        }
+        if (request.active() != null) {
+            alert.setActive(request.active());
+            if (request.active()) {
+                alert.setTriggeredAt(null);
+                alert.setTriggeredPrice(null);
+            }
+        }
+        
+        PriceAlert updatedAlert = priceAlertRepository.save(alert);
+        alertEngine.register(updatedAlert);
+        clusterEventBus.publish(ClusterEventKind.ALERTS_CHANGED, List.of(updatedAlert.getStock().getId()));
+        return ResponseEntity.ok(PriceAlertResponse.from(updatedAlert));
+    }
+    
+    /**
+     * Delete a price alert
+     * @param id Alert ID
+     * @return 204 No Content or 404 if not found
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAlert(@PathVariable Long id) {
+        Optional<PriceAlert> optionalAlert = priceAlertRepository.findById(id);
+        if (!optionalAlert.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        PriceAlert alert = optionalAlert.get();
+        if (alert.isActive()) {
+            alertEngine.unregister(alert.getStock().getId(), alert.getId(), alert.getDirection(), alert.getThresholdPrice());
+        }
+        priceAlertRepository.delete(alert);
+        clusterEventBus.publish(ClusterEventKind.ALERTS_CHANGED, List.of(alert.getStock().getId()));
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Get the most recently delivered alert notifications, newest first
+     * @return List of notifications
+     */
+    @GetMapping("/notifications")
+    public ResponseEntity<List<AlertNotification>> getNotifications() {
+        return ResponseEntity.ok(alertNotifier.getRecentNotifications());
+    }
+    
+    private static boolean isValid(AlertDirection direction, BigDecimal threshold) {
+        return direction != null && threshold != null && threshold.signum() > 0;
+    }
+}
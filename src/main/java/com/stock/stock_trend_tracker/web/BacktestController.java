@@ -0,0 +1,84 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.backtest.BacktestRequest;
+import com.stock.stock_trend_tracker.backtest.BacktestService;
+import com.stock.stock_trend_tracker.backtest.BacktestStatus;
+import com.stock.stock_trend_tracker.backtest.StockBacktestResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Optional;
+@RestController
+@RequestMapping("/api/backtests")
+@CrossOrigin(origins = "*")
+public class BacktestController {
+    
+    @Autowired
+    private BacktestService backtestService;
+    
+    /**
+     * Start a backtest of a strategy over stored candle history
+     * @param request Strategy, parameters, timeframe, range and universe; omitted fields use defaults
+     * @return 202 Accepted with the queued run, or 400 for an unknown strategy or invalid parameters
+     */
+    @PostMapping
+    public ResponseEntity<BacktestStatus> startBacktest(@RequestBody(required = false) BacktestRequest request) {
+        try {
+            BacktestRequest runRequest = request != null ? request
+                    : new BacktestRequest(null, null, null, null, null, null, null, null, null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(backtestService.submit(runRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get all backtests of this instance
+     * @return List of run statuses
+     */
+    @GetMapping
+    public ResponseEntity<List<BacktestStatus>> getBacktests() {
+        return ResponseEntity.ok(backtestService.getRuns());
+    }
+    
+    /**
+     * Get the progress and summary of a backtest
+     * @param id Run ID
+     * @return Run status or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BacktestStatus> getBacktest(@PathVariable String id) {
+        return backtestService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get per-stock results of a completed backtest, best total return first
+     * @param id Run ID
+     * @param offset Number of results to skip
+     * @param limit Maximum number of results (default 100)
+     * @return Results, 404 if the run is not found, or 409 if it has not completed
+     */
+    @GetMapping("/{id}/results")
+    public ResponseEntity<List<StockBacktestResult>> getBacktestResults(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if (offset < 0 || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (backtestService.getStatus(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<List<StockBacktestResult>> results = backtestService.getResults(id);
+        if (results.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        List<StockBacktestResult> all = results.get();
+        int from = Math.min(offset, all.size());
+        return ResponseEntity.ok(all.subList(from, Math.min(all.size(), from + limit)));
+    }
+}
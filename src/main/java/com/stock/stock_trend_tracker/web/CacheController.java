@@ -0,0 +1,33 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.dto.CacheStatisticsResponse;
+import com.stock.stock_trend_tracker.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+    
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+    
+    /**
+     * Get Hibernate second-level and query cache statistics
+     * @return Overall and per-region hit ratios
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<CacheStatisticsResponse> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+    
+    /**
+     * Reset the statistics counters
+     * @return 204 No Content
+     */
+    @DeleteMapping("/stats")
+    public ResponseEntity<Void> resetStatistics() {
+        cacheStatisticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.Correlate;
+import com.stock.stock_trend_tracker.dto.CorrelationMatrixResponse;
+import com.stock.stock_trend_tracker.service.CorrelationMatrix;
+import com.stock.stock_trend_tracker.service.CorrelationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+@RestController
+@RequestMapping("/api/correlations")
+@CrossOrigin(origins = "*")
+public class CorrelationController {
+    
+    @Autowired
+    private CorrelationService correlationService;
+    
+    @Value("${stock.correlation.default-timeframe:5m}")
+    private String defaultTimeframe;
+    
+    @Value("${stock.correlation.default-window:288}")
+    private int defaultWindow;
+    
+    @Value("${stock.correlation.max-window:2016}")
+    private int maxWindow;
+    
+    // Matrices are computed from the hot tier only; older candles are packed into archive blocks
+    @Value("${stock.archive.hot-days:30}")
+    private int hotDays;
+    
+    /**
+     * Get the full covariance or correlation matrix of log returns across all stocks
+     * @param timeframe Candle timeframe (defaults to stock.correlation.default-timeframe)
+     * @param window Number of returns (defaults to stock.correlation.default-window, at most stock.correlation.max-window
+     *               and no longer than stock.archive.hot-days of the timeframe)
+     * @param measure CORRELATION or COVARIANCE
+     * @return Matrix over every stock with enough history, or 400 for invalid parameters or a window reaching
+     *         into the archive
+     */
+    @GetMapping
+    public ResponseEntity<CorrelationMatrixResponse> getMatrix(
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) Integer window,
+            @RequestParam(defaultValue = "CORRELATION") String measure) {
+        
+        boolean covariance = "COVARIANCE".equalsIgnoreCase(measure);
+        if (!covariance && !"CORRELATION".equalsIgnoreCase(measure)) {
+            return ResponseEntity.badRequest().build();
+        }
+        CorrelationMatrix matrix = resolve(timeframe, window);
+        if (matrix == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        int n = matrix.size();
+        List<Long> stockIds = new ArrayList<>(n);
+        List<String> symbols = new ArrayList<>(n);
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            stockIds.add(matrix.stockIdAt(i));
+            symbols.add(matrix.symbolAt(i));
+            for (int j = 0; j < n; j++) {
+                values[i][j] = covariance ? matrix.covariance(i, j) : matrix.correlation(i, j);
+            }
+        }
+        return ResponseEntity.ok(new CorrelationMatrixResponse(matrix.getTimeframe(), matrix.getWindow(),
+                covariance ? "COVARIANCE" : "CORRELATION", matrix.getComputedAt(), stockIds, symbols, values));
+    }
+    
+    /**
+     * Get the stocks whose log returns are most correlated with a given stock
+     * @param stockId Stock ID
+     * @param k Number of correlates to return (default 10)
+     * @param timeframe Candle timeframe
+     * @param window Number of returns
+     * @return Top-k correlates, highest first, or 404 if the stock has no history in the window
+     */
+    @GetMapping("/{stockId}/top")
+    public ResponseEntity<List<Correlate>> getTopCorrelates(
+            @PathVariable Long stockId,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) Integer window) {
+        
+        CorrelationMatrix matrix = resolve(timeframe, window);
+        if (matrix == null || k <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int row = matrix.indexOf(stockId);
+        if (row < 0) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<Correlate> correlates = new ArrayList<>(k);
+        for (int j : matrix.topCorrelates(row, k)) {
+            correlates.add(new Correlate(matrix.stockIdAt(j), matrix.symbolAt(j),
+                    matrix.correlation(row, j), matrix.covariance(row, j)));
+        }
+        return ResponseEntity.ok(correlates);
+    }
+    
+    private CorrelationMatrix resolve(String timeframe, Integer window) {
+        String tf = timeframe != null ? timeframe : defaultTimeframe;
+        int w = window != null ? window : defaultWindow;
+        Optional<Duration> step = Timeframes.toDuration(tf);
+        if (step.isEmpty() || w < 2 || w > maxWindow
+                || step.get().multipliedBy(w + 1L).compareTo(Duration.ofDays(hotDays)) > 0) {
+            return null;
+        }
+        return correlationService.getMatrix(tf, w);
+    }
+}
@@ -0,0 +1,52 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.GapRepairResult;
+import com.stock.stock_trend_tracker.dto.GapReport;
+import com.stock.stock_trend_tracker.ingest.GapDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
+@RestController
+@RequestMapping("/api/gaps")
+@CrossOrigin(origins = "*")
+public class GapController {
+    
+    @Autowired
+    private GapDetector gapDetector;
+    
+    @Value("${stock.ingest.interval:PT5M}")
+    private Duration ingestInterval;
+    
+    /**
+     * Get missing candles across all stocks
+     * @param timeframe Candle timeframe (defaults to the ingest interval)
+     * @param days Whole days before today to scan (defaults to stock.gaps.lookback-days)
+     * @param limit Maximum number of stocks to list, most missing first (default 100)
+     * @return Gap report, or 400 for a timeframe that is unknown or does not divide a day
+     */
+    @GetMapping
+    public ResponseEntity<GapReport> getGaps(
+            @RequestParam(required = false) String timeframe,
+            @RequestParam(required = false) Integer days,
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        if (days != null && days < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        String tf = timeframe != null ? timeframe : Timeframes.toLabel(ingestInterval);
+        return gapDetector.findGaps(tf, days, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.badRequest().build());
+    }
+    
+    /**
+     * Refetch missing candles of the ingest timeframe now instead of waiting for the scheduled repair
+     * @return Counts of the repair run
+     */
+    @PostMapping("/repair")
+    public ResponseEntity<GapRepairResult> repairGaps() {
+        return ResponseEntity.ok(gapDetector.repair());
+    }
+}
@@ -0,0 +1,56 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.simulator.MarketSimulator;
+import com.stock.stock_trend_tracker.simulator.SimulationRequest;
+import com.stock.stock_trend_tracker.simulator.SimulationStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+@RestController
+@RequestMapping("/api/simulator")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "stock.simulator.enabled", havingValue = "true")
+public class SimulatorController {
+    
+    @Autowired
+    private MarketSimulator marketSimulator;
+    
+    /**
+     * Start a synthetic market run that creates symbols and bulk-loads their candles
+     * @param request Run parameters; omitted fields use defaults
+     * @return 202 Accepted with the queued run, or 400 for invalid parameters
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<SimulationStatus> startRun(@RequestBody(required = false) SimulationRequest request) {
+        try {
+            SimulationRequest runRequest = request != null ? request
+                    : new SimulationRequest(null, null, null, null, null, null, null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(marketSimulator.submit(runRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get all simulator runs of this instance
+     * @return List of run statuses
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<SimulationStatus>> getRuns() {
+        return ResponseEntity.ok(marketSimulator.getRuns());
+    }
+    
+    /**
+     * Get the progress of a simulator run
+     * @param id Run ID
+     * @return Run status or 404 if not found
+     */
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<SimulationStatus> getRun(@PathVariable String id) {
+        return marketSimulator.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
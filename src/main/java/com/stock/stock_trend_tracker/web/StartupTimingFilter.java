@@ -0,0 +1,51 @@
+package com.stock.stock_trend_tracker.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs how long after JVM start the application became ready and served its first request,
+ * so startup changes (lazy init, CDS, migrations) can be tracked. See also the startupBenchmark Gradle task.
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    private final AtomicBoolean firstRequestServed = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        logger.info("Application ready {} ms after JVM start ({} ms in Spring)", jvmUptimeMillis(),
+                event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!firstRequestServed.get() && firstRequestServed.compareAndSet(false, true)) {
+                logger.info("Time to first request: {} ms after JVM start ({} {})", jvmUptimeMillis(),
+                        request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+
+    private static long jvmUptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -1,17 +1,44 @@
 package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
 import com.stock.stock_trend_tracker.domain.Stock;
 import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.BatchCandleRequest;
+import com.stock.stock_trend_tracker.dto.BatchCandleResponse;
+import com.stock.stock_trend_tracker.dto.BulkStockResponse;
+import com.stock.stock_trend_tracker.dto.ExchangeBreadthResponse;
+import com.stock.stock_trend_tracker.dto.QuantileResponse;
+import com.stock.stock_trend_tracker.dto.StockHistoryResponse;
+import com.stock.stock_trend_tracker.dto.StockRegistration;
 import com.stock.stock_trend_tracker.repository.StockRepository;
 import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.service.BreadthAggregator;
+import com.stock.stock_trend_tracker.service.BulkStockService;
+import com.stock.stock_trend_tracker.service.CandleBatchService;
+import com.stock.stock_trend_tracker.service.HistoryInterval;
+import com.stock.stock_trend_tracker.service.HistoryPeriod;
+import com.stock.stock_trend_tracker.service.HistoryService;
+import com.stock.stock_trend_tracker.service.SerializedPayload;
+import com.stock.stock_trend_tracker.service.SnapshotService;
+import com.stock.stock_trend_tracker.sketch.CandleSketchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -28,6 +55,27 @@ public class StockController {
     @Autowired
     private PriceCandleRepository priceCandleRepository;
     
+    @Autowired
+    private HistoryService historyService;
+    
+    @Autowired
+    private CandleBatchService candleBatchService;
+    
+    @Autowired
+    private SnapshotService snapshotService;
+    
+    @Autowired
+    private BreadthAggregator breadthAggregator;
+    
+    @Autowired
+    private CandleSketchService candleSketchService;
+    
+    @Autowired
+    private BulkStockService bulkStockService;
+    
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+    
     /**
      * Get all stocks
      * @return List of all stocks
@@ -94,6 +142,18 @@ public class StockController {
         return ResponseEntity.ok(exchanges);
     }
     
+    /**
+     * Get market breadth of an exchange for the current session
+     * @param exchange Exchange name
+     * @return Advancers/decliners, new highs/lows, volume and index level per ingestion slot, or 404 if no stock of the exchange has ticked yet
+     */
+    @GetMapping("/exchanges/{exchange}/breadth")
+    public ResponseEntity<ExchangeBreadthResponse> getExchangeBreadth(@PathVariable String exchange) {
+        return breadthAggregator.getBreadth(exchange)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     /**
      * Create a new stock
      * @param stock Stock entity to create
@@ -109,9 +169,31 @@ public class StockController {
         stock.setCreatedAt(LocalDateTime.now());
         stock.setUpdatedAt(LocalDateTime.now());
         Stock savedStock = stockRepository.save(stock);
+        // Other nodes may have cached a miss for this symbol
+        clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, List.of(savedStock.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedStock);
     }
     
+    /**
+     * Create or update many stocks at once; an existing symbol gets the row's name and exchange
+     * @param registrations Stocks to register
+     * @return Counts and one outcome per row (CREATED, UPDATED, UNCHANGED, SUPERSEDED, INVALID or FAILED)
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkStockResponse> registerStocks(@RequestBody List<StockRegistration> registrations) {
+        return ResponseEntity.ok(bulkStockService.register(registrations));
+    }
+    
+    /**
+     * Create or update many stocks from newline-delimited JSON, processed as the body streams in
+     * @param body One registration object per line
+     * @return Counts and one outcome per non-blank line; malformed lines are INVALID
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkStockResponse> registerStocksNdjson(InputStream body) {
+        return ResponseEntity.ok(bulkStockService.registerNdjson(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+    
     /**
      * Update an existing stock
      * @param id Stock ID
@@ -132,6 +214,7 @@ public class StockController {
         stock.setUpdatedAt(LocalDateTime.now());
         
         Stock updatedStock = stockRepository.save(stock);
+        clusterEventBus.publish(ClusterEventKind.STOCKS_CHANGED, List.of(id));
         return ResponseEntity.ok(updatedStock);
     }
     
@@ -147,6 +230,7 @@ public class StockController {
         }
         
         stockRepository.deleteById(id);
+        clusterEventBus.publish(ClusterEventKind.STOCK_DELETED, List.of(id));
         return ResponseEntity.noContent().build();
     }
     
@@ -186,42 +270,122 @@ public class StockController {
     }
     
     /**
-     * Get latest price candle for a stock
-     * @param id Stock ID
-     * @return Latest price candle or 404 if not found
+     * Get candles for many stocks over the same range in one request; symbols are matched ignoring case
+     * @param request Stock IDs and/or symbols, timeframe, start/end and format (ROWS or COLUMNAR)
+     * @return Candles grouped by symbol, or 400 for an invalid timeframe, range, format or too many stocks
      */
-    @GetMapping("/{id}/candles/latest")
-    public ResponseEntity<PriceCandle> getLatestCandle(@PathVariable Long id) {
-        Optional<PriceCandle> candle = priceCandleRepository.findLatestByStockId(id);
-        return candle.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+    @PostMapping("/candles/batch")
+    public ResponseEntity<BatchCandleResponse<?>> getBatchCandles(@RequestBody BatchCandleRequest request) {
+        try {
+            return ResponseEntity.ok(candleBatchService.getCandles(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
-     * Get stock statistics
+     * Get price history for a stock rolled up to an interval
      * @param id Stock ID
-     * @return Stock statistics
+     * @param period Look-back period (e.g., 1D, 1W, 1M, 1Y)
+     * @param interval Bar interval (e.g., FIVE_MINUTES, HOURLY, DAILY)
+     * @return Price history, 400 for an unknown period/interval, or 404 if the stock is not found or no stored
+     *         timeframe can be rolled up to the interval
      */
-    @GetMapping("/{id}/stats")
-    public ResponseEntity<Object> getStockStats(@PathVariable Long id) {
+    @GetMapping("/{id}/history")
+    public ResponseEntity<StockHistoryResponse> getStockHistory(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1M") String period,
+            @RequestParam(defaultValue = "DAILY") String interval) {
+        
+        Optional<HistoryPeriod> historyPeriod = HistoryPeriod.fromCode(period);
+        Optional<HistoryInterval> historyInterval = HistoryInterval.fromCode(interval);
+        if (historyPeriod.isEmpty() || historyInterval.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
         Optional<Stock> stockOpt = stockRepository.findById(id);
         if (!stockOpt.isPresent()) {
             return ResponseEntity.notFound().build();
         }
         
-        Stock stock = stockOpt.get();
-        long candleCount = priceCandleRepository.countByStock(stock);
-        List<String> timeframes = priceCandleRepository.findDistinctTimeframesByStockId(id);
+        return historyService.getHistory(stockOpt.get(), historyPeriod.get(), historyInterval.get())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get approximate quantiles of a candle metric over a range of days, merged from daily sketches
+     * @param id Stock ID
+     * @param metric CLOSE, RANGE (high - low) or VOLUME
+     * @param timeframe Candle timeframe
+     * @param per CANDLE for one value per candle, DAY for one value per day (total volume, mean close or range)
+     * @param start First day (defaults to 89 days before end)
+     * @param end Last day (defaults to today)
+     * @param q Quantiles in [0, 1]
+     * @return Quantile estimates, 400 for invalid parameters, or 404 if the stock or its sketches are not found
+     */
+    @GetMapping("/{id}/quantiles")
+    public ResponseEntity<QuantileResponse> getQuantiles(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "CLOSE") String metric,
+            @RequestParam(defaultValue = "5m") String timeframe,
+            @RequestParam(defaultValue = "CANDLE") String per,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(defaultValue = "0.5,0.95") List<Double> q) {
+        
+        SketchMetric sketchMetric;
+        try {
+            sketchMetric = SketchMetric.valueOf(metric.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean perDay = "DAY".equalsIgnoreCase(per);
+        LocalDate endDate = end != null ? end : LocalDate.now();
+        LocalDate startDate = start != null ? start : endDate.minusDays(89);
+        if ((!perDay && !"CANDLE".equalsIgnoreCase(per)) || Timeframes.toDuration(timeframe).isEmpty()
+                || startDate.isAfter(endDate) || q.isEmpty() || q.stream().anyMatch(v -> v == null || v < 0 || v > 1)) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        return ResponseEntity.ok(new Object() {
-            public final String symbol = stock.getSymbol();
-            public final String name = stock.getName();
-            public final String exchange = stock.getExchange();
-            public final long totalCandles = candleCount;
-            public final List<String> availableTimeframes = timeframes;
-            public final LocalDateTime createdAt = stock.getCreatedAt();
-            public final LocalDateTime updatedAt = stock.getUpdatedAt();
-        });
+        Optional<Stock> stockOpt = stockRepository.findById(id);
+        if (!stockOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return candleSketchService.quantiles(stockOpt.get(), timeframe, sketchMetric, perDay, startDate, endDate, q)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get latest price candle for a stock, served from the pre-serialized snapshot
+     * @param id Stock ID
+     * @param acceptEncoding Accept-Encoding request header
+     * @return Latest price candle or 404 if not found
+     */
+    @GetMapping("/{id}/candles/latest")
+    public ResponseEntity<byte[]> getLatestCandle(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return snapshotService.getLatestCandle(id)
+                .map(payload -> snapshotResponse(payload, acceptEncoding))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Get stock statistics, served from the pre-serialized snapshot
+     * @param id Stock ID
+     * @param acceptEncoding Accept-Encoding request header
+     * @return Stock statistics or 404 if not found
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<byte[]> getStockStats(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return snapshotService.getStats(id)
+                .map(payload -> snapshotResponse(payload, acceptEncoding))
+                .orElse(ResponseEntity.notFound().build());
     }
     
     /**
@@ -249,4 +413,17 @@ public class StockController {
         map.put("status", "triggered");
         return ResponseEntity.ok(map);
     }
+    
+    /**
+     * Write snapshot bytes as-is, gzipped when the client accepts it and a compressed copy exists
+     */
+    private ResponseEntity<byte[]> snapshotResponse(SerializedPayload payload, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.gzip() != null && SerializedPayload.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
 }
@@ -0,0 +1,161 @@
+package com.stock.stock_trend_tracker.web;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.cluster.ClusterEventKind;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Watchlist;
+import com.stock.stock_trend_tracker.domain.WatchlistItem;
+import com.stock.stock_trend_tracker.dto.WatchlistOverview;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.repository.WatchlistItemRepository;
+import com.stock.stock_trend_tracker.repository.WatchlistRepository;
+import com.stock.stock_trend_tracker.service.WatchlistPortfolioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+@RestController
+@RequestMapping("/api/watchlists")
+@CrossOrigin(origins = "*")
+public class WatchlistController {
+    
+    @Autowired
+    private WatchlistRepository watchlistRepository;
+    
+    @Autowired
+    private WatchlistItemRepository watchlistItemRepository;
+    
+    @Autowired
+    private StockRepository stockRepository;
+    
+    @Autowired
+    private PriceCandleRepository priceCandleRepository;
+    
+    @Autowired
+    private WatchlistPortfolioService watchlistPortfolioService;
+    
+    @Autowired
+    private ClusterEventBus clusterEventBus;
+    
+    /**
+     * Get watchlists with their aggregate performance, most recently updated first
+     * @param page Page number (default 0)
+     * @param size Page size (default 20)
+     * @return Page of watchlist overviews; performance comes from in-memory snapshots, not extra queries
+     */
+    @GetMapping
+    public ResponseEntity<Page<WatchlistOverview>> getWatchlists(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        Page<Watchlist> watchlists = watchlistRepository.findAllByOrderByUpdatedAtDesc(PageRequest.of(page, size));
+        return ResponseEntity.ok(watchlists.map(this::overview));
+    }
+    
+    /**
+     * Get a watchlist with its aggregate performance
+     * @param id Watchlist ID
+     * @return Watchlist overview or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<WatchlistOverview> getWatchlist(@PathVariable Long id) {
+        return watchlistRepository.findById(id)
+                .map(watchlist -> ResponseEntity.ok(overview(watchlist)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Create a new watchlist
+     * @param watchlist Watchlist with name and optional description
+     * @return Created watchlist
+     */
+    @PostMapping
+    public ResponseEntity<WatchlistOverview> createWatchlist(@RequestBody Watchlist watchlist) {
+        if (watchlist.getName() == null || watchlist.getName().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Watchlist created = new Watchlist(watchlist.getName());
+        created.setDescription(watchlist.getDescription());
+        return ResponseEntity.status(HttpStatus.CREATED).body(overview(watchlistRepository.save(created)));
+    }
+    
+    /**
+     * Delete a watchlist and its items
+     * @param id Watchlist ID
+     * @return 204 No Content or 404 if not found
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteWatchlist(@PathVariable Long id) {
+        Optional<Watchlist> watchlist = watchlistRepository.findById(id);
+        if (!watchlist.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        watchlistRepository.delete(watchlist.get());
+        clusterEventBus.publish(ClusterEventKind.WATCHLIST_CHANGED, List.of(id));
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Add a stock to a watchlist; its return is measured from its latest close
+     * @param id Watchlist ID
+     * @param stockId Stock ID
+     * @return Updated watchlist overview, 404 if either does not exist or 409 if the stock is already a member
+     */
+    @PostMapping("/{id}/items/{stockId}")
+    public ResponseEntity<WatchlistOverview> addItem(@PathVariable Long id, @PathVariable Long stockId) {
+        Optional<Watchlist> watchlist = watchlistRepository.findById(id);
+        Optional<Stock> stock = stockRepository.findById(stockId);
+        if (!watchlist.isPresent() || !stock.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (watchlistItemRepository.existsByWatchlistIdAndStockId(id, stockId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        WatchlistItem item = new WatchlistItem(watchlist.get(), stock.get());
+        item.setReferencePrice(priceCandleRepository.findTopByStockOrderByTimestampDesc(stock.get())
+                .map(PriceCandle::getClosePrice)
+                .orElse(null));
+        watchlistItemRepository.save(item);
+        Watchlist updated = touch(watchlist.get());
+        
+        clusterEventBus.publish(ClusterEventKind.WATCHLIST_CHANGED, List.of(id));
+        return ResponseEntity.status(HttpStatus.CREATED).body(overview(updated));
+    }
+    
+    /**
+     * Remove a stock from a watchlist
+     * @param id Watchlist ID
+     * @param stockId Stock ID
+     * @return 204 No Content or 404 if the stock is not a member
+     */
+    @DeleteMapping("/{id}/items/{stockId}")
+    public ResponseEntity<Void> removeItem(@PathVariable Long id, @PathVariable Long stockId) {
+        Optional<WatchlistItem> item = watchlistItemRepository.findByWatchlistIdAndStockId(id, stockId);
+        if (!item.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        watchlistItemRepository.delete(item.get());
+        touch(item.get().getWatchlist());
+        clusterEventBus.publish(ClusterEventKind.WATCHLIST_CHANGED, List.of(id));
+        return ResponseEntity.noContent().build();
+    }
+    
+    private Watchlist touch(Watchlist watchlist) {
+        watchlist.setUpdatedAt(LocalDateTime.now());
+        return watchlistRepository.save(watchlist);
+    }
+    
+    private WatchlistOverview overview(Watchlist watchlist) {
+        return new WatchlistOverview(watchlist.getId(), watchlist.getName(), watchlist.getDescription(),
+                watchlist.getUpdatedAt(), watchlistPortfolioService.getSnapshot(watchlist.getId()));
+    }
+}
@@ -0,0 +1,3 @@
+ALTER TABLE watchlist_items DROP CONSTRAINT fk_watchlist_items_stock;
+ALTER TABLE watchlist_items ADD CONSTRAINT fk_watchlist_items_stock
+    FOREIGN KEY (stock_id) REFERENCES stocks (id) ON DELETE CASCADE;
@@ -0,0 +1,4 @@
+-- H2 has no expression indexes, so the upper-cased symbol is a generated column with its own index; batch
+-- lookups match on it case-insensitively without rewriting stored symbols
+ALTER TABLE stocks ADD COLUMN symbol_upper VARCHAR(255) GENERATED ALWAYS AS (UPPER(symbol));
+CREATE INDEX idx_stocks_symbol_upper ON stocks (symbol_upper);
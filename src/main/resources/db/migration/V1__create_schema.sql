@@ -0,0 +1,73 @@
+-- Application schema; mirrors the JPA mappings in com.stock.stock_trend_tracker.domain
+
+CREATE TABLE stocks (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    symbol      VARCHAR(255) NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    exchange    VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT uk_stocks_symbol UNIQUE (symbol)
+);
+
+CREATE TABLE price_candles (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id     BIGINT NOT NULL,
+    timestamp    TIMESTAMP(6) NOT NULL,
+    open_price   NUMERIC(10, 2) NOT NULL,
+    high_price   NUMERIC(10, 2) NOT NULL,
+    low_price    NUMERIC(10, 2) NOT NULL,
+    close_price  NUMERIC(10, 2) NOT NULL,
+    volume       BIGINT,
+    timeframe    VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    CONSTRAINT fk_price_candles_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+    CONSTRAINT uk_price_candles_stock_timeframe_timestamp UNIQUE (stock_id, timeframe, timestamp)
+);
+
+CREATE TABLE candle_archive_blocks (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id      BIGINT NOT NULL,
+    timeframe     VARCHAR(255) NOT NULL,
+    block_date    DATE NOT NULL,
+    candle_count  INTEGER NOT NULL,
+    payload       BLOB NOT NULL,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT fk_candle_archive_blocks_stock FOREIGN KEY (stock_id) REFERENCES stocks (id) ON DELETE CASCADE,
+    CONSTRAINT uk_candle_archive_blocks_stock_timeframe_date UNIQUE (stock_id, timeframe, block_date)
+);
+
+CREATE TABLE price_alerts (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id         BIGINT NOT NULL,
+    direction        VARCHAR(8) NOT NULL,
+    threshold_price  NUMERIC(10, 2) NOT NULL,
+    note             VARCHAR(255),
+    active           BOOLEAN NOT NULL,
+    triggered_at     TIMESTAMP(6),
+    triggered_price  NUMERIC(10, 2),
+    created_at       TIMESTAMP(6),
+    CONSTRAINT fk_price_alerts_stock FOREIGN KEY (stock_id) REFERENCES stocks (id)
+);
+
+CREATE INDEX idx_price_alerts_active ON price_alerts (active);
+CREATE INDEX idx_price_alerts_stock ON price_alerts (stock_id);
+
+CREATE TABLE watchlists (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    description  VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE watchlist_items (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    watchlist_id  BIGINT NOT NULL,
+    stock_id      BIGINT NOT NULL,
+    created_at    TIMESTAMP(6),
+    CONSTRAINT fk_watchlist_items_watchlist FOREIGN KEY (watchlist_id) REFERENCES watchlists (id),
+    CONSTRAINT fk_watchlist_items_stock FOREIGN KEY (stock_id) REFERENCES stocks (id),
+    CONSTRAINT uk_watchlist_items_watchlist_stock UNIQUE (watchlist_id, stock_id)
+);
@@ -0,0 +1,135 @@
+-- Quartz clustered JDBC job store (equivalent to Quartz's tables_h2.sql), so the prod profile
+-- can run with spring.quartz.jdbc.initialize-schema=never
+
+CREATE TABLE QRTZ_JOB_DETAILS (
+    SCHED_NAME         VARCHAR(120) NOT NULL,
+    JOB_NAME           VARCHAR(200) NOT NULL,
+    JOB_GROUP          VARCHAR(200) NOT NULL,
+    DESCRIPTION        VARCHAR(250),
+    JOB_CLASS_NAME     VARCHAR(250) NOT NULL,
+    IS_DURABLE         BOOLEAN NOT NULL,
+    IS_NONCONCURRENT   BOOLEAN NOT NULL,
+    IS_UPDATE_DATA     BOOLEAN NOT NULL,
+    REQUESTS_RECOVERY  BOOLEAN NOT NULL,
+    JOB_DATA           BLOB,
+    PRIMARY KEY (SCHED_NAME, JOB_NAME, JOB_GROUP)
+);
+
+CREATE TABLE QRTZ_TRIGGERS (
+    SCHED_NAME      VARCHAR(120) NOT NULL,
+    TRIGGER_NAME    VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP   VARCHAR(200) NOT NULL,
+    JOB_NAME        VARCHAR(200) NOT NULL,
+    JOB_GROUP       VARCHAR(200) NOT NULL,
+    DESCRIPTION     VARCHAR(250),
+    NEXT_FIRE_TIME  BIGINT,
+    PREV_FIRE_TIME  BIGINT,
+    PRIORITY        INTEGER,
+    TRIGGER_STATE   VARCHAR(16) NOT NULL,
+    TRIGGER_TYPE    VARCHAR(8) NOT NULL,
+    START_TIME      BIGINT NOT NULL,
+    END_TIME        BIGINT,
+    CALENDAR_NAME   VARCHAR(200),
+    MISFIRE_INSTR   SMALLINT,
+    JOB_DATA        BLOB,
+    PRIMARY KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP),
+    FOREIGN KEY (SCHED_NAME, JOB_NAME, JOB_GROUP) REFERENCES QRTZ_JOB_DETAILS (SCHED_NAME, JOB_NAME, JOB_GROUP)
+);
+
+CREATE TABLE QRTZ_SIMPLE_TRIGGERS (
+    SCHED_NAME       VARCHAR(120) NOT NULL,
+    TRIGGER_NAME     VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP    VARCHAR(200) NOT NULL,
+    REPEAT_COUNT     BIGINT NOT NULL,
+    REPEAT_INTERVAL  BIGINT NOT NULL,
+    TIMES_TRIGGERED  BIGINT NOT NULL,
+    PRIMARY KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP),
+    FOREIGN KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP) REFERENCES QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP)
+);
+
+CREATE TABLE QRTZ_CRON_TRIGGERS (
+    SCHED_NAME       VARCHAR(120) NOT NULL,
+    TRIGGER_NAME     VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP    VARCHAR(200) NOT NULL,
+    CRON_EXPRESSION  VARCHAR(120) NOT NULL,
+    TIME_ZONE_ID     VARCHAR(80),
+    PRIMARY KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP),
+    FOREIGN KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP) REFERENCES QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP)
+);
+
+CREATE TABLE QRTZ_SIMPROP_TRIGGERS (
+    SCHED_NAME     VARCHAR(120) NOT NULL,
+    TRIGGER_NAME   VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP  VARCHAR(200) NOT NULL,
+    STR_PROP_1     VARCHAR(512),
+    STR_PROP_2     VARCHAR(512),
+    STR_PROP_3     VARCHAR(512),
+    INT_PROP_1     INTEGER,
+    INT_PROP_2     INTEGER,
+    LONG_PROP_1    BIGINT,
+    LONG_PROP_2    BIGINT,
+    DEC_PROP_1     NUMERIC(13, 4),
+    DEC_PROP_2     NUMERIC(13, 4),
+    BOOL_PROP_1    BOOLEAN,
+    BOOL_PROP_2    BOOLEAN,
+    PRIMARY KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP),
+    FOREIGN KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP) REFERENCES QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP)
+);
+
+CREATE TABLE QRTZ_BLOB_TRIGGERS (
+    SCHED_NAME     VARCHAR(120) NOT NULL,
+    TRIGGER_NAME   VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP  VARCHAR(200) NOT NULL,
+    BLOB_DATA      BLOB,
+    PRIMARY KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP),
+    FOREIGN KEY (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP) REFERENCES QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_NAME, TRIGGER_GROUP)
+);
+
+CREATE TABLE QRTZ_CALENDARS (
+    SCHED_NAME     VARCHAR(120) NOT NULL,
+    CALENDAR_NAME  VARCHAR(200) NOT NULL,
+    CALENDAR       BLOB NOT NULL,
+    PRIMARY KEY (SCHED_NAME, CALENDAR_NAME)
+);
+
+CREATE TABLE QRTZ_PAUSED_TRIGGER_GRPS (
+    SCHED_NAME     VARCHAR(120) NOT NULL,
+    TRIGGER_GROUP  VARCHAR(200) NOT NULL,
+    PRIMARY KEY (SCHED_NAME, TRIGGER_GROUP)
+);
+
+CREATE TABLE QRTZ_FIRED_TRIGGERS (
+    SCHED_NAME         VARCHAR(120) NOT NULL,
+    ENTRY_ID           VARCHAR(95) NOT NULL,
+    TRIGGER_NAME       VARCHAR(200) NOT NULL,
+    TRIGGER_GROUP      VARCHAR(200) NOT NULL,
+    INSTANCE_NAME      VARCHAR(200) NOT NULL,
+    FIRED_TIME         BIGINT NOT NULL,
+    SCHED_TIME         BIGINT NOT NULL,
+    PRIORITY           INTEGER NOT NULL,
+    STATE              VARCHAR(16) NOT NULL,
+    JOB_NAME           VARCHAR(200),
+    JOB_GROUP          VARCHAR(200),
+    IS_NONCONCURRENT   BOOLEAN,
+    REQUESTS_RECOVERY  BOOLEAN,
+    PRIMARY KEY (SCHED_NAME, ENTRY_ID)
+);
+
+CREATE TABLE QRTZ_SCHEDULER_STATE (
+    SCHED_NAME         VARCHAR(120) NOT NULL,
+    INSTANCE_NAME      VARCHAR(200) NOT NULL,
+    LAST_CHECKIN_TIME  BIGINT NOT NULL,
+    CHECKIN_INTERVAL   BIGINT NOT NULL,
+    PRIMARY KEY (SCHED_NAME, INSTANCE_NAME)
+);
+
+CREATE TABLE QRTZ_LOCKS (
+    SCHED_NAME  VARCHAR(120) NOT NULL,
+    LOCK_NAME   VARCHAR(40) NOT NULL,
+    PRIMARY KEY (SCHED_NAME, LOCK_NAME)
+);
+
+CREATE INDEX IDX_QRTZ_T_NEXT_FIRE_TIME ON QRTZ_TRIGGERS (SCHED_NAME, NEXT_FIRE_TIME);
+CREATE INDEX IDX_QRTZ_T_STATE ON QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_STATE);
+CREATE INDEX IDX_QRTZ_T_NFT_ST ON QRTZ_TRIGGERS (SCHED_NAME, TRIGGER_STATE, NEXT_FIRE_TIME);
+CREATE INDEX IDX_QRTZ_FT_TRIG_INST_NAME ON QRTZ_FIRED_TRIGGERS (SCHED_NAME, INSTANCE_NAME);
@@ -0,0 +1,12 @@
+CREATE TABLE candle_sketches (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id      BIGINT NOT NULL,
+    timeframe     VARCHAR(255) NOT NULL,
+    sketch_date   DATE NOT NULL,
+    metric        VARCHAR(16) NOT NULL,
+    value_count   BIGINT NOT NULL,
+    payload       BLOB NOT NULL,
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT fk_candle_sketches_stock FOREIGN KEY (stock_id) REFERENCES stocks (id) ON DELETE CASCADE,
+    CONSTRAINT uk_candle_sketches_stock_timeframe_date_metric UNIQUE (stock_id, timeframe, sketch_date, metric)
+);
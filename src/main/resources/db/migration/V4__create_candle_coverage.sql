@@ -0,0 +1,10 @@
+CREATE TABLE candle_coverage (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    stock_id        BIGINT NOT NULL,
+    timeframe       VARCHAR(255) NOT NULL,
+    coverage_date   DATE NOT NULL,
+    slots           VARBINARY(2048) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT fk_candle_coverage_stock FOREIGN KEY (stock_id) REFERENCES stocks (id) ON DELETE CASCADE,
+    CONSTRAINT uk_candle_coverage_stock_timeframe_date UNIQUE (stock_id, timeframe, coverage_date)
+);
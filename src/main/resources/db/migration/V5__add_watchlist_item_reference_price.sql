@@ -0,0 +1 @@
+ALTER TABLE watchlist_items ADD COLUMN reference_price DECIMAL(10,2);
@@ -0,0 +1,3 @@
+ALTER TABLE price_alerts DROP CONSTRAINT fk_price_alerts_stock;
+ALTER TABLE price_alerts ADD CONSTRAINT fk_price_alerts_stock
+    FOREIGN KEY (stock_id) REFERENCES stocks (id) ON DELETE CASCADE;
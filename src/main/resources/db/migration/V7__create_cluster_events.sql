@@ -0,0 +1,15 @@
+CREATE TABLE cluster_events (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    origin        VARCHAR(36) NOT NULL,
+    kind          VARCHAR(32) NOT NULL,
+    ref_id        BIGINT,
+    slot          TIMESTAMP(6),
+    timeframe     VARCHAR(10),
+    shard         INTEGER,
+    created_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_cluster_events_created_at ON cluster_events (created_at);
+
+-- Other nodes load a replayed tick's candles by slot
+CREATE INDEX idx_price_candles_timeframe_timestamp ON price_candles (timeframe, timestamp);
@@ -0,0 +1 @@
+ALTER TABLE candle_sketches ADD COLUMN last_candle_at TIMESTAMP(6);
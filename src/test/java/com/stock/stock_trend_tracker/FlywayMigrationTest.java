@@ -0,0 +1,129 @@
+package com.stock.stock_trend_tracker;
+
+import com.stock.stock_trend_tracker.archive.CandleBlockCodec;
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.CandleArchiveBlock;
+import com.stock.stock_trend_tracker.domain.CandleCoverage;
+import com.stock.stock_trend_tracker.domain.CandleSketch;
+import com.stock.stock_trend_tracker.domain.PriceAlert;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Watchlist;
+import com.stock.stock_trend_tracker.domain.WatchlistItem;
+import com.stock.stock_trend_tracker.ingest.SlotBitmap;
+import com.stock.stock_trend_tracker.repository.CandleCoverageRepository;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.sketch.TDigest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The prod profile runs on the Flyway schema with ddl-auto=none, so Hibernate validates every mapping against
+ * the migrated schema here
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
+@Import({CandleUpsertRepository.class, CandleCoverageRepository.class})
+class FlywayMigrationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void entitiesPersistAgainstMigratedSchema() {
+        Stock stock = new Stock("FLY", "Flyway Inc");
+        entityManager.persist(stock);
+
+        PriceCandle candle = new PriceCandle(stock, LocalDateTime.of(2024, 1, 2, 10, 0), BigDecimal.TEN,
+                BigDecimal.TEN, BigDecimal.ONE, BigDecimal.TEN);
+        candle.setVolume(100L);
+        candle.setTimeframe("5m");
+        entityManager.persist(candle);
+
+        PriceAlert alert = new PriceAlert(stock, AlertDirection.ABOVE, new BigDecimal("12.50"));
+        entityManager.persist(alert);
+
+        Watchlist watchlist = new Watchlist("Tech");
+        entityManager.persist(watchlist);
+        entityManager.persist(new WatchlistItem(watchlist, stock));
+
+        CandleArchiveBlock block = new CandleArchiveBlock(stock, "5m", LocalDate.of(2023, 12, 1));
+        block.setPayload(CandleBlockCodec.encode(List.of(candle)));
+        block.setCandleCount(1);
+        entityManager.persist(block);
+        
+        TDigest digest = new TDigest(100);
+        digest.add(100);
+        CandleSketch sketch = new CandleSketch(stock, "5m", LocalDate.of(2024, 1, 2), SketchMetric.VOLUME);
+        sketch.setPayload(digest.toBytes());
+        sketch.setValueCount(digest.count());
+        entityManager.persist(sketch);
+        
+        CandleCoverage coverage = new CandleCoverage(stock, "5m", LocalDate.of(2024, 1, 1),
+                SlotBitmap.toBytes(SlotBitmap.empty(288)));
+        entityManager.persist(coverage);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(PriceAlert.class, alert.getId()).getDirection()).isEqualTo(AlertDirection.ABOVE);
+        assertThat(CandleBlockCodec.decode(entityManager.find(CandleArchiveBlock.class, block.getId()).getPayload(),
+                stock, "5m")).hasSize(1);
+        assertThat(TDigest.fromBytes(entityManager.find(CandleSketch.class, sketch.getId()).getPayload())
+                .quantile(0.5)).isEqualTo(100);
+
+        CandleUpsertRepository.Result result = candleUpsertRepository.upsert(List.of(candle));
+        assertThat(result).isEqualTo(new CandleUpsertRepository.Result(0, 1));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM candle_coverage WHERE stock_id = ?", Integer.class, stock.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void deletingStockCascadesToItsAlerts() {
+        Stock stock = new Stock("DEL", "Deleted Inc");
+        entityManager.persist(stock);
+        entityManager.persist(new PriceAlert(stock, AlertDirection.BELOW, new BigDecimal("5.00")));
+        entityManager.flush();
+
+        jdbcTemplate.update("DELETE FROM stocks WHERE id = ?", stock.getId());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_alerts WHERE stock_id = ?", Integer.class, stock.getId())).isZero();
+    }
+
+    @Test
+    void upperCasedSymbolIsGeneratedForCaseInsensitiveLookups() {
+        Stock stock = stockRepository.saveAndFlush(new Stock("BrkB", "Berkshire"));
+
+        assertThat(stockRepository.findBySymbolIgnoreCaseIn(List.of("BRKB"))).extracting(Stock::getId)
+                .containsExactly(stock.getId());
+        assertThat(stockRepository.findBySymbol("BrkB")).isPresent();
+    }
+
+    @Test
+    void quartzTablesAreCreated() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME LIKE 'QRTZ_%'", Integer.class))
+                .isEqualTo(11);
+    }
+}
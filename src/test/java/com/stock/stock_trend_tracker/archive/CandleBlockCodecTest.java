@@ -0,0 +1,77 @@
+package com.stock.stock_trend_tracker.archive;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleBlockCodecTest {
+
+    @Test
+    void roundTripsADayOfCandlesIncludingGapsAndNullVolumes() {
+        Stock stock = new Stock("ARC", "Archive Inc");
+        List<PriceCandle> candles = randomWalk(288, LocalDateTime.of(2024, 3, 4, 0, 0));
+        candles.get(7).setVolume(null);
+        candles.get(100).setTimestamp(candles.get(100).getTimestamp().plusSeconds(17));
+
+        List<PriceCandle> decoded = CandleBlockCodec.decode(CandleBlockCodec.encode(candles), stock, "5m");
+
+        assertThat(decoded).hasSize(candles.size());
+        for (int i = 0; i < candles.size(); i++) {
+            PriceCandle expected = candles.get(i);
+            PriceCandle actual = decoded.get(i);
+            assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+            assertThat(actual.getOpenPrice()).isEqualByComparingTo(expected.getOpenPrice());
+            assertThat(actual.getHighPrice()).isEqualByComparingTo(expected.getHighPrice());
+            assertThat(actual.getLowPrice()).isEqualByComparingTo(expected.getLowPrice());
+            assertThat(actual.getClosePrice()).isEqualByComparingTo(expected.getClosePrice());
+            assertThat(actual.getVolume()).isEqualTo(expected.getVolume());
+            assertThat(actual.getTimeframe()).isEqualTo("5m");
+            assertThat(actual.getStock()).isSameAs(stock);
+        }
+    }
+
+    @Test
+    void regularSeriesCompressesWellBelowRowFootprint() {
+        List<PriceCandle> candles = randomWalk(288, LocalDateTime.of(2024, 3, 4, 0, 0));
+
+        byte[] block = CandleBlockCodec.encode(candles);
+
+        // A row costs well over 100 bytes with keys and indexes; a regular series should take a handful
+        assertThat(block.length / (double) candles.size()).isLessThan(16);
+    }
+
+    @Test
+    void emptyBlockDecodesToNoCandles() {
+        assertThat(CandleBlockCodec.decode(CandleBlockCodec.encode(List.of()), new Stock(), "1d")).isEmpty();
+    }
+
+    private static List<PriceCandle> randomWalk(int bars, LocalDateTime start) {
+        Random random = new Random(7);
+        List<PriceCandle> candles = new ArrayList<>(bars);
+        double price = 150;
+        for (int i = 0; i < bars; i++) {
+            double open = price;
+            price *= 1 + random.nextGaussian() * 0.002;
+            double high = Math.max(open, price) + random.nextDouble() * 0.3;
+            double low = Math.min(open, price) - random.nextDouble() * 0.3;
+            PriceCandle candle = new PriceCandle(null, start.plusMinutes(5L * i),
+                    cents(open), cents(high), cents(low), cents(price));
+            candle.setVolume(1_000_000L + random.nextInt(9_000_000));
+            candles.add(candle);
+        }
+        return candles;
+    }
+
+    private static BigDecimal cents(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,92 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BacktestEngineTest {
+
+    @Test
+    void positionEarnsNextBarReturnAndClosesAtLastBar() {
+        BarSeries bars = series(1, 100, 110, 99, 121);
+        // Long after bar 1, flat after bar 2, long again after bar 3 (closed at the last bar)
+        Strategy strategy = (series, positions) -> {
+            positions[1] = 1;
+            positions[3] = 1;
+        };
+
+        StockBacktestResult result = BacktestEngine.run(bars, strategy, 0, 1_000);
+
+        assertThat(result.trades()).isEqualTo(1);
+        assertThat(result.winningTrades()).isZero();
+        assertThat(result.totalReturn()).isCloseTo(-0.10, within(1e-9));
+        assertThat(result.pnl()).isCloseTo(-100, within(1e-6));
+        assertThat(result.maxDrawdown()).isCloseTo(0.10, within(1e-9));
+        assertThat(result.exposure()).isCloseTo(1.0 / 3, within(1e-9));
+    }
+
+    @Test
+    void chargesCostOnEntryAndExit() {
+        BarSeries bars = series(1, 100, 100, 110, 110);
+        Strategy alwaysLong = (series, positions) -> Arrays.fill(positions, (byte) 1);
+
+        StockBacktestResult result = BacktestEngine.run(bars, alwaysLong, 100, 1_000);
+
+        assertThat(result.trades()).isEqualTo(1);
+        assertThat(result.totalReturn()).isCloseTo(0.99 * 1.10 * 0.99 - 1, within(1e-9));
+        assertThat(result.bestTrade()).isEqualTo(result.worstTrade());
+    }
+
+    @Test
+    void crossoverGoesLongInUptrendAndBreakoutExitsOnReversal() {
+        double[] closes = new double[60];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = i < 40 ? 100 + i : 140 - 3 * (i - 40);
+        }
+        BarSeries bars = series(1, closes);
+
+        byte[] crossover = new byte[closes.length];
+        new MovingAverageCrossover(3, 10, false).positions(bars, crossover);
+        assertThat(crossover[8]).isZero();
+        assertThat(crossover[20]).isEqualTo((byte) 1);
+        assertThat(crossover[59]).isZero();
+
+        byte[] breakout = new byte[closes.length];
+        new BreakoutStrategy(5, 3).positions(bars, breakout);
+        assertThat(breakout[4]).isZero();
+        assertThat(breakout[10]).isEqualTo((byte) 1);
+        assertThat(breakout[45]).isZero();
+    }
+
+    @Test
+    void evaluatesManySeriesInParallelInInputOrder() {
+        BarSeries[] universe = new BarSeries[100];
+        for (int s = 0; s < universe.length; s++) {
+            universe[s] = series(s, 100, 100 + s, 100 + 2 * s);
+        }
+        Strategy alwaysLong = (series, positions) -> Arrays.fill(positions, (byte) 1);
+        AtomicLong completed = new AtomicLong();
+
+        StockBacktestResult[] results = BacktestEngine.submitAll(universe, alwaysLong, 0, 1, new ForkJoinPool(4),
+                completed).join();
+
+        assertThat(completed.get()).isEqualTo(100);
+        for (int s = 0; s < universe.length; s++) {
+            assertThat(results[s].stockId()).isEqualTo(s);
+            assertThat(results[s].totalReturn()).isCloseTo(s / 50.0, within(1e-9));
+        }
+    }
+
+    private static BarSeries series(long stockId, double... closes) {
+        BarSeries.Builder builder = new BarSeries.Builder(stockId, "S" + stockId);
+        for (int i = 0; i < closes.length; i++) {
+            builder.add(i * 300L, closes[i], closes[i] + 0.5, closes[i] - 0.5, closes[i], 1_000);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.stock.stock_trend_tracker.backtest;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacktestServiceTest {
+
+    private static final LocalDateTime END = LocalDateTime.of(2024, 3, 4, 0, 0);
+
+    private final BacktestService backtestService = new BacktestService();
+
+    @AfterEach
+    void shutdown() {
+        backtestService.shutdown();
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentFinishedRuns() throws InterruptedException {
+        // An empty universe: every run completes right away
+        ReflectionTestUtils.setField(backtestService, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(backtestService, "candleArchiveService", Mockito.mock(CandleArchiveService.class));
+        ReflectionTestUtils.setField(backtestService, "chunkSize", 250);
+        ReflectionTestUtils.setField(backtestService, "maxRuns", 2);
+        backtestService.init();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(backtestService.submit(new BacktestRequest(null, null, "5m", END.minusDays(1), END,
+                    null, null, null, null)).id());
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (backtestService.getRuns().stream().anyMatch(status -> status.finishedAt() == null)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(backtestService.getRuns()).extracting(BacktestStatus::id).containsExactly(ids.get(2), ids.get(3));
+        assertThat(backtestService.getStatus(ids.get(0))).isEmpty();
+        assertThat(backtestService.getResults(ids.get(1))).isEmpty();
+        assertThat(backtestService.getStatus(ids.get(3)).orElseThrow().state())
+                .isEqualTo(BacktestStatus.State.COMPLETED);
+    }
+}
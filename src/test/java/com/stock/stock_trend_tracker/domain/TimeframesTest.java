@@ -0,0 +1,57 @@
+package com.stock.stock_trend_tracker.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeframesTest {
+
+    @Test
+    void parsesLabels() {
+        assertThat(Timeframes.toDuration("30s")).contains(Duration.ofSeconds(30));
+        assertThat(Timeframes.toDuration("5m")).contains(Duration.ofMinutes(5));
+        assertThat(Timeframes.toDuration("4h")).contains(Duration.ofHours(4));
+        assertThat(Timeframes.toDuration("1d")).contains(Duration.ofDays(1));
+        assertThat(Timeframes.toDuration("2w")).contains(Duration.ofDays(14));
+    }
+
+    @Test
+    void rejectsMalformedLabels() {
+        assertThat(Timeframes.toDuration(null)).isEmpty();
+        assertThat(Timeframes.toDuration("m")).isEmpty();
+        assertThat(Timeframes.toDuration("0m")).isEmpty();
+        assertThat(Timeframes.toDuration("-5m")).isEmpty();
+        assertThat(Timeframes.toDuration("5y")).isEmpty();
+        assertThat(Timeframes.toDuration("xm")).isEmpty();
+    }
+
+    @Test
+    void formatsWithLargestWholeUnit() {
+        assertThat(Timeframes.toLabel(Duration.ofSeconds(45))).isEqualTo("45s");
+        assertThat(Timeframes.toLabel(Duration.ofMinutes(90))).isEqualTo("90m");
+        assertThat(Timeframes.toLabel(Duration.ofHours(4))).isEqualTo("4h");
+        assertThat(Timeframes.toLabel(Duration.ofDays(1))).isEqualTo("1d");
+        assertThat(Timeframes.toLabel(Duration.ofDays(7))).isEqualTo("1w");
+        assertThat(Timeframes.toDuration(Timeframes.toLabel(Duration.ofMinutes(15)))).contains(Duration.ofMinutes(15));
+    }
+
+    @Test
+    void alignsBuckets() {
+        // Wednesday
+        LocalDateTime timestamp = LocalDateTime.of(2025, 8, 6, 13, 47, 12);
+
+        assertThat(Timeframes.bucketStart(timestamp, Duration.ofMinutes(5)))
+                .isEqualTo(LocalDateTime.of(2025, 8, 6, 13, 45));
+        assertThat(Timeframes.bucketStart(timestamp, Duration.ofHours(4)))
+                .isEqualTo(LocalDateTime.of(2025, 8, 6, 12, 0));
+        assertThat(Timeframes.bucketStart(timestamp, Duration.ofDays(1)))
+                .isEqualTo(LocalDateTime.of(2025, 8, 6, 0, 0));
+        assertThat(Timeframes.bucketStart(timestamp, Duration.ofDays(7)))
+                .isEqualTo(LocalDateTime.of(2025, 8, 4, 0, 0));
+        assertThat(Timeframes.bucketStart(LocalDateTime.of(2025, 8, 4, 0, 0), Duration.ofDays(7)))
+                .isEqualTo(LocalDateTime.of(2025, 8, 4, 0, 0));
+    }
+}
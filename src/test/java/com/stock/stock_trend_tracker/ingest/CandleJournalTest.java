@@ -0,0 +1,73 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void replaysAppendedCandlesUntilTruncated() throws IOException {
+        Path file = tempDir.resolve("candles.journal");
+        LocalDateTime timestamp = LocalDateTime.of(2025, 8, 1, 9, 30, 0, 123_000_000);
+
+        try (CandleJournal journal = new CandleJournal(file)) {
+            journal.append(List.of(candle(1L, timestamp, "5m", 1_500_000L), candle(2L, timestamp, null, null)));
+        }
+
+        try (CandleJournal journal = new CandleJournal(file)) {
+            List<CandleJournal.Entry> entries = journal.readAll();
+            assertThat(entries).hasSize(2);
+            assertThat(entries.get(0).stockId()).isEqualTo(1L);
+            assertThat(entries.get(0).timestamp()).isEqualTo(timestamp);
+            assertThat(entries.get(0).closePrice()).isEqualByComparingTo("101.24");
+            assertThat(entries.get(0).volume()).isEqualTo(1_500_000L);
+            assertThat(entries.get(0).timeframe()).isEqualTo("5m");
+            assertThat(entries.get(1).volume()).isNull();
+            assertThat(entries.get(1).timeframe()).isNull();
+
+            journal.truncate();
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    @Test
+    void ignoresTornRecordAtTail() throws IOException {
+        Path file = tempDir.resolve("candles.journal");
+        try (CandleJournal journal = new CandleJournal(file)) {
+            journal.append(List.of(candle(7L, LocalDateTime.of(2025, 8, 1, 10, 0), "5m", 10L)));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 90, 1, 2, 3}));
+        }
+
+        try (CandleJournal journal = new CandleJournal(file)) {
+            assertThat(journal.readAll()).extracting(CandleJournal.Entry::stockId).containsExactly(7L);
+        }
+    }
+
+    private static PriceCandle candle(Long stockId, LocalDateTime timestamp, String timeframe, Long volume) {
+        Stock stock = new Stock("SYM" + stockId, "Stock " + stockId);
+        stock.setId(stockId);
+        PriceCandle candle = new PriceCandle(stock, timestamp, new BigDecimal("100.00"),
+                new BigDecimal("102.50"), new BigDecimal("99.10"), new BigDecimal("101.2371"));
+        candle.setTimeframe(timeframe);
+        candle.setVolume(volume);
+        return candle;
+    }
+}
@@ -0,0 +1,223 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.when;
+
+class CandleWriteBehindBufferTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 8, 1, 9, 30);
+
+    @TempDir
+    Path tempDir;
+
+    private final RecordingUpsertRepository upserts = new RecordingUpsertRepository();
+    private final StockRepository stockRepository = Mockito.mock(StockRepository.class);
+    private CandleWriteBehindBuffer buffer;
+
+    @AfterEach
+    void stopBuffer() throws Exception {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void retriesTransientFailureUntilItSucceeds() throws IOException {
+        buffer = startBuffer(3);
+        upserts.failuresLeft = 2;
+        AtomicInteger persisted = new AtomicInteger();
+
+        assertThat(buffer.offerAll(List.of(candle(1L, T0)), persisted::incrementAndGet)).isTrue();
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        assertThat(persisted).hasValue(0);
+        buffer.flush();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(persisted).hasValue(1);
+        assertThat(buffer.deadLetteredCount()).isZero();
+        assertThat(upserts.written).extracting(c -> c.getStock().getId()).containsExactly(1L);
+    }
+
+    @Test
+    void deadLettersPersistentlyFailingRowsAndKeepsDraining() throws IOException {
+        buffer = startBuffer(2);
+        upserts.rejectedStockIds.add(2L);
+
+        buffer.offer(candle(1L, T0));
+        buffer.offer(candle(2L, T0));
+        buffer.flush();
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        assertThat(buffer.deadLetteredCount()).isZero();
+
+        // Out of retries: the good row goes through on its own, the bad one is dead-lettered
+        buffer.offer(candle(3L, T0));
+        buffer.flush();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(buffer.deadLetteredCount()).isEqualTo(1);
+        assertThat(upserts.written).extracting(c -> c.getStock().getId()).containsExactly(1L, 3L);
+        try (CandleJournal deadLetters = new CandleJournal(tempDir.resolve("candles.deadletter"))) {
+            assertThat(deadLetters.readAll()).extracting(CandleJournal.Entry::stockId).containsExactly(2L);
+        }
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    @Test
+    void candlesAcceptedWhileTheDatabaseIsDownSurviveACrash() throws Exception {
+        buffer = startBuffer(3);
+        upserts.failuresLeft = Integer.MAX_VALUE;
+
+        assertThat(buffer.offerAll(List.of(candle(1L, T0), candle(2L, T0)), null)).isTrue();
+        assertThat(buffer.offer(candle(1L, T0.plusMinutes(5)))).isTrue();
+        buffer.flush();
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(3);
+
+        // Crash: the flusher dies and the final flush never runs
+        ((ScheduledExecutorService) ReflectionTestUtils.getField(buffer, "flusher")).shutdownNow();
+        ((CandleJournal) ReflectionTestUtils.getField(buffer, "journal")).close();
+        ((CandleJournal) ReflectionTestUtils.getField(buffer, "deadLetters")).close();
+        buffer = null;
+
+        upserts.failuresLeft = 0;
+        when(stockRepository.findAllById(anyIterable())).thenReturn(List.of(stock(1L), stock(2L)));
+        buffer = startBuffer(3);
+
+        assertThat(upserts.written).extracting(c -> c.getStock().getId() + "@" + c.getTimestamp())
+                .containsExactly("1@" + T0, "2@" + T0, "1@" + T0.plusMinutes(5));
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    @Test
+    void cutsTheJournalBackOnlyToWhatHasBeenFlushed() throws IOException {
+        buffer = startBuffer(3);
+        ReflectionTestUtils.setField(buffer, "journalCompactSize", DataSize.ofBytes(1));
+        ReflectionTestUtils.setField(buffer, "batchSize", 1);
+        // Second batch fails, so only the first accepted group is flushed
+        upserts.failAfter = 1;
+
+        buffer.offer(candle(1L, T0));
+        buffer.offer(candle(2L, T0));
+        buffer.flush();
+
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            assertThat(journal.readAll()).extracting(CandleJournal.Entry::stockId).containsExactly(2L);
+        }
+
+        buffer.offer(candle(3L, T0));
+        buffer.flush();
+
+        assertThat(upserts.written).extracting(c -> c.getStock().getId()).containsExactly(1L, 2L, 3L);
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    @Test
+    void replaysJournalOnStartup() throws IOException {
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            journal.append(List.of(candle(1L, T0), candle(9L, T0), candle(1L, T0.plusMinutes(5))));
+        }
+        when(stockRepository.findAllById(anyIterable())).thenReturn(List.of(stock(1L)));
+
+        buffer = startBuffer(3);
+
+        assertThat(upserts.written).extracting(PriceCandle::getTimestamp)
+                .containsExactly(T0, T0.plusMinutes(5));
+        try (CandleJournal journal = new CandleJournal(tempDir.resolve("candles.journal"))) {
+            assertThat(journal.readAll()).isEmpty();
+        }
+    }
+
+    private CandleWriteBehindBuffer startBuffer(int maxRetries) throws IOException {
+        CandleWriteBehindBuffer buffer = new CandleWriteBehindBuffer();
+        ReflectionTestUtils.setField(buffer, "candleUpsertRepository", upserts);
+        ReflectionTestUtils.setField(buffer, "stockRepository", stockRepository);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(buffer, "batchSize", 10);
+        // Flushes are driven by the test
+        ReflectionTestUtils.setField(buffer, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(buffer, "journalDir", tempDir.toString());
+        ReflectionTestUtils.setField(buffer, "maxRetries", maxRetries);
+        ReflectionTestUtils.setField(buffer, "journalCompactSize", DataSize.ofMegabytes(16));
+        buffer.start();
+        return buffer;
+    }
+
+    private static Stock stock(Long id) {
+        Stock stock = new Stock("SYM" + id, "Stock " + id);
+        stock.setId(id);
+        return stock;
+    }
+
+    private static PriceCandle candle(Long stockId, LocalDateTime timestamp) {
+        PriceCandle candle = new PriceCandle(stock(stockId), timestamp, new BigDecimal("100.00"),
+                new BigDecimal("101.00"), new BigDecimal("99.00"), new BigDecimal("100.50"));
+        candle.setTimeframe("5m");
+        return candle;
+    }
+
+    /**
+     * Fails whole calls while {@code failuresLeft} is positive, the one call after {@code failAfter} successful
+     * ones, and any call containing a rejected stock
+     */
+    private static class RecordingUpsertRepository extends CandleUpsertRepository {
+
+        final List<PriceCandle> written = new ArrayList<>();
+        final Set<Long> rejectedStockIds = new HashSet<>();
+        int failuresLeft;
+        int failAfter = -1;
+
+        @Override
+        public Result upsert(List<PriceCandle> candles) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("database unavailable");
+            }
+            if (failAfter == 0) {
+                failAfter = -1;
+                throw new IllegalStateException("database unavailable");
+            }
+            if (failAfter > 0) {
+                failAfter--;
+            }
+            if (candles.stream().anyMatch(c -> rejectedStockIds.contains(c.getStock().getId()))) {
+                throw new IllegalStateException("foreign key violation");
+            }
+            written.addAll(candles);
+            return new Result(candles.size(), 0);
+        }
+    }
+}
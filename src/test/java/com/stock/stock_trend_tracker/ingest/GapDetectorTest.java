@@ -0,0 +1,140 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.GapRange;
+import com.stock.stock_trend_tracker.dto.GapRepairResult;
+import com.stock.stock_trend_tracker.dto.GapReport;
+import com.stock.stock_trend_tracker.dto.StockGaps;
+import com.stock.stock_trend_tracker.jobs.StockDataScheduler;
+import com.stock.stock_trend_tracker.jobs.StockShardRing;
+import com.stock.stock_trend_tracker.repository.CandleCoverageRepository;
+import com.stock.stock_trend_tracker.repository.CandleUpsertRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.sketch.CandleSketchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hourly slots keep the expected window stable for the length of the test
+ */
+@DataJpaTest(properties = {"stock.ingest.interval=PT1H", "stock.ingest.write-behind.enabled=false",
+        "stock.gaps.grace=PT2M"})
+@Import({GapDetector.class, StockDataScheduler.class, CandleWriteBehindBuffer.class, CandleUpsertRepository.class,
+        CandleCoverageRepository.class, CandleArchiveService.class, CandleSketchService.class,
+        ClusterEventBus.class, StockShardRing.class})
+class GapDetectorTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Autowired
+    private GapDetector gapDetector;
+
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsTheMissingSlotAndRepairFillsOnlyIt() {
+        LocalDateTime latest = Timeframes.bucketStart(LocalDateTime.now().minusMinutes(2), HOUR);
+        Stock stock = save("HOLE", latest.minusHours(4));
+        LocalDateTime missing = latest.minusHours(2);
+        List<PriceCandle> stored = new ArrayList<>();
+        for (int hoursBack = 4; hoursBack >= 0; hoursBack--) {
+            LocalDateTime slot = latest.minusHours(hoursBack);
+            if (!slot.equals(missing)) {
+                stored.add(candle(stock, slot, "100.00"));
+            }
+        }
+        candleUpsertRepository.upsert(stored);
+
+        GapReport report = gapDetector.findGaps("1h", 1, 10).orElseThrow();
+
+        assertThat(report.stocksScanned()).isEqualTo(1);
+        assertThat(report.totalMissing()).isEqualTo(1);
+        assertThat(report.stocks()).containsExactly(new StockGaps(stock.getId(), "HOLE", 1,
+                List.of(new GapRange(missing, missing.plus(HOUR), 1))));
+
+        GapRepairResult result = gapDetector.repair();
+
+        assertThat(result.missing()).isEqualTo(1);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT timestamp FROM price_candles WHERE stock_id = ? ORDER BY timestamp", LocalDateTime.class,
+                stock.getId())).hasSize(5).contains(missing);
+        // The stored bars are left as they were
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT close_price FROM price_candles WHERE stock_id = ? AND timestamp <> ?", BigDecimal.class,
+                stock.getId(), missing)).hasSize(4).allMatch(close -> close.compareTo(new BigDecimal("100.00")) == 0);
+        assertThat(gapDetector.findGaps("1h", 1, 10).orElseThrow().totalMissing()).isZero();
+    }
+
+    @Test
+    void stocksWithoutCandlesAndOutagesAtTheWindowStartAreReported() {
+        LocalDateTime latest = Timeframes.bucketStart(LocalDateTime.now().minusMinutes(2), HOUR);
+        LocalDateTime windowStart = latest.toLocalDate().minusDays(1).atStartOfDay();
+        int windowSlots = (int) Duration.between(windowStart, latest).toHours() + 1;
+        Stock silent = save("SILENT", windowStart.minusDays(3));
+        Stock late = save("LATE", windowStart.minusDays(3));
+        // Registered during the latest slot: nothing before it is expected
+        Stock fresh = save("FRESH", latest.plusMinutes(1));
+        List<PriceCandle> stored = new ArrayList<>();
+        for (LocalDateTime slot = windowStart.plusHours(2); !slot.isAfter(latest); slot = slot.plus(HOUR)) {
+            stored.add(candle(late, slot, "50.00"));
+        }
+        stored.add(candle(fresh, latest, "20.00"));
+        candleUpsertRepository.upsert(stored);
+
+        GapReport report = gapDetector.findGaps("1h", 1, 10).orElseThrow();
+
+        assertThat(report.stocksScanned()).isEqualTo(3);
+        assertThat(report.totalMissing()).isEqualTo(windowSlots + 2);
+        assertThat(report.stocks()).containsExactly(
+                new StockGaps(silent.getId(), "SILENT", windowSlots,
+                        List.of(new GapRange(windowStart, latest.plus(HOUR), windowSlots))),
+                new StockGaps(late.getId(), "LATE", 2,
+                        List.of(new GapRange(windowStart, windowStart.plusHours(2), 2))));
+
+        gapDetector.repair();
+
+        assertThat(gapDetector.findGaps("1h", 1, 10).orElseThrow().totalMissing()).isZero();
+    }
+
+    @Test
+    void untrackedTimeframesAreNotReported() {
+        assertThat(gapDetector.findGaps("7x", 1, 10)).isEmpty();
+    }
+
+    private Stock save(String symbol, LocalDateTime createdAt) {
+        Stock stock = new Stock(symbol, symbol + " Inc");
+        stock.setCreatedAt(createdAt);
+        return stockRepository.saveAndFlush(stock);
+    }
+
+    private static PriceCandle candle(Stock stock, LocalDateTime timestamp, String close) {
+        BigDecimal price = new BigDecimal(close);
+        PriceCandle candle = new PriceCandle(stock, timestamp, price, price, price, price);
+        candle.setVolume(1_000L);
+        candle.setTimeframe("1h");
+        return candle;
+    }
+}
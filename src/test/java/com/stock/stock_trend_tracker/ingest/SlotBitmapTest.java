@@ -0,0 +1,58 @@
+package com.stock.stock_trend_tracker.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlotBitmapTest {
+
+    @Test
+    void slotsPerDayOnlyForTimeframesThatDivideADay() {
+        assertThat(SlotBitmap.slotsPerDay(Duration.ofMinutes(5))).isEqualTo(288);
+        assertThat(SlotBitmap.slotsPerDay(Duration.ofMinutes(1))).isEqualTo(1440);
+        assertThat(SlotBitmap.slotsPerDay(Duration.ofDays(1))).isEqualTo(1);
+        assertThat(SlotBitmap.slotsPerDay(Duration.ofMinutes(7))).isZero();
+        assertThat(SlotBitmap.slotsPerDay(Duration.ofDays(7))).isZero();
+    }
+
+    @Test
+    void missingRunsSpanWordBoundariesAndRespectTheRange() {
+        long[] words = SlotBitmap.empty(288);
+        for (int slot = 0; slot < 288; slot++) {
+            if (slot < 60 || slot > 70 && slot != 130 && slot < 200) {
+                SlotBitmap.set(words, slot);
+            }
+        }
+
+        assertThat(runs(words, 0, 288)).containsExactly("60-71", "130-131", "200-288");
+        assertThat(runs(words, 65, 135)).containsExactly("65-71", "130-131");
+        assertThat(runs(words, 0, 60)).isEmpty();
+        assertThat(runs(SlotBitmap.empty(288), 10, 10)).isEmpty();
+        assertThat(runs(SlotBitmap.empty(288), 0, 288)).containsExactly("0-288");
+    }
+
+    @Test
+    void bytesRoundTripAndSlotsFollowTheTimeOfDay() {
+        long[] words = SlotBitmap.empty(288);
+        Duration step = Duration.ofMinutes(5);
+        SlotBitmap.set(words, SlotBitmap.slotOf(LocalDateTime.of(2024, 3, 4, 10, 5), step));
+        SlotBitmap.set(words, 287);
+
+        long[] decoded = SlotBitmap.fromBytes(SlotBitmap.toBytes(words), 288);
+
+        assertThat(SlotBitmap.toBytes(words).length).isEqualTo(40);
+        assertThat(SlotBitmap.firstSet(decoded)).isEqualTo(121);
+        assertThat(SlotBitmap.cardinality(decoded)).isEqualTo(2);
+    }
+
+    private static List<String> runs(long[] words, int from, int to) {
+        List<String> runs = new ArrayList<>();
+        SlotBitmap.forEachMissingRun(words, from, to, (start, end) -> runs.add(start + "-" + end));
+        return runs;
+    }
+}
@@ -0,0 +1,326 @@
+package com.stock.stock_trend_tracker.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stock.stock_trend_tracker.StockTrendTrackerApplication;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Watchlist;
+import com.stock.stock_trend_tracker.dto.PriceAlertRequest;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import com.stock.stock_trend_tracker.service.AlertEngine;
+import com.stock.stock_trend_tracker.service.BreadthAggregator;
+import com.stock.stock_trend_tracker.service.SnapshotService;
+import com.stock.stock_trend_tracker.service.WatchlistPortfolioService;
+import com.stock.stock_trend_tracker.web.AlertController;
+import com.stock.stock_trend_tracker.web.WatchlistController;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs several application instances against one H2 server database and checks that the clustered
+ * Quartz job store spreads the ingestion shards across them without duplicate candles, while every node
+ * still follows every stock.
+ * Which node ingested which shard of which slot is read from the TICK rows of {@code cluster_events}, and
+ * each step polls until its condition holds or a deadline passes, so the checks do not depend on how many
+ * slots fit into a fixed wall-clock window on a loaded machine.
+ */
+class ClusteredIngestionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusteredIngestionTest.class);
+
+    private static final int NODES = 3;
+    private static final int STOCKS = 120;
+    private static final int SHARDS = 12;
+    // Slots each node must have ingested, and fully covered slots the cluster must have produced, after the join
+    private static final int MIN_SLOTS = 3;
+    private static final long AWAIT_MILLIS = 60_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Server h2Server;
+    private String jdbcUrl;
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void startDatabase() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        h2Server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        jdbcUrl = "jdbc:h2:tcp://localhost:" + port + "/mem:cluster;DB_CLOSE_DELAY=-1";
+    }
+
+    @AfterEach
+    void stopAll() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        h2Server.stop();
+    }
+
+    @Test
+    void shardsAreSpreadAcrossNodesWithoutDuplicateCandles() throws Exception {
+        nodes.add(startNode(0));
+        List<Stock> stocks = IntStream.range(0, STOCKS)
+                .mapToObj(i -> {
+                    Stock stock = new Stock(String.format("T%04d", i), "Test stock " + i);
+                    stock.setExchange("TEST");
+                    return stock;
+                })
+                .toList();
+        List<Long> stockIds = nodes.get(0).getBean(StockRepository.class).saveAll(stocks).stream()
+                .map(Stock::getId)
+                .toList();
+
+        // Alone, the first node fires every shard
+        String soloOrigin = origin(nodes.get(0));
+        await("every shard ingested by the single node", () -> shardTicksAfter(0).stream()
+                .filter(tick -> tick.origin().equals(soloOrigin))
+                .map(ShardTick::shard)
+                .distinct()
+                .count() == SHARDS);
+
+        for (int i = 1; i < NODES; i++) {
+            nodes.add(startNode(i));
+        }
+        long joinedAt = maxEventId();
+        List<String> origins = nodes.stream().map(ClusteredIngestionTest::origin).toList();
+        await("every node ingested " + MIN_SLOTS + " slots and " + MIN_SLOTS + " slots fully covered", () -> {
+            List<ShardTick> ticks = shardTicksAfter(joinedAt);
+            return origins.stream().allMatch(origin -> ticks.stream()
+                    .filter(tick -> tick.origin().equals(origin))
+                    .map(ShardTick::slot)
+                    .distinct()
+                    .count() >= MIN_SLOTS)
+                    && completeSlots(ticks) >= MIN_SLOTS;
+        });
+
+        List<ShardTick> ticks = shardTicksAfter(joinedAt);
+        // Each shard of a slot fires on exactly one node ...
+        Map<String, Long> firings = ticks.stream()
+                .collect(Collectors.groupingBy(tick -> tick.slot() + "#" + tick.shard(), Collectors.counting()));
+        assertThat(firings.values()).as("firings per (slot, shard)").allMatch(count -> count == 1);
+
+        // ... and, mapped through the ring, the nodes' shards cover every stock
+        StockShardRing ring = nodes.get(0).getBean(StockShardRing.class);
+        Set<Long> covered = new HashSet<>();
+        for (int i = 0; i < NODES; i++) {
+            String origin = origins.get(i);
+            Set<Integer> shards = ticks.stream()
+                    .filter(tick -> tick.origin().equals(origin))
+                    .map(ShardTick::shard)
+                    .collect(Collectors.toSet());
+            Set<Long> owned = stockIds.stream()
+                    .filter(id -> shards.contains(ring.shardOf(id)))
+                    .collect(Collectors.toSet());
+            logger.info("Node {} ingested shards {} ({} stocks)", i, shards, owned.size());
+            assertThat(owned).as("stocks in the shards of node %d", i).isNotEmpty();
+            covered.addAll(owned);
+        }
+        assertThat(covered).as("stocks covered by the cluster").hasSize(STOCKS);
+
+        assertEveryNodeFollowsEveryStock(stockIds);
+        
+        // Closing the nodes stops their shard jobs and flushes their write-behind buffers
+        List<StockDataScheduler> schedulers = nodes.stream().map(node -> node.getBean(StockDataScheduler.class)).toList();
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            nodes.remove(i).close();
+        }
+
+        long total = 0;
+        for (int i = 0; i < NODES; i++) {
+            long ingested = schedulers.get(i).getIngestedCandleCount();
+            logger.info("Node {} ingested {} candles in total", i, ingested);
+            assertThat(ingested).as("candles ingested by node %d", i).isPositive();
+            total += ingested;
+        }
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            assertThat(count(statement, "SELECT COUNT(*) FROM price_candles")).isEqualTo(total);
+            assertThat(count(statement, "SELECT COUNT(*) FROM (SELECT stock_id, timeframe, timestamp " +
+                    "FROM price_candles GROUP BY stock_id, timeframe, timestamp HAVING COUNT(*) > 1)")).isZero();
+        }
+    }
+
+    /**
+     * Each node ingests only its shards, but breadth, snapshots, alerts and watchlists on every node must cover
+     * the whole universe
+     */
+    private void assertEveryNodeFollowsEveryStock(List<Long> stockIds) throws Exception {
+        awaitOnEveryNode("breadth covers every stock", node -> node.getBean(BreadthAggregator.class)
+                .getBreadth("TEST")
+                .filter(breadth -> breadth.stocksReporting() == STOCKS)
+                .isPresent());
+
+        List<Map<Long, LocalDateTime>> before = new ArrayList<>();
+        for (ConfigurableApplicationContext node : nodes) {
+            before.add(latestCandleTimes(node, stockIds));
+        }
+        for (int i = 0; i < NODES; i++) {
+            ConfigurableApplicationContext node = nodes.get(i);
+            Map<Long, LocalDateTime> previous = before.get(i);
+            await("latest candle of every stock advanced on node " + i, () -> {
+                Map<Long, LocalDateTime> after = latestCandleTimes(node, stockIds);
+                return stockIds.stream().allMatch(id -> after.get(id).isAfter(previous.get(id)));
+            });
+        }
+        
+        // An alert created on one node is indexed on all of them; the threshold is out of reach
+        nodes.get(0).getBean(AlertController.class).createAlert(new PriceAlertRequest(stockIds.get(0),
+                AlertDirection.ABOVE, new BigDecimal("99999999.99"), null, null));
+        awaitOnEveryNode("alert indexed", node -> node.getBean(AlertEngine.class).activeCount() == 1);
+
+        // So is a stock added to a watchlist on one node
+        WatchlistController watchlists = nodes.get(0).getBean(WatchlistController.class);
+        Long watchlistId = watchlists.createWatchlist(new Watchlist("Cluster")).getBody().id();
+        watchlists.addItem(watchlistId, stockIds.get(1));
+        awaitOnEveryNode("watchlist member tracked",
+                node -> node.getBean(WatchlistPortfolioService.class).getSnapshot(watchlistId).members() == 1);
+    }
+
+    private void awaitOnEveryNode(String description, Predicate<ConfigurableApplicationContext> condition)
+            throws InterruptedException {
+        for (int i = 0; i < nodes.size(); i++) {
+            ConfigurableApplicationContext node = nodes.get(i);
+            await(description + " on node " + i, () -> condition.test(node));
+        }
+    }
+
+    /**
+     * Poll until the condition holds, failing once {@link #AWAIT_MILLIS} have passed
+     */
+    private static void await(String description, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        boolean met = condition.getAsBoolean();
+        while (!met && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            met = condition.getAsBoolean();
+        }
+        assertThat(met).as(description).isTrue();
+    }
+
+    /**
+     * Slots in which every shard was ingested
+     */
+    private static long completeSlots(List<ShardTick> ticks) {
+        return ticks.stream()
+                .collect(Collectors.groupingBy(ShardTick::slot,
+                        Collectors.mapping(ShardTick::shard, Collectors.toSet())))
+                .values().stream()
+                .filter(shards -> shards.size() == SHARDS)
+                .count();
+    }
+
+    private List<ShardTick> shardTicksAfter(long eventId) {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "password");
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT origin, slot, shard FROM cluster_events WHERE kind = 'TICK' AND id > ?")) {
+            statement.setLong(1, eventId);
+            List<ShardTick> ticks = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ticks.add(new ShardTick(resultSet.getString(1), resultSet.getTimestamp(2).toLocalDateTime(),
+                            resultSet.getInt(3)));
+                }
+            }
+            return ticks;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long maxEventId() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            return count(statement, "SELECT COALESCE(MAX(id), 0) FROM cluster_events");
+        }
+    }
+
+    private static String origin(ConfigurableApplicationContext node) {
+        return (String) ReflectionTestUtils.getField(node.getBean(ClusterEventBus.class), "origin");
+    }
+
+    private static Map<Long, LocalDateTime> latestCandleTimes(ConfigurableApplicationContext node,
+                                                              List<Long> stockIds) {
+        SnapshotService snapshotService = node.getBean(SnapshotService.class);
+        ObjectMapper objectMapper = node.getBean(ObjectMapper.class);
+        Map<Long, LocalDateTime> times = new HashMap<>();
+        for (Long stockId : stockIds) {
+            try {
+                JsonNode candle = objectMapper.readTree(snapshotService.getLatestCandle(stockId).orElseThrow().json());
+                times.put(stockId, LocalDateTime.parse(candle.get("timestamp").asText()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return times;
+    }
+    
+    private ConfigurableApplicationContext startNode(int index) {
+        return new SpringApplicationBuilder(StockTrendTrackerApplication.class)
+                .properties(
+                        "spring.datasource.url=" + jdbcUrl,
+                        "server.port=0",
+                        "spring.h2.console.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.stock=INFO",
+                        "logging.level.org.springframework.web=INFO",
+                        // A shared server database is not embedded, so Quartz leaves its schema alone and
+                        // Flyway creates all tables once, on the first node, as in the prod profile
+                        "spring.flyway.enabled=true",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.quartz.properties.org.quartz.scheduler.instanceId=node-" + index,
+                        "spring.quartz.properties.org.quartz.jobStore.clusterCheckinInterval=1000",
+                        "stock.ingest.interval=PT1S",
+                        "stock.ingest.shards=" + SHARDS,
+                        "stock.ingest.write-behind.flush-interval-ms=50",
+                        "stock.ingest.write-behind.journal-dir=" + tempDir.resolve("node-" + index))
+                .run();
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private record ShardTick(String origin, LocalDateTime slot, int shard) {
+    }
+}
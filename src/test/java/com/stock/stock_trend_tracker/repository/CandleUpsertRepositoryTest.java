@@ -0,0 +1,113 @@
+package com.stock.stock_trend_tracker.repository;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.ingest.SlotBitmap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "stock.ingest.upsert-chunk-size=2")
+@Import({CandleUpsertRepository.class, CandleCoverageRepository.class})
+class CandleUpsertRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private CandleUpsertRepository candleUpsertRepository;
+
+    @Autowired
+    private CandleCoverageRepository candleCoverageRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void retriedWritesUpdateInsteadOfDuplicating() {
+        Stock stock = stockRepository.saveAndFlush(new Stock("UPS", "Upsert Inc"));
+
+        CandleUpsertRepository.Result first = candleUpsertRepository.upsert(List.of(
+                candle(stock, T0, "100.00"), candle(stock, T0.plusMinutes(5), "101.00"),
+                candle(stock, T0.plusMinutes(10), "102.00")));
+        assertThat(first).isEqualTo(new CandleUpsertRepository.Result(3, 0));
+
+        CandleUpsertRepository.Result retry = candleUpsertRepository.upsert(List.of(
+                candle(stock, T0, "100.00"), candle(stock, T0.plusMinutes(5), "105.50"),
+                candle(stock, T0.plusMinutes(10), "102.00"), candle(stock, T0.plusMinutes(15), "103.00")));
+        assertThat(retry).isEqualTo(new CandleUpsertRepository.Result(1, 3));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_candles WHERE stock_id = ?", Long.class, stock.getId())).isEqualTo(4L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT close_price FROM price_candles WHERE stock_id = ? AND timestamp = ?", BigDecimal.class,
+                stock.getId(), T0.plusMinutes(5))).isEqualByComparingTo("105.50");
+    }
+
+    @Test
+    void duplicateKeysWithinOneCallKeepTheLastCandle() {
+        Stock stock = stockRepository.saveAndFlush(new Stock("DUP", "Duplicate Inc"));
+
+        CandleUpsertRepository.Result result = candleUpsertRepository.upsert(List.of(
+                candle(stock, T0, "10.00"), candle(stock, T0, "11.00")));
+
+        assertThat(result).isEqualTo(new CandleUpsertRepository.Result(1, 0));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT close_price FROM price_candles WHERE stock_id = ?", BigDecimal.class, stock.getId()))
+                .isEqualByComparingTo("11.00");
+    }
+
+    @Test
+    void writesMarkCoverageAndInsertMissingKeepsExistingBars() {
+        Stock stock = stockRepository.saveAndFlush(new Stock("GAP", "Gap Inc"));
+        candleUpsertRepository.upsert(List.of(candle(stock, T0, "10.00"), candle(stock, T0.plusMinutes(5), "11.00")));
+
+        long inserted = candleUpsertRepository.insertMissing(List.of(
+                candle(stock, T0.plusMinutes(5), "99.00"), candle(stock, T0.plusMinutes(15), "12.00")));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT close_price FROM price_candles WHERE stock_id = ? AND timestamp = ?", BigDecimal.class,
+                stock.getId(), T0.plusMinutes(5))).isEqualByComparingTo("11.00");
+
+        long[] slots = candleCoverageRepository.findCoverage(stock.getId(), "5m", T0.toLocalDate()).orElseThrow();
+        List<int[]> missing = new ArrayList<>();
+        SlotBitmap.forEachMissingRun(slots, 120, 124, (from, to) -> missing.add(new int[] {from, to}));
+        assertThat(missing).hasSize(1);
+        assertThat(missing.get(0)).containsExactly(122, 123);
+    }
+
+    @Test
+    void candlesWithoutTimeframeAreRejected() {
+        Stock stock = stockRepository.saveAndFlush(new Stock("NOTF", "No Timeframe Inc"));
+        PriceCandle untimed = candle(stock, T0.plusMinutes(5), "11.00");
+        untimed.setTimeframe(null);
+
+        assertThatThrownBy(() -> candleUpsertRepository.upsert(List.of(candle(stock, T0, "10.00"), untimed)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleUpsertRepository.insertMissing(List.of(untimed)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_candles WHERE stock_id = ?", Long.class, stock.getId())).isZero();
+    }
+
+    private static PriceCandle candle(Stock stock, LocalDateTime timestamp, String close) {
+        BigDecimal price = new BigDecimal(close);
+        PriceCandle candle = new PriceCandle(stock, timestamp, price, price, price, price);
+        candle.setVolume(1_000L);
+        candle.setTimeframe("5m");
+        return candle;
+    }
+}
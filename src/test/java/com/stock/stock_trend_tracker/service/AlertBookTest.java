@@ -0,0 +1,48 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertBookTest {
+
+    @Test
+    void firesOnlyAlertsCrossedBetweenPreviousAndNewPrice() {
+        AlertBook book = new AlertBook();
+        book.add(1, AlertDirection.ABOVE, 10_100);
+        book.add(2, AlertDirection.ABOVE, 10_500);
+        book.add(3, AlertDirection.ABOVE, 11_000);
+        book.add(4, AlertDirection.BELOW, 9_500);
+        book.add(5, AlertDirection.BELOW, 9_000);
+
+        assertThat(book.onPrice(10_000)).isEmpty();
+        assertThat(book.onPrice(10_500)).containsExactlyInAnyOrder(1, 2);
+        assertThat(book.onPrice(10_400)).isEmpty();
+        assertThat(book.onPrice(9_400)).containsExactly(4);
+        assertThat(book.onPrice(12_000)).containsExactly(3);
+        assertThat(book.size()).isEqualTo(1);
+    }
+
+    @Test
+    void firesImmediatelyWhenLastPriceAlreadySatisfiesAlert() {
+        AlertBook book = new AlertBook();
+        book.onPrice(10_000);
+
+        assertThat(book.add(1, AlertDirection.ABOVE, 9_000)).isTrue();
+        assertThat(book.add(2, AlertDirection.BELOW, 9_000)).isFalse();
+        assertThat(book.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedAlertsNoLongerFire() {
+        AlertBook book = new AlertBook();
+        book.add(1, AlertDirection.ABOVE, 10_100);
+        book.add(2, AlertDirection.ABOVE, 10_100);
+        book.onPrice(10_000);
+
+        assertThat(book.remove(1, AlertDirection.ABOVE, 10_100)).isTrue();
+        assertThat(book.remove(1, AlertDirection.ABOVE, 10_100)).isFalse();
+        assertThat(book.onPrice(10_200)).containsExactly(2);
+    }
+}
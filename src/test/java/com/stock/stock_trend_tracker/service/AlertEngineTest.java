@@ -0,0 +1,103 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.AlertDirection;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.AlertRule;
+import com.stock.stock_trend_tracker.dto.LatestClose;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.PriceAlertRepository;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class AlertEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 1, 10, 0);
+
+    private final PriceAlertRepository priceAlertRepository = Mockito.mock(PriceAlertRepository.class);
+    private final PriceCandleRepository priceCandleRepository = Mockito.mock(PriceCandleRepository.class);
+    private final AlertNotifier alertNotifier = Mockito.mock(AlertNotifier.class);
+    private final Stock acme = new Stock("ACME", "Acme Corp");
+    private AlertEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        acme.setId(1L);
+        engine = new AlertEngine();
+        ReflectionTestUtils.setField(engine, "priceAlertRepository", priceAlertRepository);
+        ReflectionTestUtils.setField(engine, "priceCandleRepository", priceCandleRepository);
+        ReflectionTestUtils.setField(engine, "alertNotifier", alertNotifier);
+        when(priceAlertRepository.findActiveRules()).thenReturn(List.of(
+                new AlertRule(11L, 1L, AlertDirection.ABOVE, price(105)),
+                new AlertRule(12L, 1L, AlertDirection.ABOVE, price(110)),
+                new AlertRule(13L, 1L, AlertDirection.BELOW, price(95)),
+                new AlertRule(14L, 1L, AlertDirection.BELOW, price(90))));
+        when(priceCandleRepository.findLatestClosesOfStocksWithActiveAlerts())
+                .thenReturn(List.of(new LatestClose(1L, price(100))));
+        engine.loadActiveAlerts();
+    }
+
+    @Test
+    void firesAlertsCrossedBetweenSeededCloseAndNewClose() {
+        engine.onPriceTick(tick(107));
+
+        verify(alertNotifier).deliver(1L, "ACME", new long[] {11L}, price(107), NOW);
+        assertThat(engine.activeCount()).isEqualTo(3);
+    }
+
+    @Test
+    void movesWithinThresholdsFireNothing() {
+        engine.onPriceTick(tick(104));
+        engine.onPriceTick(tick(96));
+
+        verify(alertNotifier, never()).deliver(anyLong(), anyString(), any(), any(), any());
+        assertThat(engine.activeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void comparesEachCloseWithThePreviousTickNotTheSeed() {
+        engine.onPriceTick(tick(96));
+        engine.onPriceTick(tick(89));
+        engine.onPriceTick(tick(111));
+
+        verify(alertNotifier).deliver(1L, "ACME", new long[] {14L, 13L}, price(89), NOW);
+        verify(alertNotifier).deliver(1L, "ACME", new long[] {11L, 12L}, price(111), NOW);
+        verifyNoMoreInteractions(alertNotifier);
+        assertThat(engine.activeCount()).isZero();
+    }
+
+    @Test
+    void firedAlertsDoNotFireAgainOnTheNextCrossing() {
+        engine.onPriceTick(tick(106));
+        engine.onPriceTick(tick(100));
+        engine.onPriceTick(tick(106));
+
+        verify(alertNotifier).deliver(1L, "ACME", new long[] {11L}, price(106), NOW);
+        verifyNoMoreInteractions(alertNotifier);
+    }
+
+    private PriceTickEvent tick(double close) {
+        PriceCandle candle = new PriceCandle(acme, NOW, price(close), price(close), price(close), price(close));
+        return new PriceTickEvent(List.of(candle), NOW);
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(2);
+    }
+}
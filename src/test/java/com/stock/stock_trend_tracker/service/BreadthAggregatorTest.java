@@ -0,0 +1,130 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.BreadthPoint;
+import com.stock.stock_trend_tracker.dto.ExchangeBreadthResponse;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BreadthAggregatorTest {
+
+    private static final LocalDateTime DAY1 = LocalDateTime.of(2024, 3, 4, 10, 0);
+    private static final LocalDateTime DAY2 = DAY1.plusDays(1);
+
+    private final Stock alpha = stock(1L, "NYSE");
+    private final Stock beta = stock(2L, "NYSE");
+    private final Stock gamma = stock(3L, "NASDAQ");
+
+    @Test
+    void countsAdvancersAgainstPreviousSessionCloseAndChainsIndex() {
+        BreadthAggregator aggregator = new BreadthAggregator();
+        tick(aggregator, candle(alpha, DAY1, 100, 100, 100, 100, 10), candle(beta, DAY1, 50, 50, 50, 50, 10));
+
+        tick(aggregator, candle(alpha, DAY2, 100, 111, 100, 110, 30), candle(beta, DAY2, 50, 50, 45, 45, 10));
+        ExchangeBreadthResponse breadth = aggregator.getBreadth("NYSE").orElseThrow();
+
+        assertThat(breadth.stocksReporting()).isEqualTo(2);
+        assertThat(breadth.series()).hasSize(1);
+        BreadthPoint latest = breadth.latest();
+        assertThat(latest.advancers()).isEqualTo(1);
+        assertThat(latest.decliners()).isEqualTo(1);
+        assertThat(latest.totalVolume()).isEqualTo(40);
+        // 1000 * (30 * 1.10 + 10 * 0.90) / 40
+        assertThat(latest.indexLevel()).isEqualByComparingTo("1050.00");
+        assertThat(aggregator.getBreadth("NASDAQ")).isEmpty();
+    }
+
+    @Test
+    void replacesStockContributionOnEachTickAndCountsNewHighsPerSlot() {
+        BreadthAggregator aggregator = new BreadthAggregator();
+        tick(aggregator, candle(alpha, DAY1, 100, 101, 99, 100, 5), candle(beta, DAY1, 50, 51, 49, 50, 5));
+        tick(aggregator, candle(alpha, DAY1.plusMinutes(5), 100, 103, 99, 102, 5),
+                candle(beta, DAY1.plusMinutes(5), 50, 50, 48, 49, 5));
+        // A second shard reporting the same slot updates the slot's point instead of appending one
+        tick(aggregator, candle(gamma, DAY1.plusMinutes(5), 10, 10, 10, 10, 1));
+        tick(aggregator, candle(alpha, DAY1.plusMinutes(10), 102, 102, 96, 97, 5));
+
+        List<BreadthPoint> series = aggregator.getBreadth("NYSE").orElseThrow().series();
+        assertThat(series).hasSize(3);
+        assertThat(series.get(1).newHighs()).isEqualTo(1);
+        assertThat(series.get(1).newLows()).isEqualTo(1);
+        assertThat(series.get(1).advancers()).isEqualTo(1);
+        assertThat(series.get(2).advancers()).isZero();
+        assertThat(series.get(2).decliners()).isEqualTo(2);
+        assertThat(series.get(2).newLows()).isEqualTo(1);
+        assertThat(series.get(2).totalVolume()).isEqualTo(25);
+        assertThat(aggregator.getBreadth("NASDAQ").orElseThrow().stocksReporting()).isEqualTo(1);
+    }
+
+    @Test
+    void reingestedSlotReplacesItsVolumeAndOlderCandlesAreIgnored() {
+        BreadthAggregator aggregator = new BreadthAggregator();
+        tick(aggregator, candle(alpha, DAY1, 100, 100, 100, 100, 10), candle(beta, DAY1, 50, 50, 50, 50, 10));
+        tick(aggregator, candle(alpha, DAY2, 100, 111, 100, 110, 10), candle(beta, DAY2, 50, 50, 45, 45, 10));
+
+        // The same slot again with corrected volume, then a late candle of an earlier slot
+        tick(aggregator, candle(alpha, DAY2, 100, 111, 100, 110, 30));
+        tick(aggregator, candle(beta, DAY2.minusMinutes(5), 50, 60, 50, 60, 100));
+
+        ExchangeBreadthResponse breadth = aggregator.getBreadth("NYSE").orElseThrow();
+        assertThat(breadth.series()).hasSize(1);
+        BreadthPoint latest = breadth.latest();
+        assertThat(latest.totalVolume()).isEqualTo(40);
+        assertThat(latest.newHighs()).isZero();
+        assertThat(latest.decliners()).isEqualTo(1);
+        // 1000 * (30 * 1.10 + 10 * 0.90) / 40
+        assertThat(latest.indexLevel()).isEqualByComparingTo("1050.00");
+    }
+
+    @Test
+    void movesStockBetweenExchanges() {
+        BreadthAggregator aggregator = new BreadthAggregator();
+        tick(aggregator, candle(alpha, DAY1, 100, 100, 100, 101, 5), candle(beta, DAY1, 50, 50, 50, 50, 5));
+        alpha.setExchange("NASDAQ");
+        tick(aggregator, candle(alpha, DAY1.plusMinutes(5), 101, 101, 101, 101, 5));
+
+        assertThat(aggregator.getBreadth("NYSE").orElseThrow().stocksReporting()).isEqualTo(1);
+        assertThat(aggregator.getBreadth("NYSE").orElseThrow().latest().totalVolume()).isEqualTo(5);
+        assertThat(aggregator.getBreadth("NASDAQ").orElseThrow().stocksReporting()).isEqualTo(1);
+    }
+
+    @Test
+    void withdrawsDeletedStocks() {
+        BreadthAggregator aggregator = new BreadthAggregator();
+        tick(aggregator, candle(alpha, DAY1, 100, 100, 100, 101, 5), candle(beta, DAY1, 50, 50, 50, 49, 10));
+
+        aggregator.onStockDeleted(new StockDeletedEvent(List.of(alpha.getId(), 99L)));
+
+        ExchangeBreadthResponse nyse = aggregator.getBreadth("NYSE").orElseThrow();
+        assertThat(nyse.stocksReporting()).isEqualTo(1);
+        assertThat(nyse.latest().advancers()).isZero();
+        assertThat(nyse.latest().decliners()).isEqualTo(1);
+        assertThat(nyse.latest().totalVolume()).isEqualTo(10);
+    }
+
+    private static void tick(BreadthAggregator aggregator, PriceCandle... candles) {
+        aggregator.onPriceTick(new PriceTickEvent(List.of(candles), LocalDateTime.now()));
+    }
+
+    private static Stock stock(long id, String exchange) {
+        Stock stock = new Stock("S" + id, "Stock " + id);
+        stock.setId(id);
+        stock.setExchange(exchange);
+        return stock;
+    }
+
+    private static PriceCandle candle(Stock stock, LocalDateTime timestamp, double open, double high, double low,
+                                      double close, long volume) {
+        PriceCandle candle = new PriceCandle(stock, timestamp, BigDecimal.valueOf(open), BigDecimal.valueOf(high),
+                BigDecimal.valueOf(low), BigDecimal.valueOf(close));
+        candle.setVolume(volume);
+        return candle;
+    }
+}
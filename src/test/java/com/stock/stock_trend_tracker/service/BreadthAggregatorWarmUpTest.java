@@ -0,0 +1,78 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.BreadthPoint;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(BreadthAggregator.class)
+class BreadthAggregatorWarmUpTest {
+
+    private static final LocalDateTime TODAY = LocalDate.now().atTime(10, 0);
+
+    @Autowired
+    private BreadthAggregator breadthAggregator;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void firstSessionAfterRestartUsesStoredClosesAndContinuesTheIndex() {
+        Stock alpha = stock("ALPHA");
+        Stock beta = stock("BETA");
+        candle(alpha, TODAY.minusDays(2), 100, 10);
+        candle(beta, TODAY.minusDays(2), 50, 10);
+        candle(alpha, TODAY.minusDays(1), 105, 10);
+        candle(alpha, TODAY.minusDays(1).plusHours(5), 110, 10);
+        candle(beta, TODAY.minusDays(1), 45, 10);
+        entityManager.flush();
+
+        breadthAggregator.loadPreviousSessions();
+        // Opens differ from the stored closes: measured against its own open, ALPHA would be a decliner
+        breadthAggregator.onPriceTick(new PriceTickEvent(List.of(
+                live(alpha, 112, 111), live(beta, 40, 46)), TODAY));
+
+        BreadthPoint latest = breadthAggregator.getBreadth("NYSE").orElseThrow().latest();
+        assertThat(latest.advancers()).isEqualTo(2);
+        assertThat(latest.decliners()).isZero();
+        // Yesterday closed at 1000 * (20 * 110/100 + 10 * 45/50) / 30; today 10 * 111/110 and 10 * 46/45
+        assertThat(latest.indexLevel()).isEqualByComparingTo("1049.51");
+    }
+
+    private Stock stock(String symbol) {
+        Stock stock = new Stock(symbol, symbol + " Inc");
+        stock.setExchange("NYSE");
+        entityManager.persist(stock);
+        return stock;
+    }
+
+    private void candle(Stock stock, LocalDateTime timestamp, double close, long volume) {
+        BigDecimal price = BigDecimal.valueOf(close);
+        PriceCandle candle = new PriceCandle(stock, timestamp, price, price, price, price);
+        candle.setTimeframe("5m");
+        candle.setVolume(volume);
+        entityManager.persist(candle);
+    }
+
+    private static PriceCandle live(Stock stock, double open, double close) {
+        PriceCandle candle = new PriceCandle(stock, TODAY, BigDecimal.valueOf(open),
+                BigDecimal.valueOf(Math.max(open, close)), BigDecimal.valueOf(Math.min(open, close)),
+                BigDecimal.valueOf(close));
+        candle.setTimeframe("5m");
+        candle.setVolume(10L);
+        return candle;
+    }
+}
@@ -0,0 +1,168 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.BulkStockResponse;
+import com.stock.stock_trend_tracker.dto.StockRegistration;
+import com.stock.stock_trend_tracker.dto.StockRegistrationOutcome;
+import com.stock.stock_trend_tracker.dto.StockRegistrationOutcome.Status;
+import com.stock.stock_trend_tracker.jobs.StockShardRing;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "stock.bulk.chunk-size=3")
+@AutoConfigureJson
+@Import({BulkStockService.class, StockCacheEvictor.class, ClusterEventBus.class, StockShardRing.class})
+class BulkStockServiceTest {
+
+    @Autowired
+    private BulkStockService bulkStockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void registersNewStocksAndUpdatesOnlyChangedOnes() {
+        Stock same = new Stock("SAME", "Same Inc");
+        same.setExchange("NYSE");
+        stockRepository.saveAndFlush(same);
+        Stock moved = new Stock("MOVE", "Move Inc");
+        moved.setExchange("NYSE");
+        stockRepository.saveAndFlush(moved);
+
+        BulkStockResponse response = bulkStockService.register(Arrays.asList(
+                new StockRegistration("NEW1", "New One", "NASDAQ"),
+                new StockRegistration("SAME", "Same Inc", "NYSE"),
+                new StockRegistration("MOVE", "Move Inc", "NASDAQ"),
+                new StockRegistration(" ", "Blank", null),
+                new StockRegistration("NEW2", "First Name", null),
+                new StockRegistration("NEW2", "Second Name", "NASDAQ")));
+
+        assertThat(response.outcomes()).extracting(StockRegistrationOutcome::status).containsExactly(
+                Status.CREATED, Status.UNCHANGED, Status.UPDATED, Status.INVALID, Status.SUPERSEDED, Status.CREATED);
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.updated()).isEqualTo(1);
+        assertThat(response.unchanged()).isEqualTo(1);
+        assertThat(response.rejected()).isEqualTo(1);
+
+        assertThat(stockRepository.findBySymbol("NEW2").orElseThrow().getName()).isEqualTo("Second Name");
+        assertThat(stockRepository.findBySymbol("NEW1").orElseThrow().getId())
+                .isEqualTo(response.outcomes().get(0).id());
+        assertThat(stockRepository.findByExchange("NASDAQ")).extracting(Stock::getSymbol)
+                .containsExactlyInAnyOrder("NEW1", "MOVE", "NEW2");
+    }
+
+    @Test
+    void ndjsonReportsMalformedLinesAndKeepsGoing() {
+        String body = """
+                {"symbol":"ND1","name":"Nd One","exchange":"NYSE"}
+                {"symbol":"ND2",
+
+                {"symbol":"ND3","name":"Nd Three"}
+                """;
+
+        BulkStockResponse response = bulkStockService.registerNdjson(new StringReader(body));
+
+        List<StockRegistrationOutcome> outcomes = response.outcomes();
+        assertThat(outcomes).extracting(StockRegistrationOutcome::status)
+                .containsExactly(Status.CREATED, Status.INVALID, Status.CREATED);
+        assertThat(outcomes.get(1).error()).startsWith("Malformed JSON");
+        assertThat(outcomes.get(2).index()).isEqualTo(2);
+        assertThat(stockRepository.existsBySymbol("ND3")).isTrue();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void retriesChunkThatLostAnInsertRaceAndReturnsEveryOutcome() {
+        // Chunks commit for real here; another connection inserts RACE right before the second chunk's inserts
+        ReflectionTestUtils.setField(bulkStockService, "jdbcTemplate", new RacingJdbcTemplate(dataSource));
+        try {
+            BulkStockResponse response = bulkStockService.register(Arrays.asList(
+                    new StockRegistration("RC1", "Rc One", null),
+                    new StockRegistration("RC2", "Rc Two", null),
+                    new StockRegistration("RC3", "Rc Three", null),
+                    new StockRegistration("RACE", "Race Inc", "NYSE"),
+                    new StockRegistration("RC4", "Rc Four", null)));
+
+            assertThat(response.outcomes()).extracting(StockRegistrationOutcome::status).containsExactly(
+                    Status.CREATED, Status.CREATED, Status.CREATED, Status.UPDATED, Status.CREATED);
+            assertThat(stockRepository.findBySymbol("RACE").orElseThrow().getName()).isEqualTo("Race Inc");
+            assertThat(stockRepository.existsBySymbol("RC4")).isTrue();
+        } finally {
+            ReflectionTestUtils.setField(bulkStockService, "jdbcTemplate", jdbcTemplate);
+            jdbcTemplate.update("DELETE FROM stocks WHERE symbol IN ('RC1', 'RC2', 'RC3', 'RACE', 'RC4')");
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void reportsTheRowsOfAChunkThatCannotBeWrittenAsFailedAndKeepsGoing() {
+        try {
+            BulkStockResponse response = bulkStockService.register(Arrays.asList(
+                    new StockRegistration("FL1", "Fl One", null),
+                    new StockRegistration("FL2", "x".repeat(300), null),
+                    new StockRegistration("FL3", "Fl Three", null),
+                    new StockRegistration("FL4", "Fl Four", null)));
+
+            assertThat(response.outcomes()).extracting(StockRegistrationOutcome::status).containsExactly(
+                    Status.FAILED, Status.FAILED, Status.FAILED, Status.CREATED);
+            assertThat(response.failed()).isEqualTo(3);
+            assertThat(response.created()).isEqualTo(1);
+            assertThat(stockRepository.existsBySymbol("FL1")).isFalse();
+            assertThat(stockRepository.existsBySymbol("FL4")).isTrue();
+        } finally {
+            jdbcTemplate.update("DELETE FROM stocks WHERE symbol LIKE 'FL%'");
+        }
+    }
+
+    /**
+     * Commits a competing RACE row from another connection before the first batch that inserts RACE
+     */
+    private static class RacingJdbcTemplate extends JdbcTemplate {
+
+        private boolean raced;
+
+        RacingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (!raced && sql.startsWith("INSERT INTO stocks")
+                    && batchArgs.stream().anyMatch(args -> "RACE".equals(args[0]))) {
+                raced = true;
+                Thread competitor = new Thread(() -> new JdbcTemplate(getDataSource()).update(
+                        "INSERT INTO stocks (symbol, name, created_at, updated_at) " +
+                        "VALUES ('RACE', 'Other Name', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)"));
+                competitor.start();
+                try {
+                    competitor.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.cluster.ClusterEventBus;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.BatchCandleRequest;
+import com.stock.stock_trend_tracker.dto.BatchCandleResponse;
+import com.stock.stock_trend_tracker.dto.CandleColumns;
+import com.stock.stock_trend_tracker.dto.HistoryBar;
+import com.stock.stock_trend_tracker.jobs.StockShardRing;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {"stock.batch-candles.max-stocks=5", "stock.batch-candles.chunk-size=2"})
+@Import({CandleBatchService.class, CandleArchiveService.class, ClusterEventBus.class, StockShardRing.class})
+class CandleBatchServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Autowired
+    private CandleBatchService candleBatchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolvesIdsAndMixedCaseSymbolsInRequestOrder() {
+        Stock plain = stock("ACME");
+        Stock mixed = stock("BrkB");
+        candle(plain, T0.minusDays(1));
+        candle(plain, T0);
+        candle(mixed, T0);
+        candle(mixed, T0.plusMinutes(5));
+        entityManager.flush();
+
+        BatchCandleResponse<?> response = candleBatchService.getCandles(new BatchCandleRequest(
+                List.of(plain.getId(), 9999L), List.of("brkb", " acme ", "nope"), "5m",
+                T0.minusHours(1), T0.plusHours(1), null));
+
+        assertThat(response.format()).isEqualTo(CandleBatchService.ROWS);
+        assertThat(response.series()).containsOnlyKeys("ACME", "BrkB");
+        assertThat((List<HistoryBar>) response.series().get("ACME")).extracting(HistoryBar::timestamp)
+                .containsExactly(T0);
+        assertThat((List<HistoryBar>) response.series().get("BrkB")).extracting(HistoryBar::timestamp)
+                .containsExactly(T0, T0.plusMinutes(5));
+        assertThat(response.notFound()).containsExactly("9999", "NOPE");
+    }
+
+    @Test
+    void returnsParallelColumnsInColumnarFormat() {
+        Stock stock = stock("COLS");
+        candle(stock, T0.plusMinutes(5));
+        candle(stock, T0);
+        entityManager.flush();
+
+        BatchCandleResponse<?> response = candleBatchService.getCandles(new BatchCandleRequest(
+                null, List.of("cols"), "5m", T0.minusHours(1), T0.plusHours(1), "columnar"));
+
+        CandleColumns columns = (CandleColumns) response.series().get("COLS");
+        assertThat(columns.stockId()).isEqualTo(stock.getId());
+        assertThat(columns.timestamps()).containsExactly(T0, T0.plusMinutes(5));
+        assertThat(columns.close()).hasSize(2);
+        assertThat(columns.volume()).containsExactly(100L, 100L);
+    }
+
+    @Test
+    void rejectsOversizedRequestsBeforeResolvingStocks() {
+        List<Long> stockIds = LongStream.rangeClosed(1, 4).boxed().toList();
+
+        assertThatThrownBy(() -> candleBatchService.getCandles(new BatchCandleRequest(
+                stockIds, List.of("A", "B"), "5m", T0, T0.plusHours(1), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> candleBatchService.getCandles(new BatchCandleRequest(
+                null, List.of("A"), "5x", T0, T0.plusHours(1), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleBatchService.getCandles(new BatchCandleRequest(
+                null, List.of("A"), "5m", T0, T0, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleBatchService.getCandles(new BatchCandleRequest(
+                null, List.of("A"), "5m", T0, T0.plusHours(1), "XML")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleBatchService.getCandles(new BatchCandleRequest(
+                null, Arrays.asList("A", null), "5m", T0, T0.plusHours(1), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Stock stock(String symbol) {
+        Stock stock = new Stock(symbol, symbol + " Inc");
+        entityManager.persist(stock);
+        return stock;
+    }
+
+    private void candle(Stock stock, LocalDateTime timestamp) {
+        PriceCandle candle = new PriceCandle(stock, timestamp, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ONE,
+                BigDecimal.TEN);
+        candle.setTimeframe("5m");
+        candle.setVolume(100L);
+        entityManager.persist(candle);
+    }
+}
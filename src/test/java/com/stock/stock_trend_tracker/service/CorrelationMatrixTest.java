@@ -0,0 +1,146 @@
+package com.stock.stock_trend_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CorrelationMatrixTest {
+
+    @Test
+    void matchesNaivePearsonAndSampleCovarianceAcrossTileBoundaries() {
+        // 70 rows span two 64-row tiles, so off-diagonal tiles and the ragged edge are both covered
+        int n = 70;
+        int window = 30;
+        Random random = new Random(42);
+        double[][] raw = new double[n][window];
+        for (int i = 0; i < n; i++) {
+            for (int t = 0; t < window; t++) {
+                // Mix in a shared factor so correlations are far from zero
+                raw[i][t] = 0.01 * random.nextGaussian() + (i % 3) * 0.005 * Math.sin(t);
+            }
+        }
+
+        CorrelationMatrix matrix = compute(raw, window);
+
+        assertThat(matrix.size()).isEqualTo(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertThat(matrix.covariance(i, j)).isCloseTo(naiveCovariance(raw[i], raw[j]), within(1e-12));
+                assertThat(matrix.correlation(i, j)).isCloseTo(naivePearson(raw[i], raw[j]), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void flatSeriesHasZeroCorrelationWithEverythingElse() {
+        double[][] raw = {
+                {0.01, -0.02, 0.03, 0.00},
+                {0.00, 0.00, 0.00, 0.00},
+                {0.02, -0.04, 0.06, 0.00}
+        };
+
+        CorrelationMatrix matrix = compute(raw, 4);
+
+        assertThat(matrix.correlation(1, 1)).isEqualTo(1.0);
+        assertThat(matrix.correlation(0, 1)).isEqualTo(0.0);
+        assertThat(matrix.correlation(0, 2)).isCloseTo(1.0, within(1e-12));
+        assertThat(matrix.covariance(1, 1)).isEqualTo(0.0);
+    }
+
+    @Test
+    void ranksTopCorrelatesHighestFirst() {
+        double[][] raw = {
+                {1, 2, 3, 4, 5},
+                {1, 2, 3, 4, 6},
+                {5, 4, 3, 2, 1},
+                {1, 3, 2, 5, 4}
+        };
+
+        CorrelationMatrix matrix = compute(raw, 5);
+
+        assertThat(matrix.topCorrelates(0, 2)).containsExactly(1, 3);
+        assertThat(matrix.topCorrelates(0, 10)).containsExactly(1, 3, 2);
+        assertThat(matrix.indexOf(102)).isEqualTo(2);
+        assertThat(matrix.indexOf(999)).isEqualTo(-1);
+    }
+
+    @Test
+    void computesTwoThousandStocksOfADayOfFiveMinuteReturnsWellUnderASecond() {
+        int n = 2000;
+        int window = 288;
+        Random random = new Random(7);
+        double[] returns = new double[n * window];
+        for (int i = 0; i < returns.length; i++) {
+            returns[i] = random.nextGaussian();
+        }
+        long[] stockIds = new long[n];
+        String[] symbols = new String[n];
+
+        // Best of three, so a JIT warm-up or a noisy neighbour on the build machine does not fail the check
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long started = System.nanoTime();
+            CorrelationMatrix matrix = CorrelationMatrix.compute(stockIds, symbols, "5m", returns, window,
+                    ForkJoinPool.commonPool());
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+            assertThat(matrix.size()).isEqualTo(n);
+        }
+
+        assertThat(bestNanos).isLessThan(1_000_000_000L);
+    }
+
+    /**
+     * Demeans each row the way CorrelationService does and computes the matrix
+     */
+    private static CorrelationMatrix compute(double[][] raw, int window) {
+        int n = raw.length;
+        long[] stockIds = new long[n];
+        String[] symbols = new String[n];
+        double[] returns = new double[n * window];
+        for (int i = 0; i < n; i++) {
+            stockIds[i] = 100 + i;
+            symbols[i] = "S" + i;
+            double mean = mean(raw[i]);
+            for (int t = 0; t < window; t++) {
+                returns[i * window + t] = raw[i][t] - mean;
+            }
+        }
+        return CorrelationMatrix.compute(stockIds, symbols, "5m", returns, window, ForkJoinPool.commonPool());
+    }
+
+    private static double naiveCovariance(double[] x, double[] y) {
+        double meanX = mean(x);
+        double meanY = mean(y);
+        double sum = 0;
+        for (int t = 0; t < x.length; t++) {
+            sum += (x[t] - meanX) * (y[t] - meanY);
+        }
+        return sum / (x.length - 1);
+    }
+
+    private static double naivePearson(double[] x, double[] y) {
+        double meanX = mean(x);
+        double meanY = mean(y);
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int t = 0; t < x.length; t++) {
+            sxy += (x[t] - meanX) * (y[t] - meanY);
+            sxx += (x[t] - meanX) * (x[t] - meanX);
+            syy += (y[t] - meanY) * (y[t] - meanY);
+        }
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+}
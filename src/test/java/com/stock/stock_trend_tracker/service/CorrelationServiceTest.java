@@ -0,0 +1,47 @@
+package com.stock.stock_trend_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CorrelationServiceTest {
+
+    private static final double NaN = Double.NaN;
+
+    @Test
+    void fullyObservedSeriesYieldsDemeanedReturns() {
+        double[] returns = new double[4];
+
+        assertThat(CorrelationService.fillReturns(new double[] {100, 110, 99, 99, 108.9}, returns, 0, 4)).isTrue();
+
+        assertThat(Arrays.stream(returns).sum()).isCloseTo(0.0, within(1e-12));
+        assertThat(returns[0] - returns[2]).isCloseTo(Math.log(1.1), within(1e-12));
+    }
+
+    @Test
+    void stockWithOnlyTwoClosesInTheWindowIsSkipped() {
+        double[] closes = new double[11];
+        Arrays.fill(closes, NaN);
+        closes[9] = 100;
+        closes[10] = 101;
+
+        assertThat(CorrelationService.fillReturns(closes, new double[10], 0, 10)).isFalse();
+    }
+
+    @Test
+    void halfTheReturnsObservedIsEnough() {
+        double[] closes = {NaN, NaN, NaN, NaN, NaN, 100, 101, 102, 103, 104, 105};
+
+        assertThat(CorrelationService.fillReturns(closes, new double[10], 0, 10)).isTrue();
+    }
+
+    @Test
+    void returnsAcrossFilledSlotsDoNotCountAsObserved() {
+        double[] closes = {100, NaN, 101, NaN, 102, NaN, 103, NaN, 104, NaN, 105};
+
+        assertThat(CorrelationService.fillReturns(closes, new double[10], 0, 10)).isFalse();
+    }
+}
@@ -0,0 +1,202 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.archive.CandleArchiveService;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.domain.Timeframes;
+import com.stock.stock_trend_tracker.dto.HistoryBar;
+import com.stock.stock_trend_tracker.dto.StockHistoryResponse;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HistoryServiceTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final PriceCandleRepository priceCandleRepository = Mockito.mock(PriceCandleRepository.class);
+    private final CandleArchiveService candleArchiveService = Mockito.mock(CandleArchiveService.class);
+    private final Stock stock = new Stock("ACME", "Acme Corp");
+    private HistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        stock.setId(1L);
+        historyService = new HistoryService();
+        ReflectionTestUtils.setField(historyService, "priceCandleRepository", priceCandleRepository);
+        ReflectionTestUtils.setField(historyService, "candleArchiveService", candleArchiveService);
+        ReflectionTestUtils.setField(historyService, "maxEntries", 100);
+        ReflectionTestUtils.setField(historyService, "ttlMinutes", 10L);
+        ReflectionTestUtils.setField(historyService, "settleSeconds", 0L);
+        historyService.init();
+    }
+
+    @Test
+    void rollsUpCandlesIntoOhlcvBars() {
+        LocalDateTime hour = LocalDateTime.of(2025, 8, 1, 10, 0);
+        List<PriceCandle> candles = List.of(
+                candle(hour, 10, 12, 9, 11, 100L),
+                candle(hour.plusMinutes(5), 11, 15, 10, 14, null),
+                candle(hour.plusMinutes(55), 14, 14, 8, 9, 50L),
+                candle(hour.plusHours(2), 20, 21, 19, 20, 7L));
+
+        List<HistoryBar> bars = HistoryService.rollup(candles, HOUR);
+
+        assertThat(bars).containsExactly(
+                bar(hour, 10, 15, 8, 9, 150),
+                bar(hour.plusHours(2), 20, 21, 19, 20, 7));
+        assertThat(HistoryService.rollup(List.of(), HOUR)).isEmpty();
+    }
+
+    @Test
+    void choosesCoarsestTimeframeThatDividesTheBucket() {
+        assertThat(HistoryService.chooseTimeframe(Set.of("1m", "5m", "1h", "1d"), Duration.ofMinutes(15)))
+                .contains("5m");
+        assertThat(HistoryService.chooseTimeframe(Set.of("1m", "5m", "1h", "1d"), HOUR)).contains("1h");
+        assertThat(HistoryService.chooseTimeframe(Set.of("7m", "bogus"), HOUR)).isEmpty();
+        // Coarser than the bucket: never answered with mislabelled bars
+        assertThat(HistoryService.chooseTimeframe(Set.of("5m", "1d"), Duration.ofMinutes(1))).isEmpty();
+    }
+
+    @Test
+    void returnsEmptyWhenNoStoredTimeframeFitsTheInterval() {
+        when(candleArchiveService.findTimeframes(1L)).thenReturn(Set.of("5m"));
+
+        assertThat(historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.MINUTE)).isEmpty();
+    }
+
+    @Test
+    void returnsNoBarsForStockWithoutCandles() {
+        when(candleArchiveService.findTimeframes(1L)).thenReturn(Set.of());
+
+        StockHistoryResponse response =
+                historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY).orElseThrow();
+
+        assertThat(response.bars()).isEmpty();
+        assertThat(response.sourceTimeframe()).isNull();
+    }
+
+    @Test
+    void servesClosedBarsFromCacheAndOnlyQueriesRecentCandles() {
+        LocalDateTime openBucket = Timeframes.bucketStart(LocalDateTime.now(), HOUR);
+        when(candleArchiveService.findTimeframes(1L)).thenReturn(Set.of("5m"));
+        when(candleArchiveService.findCandles(eq(stock), eq("5m"), any(), any())).thenReturn(List.of(
+                candle(openBucket.minusHours(2), 10, 11, 9, 10, 1L),
+                candle(openBucket.minusHours(1), 10, 12, 10, 12, 1L)));
+        when(priceCandleRepository.findByStockIdAndTimeframeInRange(eq(1L), eq("5m"), any(), any()))
+                .thenReturn(List.of(candle(openBucket, 12, 13, 12, 13, 1L)));
+
+        StockHistoryResponse first =
+                historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY).orElseThrow();
+        StockHistoryResponse second =
+                historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY).orElseThrow();
+
+        assertThat(first.bars()).extracting(HistoryBar::timestamp)
+                .containsExactly(openBucket.minusHours(2), openBucket.minusHours(1), openBucket);
+        assertThat(second.bars()).isEqualTo(first.bars());
+        assertThat(second.sourceTimeframe()).isEqualTo("5m");
+        verify(candleArchiveService, times(1)).findCandles(any(), any(), any(), any());
+        verify(priceCandleRepository, times(2)).findByStockIdAndTimeframeInRange(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void extendsCachedHistoryWithBucketsThatClosedSinceItWasBuilt() {
+        LocalDateTime openBucket = Timeframes.bucketStart(LocalDateTime.now(), HOUR);
+        LocalDateTime staleBoundary = openBucket.minusHours(1);
+        LruTtlCache<HistoryService.HistoryKey, HistoryService.ClosedHistory> cache =
+                (LruTtlCache<HistoryService.HistoryKey, HistoryService.ClosedHistory>)
+                        ReflectionTestUtils.getField(historyService, "cache");
+        HistoryService.HistoryKey key =
+                new HistoryService.HistoryKey(1L, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+        cache.put(key, new HistoryService.ClosedHistory("5m", staleBoundary,
+                List.of(bar(openBucket.minusHours(2), 10, 11, 9, 10, 1))));
+        when(priceCandleRepository.findByStockIdAndTimeframeInRange(eq(1L), eq("5m"), eq(staleBoundary), any()))
+                .thenReturn(List.of(
+                        candle(staleBoundary, 10, 12, 10, 12, 1L),
+                        candle(openBucket, 12, 13, 12, 13, 1L)));
+
+        StockHistoryResponse response =
+                historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY).orElseThrow();
+
+        assertThat(response.bars()).extracting(HistoryBar::timestamp)
+                .containsExactly(openBucket.minusHours(2), staleBoundary, openBucket);
+        HistoryService.ClosedHistory extended = cache.get(key);
+        assertThat(extended.closedUntil()).isEqualTo(openBucket);
+        assertThat(extended.bars()).extracting(HistoryBar::timestamp)
+                .containsExactly(openBucket.minusHours(2), staleBoundary);
+    }
+
+    @Test
+    void extendDropsBarsThatFellOutOfThePeriod() {
+        LocalDateTime t0 = LocalDateTime.of(2025, 8, 1, 10, 0);
+        HistoryService.ClosedHistory closed = new HistoryService.ClosedHistory("5m", t0.plusHours(2),
+                List.of(bar(t0, 1, 1, 1, 1, 1), bar(t0.plusHours(1), 2, 2, 2, 2, 1)));
+
+        HistoryService.ClosedHistory extended =
+                closed.extend(List.of(bar(t0.plusHours(2), 3, 3, 3, 3, 1)), t0.plusHours(3), t0.plusHours(1));
+
+        assertThat(extended.timeframe()).isEqualTo("5m");
+        assertThat(extended.closedUntil()).isEqualTo(t0.plusHours(3));
+        assertThat(extended.bars()).extracting(HistoryBar::timestamp)
+                .containsExactly(t0.plusHours(1), t0.plusHours(2));
+        assertThat(closed.bars()).hasSize(2);
+    }
+
+    @Test
+    void stockChangeEventsEvictOnlyTheAffectedStocks() {
+        LocalDateTime openBucket = Timeframes.bucketStart(LocalDateTime.now(), HOUR);
+        Stock other = new Stock("BETA", "Beta Inc");
+        other.setId(2L);
+        when(candleArchiveService.findTimeframes(anyLong())).thenReturn(Set.of("5m"));
+        when(candleArchiveService.findCandles(any(), eq("5m"), any(), any()))
+                .thenReturn(List.of(candle(openBucket.minusHours(1), 10, 11, 9, 10, 1L)));
+
+        historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+        historyService.getHistory(other, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+        historyService.onStocksChanged(new StocksChangedEvent(List.of(1L)));
+        historyService.getHistory(stock, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+        historyService.getHistory(other, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+
+        verify(candleArchiveService, times(2)).findCandles(eq(stock), any(), any(), any());
+        verify(candleArchiveService, times(1)).findCandles(eq(other), any(), any(), any());
+
+        historyService.onStockDeleted(new StockDeletedEvent(List.of(2L)));
+        historyService.getHistory(other, HistoryPeriod.ONE_DAY, HistoryInterval.HOURLY);
+
+        verify(candleArchiveService, times(2)).findCandles(eq(other), any(), any(), any());
+    }
+
+    private PriceCandle candle(LocalDateTime timestamp, double open, double high, double low, double close,
+                               Long volume) {
+        PriceCandle candle = new PriceCandle(stock, timestamp, price(open), price(high), price(low), price(close));
+        candle.setTimeframe("5m");
+        candle.setVolume(volume);
+        return candle;
+    }
+
+    private static HistoryBar bar(LocalDateTime timestamp, double open, double high, double low, double close,
+                                  long volume) {
+        return new HistoryBar(timestamp, price(open), price(high), price(low), price(close), volume);
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(2);
+    }
+}
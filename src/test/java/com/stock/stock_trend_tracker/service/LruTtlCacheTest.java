@@ -0,0 +1,77 @@
+package com.stock.stock_trend_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruTtlCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, Duration.ofMillis(50));
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(80);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void replaceKeepsTheOriginalTtlWhilePutRestartsIt() throws InterruptedException {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, Duration.ofMillis(200));
+        cache.put("replaced", 1);
+        cache.put("put", 1);
+
+        Thread.sleep(120);
+        cache.replace("replaced", 2);
+        cache.put("put", 2);
+        Thread.sleep(120);
+
+        assertThat(cache.get("replaced")).isNull();
+        assertThat(cache.get("put")).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateAllDropsEverything() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void invalidateIfDropsOnlyMatchingKeys() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a1", 1);
+        cache.put("a2", 2);
+        cache.put("b1", 3);
+
+        cache.invalidateIf(key -> key.startsWith("a"));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("b1")).isEqualTo(3);
+    }
+}
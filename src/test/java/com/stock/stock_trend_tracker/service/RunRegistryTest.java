@@ -0,0 +1,32 @@
+package com.stock.stock_trend_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunRegistryTest {
+
+    @Test
+    void dropsOldestFinishedRunsBeyondTheLimitAndKeepsUnfinishedOnes() {
+        RunRegistry<AtomicBoolean> registry = new RunRegistry<>(2, AtomicBoolean::get);
+        AtomicBoolean first = new AtomicBoolean(false);
+        AtomicBoolean second = new AtomicBoolean(true);
+        AtomicBoolean third = new AtomicBoolean(false);
+        registry.add("a", first);
+        registry.add("b", second);
+        registry.add("c", third);
+
+        assertThat(registry.list()).containsExactly(first, third);
+        assertThat(registry.get("b")).isEmpty();
+
+        registry.add("d", new AtomicBoolean(false));
+        assertThat(registry.list()).hasSize(3);
+
+        first.set(true);
+        registry.evictFinished();
+        assertThat(registry.get("a")).isEmpty();
+        assertThat(registry.get("c")).contains(third);
+    }
+}
@@ -0,0 +1,29 @@
+package com.stock.stock_trend_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedPayloadTest {
+
+    @Test
+    void acceptsGzipWhenListedWithPositiveQuality() {
+        assertThat(SerializedPayload.acceptsGzip("gzip")).isTrue();
+        assertThat(SerializedPayload.acceptsGzip("deflate, GZIP;q=0.5, br")).isTrue();
+        assertThat(SerializedPayload.acceptsGzip("br;q=1.0, gzip; q=0.001")).isTrue();
+        assertThat(SerializedPayload.acceptsGzip("*")).isTrue();
+    }
+
+    @Test
+    void refusesGzipWhenAbsentOrQualityIsZero() {
+        assertThat(SerializedPayload.acceptsGzip(null)).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("")).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("identity, br")).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("gzip;q=0.000, deflate")).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("gzip;q=bogus")).isFalse();
+        // An explicit gzip entry overrides the wildcard
+        assertThat(SerializedPayload.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(SerializedPayload.acceptsGzip("*;q=0")).isFalse();
+    }
+}
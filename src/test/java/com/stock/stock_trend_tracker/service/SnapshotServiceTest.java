@@ -0,0 +1,181 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import com.stock.stock_trend_tracker.repository.PriceCandleRepository;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class SnapshotServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    private final StockRepository stockRepository = Mockito.mock(StockRepository.class);
+    private final PriceCandleRepository priceCandleRepository = Mockito.mock(PriceCandleRepository.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Stock stock = new Stock("ACME", "Acme Corp");
+    private SnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        stock.setId(1L);
+        stock.setExchange("NYSE");
+        when(stockRepository.findAllById(any())).thenReturn(List.of(stock));
+        when(stockRepository.findById(1L)).thenReturn(Optional.of(stock));
+        when(stockRepository.findById(2L)).thenReturn(Optional.empty());
+
+        snapshotService = new SnapshotService();
+        ReflectionTestUtils.setField(snapshotService, "stockRepository", stockRepository);
+        ReflectionTestUtils.setField(snapshotService, "priceCandleRepository", priceCandleRepository);
+        // Tally seeds return no rows: the ticks' own candles are all the service knows about
+        ReflectionTestUtils.setField(snapshotService, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(snapshotService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(snapshotService, "compressionThreshold", DataSize.ofKilobytes(2));
+    }
+
+    @Test
+    void serializesLatestCandleAndStatsOnTick() throws IOException {
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.50")), T0));
+
+        SerializedPayload latest = snapshotService.getLatestCandle(1L).orElseThrow();
+        assertThat(latest.gzip()).isNull();
+        JsonNode candle = objectMapper.readTree(latest.json());
+        assertThat(candle.get("stockId").asLong()).isEqualTo(1L);
+        assertThat(candle.get("symbol").asText()).isEqualTo("ACME");
+        assertThat(candle.get("timestamp").asText()).isEqualTo("2024-03-04T10:00:00");
+        assertThat(candle.get("closePrice").decimalValue()).isEqualByComparingTo("10.50");
+        assertThat(candle.get("timeframe").asText()).isEqualTo("5m");
+        assertThat(candle.has("id")).isTrue();
+        assertThat(candle.has("createdAt")).isTrue();
+
+        JsonNode stats = objectMapper.readTree(snapshotService.getStats(1L).orElseThrow().json());
+        assertThat(stats.get("symbol").asText()).isEqualTo("ACME");
+        assertThat(stats.get("exchange").asText()).isEqualTo("NYSE");
+        assertThat(stats.get("availableTimeframes").get(0).asText()).isEqualTo("5m");
+    }
+
+    @Test
+    void gzipsPayloadsAtOrAboveTheCompressionThreshold() throws IOException {
+        ReflectionTestUtils.setField(snapshotService, "compressionThreshold", DataSize.ofBytes(1));
+
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.50")), T0));
+
+        SerializedPayload latest = snapshotService.getLatestCandle(1L).orElseThrow();
+        assertThat(latest.gzip()).isNotNull();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(latest.gzip()))) {
+            assertThat(Arrays.equals(gzip.readAllBytes(), latest.json())).isTrue();
+        }
+    }
+
+    @Test
+    void keepsTheNewerSnapshotWhenRefreshesFinishOutOfOrder() throws IOException {
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0.plusMinutes(5), "11.00")), T0));
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.00")), T0));
+
+        assertThat(closeOf(snapshotService.getLatestCandle(1L).orElseThrow())).isEqualByComparingTo("11.00");
+    }
+
+    @Test
+    void evictedSnapshotsAreRebuiltFromTheDatabase() throws IOException {
+        when(priceCandleRepository.findTopByStockOrderByTimestampDesc(stock))
+                .thenReturn(Optional.of(candle(T0.plusDays(1), "12.00")));
+        when(priceCandleRepository.countByStock(stock)).thenReturn(7L);
+        when(priceCandleRepository.findDistinctTimeframesByStockId(1L)).thenReturn(Arrays.asList("5m", null, "1d"));
+
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.00")), T0));
+        snapshotService.evict(1L);
+        assertThat(closeOf(snapshotService.getLatestCandle(1L).orElseThrow())).isEqualByComparingTo("12.00");
+        JsonNode stats = objectMapper.readTree(snapshotService.getStats(1L).orElseThrow().json());
+        assertThat(stats.get("totalCandles").asLong()).isEqualTo(7L);
+        assertThat(stats.get("availableTimeframes").toString()).isEqualTo("[\"1d\",\"5m\"]");
+
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0.plusDays(2), "13.00")), T0));
+        snapshotService.onStocksChanged(new StocksChangedEvent(List.of(1L)));
+        assertThat(closeOf(snapshotService.getLatestCandle(1L).orElseThrow())).isEqualByComparingTo("12.00");
+
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0.plusDays(2), "13.00")), T0));
+        snapshotService.evictAll();
+        assertThat(closeOf(snapshotService.getLatestCandle(1L).orElseThrow())).isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    void refreshOverlappingAnEvictionDoesNotStoreItsStaleSnapshot() throws IOException {
+        when(priceCandleRepository.findTopByStockOrderByTimestampDesc(stock))
+                .thenReturn(Optional.of(candle(T0.plusDays(1), "12.00")));
+        when(priceCandleRepository.findDistinctTimeframesByStockId(1L)).thenReturn(List.of("5m"));
+        // The stock changes while the tick's refresh holds the rows it loaded before the change
+        when(stockRepository.findAllById(any())).thenAnswer(invocation -> {
+            snapshotService.onStocksChanged(new StocksChangedEvent(List.of(1L)));
+            return List.of(stock);
+        });
+
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.00")), T0));
+
+        assertThat(closeOf(snapshotService.getLatestCandle(1L).orElseThrow())).isEqualByComparingTo("12.00");
+        Mockito.verify(priceCandleRepository).findTopByStockOrderByTimestampDesc(stock);
+    }
+
+    @Test
+    void countsEachTickedCandleOnceWithoutQueryingCounts() throws IOException {
+        PriceCandle daily = candle(T0, "10.00");
+        daily.setTimeframe("1d");
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0, "10.00"), daily), T0));
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0.plusMinutes(5), "11.00")), T0));
+        // The same slot ingested again overwrites its candle
+        snapshotService.onPriceTick(new PriceTickEvent(List.of(candle(T0.plusMinutes(5), "11.50")), T0));
+
+        JsonNode stats = objectMapper.readTree(snapshotService.getStats(1L).orElseThrow().json());
+        assertThat(stats.get("totalCandles").asLong()).isEqualTo(3L);
+        assertThat(stats.get("availableTimeframes").toString()).isEqualTo("[\"1d\",\"5m\"]");
+        Mockito.verify(priceCandleRepository, Mockito.never()).countByStock(any());
+    }
+
+    @Test
+    void unknownStocksAndStocksWithoutCandlesHaveNoLatestCandle() {
+        when(priceCandleRepository.findTopByStockOrderByTimestampDesc(stock)).thenReturn(Optional.empty());
+        when(priceCandleRepository.findDistinctTimeframesByStockId(1L)).thenReturn(List.of());
+
+        assertThat(snapshotService.getLatestCandle(2L)).isEmpty();
+        assertThat(snapshotService.getStats(2L)).isEmpty();
+        assertThat(snapshotService.getLatestCandle(1L)).isEmpty();
+        assertThat(snapshotService.getStats(1L)).isPresent();
+    }
+
+    private BigDecimal closeOf(SerializedPayload payload) throws IOException {
+        return objectMapper.readTree(payload.json()).get("closePrice").decimalValue();
+    }
+
+    private PriceCandle candle(LocalDateTime timestamp, String close) {
+        BigDecimal price = new BigDecimal(close);
+        PriceCandle candle = new PriceCandle(stock, timestamp, price, price, price, price);
+        candle.setTimeframe("5m");
+        candle.setVolume(100L);
+        return candle;
+    }
+}
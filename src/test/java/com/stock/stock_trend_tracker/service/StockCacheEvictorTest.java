@@ -0,0 +1,87 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows are changed with JDBC, as another node's write looks to this node's caches, and the change event is
+ * then published as the cluster event bus replays it
+ */
+@DataJpaTest
+@Import(StockCacheEvictor.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockCacheEvictorTest {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM stocks WHERE symbol IN ('CACHEUPD', 'CACHENEW', 'CACHEDEL')");
+    }
+
+    @Test
+    void updatedStockIsReloadedAfterChangeEvent() {
+        Long id = save("CACHEUPD", "Before Inc");
+        assertThat(stockRepository.findById(id).orElseThrow().getName()).isEqualTo("Before Inc");
+
+        jdbcTemplate.update("UPDATE stocks SET name = 'After Inc' WHERE id = ?", id);
+        assertThat(stockRepository.findById(id).orElseThrow().getName()).as("served from the cache")
+                .isEqualTo("Before Inc");
+
+        eventPublisher.publishEvent(new StocksChangedEvent(List.of(id)));
+
+        assertThat(stockRepository.findById(id).orElseThrow().getName()).isEqualTo("After Inc");
+    }
+
+    @Test
+    void createdStockReplacesCachedMissesAfterChangeEvent() {
+        assertThat(stockRepository.findBySymbol("CACHENEW")).isEmpty();
+        assertThat(stockRepository.findAllDistinctExchanges()).doesNotContain("CACHEX");
+
+        jdbcTemplate.update("INSERT INTO stocks (symbol, name, exchange) VALUES ('CACHENEW', 'New Inc', 'CACHEX')");
+        assertThat(stockRepository.findBySymbol("CACHENEW")).as("cached miss").isEmpty();
+
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM stocks WHERE symbol = 'CACHENEW'", Long.class);
+        eventPublisher.publishEvent(new StocksChangedEvent(List.of(id)));
+
+        assertThat(stockRepository.findBySymbol("CACHENEW")).map(Stock::getId).contains(id);
+        assertThat(stockRepository.findAllDistinctExchanges()).contains("CACHEX");
+    }
+
+    @Test
+    void deletedStockIsGoneAfterDeleteEvent() {
+        Long id = save("CACHEDEL", "Deleted Inc");
+        assertThat(stockRepository.findById(id)).isPresent();
+
+        jdbcTemplate.update("DELETE FROM stocks WHERE id = ?", id);
+        assertThat(stockRepository.findById(id)).as("served from the cache").isPresent();
+
+        eventPublisher.publishEvent(new StockDeletedEvent(List.of(id)));
+
+        assertThat(stockRepository.findById(id)).isEmpty();
+    }
+
+    private Long save(String symbol, String name) {
+        return stockRepository.saveAndFlush(new Stock(symbol, name)).getId();
+    }
+}
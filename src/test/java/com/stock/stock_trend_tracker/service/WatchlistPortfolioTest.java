@@ -0,0 +1,82 @@
+package com.stock.stock_trend_tracker.service;
+
+import com.stock.stock_trend_tracker.dto.WatchlistSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WatchlistPortfolioTest {
+
+    private static final LocalDateTime DAY1 = LocalDateTime.of(2024, 3, 4, 15, 55);
+    private static final LocalDateTime DAY2 = DAY1.plusDays(1).withHour(10);
+
+    @Test
+    void closesOnlyTouchWatchlistsHoldingTheStock() {
+        WatchlistPortfolio portfolio = new WatchlistPortfolio();
+        portfolio.addMember(1, 10, "AAA", 100.0);
+        portfolio.addMember(1, 20, "BBB", 50.0);
+        portfolio.addMember(2, 20, "BBB", 40.0);
+
+        assertThat(portfolio.onClose(10, null, DAY1, 110)).containsExactly(1L);
+        assertThat(portfolio.onClose(20, null, DAY1, 45)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(portfolio.onClose(30, "CCC", DAY1, 1)).isEmpty();
+
+        WatchlistSnapshot first = portfolio.snapshot(1);
+        assertThat(first.members()).isEqualTo(2);
+        assertThat(first.membersPriced()).isEqualTo(2);
+        // (0.10 + -0.10) / 2
+        assertThat(first.equalWeightReturn()).isCloseTo(0.0, within(1e-9));
+        assertThat(first.best().symbol()).isEqualTo("AAA");
+        assertThat(first.worst().symbol()).isEqualTo("BBB");
+        assertThat(first.dayChange()).isNull();
+        assertThat(portfolio.snapshot(2).equalWeightReturn()).isCloseTo(0.125, within(1e-9));
+    }
+
+    @Test
+    void dayChangeUsesPreviousSessionCloseAndBestIsRescannedWhenItFalls() {
+        WatchlistPortfolio portfolio = new WatchlistPortfolio();
+        portfolio.addMember(1, 10, "AAA", 100.0);
+        portfolio.addMember(1, 20, "BBB", 100.0);
+        portfolio.addMember(1, 30, "CCC", null);
+        portfolio.onClose(10, null, DAY1, 120);
+        portfolio.onClose(20, null, DAY1, 110);
+        portfolio.onClose(30, null, DAY1, 10);
+
+        portfolio.onClose(10, null, DAY2, 90);
+        portfolio.onClose(30, null, DAY2, 11);
+
+        WatchlistSnapshot snapshot = portfolio.snapshot(1);
+        assertThat(snapshot.membersPriced()).isEqualTo(2);
+        assertThat(snapshot.best().stockId()).isEqualTo(20L);
+        assertThat(snapshot.worst().stockId()).isEqualTo(10L);
+        // AAA 90/120 - 1 = -0.25 and CCC 11/10 - 1 = 0.10; BBB has not ticked today
+        assertThat(snapshot.dayChange()).isCloseTo(-0.075, within(1e-9));
+        assertThat(snapshot.asOf()).isEqualTo(DAY2);
+
+        portfolio.removeMember(1, 20);
+        assertThat(portfolio.snapshot(1).best().stockId()).isEqualTo(10L);
+        assertThat(portfolio.holds(20)).isFalse();
+        portfolio.removeWatchlist(1);
+        assertThat(portfolio.snapshot(1).members()).isZero();
+        assertThat(portfolio.holds(10)).isFalse();
+    }
+
+    @Test
+    void deletedStocksLeaveEveryWatchlist() {
+        WatchlistPortfolio portfolio = new WatchlistPortfolio();
+        portfolio.addMember(1, 10, "AAA", 100.0);
+        portfolio.addMember(1, 20, "BBB", 50.0);
+        portfolio.addMember(2, 20, "BBB", 40.0);
+        portfolio.onClose(20, null, DAY1, 45);
+
+        assertThat(portfolio.removeStock(20)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(portfolio.removeStock(20)).isEmpty();
+        assertThat(portfolio.holds(20)).isFalse();
+        assertThat(portfolio.members(1)).containsExactly(10L);
+        assertThat(portfolio.snapshot(1).membersPriced()).isZero();
+        assertThat(portfolio.snapshot(2).members()).isZero();
+    }
+}
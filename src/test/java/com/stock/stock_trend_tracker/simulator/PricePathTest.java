@@ -0,0 +1,42 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PricePathTest {
+
+    private static final double FIVE_MINUTES_IN_YEARS = 5.0 / (390 * 252);
+
+    @Test
+    void sameSeedProducesSameBars() {
+        PricePath first = new PricePath(new SplittableRandom(7).split());
+        PricePath second = new PricePath(new SplittableRandom(7).split());
+
+        for (int i = 0; i < 10_000; i++) {
+            first.next(FIVE_MINUTES_IN_YEARS, 1.0 / 78);
+            second.next(FIVE_MINUTES_IN_YEARS, 1.0 / 78);
+            assertThat(new long[] {second.open, second.high, second.low, second.close, second.volume})
+                    .containsExactly(first.open, first.high, first.low, first.close, first.volume);
+        }
+    }
+
+    @Test
+    void barsAreConsistentOhlcv() {
+        PricePath path = new PricePath(new SplittableRandom(11));
+        long previousClose = -1;
+
+        for (int i = 0; i < 50_000; i++) {
+            path.next(FIVE_MINUTES_IN_YEARS, 1.0 / 78);
+            assertThat(path.high).isGreaterThanOrEqualTo(Math.max(path.open, path.close));
+            assertThat(path.low).isLessThanOrEqualTo(Math.min(path.open, path.close)).isPositive();
+            assertThat(path.volume).isPositive();
+            if (previousClose > 0) {
+                assertThat(Math.abs(path.open - previousClose)).isLessThanOrEqualTo(1);
+            }
+            previousClose = path.close;
+        }
+    }
+}
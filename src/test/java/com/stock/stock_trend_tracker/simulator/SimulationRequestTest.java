@@ -0,0 +1,19 @@
+package com.stock.stock_trend_tracker.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulationRequestTest {
+
+    @Test
+    void missingFieldsFallBackToDefaults() {
+        SimulationRequest request = new SimulationRequest(null, null, null, null, null, null, null).withDefaults();
+
+        assertThat(request.symbols()).isEqualTo(100);
+        assertThat(request.symbolPrefix()).isEqualTo("SIM");
+        assertThat(request.days()).isEqualTo(365);
+        assertThat(request.timeframe()).isEqualTo("5m");
+        assertThat(request.seed()).isEqualTo(42L);
+    }
+}
@@ -0,0 +1,118 @@
+package com.stock.stock_trend_tracker.sketch;
+
+import com.stock.stock_trend_tracker.domain.PriceCandle;
+import com.stock.stock_trend_tracker.domain.SketchMetric;
+import com.stock.stock_trend_tracker.domain.Stock;
+import com.stock.stock_trend_tracker.dto.QuantileResponse;
+import com.stock.stock_trend_tracker.jobs.PriceTickEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(CandleSketchService.class)
+class CandleSketchServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Autowired
+    private CandleSketchService candleSketchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void foldsEachTickIntoTheDaysExistingSketches() {
+        Stock stock = stock("FOLD");
+
+        candleSketchService.fold(tick(candle(stock, DAY.atTime(10, 0), 10, 100L),
+                candle(stock, DAY.atTime(10, 5), 20, null)));
+        candleSketchService.fold(tick(candle(stock, DAY.atTime(10, 10), 30, 300L),
+                candle(stock, DAY.plusDays(1).atTime(10, 0), 40, 400L)));
+
+        QuantileResponse closes = quantiles(stock, SketchMetric.CLOSE, DAY, DAY);
+        assertThat(closes.days()).isEqualTo(1);
+        assertThat(closes.count()).isEqualTo(3);
+        assertThat(closes.min()).isEqualTo(10.0);
+        assertThat(closes.max()).isEqualTo(30.0);
+        // A candle without volume adds nothing to the volume sketch
+        assertThat(quantiles(stock, SketchMetric.VOLUME, DAY, DAY).count()).isEqualTo(2);
+        assertThat(quantiles(stock, SketchMetric.CLOSE, DAY, DAY.plusDays(1)).days()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildReplacesFoldedSketchesWithTheStoredCandles() {
+        Stock stock = stock("REBUILD");
+        for (int i = 0; i < 4; i++) {
+            entityManager.persist(candle(stock, DAY.atTime(10, 0).plusMinutes(5L * i), 10 + i, 100L));
+        }
+        entityManager.flush();
+        // Folded sketches that disagree with the table: one candle never reached it, one day is already archived
+        candleSketchService.fold(tick(candle(stock, DAY.atTime(9, 0), 99, 100L),
+                candle(stock, DAY.plusDays(1).atTime(9, 0), 50, 100L)));
+
+        long written = candleSketchService.rebuild(DAY, DAY.plusDays(1));
+
+        assertThat(written).isEqualTo(SketchMetric.values().length);
+        QuantileResponse closes = quantiles(stock, SketchMetric.CLOSE, DAY, DAY);
+        assertThat(closes.count()).isEqualTo(4);
+        assertThat(closes.min()).isEqualTo(10.0);
+        assertThat(closes.max()).isEqualTo(13.0);
+        assertThat(quantiles(stock, SketchMetric.CLOSE, DAY.plusDays(1), DAY.plusDays(1)).count()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsCandlesThatAreAlreadyFoldedOrRebuilt() {
+        Stock stock = stock("REFOLD");
+        PriceCandle stored = candle(stock, DAY.atTime(10, 0), 10, 100L);
+        entityManager.persist(stored);
+        entityManager.flush();
+
+        // Slot ingested again after a failure or shard handover
+        candleSketchService.fold(tick(candle(stock, DAY.atTime(9, 55), 5, 100L)));
+        candleSketchService.fold(tick(candle(stock, DAY.atTime(9, 55), 5, 100L)));
+        assertThat(quantiles(stock, SketchMetric.CLOSE, DAY, DAY).count()).isEqualTo(1);
+
+        candleSketchService.rebuild(DAY, DAY);
+        candleSketchService.fold(tick(stored));
+        assertThat(quantiles(stock, SketchMetric.CLOSE, DAY, DAY).count()).isEqualTo(1);
+
+        candleSketchService.fold(tick(stored, candle(stock, DAY.atTime(10, 5), 20, 100L)));
+        QuantileResponse closes = quantiles(stock, SketchMetric.CLOSE, DAY, DAY);
+        assertThat(closes.count()).isEqualTo(2);
+        assertThat(closes.max()).isEqualTo(20.0);
+    }
+
+    private QuantileResponse quantiles(Stock stock, SketchMetric metric, LocalDate startDate, LocalDate endDate) {
+        return candleSketchService.quantiles(stock, "5m", metric, false, startDate, endDate, List.of(0.5))
+                .orElseThrow();
+    }
+
+    private Stock stock(String symbol) {
+        Stock stock = new Stock(symbol, symbol + " Inc");
+        entityManager.persist(stock);
+        return stock;
+    }
+
+    private static PriceTickEvent tick(PriceCandle... candles) {
+        return new PriceTickEvent(List.of(candles), LocalDateTime.now());
+    }
+
+    private static PriceCandle candle(Stock stock, LocalDateTime timestamp, double close, Long volume) {
+        BigDecimal price = BigDecimal.valueOf(close);
+        PriceCandle candle = new PriceCandle(stock, timestamp, price, price.add(BigDecimal.ONE),
+                price.subtract(BigDecimal.ONE), price);
+        candle.setTimeframe("5m");
+        candle.setVolume(volume);
+        return candle;
+    }
+}
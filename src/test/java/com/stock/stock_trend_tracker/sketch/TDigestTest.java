@@ -0,0 +1,82 @@
+package com.stock.stock_trend_tracker.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TDigestTest {
+
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    @Test
+    void estimatesQuantilesOfSkewedDataWithinRankErrorBound() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, like traded volumes
+            values[i] = Math.exp(random.nextGaussian() * 1.5 + 8);
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(digest.count()).isEqualTo(values.length);
+        assertThat(digest.min()).isEqualTo(values[0]);
+        assertThat(digest.max()).isEqualTo(values[values.length - 1]);
+        for (double q : QUANTILES) {
+            assertThat(rank(values, digest.quantile(q))).as("rank of p%s", q * 100).isCloseTo(q, within(0.005));
+        }
+    }
+
+    @Test
+    void mergedDailyDigestsMatchOneDigestOfTheWholeRange() {
+        SplittableRandom random = new SplittableRandom(7);
+        TDigest whole = new TDigest(100);
+        TDigest merged = new TDigest(100);
+        double[] values = new double[90 * 288];
+        for (int day = 0; day < 90; day++) {
+            TDigest daily = new TDigest(100);
+            for (int bar = 0; bar < 288; bar++) {
+                double value = 100 + day * 0.5 + random.nextGaussian();
+                values[day * 288 + bar] = value;
+                daily.add(value);
+                whole.add(value);
+            }
+            // Round-trip through storage like the persisted per-day sketches
+            merged.merge(TDigest.fromBytes(daily.toBytes()));
+        }
+        Arrays.sort(values);
+
+        assertThat(merged.count()).isEqualTo(whole.count());
+        assertThat(merged.sum()).isCloseTo(whole.sum(), within(1e-6));
+        for (double q : QUANTILES) {
+            assertThat(rank(values, merged.quantile(q))).as("rank of p%s", q * 100).isCloseTo(q, within(0.01));
+        }
+    }
+
+    @Test
+    void handlesSmallAndEmptyDigests() {
+        TDigest digest = new TDigest(100);
+        assertThat(digest.quantile(0.5)).isNaN();
+
+        digest.add(5);
+        assertThat(digest.quantile(0.9)).isEqualTo(5);
+
+        for (int i = 1; i <= 4; i++) {
+            digest.add(i);
+        }
+        assertThat(digest.quantile(0)).isEqualTo(1);
+        assertThat(digest.quantile(0.5)).isEqualTo(3);
+        assertThat(digest.quantile(1)).isEqualTo(5);
+        assertThat(TDigest.fromBytes(digest.toBytes()).quantile(0.5)).isEqualTo(3);
+    }
+
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+}
@@ -0,0 +1,76 @@
+package com.stock.stock_trend_tracker.web;
+
+import com.stock.stock_trend_tracker.service.SerializedPayload;
+import com.stock.stock_trend_tracker.service.SnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StockControllerSnapshotTest {
+
+    private static final byte[] JSON = "{\"symbol\":\"ACME\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GZIP = {0x1f, (byte) 0x8b, 1, 2, 3};
+
+    private final SnapshotService snapshotService = Mockito.mock(SnapshotService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        StockController controller = new StockController();
+        ReflectionTestUtils.setField(controller, "snapshotService", snapshotService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(snapshotService.getLatestCandle(1L)).thenReturn(Optional.of(new SerializedPayload(JSON, GZIP)));
+        when(snapshotService.getStats(1L)).thenReturn(Optional.of(new SerializedPayload(JSON, null)));
+        when(snapshotService.getLatestCandle(2L)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void servesGzippedBytesWhenTheClientAcceptsGzip() throws Exception {
+        mockMvc.perform(get("/api/stocks/1/candles/latest").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(GZIP));
+    }
+
+    @Test
+    void servesPlainJsonWhenGzipIsRefusedOrAbsent() throws Exception {
+        for (String acceptEncoding : new String[] {"gzip;q=0", "identity", "*;q=1, gzip;q=0.0"}) {
+            mockMvc.perform(get("/api/stocks/1/candles/latest").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                    .andExpect(content().bytes(JSON));
+        }
+        mockMvc.perform(get("/api/stocks/1/candles/latest"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(JSON));
+    }
+
+    @Test
+    void servesPlainJsonWhenThePayloadIsBelowTheCompressionThreshold() throws Exception {
+        mockMvc.perform(get("/api/stocks/1/stats").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(JSON));
+    }
+
+    @Test
+    void returnsNotFoundForUnknownStock() throws Exception {
+        mockMvc.perform(get("/api/stocks/2/candles/latest").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isNotFound());
+    }
+}